@@ -0,0 +1,65 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON de uma lista de {@link ProcedimentoDTO}, como na resposta de {@code GET /procedimentos}.
+ * <p>
+ * O mapper é montado como o do Spring Boot (módulos de data e datas em ISO-8601).
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoProcedimentoBenchmark {
+
+    @Param({"50", "500"})
+    private int quantidade;
+
+    private ObjectWriter writer;
+    private List<ProcedimentoDTO> procedimentos;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(new TypeReference<List<ProcedimentoDTO>>() {
+                });
+
+        procedimentos = new ArrayList<>(quantidade);
+        for (long i = 1; i <= quantidade; i++) {
+            procedimentos.add(new ProcedimentoDTO(i, "Limpeza", LocalDate.of(2024, 1, 1).plusDays(i % 365),
+                    150.0 + i, i % 10 == 0, i % 10 == 0 ? 0.6 : 0.0, i % 10 == 0 ? "FREQUENCIA_PACIENTE" : null,
+                    i % 97, i % 13, null, null));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws JsonProcessingException {
+        return writer.writeValueAsBytes(procedimentos);
+    }
+}
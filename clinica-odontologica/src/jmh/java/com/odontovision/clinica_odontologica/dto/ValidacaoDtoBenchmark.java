@@ -0,0 +1,80 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation de {@link PacienteDTO} (padrão de CPF) e {@link DentistaDTO} (padrão de CRO),
+ * executada em cada {@code POST}/{@code PUT} com {@code @Valid}.
+ * <p>
+ * Mede o caso válido e o inválido, em que a mensagem da violação também é interpolada.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacaoDtoBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    private PacienteDTO pacienteValido;
+    private PacienteDTO pacienteCpfInvalido;
+    private DentistaDTO dentistaValido;
+    private DentistaDTO dentistaCroInvalido;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        pacienteValido = new PacienteDTO(null, "Maria Souza", "123.456.789-00", 34, "Plano Ouro", true, null, null);
+        pacienteCpfInvalido = new PacienteDTO(null, "Maria Souza", "12345678900", 34, "Plano Ouro", true, null, null);
+        dentistaValido = new DentistaDTO(null, "Dr. Carlos Lima", "CRO12345", null, null);
+        dentistaCroInvalido = new DentistaDTO(null, "Dr. Carlos Lima", "CRO-12345", null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PacienteDTO>> validarPaciente() {
+        return validator.validate(pacienteValido);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PacienteDTO>> validarPacienteCpfInvalido() {
+        return validator.validate(pacienteCpfInvalido);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<DentistaDTO>> validarDentista() {
+        return validator.validate(dentistaValido);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<DentistaDTO>> validarDentistaCroInvalido() {
+        return validator.validate(dentistaCroInvalido);
+    }
+}
@@ -0,0 +1,69 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por chamada das conversões entre {@link Procedimento} e {@link ProcedimentoDTO}
+ * feitas por {@link ProcedimentoService} em cada requisição.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoProcedimentoBenchmark {
+
+    private ProcedimentoService procedimentoService;
+    private Procedimento procedimento;
+    private ProcedimentoDTO procedimentoDTO;
+
+    @Setup
+    public void setUp() {
+        procedimentoService = new ProcedimentoService(null, new ReferenciaResolverEmMemoria(), null, null, null, null);
+
+        Paciente paciente = new Paciente();
+        paciente.setId(42L);
+        Dentista dentista = new Dentista();
+        dentista.setId(7L);
+
+        procedimento = new Procedimento();
+        procedimento.setId(1L);
+        procedimento.setTipoProcedimento("Tratamento de Canal");
+        procedimento.setDataProcedimento(LocalDate.of(2024, 5, 20));
+        procedimento.setCusto(1250.0);
+        procedimento.setScoreFraude(0.6);
+        procedimento.setRegrasFraude("FREQUENCIA_PACIENTE");
+        procedimento.setRiscoFraude(true);
+        procedimento.setPaciente(paciente);
+        procedimento.setDentista(dentista);
+
+        procedimentoDTO = procedimentoService.convertToDTO(procedimento);
+    }
+
+    @Benchmark
+    public ProcedimentoDTO convertToDTO() {
+        return procedimentoService.convertToDTO(procedimento);
+    }
+
+    @Benchmark
+    public Procedimento convertToEntity() {
+        return procedimentoService.convertToEntity(procedimentoDTO);
+    }
+}
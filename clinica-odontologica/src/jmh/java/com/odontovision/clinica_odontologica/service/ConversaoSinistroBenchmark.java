@@ -0,0 +1,70 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.dto.SinistroDTO;
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.model.Sinistro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por chamada das conversões entre {@link Sinistro} e {@link SinistroDTO} de {@link SinistroService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoSinistroBenchmark {
+
+    private SinistroService sinistroService;
+    private Sinistro sinistro;
+    private SinistroDTO sinistroDTO;
+
+    @Setup
+    public void setUp() {
+        sinistroService = new SinistroService(null, new ReferenciaResolverEmMemoria(), null, null);
+
+        Paciente paciente = new Paciente();
+        paciente.setId(42L);
+        Dentista dentista = new Dentista();
+        dentista.setId(7L);
+        Procedimento procedimento = new Procedimento();
+        procedimento.setId(1L);
+
+        sinistro = new Sinistro();
+        sinistro.setId(3L);
+        sinistro.setTipoSinistro("Suspeita de Fraude");
+        sinistro.setDescricao("Procedimento cobrado duas vezes na mesma semana.");
+        sinistro.setDataSinistro(LocalDate.of(2024, 5, 21));
+        sinistro.setRiscoFraude(true);
+        sinistro.setProcedimento(procedimento);
+        sinistro.setDentista(dentista);
+        sinistro.setPaciente(paciente);
+
+        sinistroDTO = sinistroService.convertToDTO(sinistro);
+    }
+
+    @Benchmark
+    public SinistroDTO convertToDTO() {
+        return sinistroService.convertToDTO(sinistro);
+    }
+
+    @Benchmark
+    public Sinistro convertToEntity() {
+        return sinistroService.convertToEntity(sinistroDTO);
+    }
+}
@@ -0,0 +1,41 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+
+/**
+ * {@link ReferenciaResolver} sem banco para os benchmarks: toda referência existe e é
+ * representada por uma entidade nova contendo apenas o ID, como um proxy não inicializado.
+ */
+class ReferenciaResolverEmMemoria extends ReferenciaResolver {
+
+    ReferenciaResolverEmMemoria() {
+        super(null, null, null, null);
+    }
+
+    @Override
+    public void verificarExistencia(Long pacienteId, Long dentistaId, Long procedimentoId) {
+    }
+
+    @Override
+    public Paciente paciente(Long id) {
+        Paciente paciente = new Paciente();
+        paciente.setId(id);
+        return paciente;
+    }
+
+    @Override
+    public Dentista dentista(Long id) {
+        Dentista dentista = new Dentista();
+        dentista.setId(id);
+        return dentista;
+    }
+
+    @Override
+    public Procedimento procedimento(Long id) {
+        Procedimento procedimento = new Procedimento();
+        procedimento.setId(id);
+        return procedimento;
+    }
+}
@@ -0,0 +1,89 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.ClinicaOdontologicaApplication;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de {@link PacienteService#listarTodos()} na transação somente leitura declarada no serviço,
+ * comparado à mesma leitura dentro de uma transação de escrita, na qual o Hibernate guarda uma cópia
+ * de cada entidade carregada e as compara no flush do commit.
+ * <p>
+ * Sobe a aplicação com o perfil {@code test} (H2 em memória) e cadastra {@code pacientes} registros.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransacaoLeituraBenchmark {
+
+    @Param({"100", "2000"})
+    public int pacientes;
+
+    private ConfigurableApplicationContext contexto;
+    private PacienteService pacienteService;
+    private TransactionTemplate transacaoEscrita;
+
+    @Setup
+    public void setUp() {
+        contexto = new SpringApplicationBuilder(ClinicaOdontologicaApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("clinica.agendamento.habilitado=false", "logging.level.root=warn")
+                .run();
+        pacienteService = contexto.getBean(PacienteService.class);
+        transacaoEscrita = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        List<Paciente> novos = new ArrayList<>();
+        for (int i = 0; i < pacientes; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setNome("Paciente Benchmark " + i);
+            paciente.setCpf(String.format("%03d.%03d.000-00", i / 1000, i % 1000));
+            paciente.setIdade(20 + i % 60);
+            paciente.setPlanoOdontologico(i % 2 == 0 ? "Plano Ouro" : "Plano Prata");
+            paciente.setAtivo(true);
+            novos.add(paciente);
+        }
+        contexto.getBean(PacienteRepository.class).saveAll(novos);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<PacienteDTO> somenteLeitura() {
+        return pacienteService.listarTodos();
+    }
+
+    @Benchmark
+    public List<PacienteDTO> leituraEmTransacaoDeEscrita() {
+        return transacaoEscrita.execute(status -> pacienteService.listarTodos());
+    }
+}
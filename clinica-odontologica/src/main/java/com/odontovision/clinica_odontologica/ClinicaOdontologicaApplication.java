@@ -3,6 +3,7 @@ package com.odontovision.clinica_odontologica;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 
 /**
  * Classe principal da aplicação da clínica odontológica.
@@ -11,9 +12,14 @@ import org.springframework.cache.annotation.EnableCaching;
  * A anotação {@link SpringBootApplication} configura automaticamente a aplicação,
  * enquanto {@link EnableCaching} habilita o uso de cache na aplicação.
  * </p>
+ * <p>
+ * O cache é aplicado antes da transação: um acerto não abre transação nem obtém conexão.
+ * As remoções de {@code @CacheEvict} acontecem depois do commit, garantido pelo gerenciador de
+ * cache ({@link com.odontovision.clinica_odontologica.config.CacheConfig}).
+ * </p>
  */
 @SpringBootApplication
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class ClinicaOdontologicaApplication {
 
 	/**
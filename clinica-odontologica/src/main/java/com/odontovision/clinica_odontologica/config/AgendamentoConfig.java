@@ -0,0 +1,18 @@
+package com.odontovision.clinica_odontologica.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas ({@code @Scheduled}), como a atualização dos resumos diários.
+ * <p>
+ * Pode ser desligado com {@code clinica.agendamento.habilitado=false}, por exemplo em instâncias
+ * que só atendem requisições.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+@ConditionalOnProperty(name = "clinica.agendamento.habilitado", havingValue = "true", matchIfMissing = true)
+public class AgendamentoConfig {
+}
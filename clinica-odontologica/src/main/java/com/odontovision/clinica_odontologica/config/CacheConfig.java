@@ -0,0 +1,38 @@
+package com.odontovision.clinica_odontologica.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Caches de DTOs por ID ({@code pacientes} e {@code dentistas}), no Caffeine, configurados por
+ * {@code spring.cache.cache-names} e {@code spring.cache.caffeine.spec}.
+ * <p>
+ * O gerenciador fica atrás de um {@link TransactionAwareCacheManagerProxy}: dentro de uma transação,
+ * as remoções de {@code @CacheEvict} (e as inclusões) só são aplicadas depois do commit, qualquer que
+ * seja a ordem entre o interceptor de cache e o de transação ou a transação externa em que o método
+ * é chamado. Removida antes do commit, a entrada poderia ser recolocada por uma busca concorrente
+ * com a linha ainda antiga.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties propriedades) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        if (StringUtils.hasText(propriedades.getCaffeine().getSpec())) {
+            caffeine.setCacheSpecification(propriedades.getCaffeine().getSpec());
+        }
+        if (!propriedades.getCacheNames().isEmpty()) {
+            caffeine.setCacheNames(propriedades.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
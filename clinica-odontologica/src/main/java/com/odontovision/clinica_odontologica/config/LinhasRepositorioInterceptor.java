@@ -0,0 +1,80 @@
+package com.odontovision.clinica_odontologica.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Registra em {@code clinica.repositorio.linhas} quantas linhas cada método de repositório devolveu.
+ * <p>
+ * Coleções, páginas e {@link Optional} contam pelos elementos; métodos {@link Modifying} contam
+ * as linhas afetadas; demais resultados não nulos contam como uma linha. Para {@link Stream},
+ * a contagem é feita durante o consumo e registrada quando o stream é fechado.
+ * </p>
+ */
+class LinhasRepositorioInterceptor implements MethodInterceptor {
+
+    private final MeterRegistry registry;
+    private final String repositorio;
+    private final Map<Method, DistributionSummary> linhasPorMetodo = new ConcurrentHashMap<>();
+
+    LinhasRepositorioInterceptor(MeterRegistry registry, String repositorio) {
+        this.registry = registry;
+        this.repositorio = repositorio;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object resultado = invocation.proceed();
+        Method metodo = invocation.getMethod();
+        if (metodo.getReturnType() == void.class) {
+            return resultado;
+        }
+        if (resultado instanceof Stream<?> stream) {
+            LongAdder linhas = new LongAdder();
+            return stream.peek(elemento -> linhas.increment())
+                    .onClose(() -> linhas(metodo).record(linhas.sum()));
+        }
+        linhas(metodo).record(contar(metodo, resultado));
+        return resultado;
+    }
+
+    private static long contar(Method metodo, Object resultado) {
+        if (resultado == null) {
+            return 0;
+        }
+        if (resultado instanceof Collection<?> colecao) {
+            return colecao.size();
+        }
+        if (resultado instanceof Slice<?> pagina) {
+            return pagina.getNumberOfElements();
+        }
+        if (resultado instanceof Optional<?> opcional) {
+            return opcional.isPresent() ? 1 : 0;
+        }
+        if (resultado instanceof Number afetadas && metodo.isAnnotationPresent(Modifying.class)) {
+            return afetadas.longValue();
+        }
+        return 1;
+    }
+
+    private DistributionSummary linhas(Method metodo) {
+        return linhasPorMetodo.computeIfAbsent(metodo, chave -> DistributionSummary.builder("clinica.repositorio.linhas")
+                .description("Linhas devolvidas ou afetadas por chamada de repositório")
+                .baseUnit("rows")
+                .tag("repository", repositorio)
+                .tag("method", chave.getName())
+                .register(registry));
+    }
+}
@@ -0,0 +1,54 @@
+package com.odontovision.clinica_odontologica.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Instrumentação de serviços e repositórios com Micrometer.
+ * <p>
+ * A duração de cada chamada de repositório já é medida pelo Spring Boot em
+ * {@code spring.data.repository.invocations} (etiquetas {@code repository} e {@code method});
+ * aqui são acrescentadas a quantidade de linhas por chamada ({@code clinica.repositorio.linhas})
+ * e a duração de cada método público dos serviços ({@code clinica.servico}).
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricasConfig {
+
+    @Bean
+    public MetricasServicoAspect metricasServicoAspect(MeterRegistry registry) {
+        return new MetricasServicoAspect(registry);
+    }
+
+    /**
+     * Registra o {@link LinhasRepositorioInterceptor} em cada repositório Spring Data no momento
+     * em que a fábrica do repositório é criada.
+     * <p>
+     * É estático para não antecipar a criação desta configuração; o {@link MeterRegistry} só é
+     * obtido quando o primeiro repositório é montado.
+     * </p>
+     */
+    @Bean
+    public static BeanPostProcessor linhasRepositorioPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> fabrica) {
+                    fabrica.addRepositoryFactoryCustomizer(repositoryFactory ->
+                            repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, informacao) -> {
+                                MeterRegistry meterRegistry = registry.getIfAvailable();
+                                if (meterRegistry != null) {
+                                    proxyFactory.addAdvice(new LinhasRepositorioInterceptor(meterRegistry,
+                                            informacao.getRepositoryInterface().getSimpleName()));
+                                }
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
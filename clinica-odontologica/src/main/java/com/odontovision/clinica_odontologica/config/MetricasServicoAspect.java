@@ -0,0 +1,40 @@
+package com.odontovision.clinica_odontologica.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Mede a duração de cada método público das classes {@code *Service} em {@code clinica.servico},
+ * com a classe, o método e a exceção lançada ({@code none} em caso de sucesso) como etiquetas.
+ */
+@Aspect
+public class MetricasServicoAspect {
+
+    private final MeterRegistry registry;
+
+    public MetricasServicoAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.odontovision.clinica_odontologica.service.*Service.*(..))")
+    public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample amostra = Timer.start(registry);
+        String excecao = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            excecao = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            amostra.stop(Timer.builder("clinica.servico")
+                    .description("Duração dos métodos públicos dos serviços")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", excecao)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.odontovision.clinica_odontologica.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Mede o atraso da réplica de leitura e decide se ela pode atender as transações somente leitura.
+ * <p>
+ * A cada {@code clinica.replica.verificacao-ms}, grava o instante atual em {@code replica_batimento}
+ * no primário e lê a mesma linha na réplica; o atraso é a diferença entre o instante atual e o
+ * batimento replicado, e por isso nunca é menor que o tempo de propagação de uma verificação.
+ * Enquanto o atraso passar de {@code clinica.replica.atraso-maximo-ms}, ou a réplica não responder,
+ * as leituras voltam ao primário. Um limite negativo desliga a verificação de atraso (a réplica
+ * só é descartada quando não responde).
+ * </p>
+ * <p>
+ * Antes da primeira verificação a réplica é considerada indisponível. O atraso medido é exposto
+ * em {@code clinica.replica.atraso}.
+ * </p>
+ */
+public class MonitorReplica {
+
+    private static final String GRAVAR_BATIMENTO = "UPDATE replica_batimento SET registrado_em_ms = ? WHERE id = 1";
+    private static final String LER_BATIMENTO = "SELECT registrado_em_ms FROM replica_batimento WHERE id = 1";
+
+    private final JdbcTemplate primario;
+    private final JdbcTemplate replica;
+    private final long atrasoMaximoMs;
+
+    private volatile long atrasoMs = Long.MAX_VALUE;
+    private volatile boolean disponivel;
+
+    /**
+     * @param primario       Pool de conexões do banco primário.
+     * @param replica        Pool de conexões da réplica de leitura.
+     * @param atrasoMaximoMs Maior atraso aceito para ler da réplica; negativo para não verificar.
+     * @param registry       Registro onde o atraso medido é publicado.
+     */
+    public MonitorReplica(DataSource primario, DataSource replica, long atrasoMaximoMs, MeterRegistry registry) {
+        this.primario = new JdbcTemplate(primario);
+        this.replica = new JdbcTemplate(replica);
+        this.atrasoMaximoMs = atrasoMaximoMs;
+        Gauge.builder("clinica.replica.atraso", this, monitor -> monitor.atrasoMs)
+                .description("Atraso da réplica de leitura medido pelo último batimento")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    /**
+     * Grava um novo batimento no primário e mede o atraso da réplica.
+     */
+    @Scheduled(fixedDelayString = "${clinica.replica.verificacao-ms:1000}")
+    public void verificar() {
+        long agora = System.currentTimeMillis();
+        try {
+            primario.update(GRAVAR_BATIMENTO, agora);
+        } catch (DataAccessException e) {
+            // Sem o primário não há novo batimento; a medida abaixo continua valendo para o anterior
+        }
+        try {
+            Long replicado = replica.queryForObject(LER_BATIMENTO, Long.class);
+            atrasoMs = replicado != null ? Math.max(0, agora - replicado) : Long.MAX_VALUE;
+            disponivel = atrasoMaximoMs < 0 || atrasoMs <= atrasoMaximoMs;
+        } catch (DataAccessException e) {
+            atrasoMs = Long.MAX_VALUE;
+            disponivel = false;
+        }
+    }
+
+    /**
+     * @return {@code true} se a réplica respondeu à última verificação dentro do atraso máximo.
+     */
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+
+    /**
+     * @return Atraso medido na última verificação, em milissegundos.
+     */
+    public long getAtrasoMs() {
+        return atrasoMs;
+    }
+}
@@ -0,0 +1,118 @@
+package com.odontovision.clinica_odontologica.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Réplica de leitura: com {@code clinica.replica.habilitada=true}, as transações somente leitura
+ * dos serviços (listagens, buscas e relatórios) são atendidas por um segundo pool, apontado para
+ * a réplica em {@code clinica.replica.datasource.*}, e as escritas continuam no primário
+ * ({@code spring.datasource.*}).
+ * <p>
+ * O DataSource usado pela aplicação (JPA, Flyway, JdbcTemplate) é o {@link RoteamentoDataSource}
+ * atrás de um {@link LazyConnectionDataSourceProxy}. Quando a réplica atrasa mais que
+ * {@code clinica.replica.atraso-maximo-ms} ou não responde, as leituras voltam ao primário até a
+ * próxima verificação do {@link MonitorReplica}, que depende do agendamento habilitado.
+ * </p>
+ * <p>
+ * O que é lido da réplica pode estar atrasado e não alimenta caches: as transações somente leitura
+ * consultam o cache de segundo nível do Hibernate sem incluir nele as entidades carregadas, e as
+ * leituras que alimentam o cache dos serviços rodam em transações de leitura e escrita, no primário.
+ * </p>
+ * <p>
+ * Os dois pools são HikariCP e aparecem nas métricas {@code hikaricp.*} como {@code primario} e
+ * {@code replica}.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "clinica.replica.habilitada", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties propriedades) {
+        HikariDataSource dataSource = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    /**
+     * Pool da réplica; aceita as propriedades do HikariCP diretamente em
+     * {@code clinica.replica.datasource} ({@code jdbc-url}, {@code username}, {@code maximum-pool-size}...).
+     */
+    @Bean
+    @ConfigurationProperties("clinica.replica.datasource")
+    public HikariDataSource dataSourceReplica() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public MonitorReplica monitorReplica(@Qualifier("dataSourcePrimario") DataSource primario,
+                                         @Qualifier("dataSourceReplica") DataSource replica,
+                                         @Value("${clinica.replica.atraso-maximo-ms:5000}") long atrasoMaximoMs,
+                                         MeterRegistry registry) {
+        return new MonitorReplica(primario, replica, atrasoMaximoMs, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource primario,
+                                 @Qualifier("dataSourceReplica") DataSource replica,
+                                 MonitorReplica monitorReplica) {
+        return new LazyConnectionDataSourceProxy(new RoteamentoDataSource(primario, replica, monitorReplica));
+    }
+
+    /**
+     * Passa as transações somente leitura ao modo {@link CacheMode#GET}: a entidade lida da réplica
+     * atrasada ficaria no cache de segundo nível com a versão anterior, servida depois às transações
+     * de escrita no primário.
+     */
+    @Bean
+    public TransactionExecutionListener leituraSemAlimentarCache(EntityManagerFactory entityManagerFactory) {
+        return new TransactionExecutionListener() {
+            @Override
+            public void afterBegin(TransactionExecution transacao, Throwable falha) {
+                if (falha == null && transacao.isNewTransaction() && transacao.isReadOnly()
+                        && TransactionSynchronizationManager.getResource(entityManagerFactory) instanceof EntityManagerHolder holder) {
+                    holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+                }
+            }
+        };
+    }
+
+    /**
+     * Aplica as migrações também na réplica, para ambientes sem replicação real (como o perfil
+     * {@code replica} de testes, com dois bancos H2 em memória).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "clinica.replica.migrar-esquema", havingValue = "true")
+    public FlywayMigrationStrategy migrarPrimarioEReplica(@Qualifier("dataSourceReplica") DataSource replica) {
+        return flyway -> {
+            flyway.migrate();
+            Flyway.configure().configuration(flyway.getConfiguration()).dataSource(replica).load().migrate();
+        };
+    }
+}
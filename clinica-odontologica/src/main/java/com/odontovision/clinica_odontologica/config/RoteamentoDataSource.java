@@ -0,0 +1,41 @@
+package com.odontovision.clinica_odontologica.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Escolhe, a cada conexão obtida, entre o primário e a réplica de leitura: transações
+ * {@code @Transactional(readOnly = true)} vão à réplica enquanto o {@link MonitorReplica} a
+ * considerar disponível; todo o resto vai ao primário.
+ * <p>
+ * A decisão depende da transação já estar marcada como somente leitura, o que o gerenciador de
+ * transações só faz depois de pedir a conexão; por isso este DataSource é sempre usado atrás de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, que adia a obtenção
+ * da conexão real até o primeiro comando.
+ * </p>
+ */
+class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    enum Destino { PRIMARIO, REPLICA }
+
+    private final MonitorReplica monitor;
+
+    RoteamentoDataSource(DataSource primario, DataSource replica, MonitorReplica monitor) {
+        this.monitor = monitor;
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && monitor.isDisponivel()) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIO;
+    }
+}
@@ -1,13 +1,25 @@
 package com.odontovision.clinica_odontologica.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.FiltroDentistasDTO;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
+import com.odontovision.clinica_odontologica.dto.ProducaoPeriodoDTO;
+import com.odontovision.clinica_odontologica.dto.SituacaoEmMassaDTO;
 import com.odontovision.clinica_odontologica.dto.DentistaDTO;
 import com.odontovision.clinica_odontologica.exception.DentistaNotFoundException;
 import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.ProducaoDentistaService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -22,9 +34,14 @@ import java.util.List;
 public class DentistaController {
 
     private final DentistaService dentistaService;
+    private final ProducaoDentistaService producaoDentistaService;
+    private final ObjectMapper objectMapper;
 
-    public DentistaController(DentistaService dentistaService) {
+    public DentistaController(DentistaService dentistaService, ProducaoDentistaService producaoDentistaService,
+                              ObjectMapper objectMapper) {
         this.dentistaService = dentistaService;
+        this.producaoDentistaService = producaoDentistaService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -42,12 +59,63 @@ public class DentistaController {
     /**
      * Listar todos os dentistas.
      *
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
      * @return Lista de dentistas.
      */
     @GetMapping
-    public ResponseEntity<List<DentistaDTO>> listarDentistas() {
-        List<DentistaDTO> dentistas = dentistaService.listarTodos();
-        return ResponseEntity.ok(dentistas);
+    public ResponseEntity<List<DentistaDTO>> listarDentistas(WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, dentistaService.versaoLista(), dentistaService::listarTodos);
+    }
+
+    /**
+     * Buscar dentistas ativos pelo nome, ignorando acentos e maiúsculas.
+     *
+     * @param q     Nome ou parte do nome.
+     * @param limit Quantidade máxima de resultados.
+     * @return Lista de dentistas, do mais ao menos relevante.
+     */
+    @GetMapping("/busca")
+    public ResponseEntity<List<DentistaDTO>> buscarDentistasPorNome(@RequestParam String q,
+                                                                     @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(dentistaService.buscarPorNome(q, limit));
+    }
+
+    /**
+     * Lista dentistas paginados por cursor.
+     *
+     * @param cursor     ID do último dentista da página anterior (opcional).
+     * @param limit      Quantidade máxima de itens na página.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link DentistaDTO}.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaDTO<DentistaDTO>> listarDentistasPaginados(@RequestParam(required = false) Long cursor,
+                                                                           @RequestParam int limit,
+                                                                           WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, dentistaService.versaoLista(), () -> dentistaService.listarPagina(cursor, limit));
+    }
+
+    /**
+     * Continua a paginação por cursor quando o limite não é informado, com
+     * {@link PaginaDTO#LIMITE_PADRAO} itens por página (sem esta rota, a requisição cairia na lista completa).
+     *
+     * @param cursor     ID do último item da página anterior.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link DentistaDTO}.
+     */
+    @GetMapping(params = {"cursor", "!limit"})
+    public ResponseEntity<PaginaDTO<DentistaDTO>> listarDentistasAPartirDoCursor(@RequestParam Long cursor, WebRequest requisicao) {
+        return listarDentistasPaginados(cursor, Integer.parseInt(PaginaDTO.LIMITE_PADRAO), requisicao);
+    }
+
+    /**
+     * Transmite todos os dentistas em NDJSON, um por linha, à medida que são lidos do banco.
+     *
+     * @return Corpo em streaming com {@link DentistaDTO} serializados.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transmitirDentistas() {
+        return RespostaNdjson.de(objectMapper, dentistaService::transmitirTodos);
     }
 
     /**
@@ -59,21 +127,45 @@ public class DentistaController {
     @GetMapping("/{id}")
     public ResponseEntity<DentistaDTO> buscarDentistaPorId(@PathVariable Long id) {
         return dentistaService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .map(dentista -> RespostaCondicional.recurso(dentista, id, dentista.getVersao(), dentista.getAtualizadoEm()))
                 .orElseThrow(() -> new DentistaNotFoundException(id));
     }
 
+    /**
+     * Produção do dentista no período: quantidade de procedimentos e faturamento, no total e por dia.
+     * <p>
+     * Lida dos contadores diários mantidos a cada gravação de procedimento, sem consultar a tabela
+     * de procedimentos. Sem {@code de} e {@code ate} (ISO-8601, inclusivos), considera os últimos 12 meses.
+     * </p>
+     *
+     * @param id  ID do dentista.
+     * @param de  Data inicial (opcional).
+     * @param ate Data final (opcional).
+     * @return {@link ProducaoPeriodoDTO} do dentista.
+     */
+    @GetMapping("/{id}/producao")
+    public ResponseEntity<ProducaoPeriodoDTO> buscarProducao(@PathVariable Long id,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        dentistaService.buscarPorId(id).orElseThrow(() -> new DentistaNotFoundException(id));
+        return ResponseEntity.ok(producaoDentistaService.buscar(id, de, ate));
+    }
+
     /**
      * Atualizar um dentista existente.
      *
      * @param id           ID do dentista.
      * @param dentistaDTO Dados atualizados do dentista.
+     * @param ifMatch      ETag da versão que o cliente leu (opcional); se não for a atual, responde 412.
      * @return Dentista atualizado.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<DentistaDTO> atualizarDentista(@PathVariable Long id, @Valid @RequestBody DentistaDTO dentistaDTO) {
+    public ResponseEntity<DentistaDTO> atualizarDentista(@PathVariable Long id,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                         @Valid @RequestBody DentistaDTO dentistaDTO) {
+        dentistaDTO.setVersao(RespostaCondicional.versaoEsperada(ifMatch, id));
         return dentistaService.atualizarDentista(id, dentistaDTO)
-                .map(ResponseEntity::ok)
+                .map(dentista -> RespostaCondicional.recurso(dentista, id, dentista.getVersao(), dentista.getAtualizadoEm()))
                 .orElseThrow(() -> new DentistaNotFoundException(id));
     }
 
@@ -91,4 +183,26 @@ public class DentistaController {
         dentistaService.desativarDentista(id);  // Soft delete
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Desativa (soft delete) em massa os dentistas que atendem ao filtro, em UPDATEs por partes de IDs.
+     *
+     * @param filtro Critérios de seleção, combinados; ao menos um é obrigatório.
+     * @return {@link SituacaoEmMassaDTO} com as quantidades selecionadas e alteradas.
+     */
+    @PostMapping("/desativacoes")
+    public ResponseEntity<SituacaoEmMassaDTO> desativarDentistas(@Valid @RequestBody FiltroDentistasDTO filtro) {
+        return ResponseEntity.ok(dentistaService.alterarSituacao(filtro, false));
+    }
+
+    /**
+     * Reativa em massa os dentistas que atendem ao filtro, em UPDATEs por partes de IDs.
+     *
+     * @param filtro Critérios de seleção, combinados; ao menos um é obrigatório.
+     * @return {@link SituacaoEmMassaDTO} com as quantidades selecionadas e alteradas.
+     */
+    @PostMapping("/reativacoes")
+    public ResponseEntity<SituacaoEmMassaDTO> reativarDentistas(@Valid @RequestBody FiltroDentistasDTO filtro) {
+        return ResponseEntity.ok(dentistaService.alterarSituacao(filtro, true));
+    }
 }
@@ -1,10 +1,16 @@
 package com.odontovision.clinica_odontologica.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
 import com.odontovision.clinica_odontologica.dto.DiagnosticoDTO;
 import com.odontovision.clinica_odontologica.exception.DiagnosticoNotFoundException;
 import com.odontovision.clinica_odontologica.service.DiagnosticoService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -21,9 +27,11 @@ import java.util.List;
 public class DiagnosticoController {
 
     private final DiagnosticoService diagnosticoService;
+    private final ObjectMapper objectMapper;
 
-    public DiagnosticoController(DiagnosticoService diagnosticoService) {
+    public DiagnosticoController(DiagnosticoService diagnosticoService, ObjectMapper objectMapper) {
         this.diagnosticoService = diagnosticoService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -41,12 +49,50 @@ public class DiagnosticoController {
     /**
      * Listar todos os diagnósticos.
      *
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
      * @return Lista de DiagnosticoDTO.
      */
     @GetMapping
-    public ResponseEntity<List<DiagnosticoDTO>> listarDiagnosticos() {
-        List<DiagnosticoDTO> diagnosticos = diagnosticoService.listarTodos();
-        return ResponseEntity.ok(diagnosticos);
+    public ResponseEntity<List<DiagnosticoDTO>> listarDiagnosticos(WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, diagnosticoService.versaoLista(), diagnosticoService::listarTodos);
+    }
+
+    /**
+     * Lista diagnósticos paginados por cursor.
+     *
+     * @param cursor     ID do último diagnóstico da página anterior (opcional).
+     * @param limit      Quantidade máxima de itens na página.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link DiagnosticoDTO}.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaDTO<DiagnosticoDTO>> listarDiagnosticosPaginados(@RequestParam(required = false) Long cursor,
+                                                                                 @RequestParam int limit,
+                                                                                 WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, diagnosticoService.versaoLista(), () -> diagnosticoService.listarPagina(cursor, limit));
+    }
+
+    /**
+     * Continua a paginação por cursor quando o limite não é informado, com
+     * {@link PaginaDTO#LIMITE_PADRAO} itens por página (sem esta rota, a requisição cairia na lista completa).
+     *
+     * @param cursor     ID do último item da página anterior.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link DiagnosticoDTO}.
+     */
+    @GetMapping(params = {"cursor", "!limit"})
+    public ResponseEntity<PaginaDTO<DiagnosticoDTO>> listarDiagnosticosAPartirDoCursor(@RequestParam Long cursor, WebRequest requisicao) {
+        return listarDiagnosticosPaginados(cursor, Integer.parseInt(PaginaDTO.LIMITE_PADRAO), requisicao);
+    }
+
+    /**
+     * Transmite todos os diagnósticos em NDJSON, um por linha, à medida que são lidos do banco.
+     *
+     * @return Corpo em streaming com {@link DiagnosticoDTO} serializados.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transmitirDiagnosticos() {
+        return RespostaNdjson.de(objectMapper, diagnosticoService::transmitirTodos);
     }
 
     /**
@@ -59,7 +105,7 @@ public class DiagnosticoController {
     public ResponseEntity<DiagnosticoDTO> buscarDiagnosticoPorId(@PathVariable Long id) {
         DiagnosticoDTO diagnostico = diagnosticoService.buscarPorId(id)
                 .orElseThrow(() -> new DiagnosticoNotFoundException(id));
-        return ResponseEntity.ok(diagnostico);
+        return RespostaCondicional.recurso(diagnostico, id, diagnostico.getVersao(), diagnostico.getAtualizadoEm());
     }
 
     /**
@@ -67,13 +113,17 @@ public class DiagnosticoController {
      *
      * @param id              ID do diagnóstico a ser atualizado.
      * @param diagnosticoDTO Dados atualizados do diagnóstico.
+     * @param ifMatch         ETag da versão que o cliente leu (opcional); se não for a atual, responde 412.
      * @return DiagnosticoDTO atualizado.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<DiagnosticoDTO> atualizarDiagnostico(@PathVariable Long id, @Valid @RequestBody DiagnosticoDTO diagnosticoDTO) {
+    public ResponseEntity<DiagnosticoDTO> atualizarDiagnostico(@PathVariable Long id,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                               @Valid @RequestBody DiagnosticoDTO diagnosticoDTO) {
+        diagnosticoDTO.setVersao(RespostaCondicional.versaoEsperada(ifMatch, id));
         DiagnosticoDTO atualizado = diagnosticoService.atualizarDiagnostico(id, diagnosticoDTO)
                 .orElseThrow(() -> new DiagnosticoNotFoundException(id));
-        return ResponseEntity.ok(atualizado);
+        return RespostaCondicional.recurso(atualizado, id, atualizado.getVersao(), atualizado.getAtualizadoEm());
     }
 
     /**
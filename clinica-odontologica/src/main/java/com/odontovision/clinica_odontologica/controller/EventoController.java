@@ -0,0 +1,48 @@
+package com.odontovision.clinica_odontologica.controller;
+
+import com.odontovision.clinica_odontologica.service.EventoService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controlador do fluxo de eventos de alteração de procedimentos e sinistros (Server-Sent Events).
+ * <p>
+ * Cada evento traz como {@code id} a sua posição no fluxo, como nome o agregado e o tipo
+ * ({@code procedimento.criado}, {@code sinistro.removido}, ...) e como dados o registro em JSON.
+ * Ao reconectar, o {@code EventSource} do navegador reenvia a última posição em
+ * {@code Last-Event-ID}; outros clientes podem informá-la em {@code desde}.
+ * </p>
+ */
+@RestController
+@RequestMapping("/eventos")
+public class EventoController {
+
+    private final EventoService eventoService;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param eventoService Serviço de eventos.
+     */
+    public EventoController(EventoService eventoService) {
+        this.eventoService = eventoService;
+    }
+
+    /**
+     * Assina o fluxo de eventos a partir da última posição recebida.
+     *
+     * @param ultimoEvento Cabeçalho {@code Last-Event-ID} (opcional).
+     * @param desde        Última posição recebida, para clientes que não enviam o cabeçalho (opcional).
+     * @return Fluxo {@code text/event-stream}; sem posição, apenas os eventos publicados a partir de agora.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter assinar(@RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento,
+                              @RequestParam(required = false) Long desde) {
+        return eventoService.assinar(ultimoEvento != null ? ultimoEvento : desde);
+    }
+}
@@ -1,13 +1,21 @@
 package com.odontovision.clinica_odontologica.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.FiltroPacientesDTO;
+import com.odontovision.clinica_odontologica.dto.LinhaDoTempoDTO;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
+import com.odontovision.clinica_odontologica.dto.SituacaoEmMassaDTO;
 import com.odontovision.clinica_odontologica.dto.PacienteDTO;
 import com.odontovision.clinica_odontologica.exception.PacienteNotFoundException;
+import com.odontovision.clinica_odontologica.service.LinhaDoTempoService;
 import com.odontovision.clinica_odontologica.service.PacienteService;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -16,7 +24,7 @@ import java.util.List;
  * Controlador REST para gerenciar operações relacionadas a pacientes.
  * <p>
  * Este controlador oferece endpoints para criar, listar, atualizar e deletar pacientes.
- * Utiliza cache para melhorar a performance em consultas frequentes.
+ * As consultas por ID são atendidas pelo cache de {@link PacienteService}.
  * </p>
  */
 @RestController
@@ -24,36 +32,92 @@ import java.util.List;
 public class PacienteController {
 
     private final PacienteService pacienteService;
+    private final LinhaDoTempoService linhaDoTempoService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Construtor com injeção de dependência.
      *
-     * @param pacienteService Serviço de pacientes.
+     * @param pacienteService     Serviço de pacientes.
+     * @param linhaDoTempoService Serviço da linha do tempo dos pacientes.
+     * @param objectMapper        Mapper JSON usado nas respostas em streaming.
      */
-    public PacienteController(PacienteService pacienteService) {
+    public PacienteController(PacienteService pacienteService, LinhaDoTempoService linhaDoTempoService,
+                              ObjectMapper objectMapper) {
         this.pacienteService = pacienteService;
+        this.linhaDoTempoService = linhaDoTempoService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Lista todos os pacientes ativos com cache.
+     * Lista todos os pacientes ativos.
      *
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
      * @return Lista de {@link PacienteDTO}.
      */
     @GetMapping
-    @Cacheable("pacientes")
-    public ResponseEntity<List<PacienteDTO>> listarPacientes() {
-        List<PacienteDTO> pacientes = pacienteService.listarTodos();
-        return ResponseEntity.ok(pacientes);
+    public ResponseEntity<List<PacienteDTO>> listarPacientes(WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, pacienteService.versaoLista(), pacienteService::listarTodos);
     }
 
     /**
-     * Cria um novo paciente e limpa o cache.
+     * Lista pacientes ativos paginados por cursor.
+     *
+     * @param cursor     ID do último paciente da página anterior (opcional).
+     * @param limit      Quantidade máxima de itens na página.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link PacienteDTO}.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaDTO<PacienteDTO>> listarPacientesPaginados(@RequestParam(required = false) Long cursor,
+                                                                           @RequestParam int limit,
+                                                                           WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, pacienteService.versaoLista(), () -> pacienteService.listarPagina(cursor, limit));
+    }
+
+    /**
+     * Continua a paginação por cursor quando o limite não é informado, com
+     * {@link PaginaDTO#LIMITE_PADRAO} itens por página (sem esta rota, a requisição cairia na lista completa).
+     *
+     * @param cursor     ID do último item da página anterior.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link PacienteDTO}.
+     */
+    @GetMapping(params = {"cursor", "!limit"})
+    public ResponseEntity<PaginaDTO<PacienteDTO>> listarPacientesAPartirDoCursor(@RequestParam Long cursor, WebRequest requisicao) {
+        return listarPacientesPaginados(cursor, Integer.parseInt(PaginaDTO.LIMITE_PADRAO), requisicao);
+    }
+
+    /**
+     * Busca pacientes ativos pelo nome, ignorando acentos e maiúsculas, para autocompletar.
+     *
+     * @param q     Nome ou parte do nome.
+     * @param limit Quantidade máxima de resultados.
+     * @return Lista de {@link PacienteDTO}, do mais ao menos relevante.
+     */
+    @GetMapping("/busca")
+    public ResponseEntity<List<PacienteDTO>> buscarPacientesPorNome(@RequestParam String q,
+                                                                     @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(pacienteService.buscarPorNome(q, limit));
+    }
+
+    /**
+     * Transmite todos os pacientes ativos em NDJSON, um por linha, à medida que são lidos do banco.
+     *
+     * @return Corpo em streaming com {@link PacienteDTO} serializados.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transmitirPacientes() {
+        return RespostaNdjson.de(objectMapper, pacienteService::transmitirTodos);
+    }
+
+    /**
+     * Cria um novo paciente.
      *
      * @param pacienteDTO Dados do paciente a ser criado.
      * @return {@link PacienteDTO} criado.
      */
     @PostMapping
-    @CacheEvict(value = "pacientes", allEntries = true)
     public ResponseEntity<PacienteDTO> criarPaciente(@Valid @RequestBody PacienteDTO pacienteDTO) {
         PacienteDTO novoPaciente = pacienteService.salvarPaciente(pacienteDTO);
         return new ResponseEntity<>(novoPaciente, HttpStatus.CREATED);
@@ -69,47 +133,84 @@ public class PacienteController {
     public ResponseEntity<PacienteDTO> buscarPacientePorId(@PathVariable Long id) {
         PacienteDTO paciente = pacienteService.buscarPorId(id)
                 .orElseThrow(() -> new PacienteNotFoundException(id));  // Retorno sendo utilizado
-        return ResponseEntity.ok(paciente);  // Retorno ResponseEntity
+        return RespostaCondicional.recurso(paciente, id, paciente.getVersao(), paciente.getAtualizadoEm());
     }
 
     /**
-     * Atualiza um paciente existente e limpa o cache.
+     * Linha do tempo de um paciente: diagnósticos, procedimentos e sinistros intercalados, do mais
+     * recente ao mais antigo, paginados por cursor de data.
+     *
+     * @param id     ID do paciente.
+     * @param cursor {@code proximoCursor} da página anterior (opcional).
+     * @param limit  Quantidade máxima de itens na página.
+     * @return {@link LinhaDoTempoDTO} com o paciente e os itens da página.
+     */
+    @GetMapping("/{id}/linha-do-tempo")
+    public ResponseEntity<LinhaDoTempoDTO> buscarLinhaDoTempo(@PathVariable Long id,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = PaginaDTO.LIMITE_PADRAO) int limit) {
+        return linhaDoTempoService.buscar(id, cursor, limit)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new PacienteNotFoundException(id));
+    }
+
+    /**
+     * Atualiza um paciente existente.
      *
      * @param id          ID do paciente a ser atualizado.
      * @param pacienteDTO Dados atualizados do paciente.
+     * @param ifMatch     ETag da versão que o cliente leu (opcional); se não for a atual, responde 412.
      * @return {@link PacienteDTO} atualizado.
      */
     @PutMapping("/{id}")
-    @CacheEvict(value = "pacientes", allEntries = true)
-    public ResponseEntity<PacienteDTO> atualizarPaciente(@PathVariable Long id, @Valid @RequestBody PacienteDTO pacienteDTO) {
+    public ResponseEntity<PacienteDTO> atualizarPaciente(@PathVariable Long id,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                         @Valid @RequestBody PacienteDTO pacienteDTO) {
+        pacienteDTO.setVersao(RespostaCondicional.versaoEsperada(ifMatch, id));
         PacienteDTO atualizado = pacienteService.atualizarPaciente(id, pacienteDTO)
                 .orElseThrow(() -> new PacienteNotFoundException(id));  // Retorno sendo utilizado
-        return ResponseEntity.ok(atualizado);  // Retorno atualizado
+        return RespostaCondicional.recurso(atualizado, id, atualizado.getVersao(), atualizado.getAtualizadoEm());  // Retorno atualizado
     }
 
     /**
-     * "Desativa" (soft delete) um paciente pelo ID e limpa o cache.
+     * "Desativa" (soft delete) um paciente pelo ID.
      * <p>
      * Em vez de remover o paciente do banco de dados, ele será marcado como inativo
      * utilizando soft delete.
-     * O método verifica se o paciente existe antes de realizar a desativação. Se o paciente
-     * não for encontrado, uma exceção {@link PacienteNotFoundException} é lançada.
+     * A busca e a desativação acontecem na mesma transação. Se o paciente não for encontrado
+     * ou já estiver inativo, uma exceção {@link PacienteNotFoundException} é lançada.
      * </p>
      *
      * @param id ID do paciente a ser desativado.
      * @return Resposta vazia com status adequado (204 No Content).
      */
     @DeleteMapping("/{id}")
-    @CacheEvict(value = "pacientes", allEntries = true)
     public ResponseEntity<Void> deletarPaciente(@PathVariable Long id) {
-        // Verifica se o paciente existe; se não existir, lança exceção
-        pacienteService.buscarPorId(id)
-                .ifPresentOrElse(
-                        paciente -> pacienteService.desativarPaciente(id),
-                        () -> { throw new PacienteNotFoundException(id); }
-                );
+        pacienteService.desativarPaciente(id);
 
         // Retorna resposta 204 No Content
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Desativa (soft delete) em massa os pacientes que atendem ao filtro, em UPDATEs por partes de IDs.
+     *
+     * @param filtro Critérios de seleção, combinados; ao menos um é obrigatório.
+     * @return {@link SituacaoEmMassaDTO} com as quantidades selecionadas e alteradas.
+     */
+    @PostMapping("/desativacoes")
+    public ResponseEntity<SituacaoEmMassaDTO> desativarPacientes(@Valid @RequestBody FiltroPacientesDTO filtro) {
+        return ResponseEntity.ok(pacienteService.alterarSituacao(filtro, false));
+    }
+
+    /**
+     * Reativa em massa os pacientes que atendem ao filtro, em UPDATEs por partes de IDs.
+     *
+     * @param filtro Critérios de seleção, combinados; ao menos um é obrigatório.
+     * @return {@link SituacaoEmMassaDTO} com as quantidades selecionadas e alteradas.
+     */
+    @PostMapping("/reativacoes")
+    public ResponseEntity<SituacaoEmMassaDTO> reativarPacientes(@Valid @RequestBody FiltroPacientesDTO filtro) {
+        return ResponseEntity.ok(pacienteService.alterarSituacao(filtro, true));
+    }
 }
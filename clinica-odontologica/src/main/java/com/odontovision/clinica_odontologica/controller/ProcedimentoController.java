@@ -1,12 +1,21 @@
 package com.odontovision.clinica_odontologica.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
 import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.RelatorioLoteDTO;
 import com.odontovision.clinica_odontologica.exception.ProcedimentoNotFoundException;
+import com.odontovision.clinica_odontologica.service.ProcedimentoLoteService;
 import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -22,14 +31,22 @@ import java.util.List;
 public class ProcedimentoController {
 
     private final ProcedimentoService procedimentoService;
+    private final ProcedimentoLoteService procedimentoLoteService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Construtor com injeção de dependência.
      *
-     * @param procedimentoService Serviço de procedimentos.
+     * @param procedimentoService     Serviço de procedimentos.
+     * @param procedimentoLoteService Serviço de importação em massa de procedimentos.
+     * @param objectMapper            Mapper JSON usado nas respostas em streaming.
      */
-    public ProcedimentoController(ProcedimentoService procedimentoService) {
+    public ProcedimentoController(ProcedimentoService procedimentoService,
+                                  ProcedimentoLoteService procedimentoLoteService,
+                                  ObjectMapper objectMapper) {
         this.procedimentoService = procedimentoService;
+        this.procedimentoLoteService = procedimentoLoteService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -44,15 +61,68 @@ public class ProcedimentoController {
         return ResponseEntity.status(201).body(novoProcedimento);
     }
 
+    /**
+     * Importa procedimentos em massa.
+     * <p>
+     * Aceita um array JSON ou NDJSON (um procedimento por linha). As linhas são gravadas em lotes
+     * e a resposta traz o resultado de cada uma, inclusive as rejeitadas.
+     * </p>
+     *
+     * @param corpo Conteúdo da requisição.
+     * @return {@link RelatorioLoteDTO} com o resultado por linha.
+     */
+    @PostMapping(value = "/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<RelatorioLoteDTO> importarProcedimentos(InputStream corpo) {
+        return ResponseEntity.ok(procedimentoLoteService.importar(corpo));
+    }
+
     /**
      * Lista todos os procedimentos.
      *
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
      * @return Lista de {@link ProcedimentoDTO}.
      */
     @GetMapping
-    public ResponseEntity<List<ProcedimentoDTO>> listarProcedimentos() {
-        List<ProcedimentoDTO> procedimentos = procedimentoService.listarTodos();
-        return ResponseEntity.ok(procedimentos);
+    public ResponseEntity<List<ProcedimentoDTO>> listarProcedimentos(WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, procedimentoService.versaoLista(), procedimentoService::listarTodos);
+    }
+
+    /**
+     * Lista procedimentos paginados por cursor.
+     *
+     * @param cursor     ID do último procedimento da página anterior (opcional).
+     * @param limit      Quantidade máxima de itens na página.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link ProcedimentoDTO}.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaDTO<ProcedimentoDTO>> listarProcedimentosPaginados(@RequestParam(required = false) Long cursor,
+                                                                                   @RequestParam int limit,
+                                                                                   WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, procedimentoService.versaoLista(), () -> procedimentoService.listarPagina(cursor, limit));
+    }
+
+    /**
+     * Continua a paginação por cursor quando o limite não é informado, com
+     * {@link PaginaDTO#LIMITE_PADRAO} itens por página (sem esta rota, a requisição cairia na lista completa).
+     *
+     * @param cursor     ID do último item da página anterior.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link ProcedimentoDTO}.
+     */
+    @GetMapping(params = {"cursor", "!limit"})
+    public ResponseEntity<PaginaDTO<ProcedimentoDTO>> listarProcedimentosAPartirDoCursor(@RequestParam Long cursor, WebRequest requisicao) {
+        return listarProcedimentosPaginados(cursor, Integer.parseInt(PaginaDTO.LIMITE_PADRAO), requisicao);
+    }
+
+    /**
+     * Transmite todos os procedimentos em NDJSON, um por linha, à medida que são lidos do banco.
+     *
+     * @return Corpo em streaming com {@link ProcedimentoDTO} serializados.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transmitirProcedimentos() {
+        return RespostaNdjson.de(objectMapper, procedimentoService::transmitirTodos);
     }
 
     /**
@@ -65,7 +135,7 @@ public class ProcedimentoController {
     public ResponseEntity<ProcedimentoDTO> buscarProcedimentoPorId(@PathVariable Long id) {
         ProcedimentoDTO procedimento = procedimentoService.buscarPorId(id)
                 .orElseThrow(() -> new ProcedimentoNotFoundException(id));
-        return ResponseEntity.ok(procedimento);
+        return RespostaCondicional.recurso(procedimento, id, procedimento.getVersao(), procedimento.getAtualizadoEm());
     }
 
     /**
@@ -73,13 +143,17 @@ public class ProcedimentoController {
      *
      * @param id               ID do procedimento a ser atualizado.
      * @param procedimentoDTO Dados atualizados do procedimento.
+     * @param ifMatch          ETag da versão que o cliente leu (opcional); se não for a atual, responde 412.
      * @return {@link ProcedimentoDTO} atualizado.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<ProcedimentoDTO> atualizarProcedimento(@PathVariable Long id, @Valid @RequestBody ProcedimentoDTO procedimentoDTO) {
+    public ResponseEntity<ProcedimentoDTO> atualizarProcedimento(@PathVariable Long id,
+                                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                 @Valid @RequestBody ProcedimentoDTO procedimentoDTO) {
+        procedimentoDTO.setVersao(RespostaCondicional.versaoEsperada(ifMatch, id));
         ProcedimentoDTO procedimentoAtualizado = procedimentoService.atualizarProcedimento(id, procedimentoDTO)
                 .orElseThrow(() -> new ProcedimentoNotFoundException(id));
-        return ResponseEntity.ok(procedimentoAtualizado);
+        return RespostaCondicional.recurso(procedimentoAtualizado, id, procedimentoAtualizado.getVersao(), procedimentoAtualizado.getAtualizadoEm());
     }
 
     /**
@@ -90,12 +164,7 @@ public class ProcedimentoController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletarProcedimento(@PathVariable Long id) {
-        // Verifica se o procedimento existe antes de tentar deletar
-        if (!procedimentoService.existeProcedimento(id)) {
-            throw new ProcedimentoNotFoundException(id);
-        }
-
-        // Realiza a deleção do procedimento
+        // Lança ProcedimentoNotFoundException se o procedimento não existir
         procedimentoService.deletarProcedimento(id);
 
         // Retorna uma resposta de sucesso sem conteúdo (204 No Content)
@@ -106,11 +175,11 @@ public class ProcedimentoController {
     /**
      * Lista procedimentos com suspeita de fraude.
      *
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
      * @return Lista de {@link ProcedimentoDTO} com risco de fraude.
      */
     @GetMapping("/suspeitas-fraude")
-    public ResponseEntity<List<ProcedimentoDTO>> listarProcedimentosComFraude() {
-        List<ProcedimentoDTO> procedimentos = procedimentoService.listarFraudes();
-        return ResponseEntity.ok(procedimentos);
+    public ResponseEntity<List<ProcedimentoDTO>> listarProcedimentosComFraude(WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, procedimentoService.versaoLista(), procedimentoService::listarFraudes);
     }
 }
@@ -0,0 +1,109 @@
+package com.odontovision.clinica_odontologica.controller;
+
+import com.odontovision.clinica_odontologica.dto.CustoTipoMesDTO;
+import com.odontovision.clinica_odontologica.dto.FraudePlanoDTO;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
+import com.odontovision.clinica_odontologica.dto.ProducaoDentistaDTO;
+import com.odontovision.clinica_odontologica.dto.SinistrosPacienteDTO;
+import com.odontovision.clinica_odontologica.dto.SinistrosPlanoDTO;
+import com.odontovision.clinica_odontologica.service.RelatorioService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controlador REST dos relatórios gerenciais.
+ * <p>
+ * Os relatórios são agregados pelo banco, de modo que apenas as linhas de resultado trafegam
+ * pela rede. Todos aceitam o período em {@code inicio} e {@code fim} (ISO-8601, inclusivos);
+ * sem eles, consideram os últimos 12 meses.
+ * </p>
+ */
+@RestController
+@RequestMapping("/relatorios")
+public class RelatorioController {
+
+    private final RelatorioService relatorioService;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param relatorioService Serviço de relatórios.
+     */
+    public RelatorioController(RelatorioService relatorioService) {
+        this.relatorioService = relatorioService;
+    }
+
+    /**
+     * Custos por tipo de procedimento e mês, com total, média, mediana e percentil 90.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @return Lista de {@link CustoTipoMesDTO}.
+     */
+    @GetMapping("/custos-por-tipo")
+    public ResponseEntity<List<CustoTipoMesDTO>> custosPorTipo(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(relatorioService.custosPorTipoEMes(inicio, fim));
+    }
+
+    /**
+     * Quantidade de procedimentos e faturamento por dentista.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @return Lista de {@link ProducaoDentistaDTO}.
+     */
+    @GetMapping("/procedimentos-por-dentista")
+    public ResponseEntity<List<ProducaoDentistaDTO>> procedimentosPorDentista(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(relatorioService.producaoPorDentista(inicio, fim));
+    }
+
+    /**
+     * Pacientes com mais sinistros no período.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @param limit  Quantidade máxima de pacientes.
+     * @return Lista de {@link SinistrosPacienteDTO}.
+     */
+    @GetMapping("/sinistros-por-paciente")
+    public ResponseEntity<List<SinistrosPacienteDTO>> sinistrosPorPaciente(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+                                                                           @RequestParam(defaultValue = PaginaDTO.LIMITE_PADRAO) int limit) {
+        return ResponseEntity.ok(relatorioService.sinistrosPorPaciente(inicio, fim, limit));
+    }
+
+    /**
+     * Taxa de procedimentos suspeitos de fraude por plano odontológico.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @return Lista de {@link FraudePlanoDTO}.
+     */
+    @GetMapping("/fraude-por-plano")
+    public ResponseEntity<List<FraudePlanoDTO>> fraudePorPlano(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(relatorioService.fraudePorPlano(inicio, fim));
+    }
+
+    /**
+     * Sinistros por plano odontológico e tipo de sinistro.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @return Lista de {@link SinistrosPlanoDTO}.
+     */
+    @GetMapping("/sinistros-por-plano")
+    public ResponseEntity<List<SinistrosPlanoDTO>> sinistrosPorPlano(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(relatorioService.sinistrosPorPlano(inicio, fim));
+    }
+}
@@ -0,0 +1,104 @@
+package com.odontovision.clinica_odontologica.controller;
+
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
+import com.odontovision.clinica_odontologica.exception.VersaoDesatualizadaException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Supplier;
+
+/**
+ * Monta respostas de GET condicional ({@code ETag}/{@code Last-Modified}) e interpreta o {@code If-Match}
+ * das atualizações.
+ * <p>
+ * Um registro tem ETag {@code "id-versao"} e Last-Modified igual à data de atualização; o Spring MVC
+ * responde 304 sozinho quando {@code If-None-Match} ou {@code If-Modified-Since} ainda conferem.
+ * Uma listagem tem ETag derivado de {@link VersaoListaDTO}, conferido antes de consultar os itens,
+ * de modo que um 304 custa apenas a consulta agregada da versão.
+ * </p>
+ */
+final class RespostaCondicional {
+
+    private RespostaCondicional() {
+    }
+
+    /**
+     * @param id     ID do registro.
+     * @param versao Versão do registro.
+     * @return Valor (sem aspas) do ETag do registro.
+     */
+    static String etag(Long id, Long versao) {
+        return id + "-" + versao;
+    }
+
+    /**
+     * Cria a resposta de um registro com seus validadores.
+     *
+     * @param corpo        Registro devolvido.
+     * @param id           ID do registro.
+     * @param versao       Versão do registro.
+     * @param atualizadoEm Data da última atualização, ou {@code null} se desconhecida.
+     * @param <T>          Tipo do registro.
+     * @return Resposta 200 com {@code ETag} e {@code Last-Modified}.
+     */
+    static <T> ResponseEntity<T> recurso(T corpo, Long id, Long versao, LocalDateTime atualizadoEm) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok().eTag(etag(id, versao));
+        if (atualizadoEm != null) {
+            resposta.lastModified(atualizadoEm.atZone(ZoneId.systemDefault()));
+        }
+        return resposta.body(corpo);
+    }
+
+    /**
+     * Cria a resposta de uma listagem, consultando os itens somente se a versão do cliente estiver desatualizada.
+     * <p>
+     * Listagens não enviam {@code Last-Modified}: uma exclusão não altera a maior data de atualização da tabela.
+     * </p>
+     *
+     * @param requisicao Requisição, com os cabeçalhos condicionais do cliente.
+     * @param versao     Versão atual da tabela.
+     * @param corpo      Consulta dos itens.
+     * @param <T>        Tipo do corpo.
+     * @return Resposta 200 com {@code ETag}, ou {@code null} quando o 304 já foi preparado.
+     */
+    static <T> ResponseEntity<T> lista(WebRequest requisicao, VersaoListaDTO versao, Supplier<T> corpo) {
+        if (requisicao.checkNotModified(versao.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok(corpo.get());
+    }
+
+    /**
+     * Extrai do cabeçalho {@code If-Match} a versão que o cliente espera alterar.
+     * <p>
+     * ETags fracos ({@code W/}) e de outro registro nunca conferem, pois {@code If-Match} usa comparação forte.
+     * </p>
+     *
+     * @param ifMatch Valor do cabeçalho, ou {@code null} se ausente.
+     * @param id      ID do registro alterado.
+     * @return Versão esperada, ou {@code null} sem cabeçalho ou com {@code *}.
+     * @throws VersaoDesatualizadaException se nenhum ETag do cabeçalho for deste registro.
+     */
+    static Long versaoEsperada(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefixo = id + "-";
+        for (String etag : ifMatch.split(",")) {
+            String valor = etag.trim();
+            if (valor.length() > 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+                valor = valor.substring(1, valor.length() - 1);
+                if (valor.startsWith(prefixo)) {
+                    try {
+                        return Long.valueOf(valor.substring(prefixo.length()));
+                    } catch (NumberFormatException e) {
+                        // ETag de outro formato: não confere
+                    }
+                }
+            }
+        }
+        throw new VersaoDesatualizadaException("If-Match não corresponde ao registro com o ID " + id + ": " + ifMatch);
+    }
+}
@@ -0,0 +1,48 @@
+package com.odontovision.clinica_odontologica.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Monta respostas em NDJSON (um objeto JSON por linha) escritas diretamente na saída HTTP.
+ * <p>
+ * Cada item é serializado e enviado assim que a fonte o produz, sem acumular a lista completa.
+ * </p>
+ */
+final class RespostaNdjson {
+
+    private static final byte QUEBRA_DE_LINHA = '\n';
+
+    private RespostaNdjson() {
+    }
+
+    /**
+     * Cria a resposta que transmite os itens produzidos pela fonte.
+     *
+     * @param objectMapper Mapper usado para serializar cada item.
+     * @param fonte        Função que entrega cada item ao consumidor recebido.
+     * @param <T>          Tipo dos itens.
+     * @return Resposta com corpo em streaming e tipo {@code application/x-ndjson}.
+     */
+    static <T> ResponseEntity<StreamingResponseBody> de(ObjectMapper objectMapper, Consumer<Consumer<T>> fonte) {
+        ObjectWriter writer = objectMapper.writer();
+        StreamingResponseBody corpo = saida -> fonte.accept(item -> {
+            try {
+                saida.write(writer.writeValueAsBytes(item));
+                saida.write(QUEBRA_DE_LINHA);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+}
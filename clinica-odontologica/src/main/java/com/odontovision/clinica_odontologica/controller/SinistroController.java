@@ -1,12 +1,21 @@
 package com.odontovision.clinica_odontologica.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.EntradaSinistroDTO;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
 import com.odontovision.clinica_odontologica.dto.SinistroDTO;
 import com.odontovision.clinica_odontologica.exception.SinistroNotFoundException;
+import com.odontovision.clinica_odontologica.service.EntradaSinistroService;
 import com.odontovision.clinica_odontologica.service.SinistroService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -20,14 +29,21 @@ import java.util.List;
 public class SinistroController {
 
     private final SinistroService sinistroService;
+    private final EntradaSinistroService entradaSinistroService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Construtor com injeção de dependência.
      *
-     * @param sinistroService Serviço de sinistros.
+     * @param sinistroService        Serviço de sinistros.
+     * @param entradaSinistroService Serviço da entrada assíncrona de sinistros.
+     * @param objectMapper           Mapper JSON usado nas respostas em streaming.
      */
-    public SinistroController(SinistroService sinistroService) {
+    public SinistroController(SinistroService sinistroService, EntradaSinistroService entradaSinistroService,
+                              ObjectMapper objectMapper) {
         this.sinistroService = sinistroService;
+        this.entradaSinistroService = entradaSinistroService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -42,15 +58,82 @@ public class SinistroController {
         return ResponseEntity.status(201).body(novoSinistro);
     }
 
+    /**
+     * Recebe um sinistro para gravação assíncrona.
+     * <p>
+     * O sinistro é validado e colocado na fila de entrada; referências e gravação são
+     * processadas em lote depois. A situação é consultada em {@code GET /sinistros/intake/{rastreio}}.
+     * </p>
+     *
+     * @param sinistroDTO Dados do sinistro a ser criado.
+     * @return {@code 202} com o {@link EntradaSinistroDTO} pendente; {@code 503} se a fila estiver cheia.
+     */
+    @PostMapping("/intake")
+    public ResponseEntity<EntradaSinistroDTO> receberSinistro(@Valid @RequestBody SinistroDTO sinistroDTO) {
+        EntradaSinistroDTO entrada = entradaSinistroService.receber(sinistroDTO);
+        return ResponseEntity.accepted()
+                .location(URI.create("/sinistros/intake/" + entrada.rastreio()))
+                .body(entrada);
+    }
+
+    /**
+     * Consulta a situação de um sinistro enviado à entrada assíncrona.
+     *
+     * @param rastreio Rastreio devolvido pelo {@code POST /sinistros/intake}.
+     * @return {@link EntradaSinistroDTO} com a situação e, se concluído, o ID do sinistro.
+     */
+    @GetMapping("/intake/{rastreio}")
+    public ResponseEntity<EntradaSinistroDTO> buscarEntrada(@PathVariable String rastreio) {
+        return ResponseEntity.ok(entradaSinistroService.buscar(rastreio));
+    }
+
     /**
      * Lista todos os sinistros.
      *
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
      * @return Lista de {@link SinistroDTO}.
      */
     @GetMapping
-    public ResponseEntity<List<SinistroDTO>> listarSinistros() {
-        List<SinistroDTO> sinistros = sinistroService.listarTodos();
-        return ResponseEntity.ok(sinistros);
+    public ResponseEntity<List<SinistroDTO>> listarSinistros(WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, sinistroService.versaoLista(), sinistroService::listarTodos);
+    }
+
+    /**
+     * Lista sinistros paginados por cursor.
+     *
+     * @param cursor     ID do último sinistro da página anterior (opcional).
+     * @param limit      Quantidade máxima de itens na página.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link SinistroDTO}.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaDTO<SinistroDTO>> listarSinistrosPaginados(@RequestParam(required = false) Long cursor,
+                                                                           @RequestParam int limit,
+                                                                           WebRequest requisicao) {
+        return RespostaCondicional.lista(requisicao, sinistroService.versaoLista(), () -> sinistroService.listarPagina(cursor, limit));
+    }
+
+    /**
+     * Continua a paginação por cursor quando o limite não é informado, com
+     * {@link PaginaDTO#LIMITE_PADRAO} itens por página (sem esta rota, a requisição cairia na lista completa).
+     *
+     * @param cursor     ID do último item da página anterior.
+     * @param requisicao Requisição com os cabeçalhos condicionais ({@code If-None-Match}).
+     * @return {@link PaginaDTO} de {@link SinistroDTO}.
+     */
+    @GetMapping(params = {"cursor", "!limit"})
+    public ResponseEntity<PaginaDTO<SinistroDTO>> listarSinistrosAPartirDoCursor(@RequestParam Long cursor, WebRequest requisicao) {
+        return listarSinistrosPaginados(cursor, Integer.parseInt(PaginaDTO.LIMITE_PADRAO), requisicao);
+    }
+
+    /**
+     * Transmite todos os sinistros em NDJSON, um por linha, à medida que são lidos do banco.
+     *
+     * @return Corpo em streaming com {@link SinistroDTO} serializados.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transmitirSinistros() {
+        return RespostaNdjson.de(objectMapper, sinistroService::transmitirTodos);
     }
 
     /**
@@ -63,7 +146,7 @@ public class SinistroController {
     public ResponseEntity<SinistroDTO> buscarSinistroPorId(@PathVariable Long id) {
         SinistroDTO sinistro = sinistroService.buscarPorId(id)
                 .orElseThrow(() -> new SinistroNotFoundException(id));
-        return ResponseEntity.ok(sinistro);
+        return RespostaCondicional.recurso(sinistro, id, sinistro.getVersao(), sinistro.getAtualizadoEm());
     }
 
     /**
@@ -71,13 +154,17 @@ public class SinistroController {
      *
      * @param id          ID do sinistro a ser atualizado.
      * @param sinistroDTO Dados atualizados do sinistro.
+     * @param ifMatch     ETag da versão que o cliente leu (opcional); se não for a atual, responde 412.
      * @return {@link SinistroDTO} atualizado.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<SinistroDTO> atualizarSinistro(@PathVariable Long id, @Valid @RequestBody SinistroDTO sinistroDTO) {
+    public ResponseEntity<SinistroDTO> atualizarSinistro(@PathVariable Long id,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                         @Valid @RequestBody SinistroDTO sinistroDTO) {
+        sinistroDTO.setVersao(RespostaCondicional.versaoEsperada(ifMatch, id));
         SinistroDTO atualizado = sinistroService.atualizarSinistro(id, sinistroDTO)
                 .orElseThrow(() -> new SinistroNotFoundException(id));
-        return ResponseEntity.ok(atualizado);
+        return RespostaCondicional.recurso(atualizado, id, atualizado.getVersao(), atualizado.getAtualizadoEm());
     }
 
     /**
@@ -0,0 +1,52 @@
+package com.odontovision.clinica_odontologica.controller;
+
+import com.odontovision.clinica_odontologica.dto.VarreduraFraudeDTO;
+import com.odontovision.clinica_odontologica.service.VarreduraFraudeService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador administrativo da reavaliação em massa da pontuação de fraude.
+ * <p>
+ * A varredura roda em segundo plano; o progresso (procedimentos processados e alterados,
+ * percentual, vazão e ponto de retomada de cada partição) é consultado no {@code GET}.
+ * </p>
+ */
+@RestController
+@RequestMapping("/admin/fraude/varredura")
+public class VarreduraFraudeController {
+
+    private final VarreduraFraudeService varreduraFraudeService;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param varreduraFraudeService Serviço da varredura de fraude.
+     */
+    public VarreduraFraudeController(VarreduraFraudeService varreduraFraudeService) {
+        this.varreduraFraudeService = varreduraFraudeService;
+    }
+
+    /**
+     * Inicia uma varredura ou retoma a interrompida; se uma já estiver em execução, apenas a devolve.
+     *
+     * @return {@code 202} com o progresso da varredura.
+     */
+    @PostMapping
+    public ResponseEntity<VarreduraFraudeDTO> iniciar() {
+        return ResponseEntity.accepted().body(varreduraFraudeService.iniciar());
+    }
+
+    /**
+     * Consulta o progresso da varredura mais recente.
+     *
+     * @return {@link VarreduraFraudeDTO}, ou {@code 404} se nenhuma varredura foi iniciada.
+     */
+    @GetMapping
+    public ResponseEntity<VarreduraFraudeDTO> buscar() {
+        return ResponseEntity.of(varreduraFraudeService.buscarAtual());
+    }
+}
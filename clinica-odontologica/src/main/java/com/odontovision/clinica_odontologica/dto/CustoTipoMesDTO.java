@@ -0,0 +1,17 @@
+package com.odontovision.clinica_odontologica.dto;
+
+/**
+ * Custos de um tipo de procedimento em um mês, agregados pelo banco.
+ *
+ * @param tipoProcedimento Tipo do procedimento.
+ * @param ano              Ano dos procedimentos.
+ * @param mes              Mês dos procedimentos (1 a 12).
+ * @param quantidade       Quantidade de procedimentos.
+ * @param custoTotal       Soma dos custos.
+ * @param custoMedio       Média dos custos.
+ * @param custoP50         Mediana dos custos (percentil 50, interpolado).
+ * @param custoP90         Percentil 90 dos custos (interpolado).
+ */
+public record CustoTipoMesDTO(String tipoProcedimento, Integer ano, Integer mes, Long quantidade,
+                              Double custoTotal, Double custoMedio, Double custoP50, Double custoP90) {
+}
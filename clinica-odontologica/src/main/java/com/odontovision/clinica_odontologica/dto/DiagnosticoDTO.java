@@ -1,5 +1,6 @@
 package com.odontovision.clinica_odontologica.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -7,6 +8,7 @@ import lombok.AllArgsConstructor;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Data Transfer Object (DTO) para a entidade Diagnóstico.
@@ -66,4 +68,17 @@ public class DiagnosticoDTO {
      */
     @NotNull(message = "O paciente associado ao diagnóstico é obrigatório.")
     private Long pacienteId;
+
+    /**
+     * Versão do registro, preenchida pelo servidor e usada no {@code ETag}; ignorada no JSON de entrada.
+     * Em uma atualização, se preenchida (a partir do {@code If-Match}), é a versão que o cliente espera alterar.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
+    /**
+     * Instante da última alteração, preenchido pelo servidor; ignorado na entrada.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime atualizadoEm;
 }
@@ -0,0 +1,26 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.odontovision.clinica_odontologica.model.EntradaSinistro;
+
+import java.time.LocalDateTime;
+
+/**
+ * Situação de um sinistro enviado à entrada assíncrona.
+ *
+ * @param rastreio     Identificador devolvido no {@code 202}.
+ * @param situacao     {@code PENDENTE}, {@code PROCESSANDO}, {@code CONCLUIDO} ou {@code REJEITADO}.
+ * @param sinistroId   ID do sinistro gravado, quando {@code CONCLUIDO}.
+ * @param erro         Motivo da rejeição, quando {@code REJEITADO}.
+ * @param recebidaEm   Instante do recebimento.
+ * @param processadaEm Instante em que o resultado foi registrado.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EntradaSinistroDTO(String rastreio, EntradaSinistro.Situacao situacao, Long sinistroId, String erro,
+                                 LocalDateTime recebidaEm, LocalDateTime processadaEm) {
+
+    public static EntradaSinistroDTO de(EntradaSinistro entrada) {
+        return new EntradaSinistroDTO(entrada.getRastreio(), entrada.getSituacao(), entrada.getSinistroId(), entrada.getErro(),
+                entrada.getRecebidaEm(), entrada.getProcessadaEm());
+    }
+}
@@ -0,0 +1,42 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.AssertTrue;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Filtro das desativações e reativações de dentistas em massa.
+ * <p>
+ * Os critérios informados são combinados (todos precisam ser atendidos); ao menos um é obrigatório,
+ * para que um corpo vazio não altere a tabela inteira.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroDentistasDTO {
+
+    /**
+     * IDs dos dentistas.
+     */
+    private List<Long> ids;
+
+    /**
+     * Seleciona os dentistas sem procedimentos a partir desta data.
+     */
+    private LocalDate semProcedimentosDesde;
+
+    /**
+     * @return {@code true} se ao menos um critério foi informado.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Informe ids ou semProcedimentosDesde")
+    public boolean isComCriterio() {
+        return (ids != null && !ids.isEmpty()) || semProcedimentosDesde != null;
+    }
+}
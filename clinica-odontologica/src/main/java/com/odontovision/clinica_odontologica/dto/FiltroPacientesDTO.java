@@ -0,0 +1,54 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+
+/**
+ * Filtro das desativações e reativações de pacientes em massa.
+ * <p>
+ * Os critérios informados são combinados (todos precisam ser atendidos); ao menos um é obrigatório,
+ * para que um corpo vazio não altere a tabela inteira.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroPacientesDTO {
+
+    /**
+     * IDs dos pacientes.
+     */
+    private List<Long> ids;
+
+    /**
+     * Plano odontológico dos pacientes (por exemplo, um plano parceiro cancelado).
+     */
+    private String planoOdontologico;
+
+    /**
+     * Idade mínima dos pacientes.
+     */
+    @Min(value = 0, message = "A idade mínima não pode ser negativa")
+    private Integer idadeMinima;
+
+    /**
+     * Idade máxima dos pacientes.
+     */
+    @Min(value = 0, message = "A idade máxima não pode ser negativa")
+    private Integer idadeMaxima;
+
+    /**
+     * @return {@code true} se ao menos um critério foi informado.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Informe ids, planoOdontologico, idadeMinima ou idadeMaxima")
+    public boolean isComCriterio() {
+        return (ids != null && !ids.isEmpty()) || planoOdontologico != null || idadeMinima != null || idadeMaxima != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.odontovision.clinica_odontologica.dto;
+
+/**
+ * Taxa de procedimentos suspeitos de fraude por plano odontológico em um período.
+ *
+ * @param planoOdontologico Plano dos pacientes ({@code null} para pacientes sem plano).
+ * @param procedimentos     Quantidade de procedimentos.
+ * @param suspeitos         Quantidade de procedimentos com risco de fraude.
+ * @param taxaFraude        Fração de procedimentos suspeitos, entre 0 e 1.
+ */
+public record FraudePlanoDTO(String planoOdontologico, Long procedimentos, Long suspeitos, Double taxaFraude) {
+
+    /**
+     * Construtor usado pela consulta: contagens vindas do banco e taxa calculada a partir delas.
+     */
+    public FraudePlanoDTO(String planoOdontologico, Long procedimentos, Long suspeitos) {
+        this(planoOdontologico, procedimentos, suspeitos, procedimentos == 0 ? 0.0 : suspeitos / (double) procedimentos);
+    }
+}
@@ -0,0 +1,35 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * Item da linha do tempo de um paciente: um diagnóstico, um procedimento ou um sinistro.
+ * <p>
+ * Apenas o registro do tipo indicado é preenchido; os outros dois são omitidos do JSON.
+ * </p>
+ *
+ * @param tipo         {@code diagnostico}, {@code procedimento} ou {@code sinistro}.
+ * @param id           ID do registro.
+ * @param data         Data do registro (nula apenas para sinistros sem data).
+ * @param diagnostico  Diagnóstico, quando {@code tipo} é {@code diagnostico}.
+ * @param procedimento Procedimento, quando {@code tipo} é {@code procedimento}.
+ * @param sinistro     Sinistro, quando {@code tipo} é {@code sinistro}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ItemLinhaDoTempoDTO(String tipo, Long id, LocalDate data, DiagnosticoDTO diagnostico,
+                                  ProcedimentoDTO procedimento, SinistroDTO sinistro) {
+
+    public static ItemLinhaDoTempoDTO de(DiagnosticoDTO diagnostico) {
+        return new ItemLinhaDoTempoDTO("diagnostico", diagnostico.getId(), diagnostico.getDataDiagnostico(), diagnostico, null, null);
+    }
+
+    public static ItemLinhaDoTempoDTO de(ProcedimentoDTO procedimento) {
+        return new ItemLinhaDoTempoDTO("procedimento", procedimento.getId(), procedimento.getDataProcedimento(), null, procedimento, null);
+    }
+
+    public static ItemLinhaDoTempoDTO de(SinistroDTO sinistro) {
+        return new ItemLinhaDoTempoDTO("sinistro", sinistro.getId(), sinistro.getDataSinistro(), null, null, sinistro);
+    }
+}
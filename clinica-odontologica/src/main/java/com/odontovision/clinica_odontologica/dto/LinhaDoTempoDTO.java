@@ -0,0 +1,14 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import java.util.List;
+
+/**
+ * Página da linha do tempo de um paciente, da data mais recente para a mais antiga.
+ *
+ * @param paciente      Dados do paciente.
+ * @param itens         Diagnósticos, procedimentos e sinistros da página, intercalados por data.
+ * @param proximoCursor Posição do último item, a ser enviada como {@code cursor} na próxima
+ *                      requisição; nulo quando não há mais itens.
+ */
+public record LinhaDoTempoDTO(PacienteDTO paciente, List<ItemLinhaDoTempoDTO> itens, String proximoCursor) {
+}
@@ -1,5 +1,6 @@
 package com.odontovision.clinica_odontologica.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -8,6 +9,7 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
 
 /**
  * Classe DTO para transporte de dados de Paciente entre as camadas da aplicação.
@@ -68,4 +70,17 @@ public class PacienteDTO {
      * </p>
      */
     private Boolean ativo = true;
+
+    /**
+     * Versão do registro, preenchida pelo servidor e usada no {@code ETag}; ignorada no JSON de entrada.
+     * Em uma atualização, se preenchida (a partir do {@code If-Match}), é a versão que o cliente espera alterar.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
+    /**
+     * Instante da última alteração, preenchido pelo servidor; ignorado na entrada.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime atualizadoEm;
 }
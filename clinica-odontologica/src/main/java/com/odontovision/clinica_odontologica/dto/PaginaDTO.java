@@ -0,0 +1,74 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados paginada por cursor (keyset) sobre o ID.
+ * <p>
+ * O cliente envia o {@code proximoCursor} recebido na página anterior para obter
+ * a próxima. Quando {@code proximoCursor} é nulo, não há mais registros.
+ * </p>
+ *
+ * @param <T> Tipo dos itens da página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    /**
+     * Quantidade de itens retornada quando o cliente não informa o limite, em texto para servir de
+     * {@code defaultValue} do parâmetro {@code limit}.
+     */
+    public static final String LIMITE_PADRAO = "50";
+
+    /**
+     * Quantidade máxima de itens que uma página pode conter.
+     */
+    public static final int LIMITE_MAXIMO = 500;
+
+    /**
+     * Itens da página, ordenados pelo ID de forma crescente.
+     */
+    private List<T> itens;
+
+    /**
+     * ID do último item da página, a ser enviado como {@code cursor} na próxima requisição.
+     */
+    private Long proximoCursor;
+
+    /**
+     * Ajusta o limite solicitado pelo cliente ao intervalo permitido.
+     *
+     * @param limite Limite solicitado.
+     * @return Limite entre 1 e {@link #LIMITE_MAXIMO}.
+     */
+    public static int limitar(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code limite + 1} linhas.
+     * <p>
+     * A linha excedente apenas indica que existe uma próxima página e não é devolvida.
+     * </p>
+     *
+     * @param linhas Linhas retornadas pela consulta (até {@code limite + 1}).
+     * @param limite Limite efetivo da página.
+     * @param id     Função que extrai o ID de cada item.
+     * @param <T>    Tipo dos itens.
+     * @return Página com os itens e o próximo cursor.
+     */
+    public static <T> PaginaDTO<T> of(List<T> linhas, int limite, Function<T, Long> id) {
+        if (linhas.size() <= limite) {
+            return new PaginaDTO<>(linhas, null);
+        }
+        List<T> itens = linhas.subList(0, limite);
+        return new PaginaDTO<>(itens, id.apply(itens.get(limite - 1)));
+    }
+}
@@ -1,11 +1,13 @@
 package com.odontovision.clinica_odontologica.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import jakarta.validation.constraints.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Classe DTO (Data Transfer Object) para a entidade Procedimento.
@@ -60,12 +62,24 @@ public class ProcedimentoDTO {
     /**
      * Indica se o procedimento é suspeito de fraude.
      * <p>
-     * Este campo é obrigatório.
+     * Calculado pelo servidor a partir de {@link #scoreFraude}; ignorado na entrada.
      * </p>
      */
-    @NotNull(message = "O campo de risco de fraude não pode ser nulo.")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private Boolean riscoFraude;
 
+    /**
+     * Pontuação de fraude entre 0 e 1, calculada pelo servidor.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Double scoreFraude;
+
+    /**
+     * Regras de fraude disparadas, separadas por vírgula, calculadas pelo servidor.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String regrasFraude;
+
     /**
      * Identificador do paciente associado ao procedimento.
      * <p>
@@ -83,4 +97,17 @@ public class ProcedimentoDTO {
      */
     @NotNull(message = "O ID do dentista não pode ser nulo.")
     private Long dentistaId;
+
+    /**
+     * Versão do registro, preenchida pelo servidor e usada no {@code ETag}; ignorada no JSON de entrada.
+     * Em uma atualização, se preenchida (a partir do {@code If-Match}), é a versão que o cliente espera alterar.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
+    /**
+     * Instante da última alteração, preenchido pelo servidor; ignorado na entrada.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime atualizadoEm;
 }
@@ -0,0 +1,12 @@
+package com.odontovision.clinica_odontologica.dto;
+
+/**
+ * Procedimentos realizados por um dentista em um período, agregados pelo banco.
+ *
+ * @param dentistaId    ID do dentista.
+ * @param nome          Nome do dentista.
+ * @param procedimentos Quantidade de procedimentos realizados.
+ * @param faturamento   Soma dos custos dos procedimentos.
+ */
+public record ProducaoDentistaDTO(Long dentistaId, String nome, Long procedimentos, Double faturamento) {
+}
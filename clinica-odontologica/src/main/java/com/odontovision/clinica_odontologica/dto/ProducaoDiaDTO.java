@@ -0,0 +1,13 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Produção de um dentista em um dia.
+ *
+ * @param dia           Dia.
+ * @param procedimentos Quantidade de procedimentos realizados.
+ * @param faturamento   Soma dos custos dos procedimentos.
+ */
+public record ProducaoDiaDTO(LocalDate dia, Long procedimentos, Double faturamento) {
+}
@@ -0,0 +1,18 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Produção de um dentista em um período: totais e detalhamento pelos dias com procedimentos.
+ *
+ * @param dentistaId    ID do dentista.
+ * @param de            Data inicial (inclusiva).
+ * @param ate           Data final (inclusiva).
+ * @param procedimentos Quantidade de procedimentos no período.
+ * @param faturamento   Soma dos custos dos procedimentos no período.
+ * @param dias          Produção de cada dia com procedimentos, em ordem crescente de data.
+ */
+public record ProducaoPeriodoDTO(Long dentistaId, LocalDate de, LocalDate ate, Long procedimentos, Double faturamento,
+                                 List<ProducaoDiaDTO> dias) {
+}
@@ -0,0 +1,21 @@
+package com.odontovision.clinica_odontologica.dto;
+
+/**
+ * Procedimento lido pela varredura de fraude, com os totais das janelas que terminam na sua data.
+ *
+ * @param id                    ID do procedimento.
+ * @param tipoProcedimento      Tipo do procedimento.
+ * @param custo                 Custo do procedimento.
+ * @param pacienteId            ID do paciente.
+ * @param procedimentosPaciente Procedimentos do paciente na janela (incluindo este).
+ * @param dentistaId            ID do dentista.
+ * @param faturamentoDentista   Faturamento do dentista na janela (incluindo este).
+ * @param scoreFraude           Pontuação gravada.
+ * @param regrasFraude          Regras gravadas.
+ * @param riscoFraude           Risco gravado.
+ * @param versao                Versão lida, para não sobrescrever uma alteração concorrente.
+ */
+public record ReavaliacaoFraudeDTO(Long id, String tipoProcedimento, Double custo, Long pacienteId, Long procedimentosPaciente,
+                                   Long dentistaId, Double faturamentoDentista, Double scoreFraude, String regrasFraude,
+                                   boolean riscoFraude, Long versao) {
+}
@@ -0,0 +1,55 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relatório de uma importação em massa de procedimentos.
+ * <p>
+ * Traz os totais da importação e o resultado de cada linha recebida, na ordem de envio.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioLoteDTO {
+
+    /**
+     * Quantidade de linhas recebidas.
+     */
+    private int totalLinhas;
+
+    /**
+     * Quantidade de linhas gravadas com sucesso.
+     */
+    private int importadas;
+
+    /**
+     * Quantidade de linhas rejeitadas por erro de validação, referência ou banco de dados.
+     */
+    private int rejeitadas;
+
+    /**
+     * Resultado individual de cada linha.
+     */
+    private List<ResultadoLinhaDTO> linhas = new ArrayList<>();
+
+    /**
+     * Registra o resultado de uma linha e atualiza os totais.
+     *
+     * @param resultado Resultado da linha.
+     */
+    public void adicionar(ResultadoLinhaDTO resultado) {
+        linhas.add(resultado);
+        totalLinhas++;
+        if (resultado.getStatus() == ResultadoLinhaDTO.Status.IMPORTADA) {
+            importadas++;
+        } else {
+            rejeitadas++;
+        }
+    }
+}
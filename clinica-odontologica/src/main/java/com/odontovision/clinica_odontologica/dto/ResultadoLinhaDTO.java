@@ -0,0 +1,66 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado do processamento de uma linha da importação em massa.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLinhaDTO {
+
+    /**
+     * Situação final da linha.
+     */
+    public enum Status {
+        IMPORTADA,
+        REJEITADA
+    }
+
+    /**
+     * Número da linha (ou posição no array), começando em 1.
+     */
+    private int linha;
+
+    /**
+     * Situação final da linha.
+     */
+    private Status status;
+
+    /**
+     * ID gerado para o procedimento, quando importado.
+     */
+    private Long id;
+
+    /**
+     * Mensagens de erro, quando rejeitada.
+     */
+    private List<String> erros;
+
+    /**
+     * Cria o resultado de uma linha importada.
+     *
+     * @param linha Número da linha.
+     * @param id    ID gerado.
+     * @return Resultado de sucesso.
+     */
+    public static ResultadoLinhaDTO importada(int linha, Long id) {
+        return new ResultadoLinhaDTO(linha, Status.IMPORTADA, id, List.of());
+    }
+
+    /**
+     * Cria o resultado de uma linha rejeitada.
+     *
+     * @param linha Número da linha.
+     * @param erros Motivos da rejeição.
+     * @return Resultado de rejeição.
+     */
+    public static ResultadoLinhaDTO rejeitada(int linha, List<String> erros) {
+        return new ResultadoLinhaDTO(linha, Status.REJEITADA, null, erros);
+    }
+}
@@ -0,0 +1,12 @@
+package com.odontovision.clinica_odontologica.dto;
+
+/**
+ * Sinistros de um paciente em um período, agregados pelo banco.
+ *
+ * @param pacienteId        ID do paciente.
+ * @param nome              Nome do paciente.
+ * @param sinistros         Quantidade de sinistros.
+ * @param sinistrosComRisco Quantidade de sinistros marcados com risco de fraude.
+ */
+public record SinistrosPacienteDTO(Long pacienteId, String nome, Long sinistros, Long sinistrosComRisco) {
+}
@@ -0,0 +1,12 @@
+package com.odontovision.clinica_odontologica.dto;
+
+/**
+ * Sinistros por plano odontológico do paciente e tipo de sinistro em um período.
+ *
+ * @param planoOdontologico Plano do paciente ({@code null} se não informado).
+ * @param tipoSinistro      Tipo do sinistro ({@code null} se não informado).
+ * @param sinistros         Quantidade de sinistros.
+ * @param comRisco          Quantidade de sinistros com risco de fraude.
+ */
+public record SinistrosPlanoDTO(String planoOdontologico, String tipoSinistro, Long sinistros, Long comRisco) {
+}
@@ -0,0 +1,12 @@
+package com.odontovision.clinica_odontologica.dto;
+
+/**
+ * Resultado de uma desativação ou reativação em massa.
+ *
+ * @param selecionados Registros que atendiam ao filtro e ainda não estavam na situação pedida.
+ * @param alterados    Registros efetivamente alterados (menos que os selecionados se outra
+ *                     requisição os alterou no meio tempo).
+ * @param lotes        Quantidade de UPDATEs executados.
+ */
+public record SituacaoEmMassaDTO(long selecionados, long alterados, int lotes) {
+}
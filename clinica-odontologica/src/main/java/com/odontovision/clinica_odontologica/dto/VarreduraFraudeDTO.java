@@ -0,0 +1,43 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.odontovision.clinica_odontologica.model.VarreduraFraude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progresso de uma varredura de fraude.
+ *
+ * @param id                      ID da varredura.
+ * @param situacao                {@code EM_ANDAMENTO} ou {@code CONCLUIDA}.
+ * @param emExecucao              Se alguma instância está processando a varredura.
+ * @param total                   Procedimentos existentes no início.
+ * @param processados             Procedimentos reavaliados.
+ * @param alterados               Procedimentos cuja pontuação, regras ou risco mudaram.
+ * @param percentual              Processados sobre o total, entre 0 e 100.
+ * @param procedimentosPorSegundo Vazão da execução em andamento nesta instância ou, concluída, da varredura inteira.
+ * @param iniciadaEm              Instante de início.
+ * @param concluidaEm             Instante de conclusão.
+ * @param particoes               Progresso de cada faixa de IDs.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record VarreduraFraudeDTO(Long id, VarreduraFraude.Situacao situacao, boolean emExecucao, Long total,
+                                 long processados, long alterados, double percentual, Double procedimentosPorSegundo,
+                                 LocalDateTime iniciadaEm, LocalDateTime concluidaEm, List<Particao> particoes) {
+
+    /**
+     * Progresso de uma partição.
+     *
+     * @param numero      Número da partição.
+     * @param idInicial   Primeiro ID da faixa.
+     * @param idFinal     Último ID da faixa.
+     * @param ultimoId    Maior ID já reavaliado (ponto de retomada).
+     * @param processados Procedimentos reavaliados.
+     * @param alterados   Procedimentos alterados.
+     * @param concluida   Se a faixa foi inteiramente reavaliada.
+     */
+    public record Particao(Integer numero, Long idInicial, Long idFinal, Long ultimoId, Long processados, Long alterados,
+                           boolean concluida) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.odontovision.clinica_odontologica.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Resumo do estado de uma tabela, usado para validar listagens em cache no cliente.
+ * <p>
+ * Inclusões mudam a quantidade e o maior ID, alterações mudam a data da última alteração
+ * e exclusões mudam a quantidade, de modo que qualquer escrita gera um novo {@link #etag()}.
+ * </p>
+ *
+ * @param quantidade        Quantidade de registros.
+ * @param maiorId           Maior ID existente ({@code null} se a tabela estiver vazia).
+ * @param ultimaAlteracao   Maior data de atualização ({@code null} se a tabela estiver vazia).
+ */
+public record VersaoListaDTO(Long quantidade, Long maiorId, LocalDateTime ultimaAlteracao) {
+
+    /**
+     * @return Valor (sem aspas) do cabeçalho {@code ETag} das listagens da tabela.
+     */
+    public String etag() {
+        long alteracao = ultimaAlteracao != null
+                ? ultimaAlteracao.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        return quantidade + "-" + (maiorId != null ? maiorId : 0L) + "-" + alteracao;
+    }
+}
@@ -0,0 +1,16 @@
+package com.odontovision.clinica_odontologica.exception;
+
+/**
+ * Exceção personalizada que indica um cursor de paginação que não foi gerado pela API.
+ */
+public class CursorInvalidoException extends RuntimeException {
+
+    /**
+     * Construtor que aceita o cursor recebido.
+     *
+     * @param cursor Cursor enviado pelo cliente.
+     */
+    public CursorInvalidoException(String cursor) {
+        super("Cursor inválido: " + cursor + ".");
+    }
+}
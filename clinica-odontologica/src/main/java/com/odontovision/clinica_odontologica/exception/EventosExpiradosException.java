@@ -0,0 +1,17 @@
+package com.odontovision.clinica_odontologica.exception;
+
+/**
+ * Exceção personalizada que indica que os eventos seguintes à posição informada pelo
+ * consumidor já foram removidos do outbox.
+ */
+public class EventosExpiradosException extends RuntimeException {
+
+    /**
+     * Construtor que aceita uma mensagem personalizada.
+     *
+     * @param message Mensagem descrevendo o erro.
+     */
+    public EventosExpiradosException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.odontovision.clinica_odontologica.exception;
+
+/**
+ * Exceção personalizada que indica que a fila de entrada assíncrona atingiu a capacidade
+ * configurada; o cliente deve tentar novamente depois.
+ */
+public class FilaCheiaException extends RuntimeException {
+
+    /**
+     * Segundos sugeridos ao cliente no cabeçalho {@code Retry-After}.
+     */
+    private final long segundosParaNovaTentativa;
+
+    /**
+     * Construtor que aceita a capacidade da fila e o intervalo sugerido.
+     *
+     * @param capacidade                Quantidade máxima de entradas em aberto.
+     * @param segundosParaNovaTentativa Segundos sugeridos antes de reenviar.
+     */
+    public FilaCheiaException(long capacidade, long segundosParaNovaTentativa) {
+        super("A fila de entrada de sinistros está cheia (" + capacidade + " em aberto); tente novamente mais tarde.");
+        this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+    }
+
+    public long getSegundosParaNovaTentativa() {
+        return segundosParaNovaTentativa;
+    }
+}
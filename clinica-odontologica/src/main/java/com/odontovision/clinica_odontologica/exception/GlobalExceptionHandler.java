@@ -1,5 +1,7 @@
 package com.odontovision.clinica_odontologica.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -69,5 +71,83 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    /**
+     * Trata exceções do tipo {@link LoteInvalidoException}.
+     *
+     * @param ex A exceção capturada.
+     * @return {@link ResponseEntity} com mensagem de erro e status HTTP.
+     */
+    @ExceptionHandler(LoteInvalidoException.class)
+    public ResponseEntity<String> handleLoteInvalidoException(LoteInvalidoException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    /**
+     * Trata exceções do tipo {@link PeriodoInvalidoException}.
+     *
+     * @param ex A exceção capturada.
+     * @return {@link ResponseEntity} com mensagem de erro e status HTTP.
+     */
+    @ExceptionHandler(PeriodoInvalidoException.class)
+    public ResponseEntity<String> handlePeriodoInvalidoException(PeriodoInvalidoException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    /**
+     * Trata exceções do tipo {@link CursorInvalidoException}.
+     *
+     * @param ex A exceção capturada.
+     * @return {@link ResponseEntity} com mensagem de erro e status HTTP.
+     */
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<String> handleCursorInvalidoException(CursorInvalidoException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    /**
+     * Trata exceções do tipo {@link EventosExpiradosException}.
+     *
+     * @param ex A exceção capturada.
+     * @return {@link ResponseEntity} com mensagem de erro e status HTTP.
+     */
+    @ExceptionHandler(EventosExpiradosException.class)
+    public ResponseEntity<String> handleEventosExpiradosException(EventosExpiradosException ex) {
+        return ResponseEntity.status(HttpStatus.GONE).body(ex.getMessage());
+    }
+
+    /**
+     * Trata exceções do tipo {@link FilaCheiaException}: a fila de entrada assíncrona está cheia.
+     *
+     * @param ex A exceção capturada.
+     * @return {@link ResponseEntity} com mensagem de erro, status HTTP e {@code Retry-After}.
+     */
+    @ExceptionHandler(FilaCheiaException.class)
+    public ResponseEntity<String> handleFilaCheiaException(FilaCheiaException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getSegundosParaNovaTentativa()))
+                .body(ex.getMessage());
+    }
 
+    /**
+     * Trata exceções do tipo {@link VersaoDesatualizadaException}: o {@code If-Match} não confere.
+     *
+     * @param ex A exceção capturada.
+     * @return {@link ResponseEntity} com mensagem de erro e status HTTP.
+     */
+    @ExceptionHandler(VersaoDesatualizadaException.class)
+    public ResponseEntity<String> handleVersaoDesatualizadaException(VersaoDesatualizadaException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    /**
+     * Trata falhas de bloqueio otimista: outra requisição alterou o registro entre a leitura e a gravação.
+     *
+     * @param ex A exceção capturada.
+     * @return {@link ResponseEntity} com mensagem de erro e status HTTP.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("O registro foi alterado por outra requisição; releia-o e tente novamente.");
+    }
 }
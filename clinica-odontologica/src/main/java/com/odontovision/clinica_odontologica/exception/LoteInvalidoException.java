@@ -0,0 +1,21 @@
+package com.odontovision.clinica_odontologica.exception;
+
+/**
+ * Exceção personalizada que indica que o corpo de uma importação em massa não pôde ser lido.
+ * <p>
+ * É lançada quando o conteúdo enviado não é um array JSON nem uma sequência NDJSON válida,
+ * o que impede continuar a leitura das linhas seguintes.
+ * </p>
+ */
+public class LoteInvalidoException extends RuntimeException {
+
+    /**
+     * Construtor que aceita a mensagem e a causa do erro de leitura.
+     *
+     * @param message Mensagem descrevendo o erro.
+     * @param cause   Exceção original do parser.
+     */
+    public LoteInvalidoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.odontovision.clinica_odontologica.exception;
+
+/**
+ * Exceção personalizada que indica um período de relatório inválido (início depois do fim).
+ */
+public class PeriodoInvalidoException extends RuntimeException {
+
+    /**
+     * Construtor que aceita uma mensagem personalizada.
+     *
+     * @param message Mensagem descrevendo o erro.
+     */
+    public PeriodoInvalidoException(String message) {
+        super(message);
+    }
+}
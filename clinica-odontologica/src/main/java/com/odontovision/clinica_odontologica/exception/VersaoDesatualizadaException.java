@@ -0,0 +1,30 @@
+package com.odontovision.clinica_odontologica.exception;
+
+/**
+ * Exceção personalizada que indica que a versão informada pelo cliente em {@code If-Match}
+ * não é a versão atual do registro (falha de pré-condição).
+ */
+public class VersaoDesatualizadaException extends RuntimeException {
+
+    /**
+     * Construtor que monta a mensagem a partir das versões comparadas.
+     *
+     * @param recurso  Nome do recurso (por exemplo, "Paciente").
+     * @param id       ID do registro.
+     * @param esperada Versão informada pelo cliente.
+     * @param atual    Versão atual do registro.
+     */
+    public VersaoDesatualizadaException(String recurso, Long id, Long esperada, Long atual) {
+        super(recurso + " com o ID " + id + " está na versão " + atual + ", e não na versão " + esperada
+                + " informada; releia o registro e tente novamente.");
+    }
+
+    /**
+     * Construtor que aceita uma mensagem personalizada.
+     *
+     * @param message Mensagem descrevendo o erro.
+     */
+    public VersaoDesatualizadaException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,13 @@
 package com.odontovision.clinica_odontologica.model;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -12,9 +17,16 @@ import java.util.List;
  * as informações dos dentistas que atuam na clínica. Cada dentista
  * pode estar associado a múltiplos procedimentos realizados.
  * </p>
+ * <p>
+ * Fica no cache de segundo nível (região {@code dentista}), pois é lido a cada
+ * procedimento e sinistro registrado.
+ * </p>
  */
 @Entity
-@Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "dentista")
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Dentista {
@@ -22,11 +34,13 @@ public class Dentista {
     /**
      * Identificador único do dentista.
      * <p>
-     * Geração automática do ID utilizando a estratégia de auto incremento.
+     * Gerado por sequência com alocação em blocos de 50, o que permite ao Hibernate
+     * agrupar inserções em lotes JDBC.
      * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dentista_seq")
+    @SequenceGenerator(name = "dentista_seq", sequenceName = "dentista_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -59,6 +73,7 @@ public class Dentista {
      * na entidade {@link Procedimento}.
      * </p>
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "dentista", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Procedimento> procedimentos;
 
@@ -73,6 +88,18 @@ public class Dentista {
     @Column(nullable = false)
     private boolean ativo = true;
 
+    /**
+     * Versão do registro, incrementada a cada alteração (controle de concorrência otimista e ETag).
+     */
+    @Version
+    private Long versao;
+
+    /**
+     * Instante da última inclusão ou alteração, usado como {@code Last-Modified}.
+     */
+    @UpdateTimestamp
+    private LocalDateTime atualizadoEm;
+
     /**
      * Método para desativar o dentista.
      * <p>
@@ -92,4 +119,20 @@ public class Dentista {
     public void reativar() {
         this.ativo = true;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Dentista) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
 }
@@ -5,7 +5,11 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Entidade que representa um Diagnóstico na clínica odontológica.
@@ -17,13 +21,15 @@ import java.time.LocalDate;
 @Entity
 @Getter
 @Setter
+@ToString
 public class Diagnostico {
 
     /**
      * Identificador único do diagnóstico.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "diagnostico_seq")
+    @SequenceGenerator(name = "diagnostico_seq", sequenceName = "diagnostico_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -59,7 +65,36 @@ public class Diagnostico {
      * Cada diagnóstico está associado a um único paciente.
      * </p>
      */
+    @ToString.Exclude
     @ManyToOne
     @JoinColumn(name = "paciente_id", nullable = false)  // Chave estrangeira para Paciente
     private Paciente paciente;
-}
\ No newline at end of file
+
+    /**
+     * Versão do registro, incrementada a cada alteração (controle de concorrência otimista e ETag).
+     */
+    @Version
+    private Long versao;
+
+    /**
+     * Instante da última inclusão ou alteração, usado como {@code Last-Modified}.
+     */
+    @UpdateTimestamp
+    private LocalDateTime atualizadoEm;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Diagnostico) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+}
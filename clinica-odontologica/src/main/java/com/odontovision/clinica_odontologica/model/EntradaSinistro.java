@@ -0,0 +1,75 @@
+package com.odontovision.clinica_odontologica.model;
+
+import lombok.*;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Sinistro recebido pela entrada assíncrona ({@code POST /sinistros/intake}) e ainda não gravado,
+ * ou o resultado do processamento, consultado pelo {@link #rastreio}.
+ * <p>
+ * Um trabalhador reserva a linha gravando um {@link #token} próprio e o instante da reserva; só
+ * quem tem o token registra o resultado. Reservas mais antigas que o prazo configurado voltam a
+ * ficar pendentes, para o caso de o trabalhador ter parado no meio do lote.
+ * </p>
+ */
+@Entity
+@Table(name = "entrada_sinistro")
+@Data
+@NoArgsConstructor
+public class EntradaSinistro {
+
+    /**
+     * Situação da entrada na fila.
+     */
+    public enum Situacao {
+        PENDENTE, PROCESSANDO, CONCLUIDO, REJEITADO
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entrada_sinistro_seq")
+    @SequenceGenerator(name = "entrada_sinistro_seq", sequenceName = "entrada_sinistro_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Identificador público devolvido ao cliente (UUID).
+     */
+    private String rastreio;
+
+    /**
+     * Sinistro recebido, em JSON.
+     */
+    @Lob
+    @ToString.Exclude
+    private String dados;
+
+    @Enumerated(EnumType.STRING)
+    private Situacao situacao;
+
+    /**
+     * Token do trabalhador que reservou a entrada, enquanto {@code PROCESSANDO}.
+     */
+    private String token;
+
+    private LocalDateTime reservadaEm;
+
+    /**
+     * Quantidade de reservas; passa de 1 apenas quando uma reserva expirou sem resultado.
+     */
+    private Integer tentativas;
+
+    /**
+     * ID do sinistro gravado, quando {@code CONCLUIDO}.
+     */
+    private Long sinistroId;
+
+    /**
+     * Motivo da rejeição, quando {@code REJEITADO}.
+     */
+    private String erro;
+
+    private LocalDateTime recebidaEm;
+
+    private LocalDateTime processadaEm;
+}
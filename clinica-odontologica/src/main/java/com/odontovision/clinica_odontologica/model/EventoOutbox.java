@@ -0,0 +1,63 @@
+package com.odontovision.clinica_odontologica.model;
+
+import lombok.*;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Evento de alteração de um procedimento ou sinistro, gravado no outbox na mesma transação
+ * da alteração.
+ * <p>
+ * Enquanto {@link #posicao} é nula, o evento ainda não foi publicado. A posição é atribuída
+ * pelo publicador em sequência contínua, na ordem do ID, e identifica o evento para os
+ * consumidores de {@code /eventos}. Como o ID vem de blocos de sequência por instância, essa
+ * ordem não é a de confirmação; a ordem entre eventos do mesmo registro é dada pela
+ * {@code versao} incluída em {@link #dados}.
+ * </p>
+ */
+@Entity
+@Table(name = "evento_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoOutbox {
+
+    /**
+     * Tipo da alteração.
+     */
+    public enum Tipo {
+        CRIADO, ATUALIZADO, REMOVIDO
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_outbox_seq")
+    @SequenceGenerator(name = "evento_outbox_seq", sequenceName = "evento_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Nome do agregado alterado ({@code procedimento} ou {@code sinistro}).
+     */
+    private String agregado;
+
+    /**
+     * ID do registro alterado.
+     */
+    private Long agregadoId;
+
+    @Enumerated(EnumType.STRING)
+    private Tipo tipo;
+
+    /**
+     * Estado do registro após a alteração, em JSON (apenas o ID e a versão na remoção).
+     */
+    @Lob
+    private String dados;
+
+    private LocalDateTime criadoEm;
+
+    /**
+     * Posição do evento no fluxo publicado, ou {@code null} se ainda pendente.
+     */
+    private Long posicao;
+}
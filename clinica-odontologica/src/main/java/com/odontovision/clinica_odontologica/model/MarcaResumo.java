@@ -0,0 +1,41 @@
+package com.odontovision.clinica_odontologica.model;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marca d'água de um processamento incremental: instante até o qual as alterações da tabela de
+ * origem já foram incorporadas aos resumos diários ou, para {@code evento_outbox}, última posição publicada.
+ * <p>
+ * A linha de cada tabela também serve de trava, para que duas instâncias não processem a
+ * mesma tabela ao mesmo tempo.
+ * </p>
+ */
+@Entity
+@Table(name = "resumo_marca")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarcaResumo {
+
+    /**
+     * Nome da tabela de origem ({@code procedimento}, {@code sinistro} ou {@code evento_outbox}).
+     */
+    @Id
+    private String tabela;
+
+    /**
+     * Última posição de evento publicada ({@code evento_outbox}); sem uso nos resumos.
+     */
+    private Long ultimoId;
+
+    /**
+     * Instante (de {@code atualizado_em}) até o qual as alterações já foram incorporadas aos resumos.
+     */
+    private LocalDateTime ultimaAlteracao;
+
+    public MarcaResumo(String tabela, Long ultimoId) {
+        this(tabela, ultimoId, null);
+    }
+}
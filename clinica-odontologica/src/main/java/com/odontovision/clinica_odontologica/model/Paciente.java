@@ -1,12 +1,17 @@
 package com.odontovision.clinica_odontologica.model;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -15,9 +20,16 @@ import java.util.List;
  * Esta classe mapeia a tabela "paciente" no banco de dados e contém
  * as informações dos pacientes atendidos pela clínica.
  * </p>
+ * <p>
+ * Fica no cache de segundo nível (região {@code paciente}), pois é lido a cada
+ * procedimento, diagnóstico e sinistro registrado.
+ * </p>
  */
 @Entity
-@Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "paciente")
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Paciente {
@@ -26,7 +38,8 @@ public class Paciente {
      * Identificador único do paciente.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "paciente_seq")
+    @SequenceGenerator(name = "paciente_seq", sequenceName = "paciente_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -79,6 +92,7 @@ public class Paciente {
      * Representa o relacionamento um-para-muitos com a entidade {@link Diagnostico}.
      * </p>
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "paciente", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Diagnostico> diagnosticos;
 
@@ -88,6 +102,46 @@ public class Paciente {
      * Representa o relacionamento um-para-muitos com a entidade {@link Procedimento}.
      * </p>
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "paciente", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Procedimento> procedimentos;
+
+    /**
+     * Versão do registro, incrementada a cada alteração (controle de concorrência otimista e ETag).
+     */
+    @Version
+    private Long versao;
+
+    /**
+     * Instante da última inclusão ou alteração, usado como {@code Last-Modified}.
+     */
+    @UpdateTimestamp
+    private LocalDateTime atualizadoEm;
+
+    /**
+     * Identidade pelo ID: duas instâncias são iguais quando representam a mesma linha, inclusive se
+     * uma delas for um proxy do Hibernate, comparado pela classe persistente sem ser inicializado.
+     * Instâncias ainda sem ID só são iguais a si mesmas.
+     * <p>
+     * Associações ficam fora de {@code equals}, {@code hashCode} e {@code toString}: nenhum deles
+     * inicializa coleções ou proxies (sem SQL) nem percorre as referências de volta. O hash é o da
+     * classe persistente, e não o do ID, para não mudar quando o {@code persist} atribui o ID a uma
+     * instância que já esteja em um {@code HashSet}.
+     * </p>
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Paciente) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
 }
@@ -1,10 +1,13 @@
 package com.odontovision.clinica_odontologica.model;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.UpdateTimestamp;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Entidade que representa um Procedimento na clínica odontológica.
@@ -13,18 +16,29 @@ import java.time.LocalDate;
  * as informações dos procedimentos realizados pelos dentistas nos pacientes.
  * Cada procedimento está associado a um paciente e a um dentista.
  * </p>
+ * <p>
+ * O índice sobre {@code score_fraude} atende à listagem de suspeitas de fraude.
+ * </p>
  */
 @Entity
-@Data
+@Table(indexes = @Index(name = "idx_procedimento_score_fraude", columnList = "score_fraude"))
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Procedimento {
 
     /**
      * Identificador único do procedimento.
+     * <p>
+     * Gerado pela sequência {@code procedimento_seq} com otimizador pooled: o Hibernate reserva
+     * 50 IDs por acesso à sequência, mantendo o lote JDBC ativo nas importações em massa.
+     * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "procedimento_seq")
+    @SequenceGenerator(name = "procedimento_seq", sequenceName = "procedimento_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -55,6 +69,7 @@ public class Procedimento {
      * Representa o relacionamento muitos-para-um com a entidade {@link Paciente}.
      * Este campo é obrigatório.
      */
+    @ToString.Exclude
     @ManyToOne
     @JoinColumn(name = "paciente_id", nullable = false)
     private Paciente paciente;
@@ -64,6 +79,7 @@ public class Procedimento {
      * Representa o relacionamento muitos-para-um com a entidade {@link Dentista}.
      * Este campo é obrigatório.
      */
+    @ToString.Exclude
     @ManyToOne
     @JoinColumn(name = "dentista_id", nullable = false)
     private Dentista dentista;
@@ -74,6 +90,7 @@ public class Procedimento {
      * Um procedimento pode estar relacionado a um sinistro (caso haja suspeita de fraude).
      * </p>
      */
+    @ToString.Exclude
     @ManyToOne
     @JoinColumn(name = "sinistro_id", nullable = true)
     private Sinistro sinistro;
@@ -81,9 +98,47 @@ public class Procedimento {
     /**
      * Indica se o procedimento é suspeito de fraude.
      * <p>
-     * Este campo pode ser usado para marcar procedimentos que estão sob análise
-     * por suspeita de fraude.
+     * Calculado pelo {@code MotorFraude}: verdadeiro quando {@link #scoreFraude} atinge o limiar configurado.
      * </p>
      */
     private boolean riscoFraude;
+
+    /**
+     * Pontuação de fraude entre 0 e 1, calculada na inclusão do procedimento.
+     */
+    @Column(name = "score_fraude")
+    private Double scoreFraude;
+
+    /**
+     * Regras de fraude disparadas, separadas por vírgula (ex.: "CUSTO_ATIPICO,FREQUENCIA_PACIENTE").
+     */
+    private String regrasFraude;
+
+    /**
+     * Versão do registro, incrementada a cada alteração (controle de concorrência otimista e ETag).
+     */
+    @Version
+    private Long versao;
+
+    /**
+     * Instante da última inclusão ou alteração, usado como {@code Last-Modified}.
+     */
+    @UpdateTimestamp
+    private LocalDateTime atualizadoEm;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Procedimento) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
 }
@@ -0,0 +1,50 @@
+package com.odontovision.clinica_odontologica.model;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Contadores de produção de um dentista em um dia: quantidade e soma dos custos dos procedimentos.
+ * <p>
+ * Diferente do {@link ResumoProcedimentoDia}, não é recalculado a partir de {@code procedimento}:
+ * {@code ProducaoDentistaService} soma e subtrai cada procedimento incluído, alterado ou excluído
+ * na mesma transação da gravação.
+ * </p>
+ */
+@Entity
+@Table(name = "producao_dentista_dia")
+@IdClass(ProducaoDentistaDia.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProducaoDentistaDia {
+
+    @Id
+    private Long dentistaId;
+
+    @Id
+    private LocalDate dia;
+
+    /**
+     * Quantidade de procedimentos no dia (zero quando todos foram excluídos ou movidos).
+     */
+    private Long quantidade;
+
+    /**
+     * Soma dos custos dos procedimentos no dia.
+     */
+    private Double custoTotal;
+
+    /**
+     * Chave composta: dentista e dia.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private Long dentistaId;
+        private LocalDate dia;
+    }
+}
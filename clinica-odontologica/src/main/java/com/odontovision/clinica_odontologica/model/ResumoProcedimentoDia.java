@@ -0,0 +1,58 @@
+package com.odontovision.clinica_odontologica.model;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Resumo diário de procedimentos por dentista e tipo de procedimento.
+ * <p>
+ * Mantido por {@code ResumoDiarioService} a partir da tabela {@code procedimento}; os relatórios
+ * somam estas linhas em vez de percorrer o histórico de procedimentos.
+ * </p>
+ */
+@Entity
+@Table(name = "resumo_procedimento_dia")
+@IdClass(ResumoProcedimentoDia.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoProcedimentoDia {
+
+    @Id
+    private LocalDate dia;
+
+    @Id
+    private Long dentistaId;
+
+    @Id
+    private String tipoProcedimento;
+
+    /**
+     * Quantidade de procedimentos no dia.
+     */
+    private Long quantidade;
+
+    /**
+     * Soma dos custos dos procedimentos no dia.
+     */
+    private Double custoTotal;
+
+    /**
+     * Quantidade de procedimentos com risco de fraude no dia.
+     */
+    private Long suspeitos;
+
+    /**
+     * Chave composta: dia, dentista e tipo de procedimento.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private LocalDate dia;
+        private Long dentistaId;
+        private String tipoProcedimento;
+    }
+}
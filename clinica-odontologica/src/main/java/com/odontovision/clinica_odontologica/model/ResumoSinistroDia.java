@@ -0,0 +1,59 @@
+package com.odontovision.clinica_odontologica.model;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Resumo diário de sinistros por plano odontológico do paciente e tipo de sinistro.
+ * <p>
+ * Mantido por {@code ResumoDiarioService} a partir da tabela {@code sinistro}. Como plano e tipo
+ * fazem parte da chave, valores ausentes são gravados como {@link #NAO_INFORMADO}; sinistros
+ * sem data não entram no resumo.
+ * </p>
+ */
+@Entity
+@Table(name = "resumo_sinistro_dia")
+@IdClass(ResumoSinistroDia.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoSinistroDia {
+
+    /**
+     * Valor gravado no lugar de plano ou tipo de sinistro ausente.
+     */
+    public static final String NAO_INFORMADO = "-";
+
+    @Id
+    private LocalDate dia;
+
+    @Id
+    private String planoOdontologico;
+
+    @Id
+    private String tipoSinistro;
+
+    /**
+     * Quantidade de sinistros no dia.
+     */
+    private Long quantidade;
+
+    /**
+     * Quantidade de sinistros com risco de fraude no dia.
+     */
+    private Long comRisco;
+
+    /**
+     * Chave composta: dia, plano odontológico e tipo de sinistro.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private LocalDate dia;
+        private String planoOdontologico;
+        private String tipoSinistro;
+    }
+}
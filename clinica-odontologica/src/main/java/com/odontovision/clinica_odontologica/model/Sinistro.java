@@ -1,21 +1,27 @@
 package com.odontovision.clinica_odontologica.model;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Entidade que representa um Sinistro na clínica odontológica.
  */
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Sinistro {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sinistro_seq")
+    @SequenceGenerator(name = "sinistro_seq", sequenceName = "sinistro_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -33,17 +39,48 @@ public class Sinistro {
      */
     private LocalDate dataSinistro;
 
+    @ToString.Exclude
     @ManyToOne
     @JoinColumn(name = "procedimento_id")
     private Procedimento procedimento;
 
+    @ToString.Exclude
     @ManyToOne
     @JoinColumn(name = "dentista_id")
     private Dentista dentista;
 
+    @ToString.Exclude
     @ManyToOne
     @JoinColumn(name = "paciente_id")
     private Paciente paciente;
 
     private boolean riscoFraude;
+
+    /**
+     * Versão do registro, incrementada a cada alteração (controle de concorrência otimista e ETag).
+     */
+    @Version
+    private Long versao;
+
+    /**
+     * Instante da última inclusão ou alteração, usado como {@code Last-Modified}.
+     */
+    @UpdateTimestamp
+    private LocalDateTime atualizadoEm;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Sinistro) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
 }
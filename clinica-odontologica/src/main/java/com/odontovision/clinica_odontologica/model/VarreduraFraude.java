@@ -0,0 +1,49 @@
+package com.odontovision.clinica_odontologica.model;
+
+import lombok.*;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Reavaliação em massa da pontuação de fraude dos procedimentos.
+ * <p>
+ * O progresso fica nas partições ({@link VarreduraFraudeParticao}); aqui ficam apenas a situação,
+ * a quantidade de procedimentos existentes no início e os instantes de início e conclusão.
+ * </p>
+ */
+@Entity
+@Table(name = "varredura_fraude")
+@Data
+@NoArgsConstructor
+public class VarreduraFraude {
+
+    /**
+     * Situação da varredura.
+     */
+    public enum Situacao {
+        EM_ANDAMENTO, CONCLUIDA
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "varredura_fraude_seq")
+    @SequenceGenerator(name = "varredura_fraude_seq", sequenceName = "varredura_fraude_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private Situacao situacao;
+
+    /**
+     * Quantidade de procedimentos no início da varredura.
+     */
+    private Long total;
+
+    /**
+     * Token da execução em andamento, ou {@code null} quando nenhuma instância está processando a varredura.
+     */
+    private String executor;
+
+    private LocalDateTime iniciadaEm;
+
+    private LocalDateTime concluidaEm;
+}
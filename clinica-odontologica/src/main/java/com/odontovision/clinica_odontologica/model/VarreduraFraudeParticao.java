@@ -0,0 +1,71 @@
+package com.odontovision.clinica_odontologica.model;
+
+import lombok.*;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Faixa de IDs de procedimento reavaliada por uma {@link VarreduraFraude}, com o ponto de retomada.
+ * <p>
+ * {@link #ultimoId} é o maior ID já reavaliado (começa em {@code idInicial - 1}) e é gravado na
+ * mesma transação das alterações de cada lote; a partição termina quando chega a {@link #idFinal}.
+ * </p>
+ */
+@Entity
+@Table(name = "varredura_fraude_particao")
+@IdClass(VarreduraFraudeParticao.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VarreduraFraudeParticao {
+
+    @Id
+    private Long varreduraId;
+
+    @Id
+    private Integer numero;
+
+    /**
+     * Primeiro ID da faixa (inclusivo).
+     */
+    private Long idInicial;
+
+    /**
+     * Último ID da faixa (inclusivo).
+     */
+    private Long idFinal;
+
+    private Long ultimoId;
+
+    /**
+     * Procedimentos reavaliados.
+     */
+    private Long processados;
+
+    /**
+     * Procedimentos cuja pontuação, regras ou risco mudaram.
+     */
+    private Long alterados;
+
+    /**
+     * Instante do último lote gravado; serve de batimento da instância que executa a varredura.
+     */
+    private LocalDateTime atualizadaEm;
+
+    public boolean isConcluida() {
+        return ultimoId >= idFinal;
+    }
+
+    /**
+     * Chave composta: varredura e número da partição.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private Long varreduraId;
+        private Integer numero;
+    }
+}
@@ -1,11 +1,21 @@
 package com.odontovision.clinica_odontologica.repository;
 
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.model.Dentista;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repositório da entidade {@link Dentista}.
@@ -46,4 +56,84 @@ public interface DentistaRepository extends JpaRepository<Dentista, Long> {
      */
     @Query("SELECT d FROM Dentista d WHERE d.ativo = true")
     List<Dentista> findAllAtivos();
+
+    /**
+     * Verifica, em uma única consulta, quais dos IDs informados existem.
+     * <p>
+     * Usada para validar referências de vários registros de uma vez, sem carregar as entidades.
+     * </p>
+     *
+     * @param ids IDs a verificar (no máximo 1000, limite da cláusula IN no Oracle).
+     * @return Subconjunto dos IDs que existem na tabela de dentistas.
+     */
+    @Query("SELECT d.id FROM Dentista d WHERE d.id IN :ids")
+    Set<Long> findIdsExistentes(Collection<Long> ids);
+
+    /**
+     * Busca a próxima página de dentistas a partir de um cursor (paginação keyset).
+     *
+     * @param cursor ID do último registro da página anterior (0 para a primeira página).
+     * @param limit  Quantidade máxima de registros.
+     * @return Lista de dentistas após o cursor.
+     */
+    List<Dentista> findByIdGreaterThanOrderByIdAsc(Long cursor, Limit limit);
+
+    /**
+     * Percorre todos os dentistas em ordem de ID sem carregar a tabela inteira em memória.
+     * <p>
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     * </p>
+     *
+     * @return Stream de dentistas.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Dentista> streamAllByOrderByIdAsc();
+
+    /**
+     * Resume o estado da tabela de dentistas para a validação condicional das listagens.
+     *
+     * @return Quantidade, maior ID e última alteração dos dentistas.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.VersaoListaDTO(COUNT(d), MAX(d.id), MAX(d.atualizadoEm)) FROM Dentista d")
+    VersaoListaDTO buscarVersaoLista();
+
+    /**
+     * Busca, em ordem de ID, a próxima parte dos dentistas que atendem ao filtro e ainda não estão
+     * na situação desejada. O critério nulo é ignorado.
+     *
+     * @param ativo                 Situação desejada.
+     * @param cursor                Maior ID da parte anterior (0 para a primeira).
+     * @param semProcedimentosDesde Data a partir da qual o dentista não tem procedimentos (opcional).
+     * @param limite                Tamanho da parte.
+     * @return IDs dos dentistas a alterar.
+     */
+    @Query("SELECT d.id FROM Dentista d WHERE d.ativo <> :ativo AND d.id > :cursor "
+            + "AND (:semProcedimentosDesde IS NULL OR NOT EXISTS (SELECT 1 FROM Procedimento pr "
+            + "WHERE pr.dentista = d AND pr.dataProcedimento >= :semProcedimentosDesde)) ORDER BY d.id")
+    List<Long> buscarIdsParaSituacao(boolean ativo, Long cursor, LocalDate semProcedimentosDesde, Limit limite);
+
+    /**
+     * Filtra, entre os IDs informados, os dentistas que atendem ao filtro e ainda não estão na situação desejada.
+     *
+     * @param ids                   IDs candidatos (no máximo 1000, limite da cláusula IN no Oracle).
+     * @param ativo                 Situação desejada.
+     * @param semProcedimentosDesde Data a partir da qual o dentista não tem procedimentos (opcional).
+     * @return IDs dos dentistas a alterar, em ordem.
+     */
+    @Query("SELECT d.id FROM Dentista d WHERE d.id IN :ids AND d.ativo <> :ativo "
+            + "AND (:semProcedimentosDesde IS NULL OR NOT EXISTS (SELECT 1 FROM Procedimento pr "
+            + "WHERE pr.dentista = d AND pr.dataProcedimento >= :semProcedimentosDesde)) ORDER BY d.id")
+    List<Long> filtrarIdsParaSituacao(Collection<Long> ids, boolean ativo, LocalDate semProcedimentosDesde);
+
+    /**
+     * Ativa ou desativa os dentistas informados em um único UPDATE, incrementando a versão.
+     *
+     * @param ids   IDs dos dentistas (no máximo 1000, limite da cláusula IN no Oracle).
+     * @param ativo Nova situação.
+     * @return Quantidade de dentistas alterados.
+     */
+    @Modifying
+    @Query("UPDATE Dentista d SET d.ativo = :ativo, d.versao = d.versao + 1, d.atualizadoEm = LOCAL_DATETIME "
+            + "WHERE d.id IN :ids AND d.ativo <> :ativo")
+    int alterarSituacao(Collection<Long> ids, boolean ativo);
 }
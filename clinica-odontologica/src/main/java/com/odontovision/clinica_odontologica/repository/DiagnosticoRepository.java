@@ -1,12 +1,19 @@
 package com.odontovision.clinica_odontologica.repository;
 
+import com.odontovision.clinica_odontologica.dto.DiagnosticoDTO;
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.model.Diagnostico;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositório da entidade {@link Diagnostico}.
@@ -55,4 +62,63 @@ public interface DiagnosticoRepository extends JpaRepository<Diagnostico, Long>
     @Query("SELECT d FROM Diagnostico d WHERE d.dataDiagnostico BETWEEN :startDate AND :endDate")
     List<Diagnostico> findDiagnosticosBetweenDates(LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Projeção JPQL que lê apenas as colunas de {@link DiagnosticoDTO}.
+     */
+    String PROJECAO_DTO = "SELECT new com.odontovision.clinica_odontologica.dto.DiagnosticoDTO("
+            + "d.id, d.tipoDiagnostico, d.dataDiagnostico, d.descricao, d.paciente.id, d.versao, d.atualizadoEm) FROM Diagnostico d";
+
+    /**
+     * Lista todos os diagnósticos já projetados em {@link DiagnosticoDTO}.
+     *
+     * @return Lista de {@link DiagnosticoDTO} ordenada pelo ID.
+     */
+    @Query(PROJECAO_DTO + " ORDER BY d.id")
+    List<DiagnosticoDTO> listarTodosComoDTO();
+
+    /**
+     * Busca a próxima página de diagnósticos a partir de um cursor (paginação keyset).
+     *
+     * @param cursor ID do último registro da página anterior (0 para a primeira página).
+     * @param limit  Quantidade máxima de registros.
+     * @return Lista de {@link DiagnosticoDTO} após o cursor.
+     */
+    @Query(PROJECAO_DTO + " WHERE d.id > :cursor ORDER BY d.id")
+    List<DiagnosticoDTO> buscarPaginaComoDTO(Long cursor, Limit limit);
+
+    /**
+     * Busca os diagnósticos de um paciente anteriores a uma posição da linha do tempo, do mais
+     * recente ao mais antigo (índice {@code (paciente_id, data_diagnostico)}).
+     *
+     * @param pacienteId ID do paciente.
+     * @param data       Data da posição; diagnósticos desta data só entram com ID menor que {@code id}.
+     * @param id         ID limite (exclusivo) na data da posição.
+     * @param limit      Quantidade máxima de registros.
+     * @return Lista de {@link DiagnosticoDTO} por data e ID decrescentes.
+     */
+    @Query(PROJECAO_DTO + " WHERE d.paciente.id = :pacienteId"
+            + " AND (d.dataDiagnostico < :data OR (d.dataDiagnostico = :data AND d.id < :id))"
+            + " ORDER BY d.dataDiagnostico DESC, d.id DESC")
+    List<DiagnosticoDTO> buscarLinhaDoTempoComoDTO(Long pacienteId, LocalDate data, Long id, Limit limit);
+
+    /**
+     * Percorre todos os diagnósticos em ordem de ID, projetados em {@link DiagnosticoDTO}.
+     * <p>
+     * Como os DTOs não são entidades gerenciadas, o contexto de persistência não cresce
+     * durante a leitura. Deve ser consumido dentro de uma transação e fechado ao final.
+     * </p>
+     *
+     * @return Stream de {@link DiagnosticoDTO}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PROJECAO_DTO + " ORDER BY d.id")
+    Stream<DiagnosticoDTO> transmitirTodosComoDTO();
+
+    /**
+     * Resume o estado da tabela de diagnósticos para a validação condicional das listagens.
+     *
+     * @return Quantidade, maior ID e última alteração dos diagnósticos.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.VersaoListaDTO(COUNT(d), MAX(d.id), MAX(d.atualizadoEm)) FROM Diagnostico d")
+    VersaoListaDTO buscarVersaoLista();
 }
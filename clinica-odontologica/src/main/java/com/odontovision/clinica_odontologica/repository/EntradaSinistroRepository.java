@@ -0,0 +1,112 @@
+package com.odontovision.clinica_odontologica.repository;
+
+import com.odontovision.clinica_odontologica.model.EntradaSinistro;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório da fila de entrada de sinistros ({@link EntradaSinistro}).
+ */
+@Repository
+public interface EntradaSinistroRepository extends JpaRepository<EntradaSinistro, Long> {
+
+    /**
+     * Busca uma entrada pelo identificador público.
+     *
+     * @param rastreio Rastreio devolvido no {@code 202}.
+     * @return {@link Optional} com a entrada, vazio se não existir (ou já tiver sido removida).
+     */
+    Optional<EntradaSinistro> findByRastreio(String rastreio);
+
+    /**
+     * Quantidade de entradas ainda sem resultado, usada como ocupação da fila.
+     *
+     * @return Entradas pendentes ou em processamento.
+     */
+    @Query("SELECT COUNT(e) FROM EntradaSinistro e WHERE e.situacao IN "
+            + "(com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PENDENTE, com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PROCESSANDO)")
+    long contarEmAberto();
+
+    /**
+     * IDs das próximas entradas pendentes, por ordem de chegada.
+     *
+     * @param limite Quantidade máxima de IDs.
+     * @return IDs candidatos à reserva.
+     */
+    @Query("SELECT e.id FROM EntradaSinistro e "
+            + "WHERE e.situacao = com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PENDENTE ORDER BY e.id")
+    List<Long> buscarPendentes(Limit limite);
+
+    /**
+     * Reserva as entradas informadas que continuam pendentes. Em uma disputa entre trabalhadores,
+     * o segundo {@code UPDATE} espera o primeiro e não encontra mais as linhas como pendentes.
+     *
+     * @param ids   IDs obtidos em {@link #buscarPendentes(Limit)}.
+     * @param token Token do trabalhador.
+     * @param agora Instante da reserva.
+     * @return Quantidade de entradas reservadas.
+     */
+    @Modifying
+    @Query("UPDATE EntradaSinistro e SET e.situacao = com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PROCESSANDO, "
+            + "e.token = :token, "
+            + "e.reservadaEm = :agora, e.tentativas = e.tentativas + 1 "
+            + "WHERE e.id IN :ids AND e.situacao = com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PENDENTE")
+    int reservar(Collection<Long> ids, String token, LocalDateTime agora);
+
+    /**
+     * Devolve à fila as reservas feitas antes do limite e ainda sem resultado.
+     *
+     * @param limite Instante de corte (exclusivo).
+     * @return Quantidade de entradas liberadas.
+     */
+    @Modifying
+    @Query("UPDATE EntradaSinistro e SET e.situacao = com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PENDENTE, e.token = NULL "
+            + "WHERE e.situacao = com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PROCESSANDO "
+            + "AND e.reservadaEm < :limite")
+    int liberarReservasExpiradas(LocalDateTime limite);
+
+    /**
+     * Entradas reservadas com o token, travadas até o fim da transação.
+     *
+     * @param token Token do trabalhador.
+     * @return Entradas que continuam reservadas pelo trabalhador, por ID.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EntradaSinistro e WHERE e.token = :token "
+            + "AND e.situacao = com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PROCESSANDO ORDER BY e.id")
+    List<EntradaSinistro> travarReservadas(String token);
+
+    /**
+     * Entrada reservada com o token, travada até o fim da transação.
+     *
+     * @param id    ID da entrada.
+     * @param token Token do trabalhador.
+     * @return {@link Optional} com a entrada, vazio se ela não estiver (mais) reservada pelo trabalhador.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EntradaSinistro e WHERE e.id = :id AND e.token = :token "
+            + "AND e.situacao = com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.PROCESSANDO")
+    Optional<EntradaSinistro> travarReservada(Long id, String token);
+
+    /**
+     * Remove as entradas processadas antes do instante informado.
+     *
+     * @param limite Instante de corte (exclusivo).
+     * @return Quantidade de entradas removidas.
+     */
+    @Modifying
+    @Query("DELETE FROM EntradaSinistro e WHERE e.situacao IN "
+            + "(com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.CONCLUIDO, com.odontovision.clinica_odontologica.model.EntradaSinistro.Situacao.REJEITADO) "
+            + "AND e.processadaEm < :limite")
+    int removerProcessadasAntesDe(LocalDateTime limite);
+}
@@ -0,0 +1,55 @@
+package com.odontovision.clinica_odontologica.repository;
+
+import com.odontovision.clinica_odontologica.model.EventoOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositório do outbox de eventos ({@link EventoOutbox}).
+ */
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Eventos ainda não publicados, na ordem do ID (não necessariamente a de confirmação).
+     *
+     * @param limite Quantidade máxima de eventos.
+     * @return Eventos com posição nula, por ID.
+     */
+    @Query("SELECT e FROM EventoOutbox e WHERE e.posicao IS NULL ORDER BY e.id")
+    List<EventoOutbox> buscarPendentes(Limit limite);
+
+    /**
+     * Eventos publicados depois de uma posição.
+     *
+     * @param posicao Última posição já recebida pelo consumidor (exclusiva).
+     * @param limite  Quantidade máxima de eventos.
+     * @return Eventos na ordem das posições.
+     */
+    @Query("SELECT e FROM EventoOutbox e WHERE e.posicao > :posicao ORDER BY e.posicao")
+    List<EventoOutbox> buscarDepoisDe(long posicao, Limit limite);
+
+    /**
+     * Menor posição ainda guardada no outbox.
+     *
+     * @return Menor posição, ou {@code null} se não houver eventos publicados.
+     */
+    @Query("SELECT MIN(e.posicao) FROM EventoOutbox e WHERE e.posicao IS NOT NULL")
+    Long buscarMenorPosicao();
+
+    /**
+     * Remove os eventos publicados antes do instante informado.
+     *
+     * @param limite Instante de corte (exclusivo).
+     * @return Quantidade de eventos removidos.
+     */
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.posicao IS NOT NULL AND e.criadoEm < :limite")
+    int removerPublicadosAntesDe(LocalDateTime limite);
+}
@@ -0,0 +1,27 @@
+package com.odontovision.clinica_odontologica.repository;
+
+import com.odontovision.clinica_odontologica.model.MarcaResumo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositório das marcas d'água dos resumos diários ({@link MarcaResumo}).
+ */
+@Repository
+public interface MarcaResumoRepository extends JpaRepository<MarcaResumo, String> {
+
+    /**
+     * Lê a marca de uma tabela travando a linha até o fim da transação.
+     *
+     * @param tabela Nome da tabela de origem.
+     * @return {@link Optional} com a marca, vazio se o resumo ainda não foi montado.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MarcaResumo m WHERE m.tabela = :tabela")
+    Optional<MarcaResumo> travar(String tabela);
+}
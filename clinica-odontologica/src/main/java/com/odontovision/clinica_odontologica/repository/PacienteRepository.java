@@ -1,11 +1,20 @@
 package com.odontovision.clinica_odontologica.repository;
 
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.model.Paciente;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repositório da entidade {@link Paciente}.
@@ -56,4 +65,92 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long> {
      * @return Lista de pacientes ativos.
      */
     List<Paciente> findByAtivoTrue();
+
+    /**
+     * Verifica, em uma única consulta, quais dos IDs informados existem.
+     * <p>
+     * Usada para validar referências de vários registros de uma vez, sem carregar as entidades.
+     * </p>
+     *
+     * @param ids IDs a verificar (no máximo 1000, limite da cláusula IN no Oracle).
+     * @return Subconjunto dos IDs que existem na tabela de pacientes.
+     */
+    @Query("SELECT p.id FROM Paciente p WHERE p.id IN :ids")
+    Set<Long> findIdsExistentes(Collection<Long> ids);
+
+    /**
+     * Busca a próxima página de pacientes ativos a partir de um cursor (paginação keyset).
+     *
+     * @param cursor ID do último registro da página anterior (0 para a primeira página).
+     * @param limit  Quantidade máxima de registros.
+     * @return Lista de pacientes ativos após o cursor.
+     */
+    List<Paciente> findByAtivoTrueAndIdGreaterThanOrderByIdAsc(Long cursor, Limit limit);
+
+    /**
+     * Percorre todos os pacientes ativos em ordem de ID sem carregar a tabela inteira em memória.
+     * <p>
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     * </p>
+     *
+     * @return Stream de pacientes ativos.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Paciente> streamByAtivoTrueOrderByIdAsc();
+
+    /**
+     * Resume o estado da tabela de pacientes para a validação condicional das listagens.
+     *
+     * @return Quantidade, maior ID e última alteração dos pacientes.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.VersaoListaDTO(COUNT(p), MAX(p.id), MAX(p.atualizadoEm)) FROM Paciente p")
+    VersaoListaDTO buscarVersaoLista();
+
+    /**
+     * Busca, em ordem de ID, a próxima parte dos pacientes que atendem ao filtro e ainda não estão
+     * na situação desejada. Os critérios nulos são ignorados.
+     *
+     * @param ativo             Situação desejada.
+     * @param cursor            Maior ID da parte anterior (0 para a primeira).
+     * @param planoOdontologico Plano odontológico (opcional).
+     * @param idadeMinima       Idade mínima (opcional).
+     * @param idadeMaxima       Idade máxima (opcional).
+     * @param limite            Tamanho da parte.
+     * @return IDs dos pacientes a alterar.
+     */
+    @Query("SELECT p.id FROM Paciente p WHERE p.ativo <> :ativo AND p.id > :cursor "
+            + "AND (:planoOdontologico IS NULL OR p.planoOdontologico = :planoOdontologico) "
+            + "AND (:idadeMinima IS NULL OR p.idade >= :idadeMinima) "
+            + "AND (:idadeMaxima IS NULL OR p.idade <= :idadeMaxima) ORDER BY p.id")
+    List<Long> buscarIdsParaSituacao(boolean ativo, Long cursor, String planoOdontologico,
+                                     Integer idadeMinima, Integer idadeMaxima, Limit limite);
+
+    /**
+     * Filtra, entre os IDs informados, os pacientes que atendem ao filtro e ainda não estão na situação desejada.
+     *
+     * @param ids               IDs candidatos (no máximo 1000, limite da cláusula IN no Oracle).
+     * @param ativo             Situação desejada.
+     * @param planoOdontologico Plano odontológico (opcional).
+     * @param idadeMinima       Idade mínima (opcional).
+     * @param idadeMaxima       Idade máxima (opcional).
+     * @return IDs dos pacientes a alterar, em ordem.
+     */
+    @Query("SELECT p.id FROM Paciente p WHERE p.id IN :ids AND p.ativo <> :ativo "
+            + "AND (:planoOdontologico IS NULL OR p.planoOdontologico = :planoOdontologico) "
+            + "AND (:idadeMinima IS NULL OR p.idade >= :idadeMinima) "
+            + "AND (:idadeMaxima IS NULL OR p.idade <= :idadeMaxima) ORDER BY p.id")
+    List<Long> filtrarIdsParaSituacao(Collection<Long> ids, boolean ativo, String planoOdontologico,
+                                      Integer idadeMinima, Integer idadeMaxima);
+
+    /**
+     * Ativa ou desativa os pacientes informados em um único UPDATE, incrementando a versão.
+     *
+     * @param ids   IDs dos pacientes (no máximo 1000, limite da cláusula IN no Oracle).
+     * @param ativo Nova situação.
+     * @return Quantidade de pacientes alterados.
+     */
+    @Modifying
+    @Query("UPDATE Paciente p SET p.ativo = :ativo, p.versao = p.versao + 1, p.atualizadoEm = LOCAL_DATETIME "
+            + "WHERE p.id IN :ids AND p.ativo <> :ativo")
+    int alterarSituacao(Collection<Long> ids, boolean ativo);
 }
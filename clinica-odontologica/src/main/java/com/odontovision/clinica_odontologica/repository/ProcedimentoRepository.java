@@ -1,12 +1,25 @@
 package com.odontovision.clinica_odontologica.repository;
 
+import com.odontovision.clinica_odontologica.dto.CustoTipoMesDTO;
+import com.odontovision.clinica_odontologica.dto.FraudePlanoDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.ReavaliacaoFraudeDTO;
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.model.Procedimento;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repositório da entidade {@link Procedimento}.
@@ -18,15 +31,16 @@ import java.util.List;
 public interface ProcedimentoRepository extends JpaRepository<Procedimento, Long> {
 
     /**
-     * Lista procedimentos com risco de fraude.
+     * Retorna, dentre os IDs informados, os que existem na tabela de procedimentos.
      * <p>
-     * Busca todos os procedimentos que estão marcados como suspeitos de fraude (riscoFraude = true).
+     * Usada para validar referências de vários registros de uma vez, sem carregar as entidades.
      * </p>
      *
-     * @return Lista de procedimentos com risco de fraude.
+     * @param ids IDs a verificar (no máximo 1000, limite da cláusula IN no Oracle).
+     * @return Subconjunto dos IDs que existem na tabela de procedimentos.
      */
-    @Query("SELECT p FROM Procedimento p WHERE p.riscoFraude = true")
-    List<Procedimento> listarFraudes();
+    @Query("SELECT p.id FROM Procedimento p WHERE p.id IN :ids")
+    Set<Long> findIdsExistentes(Collection<Long> ids);
 
     /**
      * Consulta personalizada para listar procedimentos realizados antes de uma data específica.
@@ -61,4 +75,221 @@ public interface ProcedimentoRepository extends JpaRepository<Procedimento, Long
      * @return Lista de procedimentos com custo superior ao valor especificado.
      */
     List<Procedimento> findByCustoGreaterThan(Double custo);
+
+    /**
+     * Projeção JPQL que lê apenas as colunas de {@link ProcedimentoDTO}.
+     * <p>
+     * {@code p.paciente.id} e {@code p.dentista.id} são resolvidos pelas próprias chaves
+     * estrangeiras, sem junção e sem carregar as entidades associadas.
+     * </p>
+     */
+    String PROJECAO_DTO = "SELECT new com.odontovision.clinica_odontologica.dto.ProcedimentoDTO("
+            + "p.id, p.tipoProcedimento, p.dataProcedimento, p.custo, p.riscoFraude, p.scoreFraude, p.regrasFraude, "
+            + "p.paciente.id, p.dentista.id, p.versao, p.atualizadoEm) FROM Procedimento p";
+
+    /**
+     * Lista todos os procedimentos já projetados em {@link ProcedimentoDTO}.
+     *
+     * @return Lista de {@link ProcedimentoDTO} ordenada pelo ID.
+     */
+    @Query(PROJECAO_DTO + " ORDER BY p.id")
+    List<ProcedimentoDTO> listarTodosComoDTO();
+
+    /**
+     * Lista os procedimentos cuja pontuação de fraude atinge o limiar, já projetados em {@link ProcedimentoDTO}.
+     * <p>
+     * A condição sobre {@code scoreFraude} é atendida pelo índice {@code idx_procedimento_score_fraude}.
+     * </p>
+     *
+     * @param limiar Pontuação mínima para considerar o procedimento suspeito.
+     * @return Lista de {@link ProcedimentoDTO} da maior para a menor pontuação.
+     */
+    @Query(PROJECAO_DTO + " WHERE p.scoreFraude >= :limiar ORDER BY p.scoreFraude DESC, p.id")
+    List<ProcedimentoDTO> listarFraudesComoDTO(double limiar);
+
+    /**
+     * Agrega, por tipo de procedimento, a quantidade, a soma e a soma dos quadrados dos custos.
+     * <p>
+     * Usada para inicializar as estatísticas de custo do motor de fraude.
+     * </p>
+     *
+     * @return Linhas {@code [tipoProcedimento, quantidade, soma, somaQuadrados]}.
+     */
+    @Query("SELECT p.tipoProcedimento, COUNT(p), SUM(p.custo), SUM(p.custo * p.custo) FROM Procedimento p GROUP BY p.tipoProcedimento")
+    List<Object[]> agregarCustosPorTipo();
+
+    /**
+     * Conta os procedimentos de cada paciente por dia, a partir de uma data.
+     *
+     * @param inicio Data inicial (inclusiva).
+     * @return Linhas {@code [pacienteId, dataProcedimento, quantidade]}.
+     */
+    @Query("SELECT p.paciente.id, p.dataProcedimento, COUNT(p) FROM Procedimento p "
+            + "WHERE p.dataProcedimento >= :inicio GROUP BY p.paciente.id, p.dataProcedimento")
+    List<Object[]> contarPorPacienteEDia(LocalDate inicio);
+
+    /**
+     * Soma o faturamento de cada dentista por dia, a partir de uma data.
+     *
+     * @param inicio Data inicial (inclusiva).
+     * @return Linhas {@code [dentistaId, dataProcedimento, soma]}.
+     */
+    @Query("SELECT p.dentista.id, p.dataProcedimento, SUM(p.custo) FROM Procedimento p "
+            + "WHERE p.dataProcedimento >= :inicio GROUP BY p.dentista.id, p.dataProcedimento")
+    List<Object[]> somarCustosPorDentistaEDia(LocalDate inicio);
+
+    /**
+     * Lista os procedimentos de um paciente a partir de uma data.
+     * <p>
+     * Usada para reconstruir a janela de um paciente que não está (mais) nos agregados do motor de
+     * fraude; o ID permite descontar os procedimentos alterados pela própria transação.
+     * </p>
+     *
+     * @param pacienteId ID do paciente.
+     * @param inicio     Data inicial (inclusiva).
+     * @return Linhas {@code [id, dataProcedimento, custo]}.
+     */
+    @Query("SELECT p.id, p.dataProcedimento, p.custo FROM Procedimento p "
+            + "WHERE p.paciente.id = :pacienteId AND p.dataProcedimento >= :inicio")
+    List<Object[]> listarCustosDoPaciente(Long pacienteId, LocalDate inicio);
+
+    /**
+     * Lista os procedimentos de um dentista a partir de uma data.
+     * <p>
+     * Usada para reconstruir a janela de um dentista que não está (mais) nos agregados do motor de
+     * fraude; o ID permite descontar os procedimentos alterados pela própria transação.
+     * </p>
+     *
+     * @param dentistaId ID do dentista.
+     * @param inicio     Data inicial (inclusiva).
+     * @return Linhas {@code [id, dataProcedimento, custo]}.
+     */
+    @Query("SELECT p.id, p.dataProcedimento, p.custo FROM Procedimento p "
+            + "WHERE p.dentista.id = :dentistaId AND p.dataProcedimento >= :inicio")
+    List<Object[]> listarCustosDoDentista(Long dentistaId, LocalDate inicio);
+
+    /**
+     * Busca a próxima página de procedimentos a partir de um cursor (paginação keyset).
+     *
+     * @param cursor ID do último registro da página anterior (0 para a primeira página).
+     * @param limit  Quantidade máxima de registros.
+     * @return Lista de {@link ProcedimentoDTO} após o cursor.
+     */
+    @Query(PROJECAO_DTO + " WHERE p.id > :cursor ORDER BY p.id")
+    List<ProcedimentoDTO> buscarPaginaComoDTO(Long cursor, Limit limit);
+
+    /**
+     * Busca os procedimentos de um paciente anteriores a uma posição da linha do tempo, do mais
+     * recente ao mais antigo (índice {@code (paciente_id, data_procedimento, id)}).
+     *
+     * @param pacienteId ID do paciente.
+     * @param data       Data da posição; procedimentos desta data só entram com ID menor que {@code id}.
+     * @param id         ID limite (exclusivo) na data da posição.
+     * @param limit      Quantidade máxima de registros.
+     * @return Lista de {@link ProcedimentoDTO} por data e ID decrescentes.
+     */
+    @Query(PROJECAO_DTO + " WHERE p.paciente.id = :pacienteId"
+            + " AND (p.dataProcedimento < :data OR (p.dataProcedimento = :data AND p.id < :id))"
+            + " ORDER BY p.dataProcedimento DESC, p.id DESC")
+    List<ProcedimentoDTO> buscarLinhaDoTempoComoDTO(Long pacienteId, LocalDate data, Long id, Limit limit);
+
+    /**
+     * Percorre todos os procedimentos em ordem de ID, projetados em {@link ProcedimentoDTO}.
+     * <p>
+     * Como os DTOs não são entidades gerenciadas, o contexto de persistência não cresce
+     * durante a leitura. Deve ser consumido dentro de uma transação e fechado ao final.
+     * </p>
+     *
+     * @return Stream de {@link ProcedimentoDTO}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PROJECAO_DTO + " ORDER BY p.id")
+    Stream<ProcedimentoDTO> transmitirTodosComoDTO();
+
+    /**
+     * Totais e percentis de custo por tipo de procedimento e mês, calculados no banco.
+     *
+     * @param inicio Data inicial (inclusiva).
+     * @param fim    Data final (inclusiva).
+     * @return Uma linha por tipo e mês, ordenadas por ano, mês e tipo.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.CustoTipoMesDTO("
+            + "p.tipoProcedimento, year(p.dataProcedimento), month(p.dataProcedimento), COUNT(p), SUM(p.custo), AVG(p.custo), "
+            + "percentile_cont(0.5) WITHIN GROUP (ORDER BY p.custo), percentile_cont(0.9) WITHIN GROUP (ORDER BY p.custo)) "
+            + "FROM Procedimento p WHERE p.dataProcedimento BETWEEN :inicio AND :fim "
+            + "GROUP BY p.tipoProcedimento, year(p.dataProcedimento), month(p.dataProcedimento) "
+            + "ORDER BY year(p.dataProcedimento), month(p.dataProcedimento), p.tipoProcedimento")
+    List<CustoTipoMesDTO> relatorioCustosPorTipoEMes(LocalDate inicio, LocalDate fim);
+
+    /**
+     * Procedimentos e suspeitos de fraude por plano odontológico do paciente, contados no banco.
+     *
+     * @param inicio Data inicial (inclusiva).
+     * @param fim    Data final (inclusiva).
+     * @return Uma linha por plano, ordenadas pelo plano.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.FraudePlanoDTO(pa.planoOdontologico, COUNT(p), "
+            + "SUM(CASE WHEN p.riscoFraude = true THEN 1L ELSE 0L END)) "
+            + "FROM Procedimento p JOIN p.paciente pa WHERE p.dataProcedimento BETWEEN :inicio AND :fim "
+            + "GROUP BY pa.planoOdontologico ORDER BY pa.planoOdontologico")
+    List<FraudePlanoDTO> relatorioFraudePorPlano(LocalDate inicio, LocalDate fim);
+
+    /**
+     * Maior ID de procedimento, fim da última partição da varredura de fraude.
+     *
+     * @return Maior ID, ou {@code null} se não houver procedimentos.
+     */
+    @Query("SELECT MAX(p.id) FROM Procedimento p")
+    Long buscarMaiorId();
+
+    /**
+     * Menor ID de procedimento, início da primeira partição da varredura de fraude.
+     *
+     * @return Menor ID, ou {@code null} se não houver procedimentos.
+     */
+    @Query("SELECT MIN(p.id) FROM Procedimento p")
+    Long buscarMenorId();
+
+    /**
+     * Próximo lote de uma partição da varredura de fraude, com os totais de paciente e dentista
+     * nas janelas que terminam na data de cada procedimento.
+     * <p>
+     * A janela do paciente é contada pelo índice {@code (paciente_id, data_procedimento, id)} e a
+     * do dentista é somada em {@code producao_dentista_dia}, pela chave primária.
+     * </p>
+     *
+     * @param ultimoId     Maior ID já reavaliado na partição (exclusivo).
+     * @param idFinal      Último ID da partição (inclusivo).
+     * @param diasPaciente Tamanho da janela do paciente, em dias.
+     * @param diasDentista Tamanho da janela do dentista, em dias.
+     * @param limite       Tamanho do lote.
+     * @return Procedimentos da faixa, em ordem de ID.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.ReavaliacaoFraudeDTO(p.id, p.tipoProcedimento, p.custo, "
+            + "p.paciente.id, "
+            + "(SELECT COUNT(q) FROM Procedimento q WHERE q.paciente.id = p.paciente.id "
+            + "AND q.dataProcedimento > p.dataProcedimento - (:diasPaciente) day AND q.dataProcedimento <= p.dataProcedimento), "
+            + "p.dentista.id, "
+            + "(SELECT SUM(c.custoTotal) FROM ProducaoDentistaDia c WHERE c.dentistaId = p.dentista.id "
+            + "AND c.dia > p.dataProcedimento - (:diasDentista) day AND c.dia <= p.dataProcedimento), "
+            + "p.scoreFraude, p.regrasFraude, p.riscoFraude, p.versao) "
+            + "FROM Procedimento p WHERE p.id > :ultimoId AND p.id <= :idFinal ORDER BY p.id")
+    List<ReavaliacaoFraudeDTO> buscarParaReavaliacao(long ultimoId, long idFinal, int diasPaciente, int diasDentista, Limit limite);
+
+    /**
+     * Dias dos procedimentos incluídos ou alterados depois de um instante.
+     *
+     * @param desde Instante de corte (exclusivo), já descontada a sobreposição.
+     * @return Datas distintas dos procedimentos alterados.
+     */
+    @Query("SELECT DISTINCT p.dataProcedimento FROM Procedimento p WHERE p.atualizadoEm > :desde")
+    List<LocalDate> listarDiasAlteradosDesde(LocalDateTime desde);
+
+    /**
+     * Resume o estado da tabela de procedimentos para a validação condicional das listagens.
+     *
+     * @return Quantidade, maior ID e última alteração dos procedimentos.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.VersaoListaDTO(COUNT(p), MAX(p.id), MAX(p.atualizadoEm)) FROM Procedimento p")
+    VersaoListaDTO buscarVersaoLista();
 }
@@ -0,0 +1,41 @@
+package com.odontovision.clinica_odontologica.repository;
+
+import com.odontovision.clinica_odontologica.dto.ProducaoDiaDTO;
+import com.odontovision.clinica_odontologica.model.ProducaoDentistaDia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositório dos contadores de produção diária por dentista ({@link ProducaoDentistaDia}).
+ */
+@Repository
+public interface ProducaoDentistaDiaRepository extends JpaRepository<ProducaoDentistaDia, ProducaoDentistaDia.Chave> {
+
+    /**
+     * Produção diária de um dentista em um período, sem os dias que ficaram sem procedimentos.
+     *
+     * @param dentistaId ID do dentista.
+     * @param inicio     Data inicial (inclusiva).
+     * @param fim        Data final (inclusiva).
+     * @return Uma linha por dia, em ordem crescente de data.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.ProducaoDiaDTO(p.dia, p.quantidade, p.custoTotal) "
+            + "FROM ProducaoDentistaDia p WHERE p.dentistaId = :dentistaId AND p.dia BETWEEN :inicio AND :fim "
+            + "AND p.quantidade > 0 ORDER BY p.dia")
+    List<ProducaoDiaDTO> listarPeriodo(Long dentistaId, LocalDate inicio, LocalDate fim);
+
+    /**
+     * Remove os contadores de um dentista, usado quando ele e seus procedimentos são excluídos.
+     *
+     * @param dentistaId ID do dentista.
+     * @return Quantidade de linhas removidas.
+     */
+    @Modifying
+    @Query("DELETE FROM ProducaoDentistaDia p WHERE p.dentistaId = :dentistaId")
+    int removerDentista(Long dentistaId);
+}
@@ -0,0 +1,80 @@
+package com.odontovision.clinica_odontologica.repository;
+
+import com.odontovision.clinica_odontologica.dto.ProducaoDentistaDTO;
+import com.odontovision.clinica_odontologica.model.ResumoProcedimentoDia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório do resumo diário de procedimentos ({@link ResumoProcedimentoDia}).
+ * <p>
+ * O resumo é sempre recalculado por dia inteiro (remoção seguida de {@code INSERT ... SELECT}),
+ * de modo que recalcular o mesmo dia duas vezes não altera o resultado.
+ * </p>
+ */
+@Repository
+public interface ResumoProcedimentoDiaRepository extends JpaRepository<ResumoProcedimentoDia, ResumoProcedimentoDia.Chave> {
+
+    /**
+     * Agregação de {@code procedimento} no formato do resumo, completada pelos filtros de cada comando.
+     */
+    String RECALCULO = "INSERT INTO ResumoProcedimentoDia (dia, dentistaId, tipoProcedimento, quantidade, custoTotal, suspeitos) "
+            + "SELECT p.dataProcedimento, p.dentista.id, p.tipoProcedimento, COUNT(p), SUM(p.custo), "
+            + "SUM(CASE WHEN p.riscoFraude = true THEN 1L ELSE 0L END) FROM Procedimento p ";
+
+    String AGRUPAMENTO = " GROUP BY p.dataProcedimento, p.dentista.id, p.tipoProcedimento";
+
+    /**
+     * Remove o resumo dos dias informados.
+     *
+     * @param dias Dias a remover (no máximo 1000).
+     * @return Quantidade de linhas removidas.
+     */
+    @Modifying
+    @Query("DELETE FROM ResumoProcedimentoDia r WHERE r.dia IN :dias")
+    int removerDias(Collection<LocalDate> dias);
+
+    /**
+     * Recalcula o resumo dos dias informados a partir dos procedimentos.
+     *
+     * @param dias Dias a recalcular (no máximo 1000), já removidos do resumo.
+     * @return Quantidade de linhas incluídas.
+     */
+    @Modifying
+    @Query(RECALCULO + "WHERE p.dataProcedimento IN :dias" + AGRUPAMENTO)
+    int recalcularDias(Collection<LocalDate> dias);
+
+    /**
+     * Remove todo o resumo.
+     */
+    @Modifying
+    @Query("DELETE FROM ResumoProcedimentoDia r")
+    int removerTudo();
+
+    /**
+     * Recalcula todo o resumo a partir dos procedimentos.
+     *
+     * @return Quantidade de linhas incluídas.
+     */
+    @Modifying
+    @Query(RECALCULO + AGRUPAMENTO)
+    int recalcularTudo();
+
+    /**
+     * Quantidade de procedimentos e faturamento por dentista, somados a partir do resumo.
+     *
+     * @param inicio Data inicial (inclusiva).
+     * @param fim    Data final (inclusiva).
+     * @return Uma linha por dentista com procedimentos no período, da maior para a menor quantidade.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.ProducaoDentistaDTO(d.id, d.nome, SUM(r.quantidade), SUM(r.custoTotal)) "
+            + "FROM ResumoProcedimentoDia r JOIN Dentista d ON d.id = r.dentistaId WHERE r.dia BETWEEN :inicio AND :fim "
+            + "GROUP BY d.id, d.nome ORDER BY SUM(r.quantidade) DESC, d.id")
+    List<ProducaoDentistaDTO> relatorioProducaoPorDentista(LocalDate inicio, LocalDate fim);
+}
@@ -0,0 +1,81 @@
+package com.odontovision.clinica_odontologica.repository;
+
+import com.odontovision.clinica_odontologica.dto.SinistrosPlanoDTO;
+import com.odontovision.clinica_odontologica.model.ResumoSinistroDia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório do resumo diário de sinistros ({@link ResumoSinistroDia}).
+ * <p>
+ * Assim como o resumo de procedimentos, é recalculado por dia inteiro.
+ * </p>
+ */
+@Repository
+public interface ResumoSinistroDiaRepository extends JpaRepository<ResumoSinistroDia, ResumoSinistroDia.Chave> {
+
+    /**
+     * Agregação de {@code sinistro} no formato do resumo, completada pelos filtros de cada comando.
+     */
+    String RECALCULO = "INSERT INTO ResumoSinistroDia (dia, planoOdontologico, tipoSinistro, quantidade, comRisco) "
+            + "SELECT s.dataSinistro, COALESCE(pa.planoOdontologico, '-'), COALESCE(s.tipoSinistro, '-'), COUNT(s), "
+            + "SUM(CASE WHEN s.riscoFraude = true THEN 1L ELSE 0L END) FROM Sinistro s LEFT JOIN s.paciente pa "
+            + "WHERE s.dataSinistro IS NOT NULL ";
+
+    String AGRUPAMENTO = " GROUP BY s.dataSinistro, COALESCE(pa.planoOdontologico, '-'), COALESCE(s.tipoSinistro, '-')";
+
+    /**
+     * Remove o resumo dos dias informados.
+     *
+     * @param dias Dias a remover (no máximo 1000).
+     * @return Quantidade de linhas removidas.
+     */
+    @Modifying
+    @Query("DELETE FROM ResumoSinistroDia r WHERE r.dia IN :dias")
+    int removerDias(Collection<LocalDate> dias);
+
+    /**
+     * Recalcula o resumo dos dias informados a partir dos sinistros.
+     *
+     * @param dias Dias a recalcular (no máximo 1000), já removidos do resumo.
+     * @return Quantidade de linhas incluídas.
+     */
+    @Modifying
+    @Query(RECALCULO + "AND s.dataSinistro IN :dias" + AGRUPAMENTO)
+    int recalcularDias(Collection<LocalDate> dias);
+
+    /**
+     * Remove todo o resumo.
+     */
+    @Modifying
+    @Query("DELETE FROM ResumoSinistroDia r")
+    int removerTudo();
+
+    /**
+     * Recalcula todo o resumo a partir dos sinistros.
+     *
+     * @return Quantidade de linhas incluídas.
+     */
+    @Modifying
+    @Query(RECALCULO + AGRUPAMENTO)
+    int recalcularTudo();
+
+    /**
+     * Sinistros por plano odontológico e tipo de sinistro, somados a partir do resumo.
+     *
+     * @param inicio Data inicial (inclusiva).
+     * @param fim    Data final (inclusiva).
+     * @return Uma linha por plano e tipo, ordenadas por plano e tipo.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.SinistrosPlanoDTO("
+            + "NULLIF(r.planoOdontologico, '-'), NULLIF(r.tipoSinistro, '-'), SUM(r.quantidade), SUM(r.comRisco)) "
+            + "FROM ResumoSinistroDia r WHERE r.dia BETWEEN :inicio AND :fim "
+            + "GROUP BY r.planoOdontologico, r.tipoSinistro ORDER BY r.planoOdontologico, r.tipoSinistro")
+    List<SinistrosPlanoDTO> relatorioSinistrosPorPlano(LocalDate inicio, LocalDate fim);
+}
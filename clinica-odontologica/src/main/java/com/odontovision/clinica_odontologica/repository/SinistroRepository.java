@@ -1,12 +1,22 @@
 package com.odontovision.clinica_odontologica.repository;
 
+import com.odontovision.clinica_odontologica.dto.SinistroDTO;
+import com.odontovision.clinica_odontologica.dto.SinistrosPacienteDTO;
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.model.Sinistro;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositório da entidade {@link Sinistro}.
@@ -49,4 +59,101 @@ public interface SinistroRepository extends JpaRepository<Sinistro, Long> {
      * @return Lista de sinistros associados ao paciente especificado.
      */
     List<Sinistro> findByPacienteId(Long pacienteId);
+
+    /**
+     * Projeção JPQL que lê apenas as colunas de {@link SinistroDTO}, usando as chaves
+     * estrangeiras de procedimento, dentista e paciente sem carregar as entidades.
+     */
+    String PROJECAO_DTO = "SELECT new com.odontovision.clinica_odontologica.dto.SinistroDTO("
+            + "s.id, s.tipoSinistro, s.descricao, s.dataSinistro, s.procedimento.id, s.dentista.id, s.paciente.id, s.riscoFraude, "
+            + "s.versao, s.atualizadoEm) FROM Sinistro s";
+
+    /**
+     * Lista todos os sinistros já projetados em {@link SinistroDTO}.
+     *
+     * @return Lista de {@link SinistroDTO} ordenada pelo ID.
+     */
+    @Query(PROJECAO_DTO + " ORDER BY s.id")
+    List<SinistroDTO> listarTodosComoDTO();
+
+    /**
+     * Busca a próxima página de sinistros a partir de um cursor (paginação keyset).
+     *
+     * @param cursor ID do último registro da página anterior (0 para a primeira página).
+     * @param limit  Quantidade máxima de registros.
+     * @return Lista de {@link SinistroDTO} após o cursor.
+     */
+    @Query(PROJECAO_DTO + " WHERE s.id > :cursor ORDER BY s.id")
+    List<SinistroDTO> buscarPaginaComoDTO(Long cursor, Limit limit);
+
+    /**
+     * Busca os sinistros de um paciente anteriores a uma posição da linha do tempo, do mais recente
+     * ao mais antigo (índice {@code (paciente_id, data_sinistro)}). Sinistros sem data vêm depois
+     * de todos os datados.
+     *
+     * @param pacienteId ID do paciente.
+     * @param data       Data da posição; sinistros desta data só entram com ID menor que {@code id}.
+     * @param id         ID limite (exclusivo) na data da posição.
+     * @param idSemData  ID limite (exclusivo) dos sinistros sem data.
+     * @param limit      Quantidade máxima de registros.
+     * @return Lista de {@link SinistroDTO} por data e ID decrescentes.
+     */
+    @Query(PROJECAO_DTO + " WHERE s.paciente.id = :pacienteId"
+            + " AND (s.dataSinistro < :data OR (s.dataSinistro = :data AND s.id < :id)"
+            + " OR (s.dataSinistro IS NULL AND s.id < :idSemData))"
+            + " ORDER BY s.dataSinistro DESC NULLS LAST, s.id DESC")
+    List<SinistroDTO> buscarLinhaDoTempoComoDTO(Long pacienteId, LocalDate data, Long id, Long idSemData, Limit limit);
+
+    /**
+     * Percorre todos os sinistros em ordem de ID, projetados em {@link SinistroDTO}.
+     * <p>
+     * Como os DTOs não são entidades gerenciadas, o contexto de persistência não cresce
+     * durante a leitura. Deve ser consumido dentro de uma transação e fechado ao final.
+     * </p>
+     *
+     * @return Stream de {@link SinistroDTO}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PROJECAO_DTO + " ORDER BY s.id")
+    Stream<SinistroDTO> transmitirTodosComoDTO();
+
+    /**
+     * Quantidade de sinistros por paciente, contados no banco.
+     *
+     * @param inicio Data inicial (inclusiva).
+     * @param fim    Data final (inclusiva).
+     * @param limit  Quantidade máxima de pacientes.
+     * @return Pacientes com mais sinistros no período, do maior para o menor.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.SinistrosPacienteDTO(pa.id, pa.nome, COUNT(s), "
+            + "SUM(CASE WHEN s.riscoFraude = true THEN 1L ELSE 0L END)) "
+            + "FROM Sinistro s JOIN s.paciente pa WHERE s.dataSinistro BETWEEN :inicio AND :fim "
+            + "GROUP BY pa.id, pa.nome ORDER BY COUNT(s) DESC, pa.id")
+    List<SinistrosPacienteDTO> relatorioSinistrosPorPaciente(LocalDate inicio, LocalDate fim, Limit limit);
+
+    /**
+     * Sinistros ainda sem risco de fraude ligados aos procedimentos informados.
+     *
+     * @param procedimentoIds IDs dos procedimentos (no máximo 1000, limite da cláusula IN no Oracle).
+     * @return Sinistros dos procedimentos com {@code riscoFraude} falso.
+     */
+    @Query("SELECT s FROM Sinistro s WHERE s.procedimento.id IN :procedimentoIds AND s.riscoFraude = false")
+    List<Sinistro> buscarSemRiscoPorProcedimentos(Collection<Long> procedimentoIds);
+
+    /**
+     * Dias dos sinistros incluídos ou alterados depois de um instante, ignorando os sem data.
+     *
+     * @param desde Instante de corte (exclusivo), já descontada a sobreposição.
+     * @return Datas distintas dos sinistros alterados.
+     */
+    @Query("SELECT DISTINCT s.dataSinistro FROM Sinistro s WHERE s.atualizadoEm > :desde AND s.dataSinistro IS NOT NULL")
+    List<LocalDate> listarDiasAlteradosDesde(LocalDateTime desde);
+
+    /**
+     * Resume o estado da tabela de sinistros para a validação condicional das listagens.
+     *
+     * @return Quantidade, maior ID e última alteração dos sinistros.
+     */
+    @Query("SELECT new com.odontovision.clinica_odontologica.dto.VersaoListaDTO(COUNT(s), MAX(s.id), MAX(s.atualizadoEm)) FROM Sinistro s")
+    VersaoListaDTO buscarVersaoLista();
 }
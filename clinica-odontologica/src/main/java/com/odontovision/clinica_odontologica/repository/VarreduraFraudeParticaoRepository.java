@@ -0,0 +1,22 @@
+package com.odontovision.clinica_odontologica.repository;
+
+import com.odontovision.clinica_odontologica.model.VarreduraFraudeParticao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositório das partições das varreduras de fraude ({@link VarreduraFraudeParticao}).
+ */
+@Repository
+public interface VarreduraFraudeParticaoRepository extends JpaRepository<VarreduraFraudeParticao, VarreduraFraudeParticao.Chave> {
+
+    /**
+     * Lista as partições de uma varredura.
+     *
+     * @param varreduraId ID da varredura.
+     * @return Partições, pelo número.
+     */
+    List<VarreduraFraudeParticao> findByVarreduraIdOrderByNumero(Long varreduraId);
+}
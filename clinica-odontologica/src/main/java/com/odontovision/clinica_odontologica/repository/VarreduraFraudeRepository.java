@@ -0,0 +1,21 @@
+package com.odontovision.clinica_odontologica.repository;
+
+import com.odontovision.clinica_odontologica.model.VarreduraFraude;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositório das varreduras de fraude ({@link VarreduraFraude}).
+ */
+@Repository
+public interface VarreduraFraudeRepository extends JpaRepository<VarreduraFraude, Long> {
+
+    /**
+     * Busca a varredura mais recente.
+     *
+     * @return {@link Optional} com a varredura, vazio se nenhuma foi iniciada.
+     */
+    Optional<VarreduraFraude> findFirstByOrderByIdDesc();
+}
@@ -1,23 +1,103 @@
 package com.odontovision.clinica_odontologica.service;
 
+import com.odontovision.clinica_odontologica.dto.FiltroDentistasDTO;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
 import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.SituacaoEmMassaDTO;
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.exception.DentistaNotFoundException;
+import com.odontovision.clinica_odontologica.exception.VersaoDesatualizadaException;
 import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Procedimento;
 import com.odontovision.clinica_odontologica.repository.DentistaRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.validation.Valid;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Serviço responsável pela lógica de negócios relacionada a {@link Dentista}.
+ * <p>
+ * A busca por nome usa um {@link IndiceNomes} em memória dos dentistas ativos, carregado em
+ * segundo plano na inicialização e mantido depois do commit de cada escrita; enquanto a carga
+ * não termina, a busca recorre ao banco.
+ * </p>
+ * <p>
+ * Desativações e reativações em massa ({@link #alterarSituacao(FiltroDentistasDTO, boolean)}) usam
+ * um UPDATE por parte de IDs e removem do cache {@code dentistas} os registros alterados.
+ * </p>
+ * <p>
+ * Como em {@link PacienteService}, leituras usam transações somente leitura e cada escrita,
+ * uma transação própria; a leitura que alimenta o cache e a releitura dos reativados em massa
+ * usam transação de leitura e escrita, para serem atendidas pelo primário e não pela réplica.
+ * </p>
+ */
 @Service
-public class DentistaService {
+@Transactional(readOnly = true)
+public class DentistaService implements SmartInitializingSingleton {
+
+    private static final int TAMANHO_LOTE_STREAMING = 500;
+
+    /**
+     * Maior parte de uma alteração em massa, para que os IDs caibam em uma cláusula IN do Oracle.
+     */
+    private static final int TAMANHO_MAXIMO_LOTE_SITUACAO = 1000;
 
     private final DentistaRepository dentistaRepository;
+    private final EntityManager entityManager;
+    private final TaskExecutor taskExecutor;
+    private final EventoService eventoService;
+    private final ProducaoDentistaService producaoDentistaService;
+    private final MotorFraude motorFraude;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ResumoDiarioService resumoDiarioService;
+    private final int tamanhoLoteSituacao;
+    private final IndiceNomes<DentistaDTO> indiceNomes = new IndiceNomes<>(DentistaDTO::getId, DentistaDTO::getNome);
 
-    public DentistaService(DentistaRepository dentistaRepository) {
+    public DentistaService(DentistaRepository dentistaRepository, EntityManager entityManager, TaskExecutor taskExecutor,
+                           EventoService eventoService, ProducaoDentistaService producaoDentistaService,
+                           MotorFraude motorFraude, TransactionTemplate transactionTemplate, CacheManager cacheManager,
+                           ResumoDiarioService resumoDiarioService,
+                           @Value("${clinica.situacao.tamanho-lote:1000}") int tamanhoLoteSituacao) {
         this.dentistaRepository = dentistaRepository;
+        this.entityManager = entityManager;
+        this.taskExecutor = taskExecutor;
+        this.eventoService = eventoService;
+        this.producaoDentistaService = producaoDentistaService;
+        this.motorFraude = motorFraude;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.resumoDiarioService = resumoDiarioService;
+        this.tamanhoLoteSituacao = Math.max(1, Math.min(tamanhoLoteSituacao, TAMANHO_MAXIMO_LOTE_SITUACAO));
+    }
+
+    /**
+     * Dispara a carga do índice de nomes sem atrasar a subida da aplicação.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void afterSingletonsInstantiated() {
+        taskExecutor.execute(this::carregarIndiceNomes);
     }
 
     /**
@@ -26,10 +106,13 @@ public class DentistaService {
      * @param dentistaDTO Dados do dentista.
      * @return Dentista salvo.
      */
+    @Transactional
     public DentistaDTO salvarDentista(@Valid DentistaDTO dentistaDTO) {
         Dentista dentista = convertToEntity(dentistaDTO);
-        Dentista salvo = dentistaRepository.save(dentista);
-        return convertToDTO(salvo);
+        Dentista salvo = dentistaRepository.saveAndFlush(dentista);
+        DentistaDTO dto = convertToDTO(salvo);
+        indiceNomes.adicionarAposCommit(dto);
+        return dto;
     }
 
 
@@ -46,11 +129,59 @@ public class DentistaService {
     }
 
     /**
-     * Buscar dentista por ID.
+     * Lista uma página de dentistas a partir de um cursor (paginação keyset pelo ID).
+     *
+     * @param cursor ID do último item da página anterior, ou {@code null} para a primeira página.
+     * @param limite Quantidade máxima de itens da página.
+     * @return {@link PaginaDTO} com os itens e o próximo cursor.
+     */
+    public PaginaDTO<DentistaDTO> listarPagina(Long cursor, int limite) {
+        int limiteEfetivo = PaginaDTO.limitar(limite);
+        List<DentistaDTO> linhas = dentistaRepository.findByIdGreaterThanOrderByIdAsc(cursor != null ? cursor : 0L, Limit.of(limiteEfetivo + 1))
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return PaginaDTO.of(linhas, limiteEfetivo, DentistaDTO::getId);
+    }
+
+    /**
+     * Resume o estado da tabela de dentistas; muda a cada inclusão, alteração ou exclusão.
+     *
+     * @return {@link VersaoListaDTO} usado como ETag das listagens.
+     */
+    public VersaoListaDTO versaoLista() {
+        return dentistaRepository.buscarVersaoLista();
+    }
+
+    /**
+     * Envia todos os dentistas ao consumidor, um a um, à medida que são lidos do banco.
+     * <p>
+     * O contexto de persistência é limpo periodicamente para que o uso de memória
+     * não cresça com o tamanho da tabela.
+     * </p>
+     *
+     * @param consumidor Consumidor que recebe cada {@link DentistaDTO}.
+     */
+    public void transmitirTodos(Consumer<DentistaDTO> consumidor) {
+        try (Stream<Dentista> dentistas = dentistaRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Dentista> iterator = dentistas.iterator();
+            for (int lidos = 1; iterator.hasNext(); lidos++) {
+                consumidor.accept(convertToDTO(iterator.next()));
+                if (lidos % TAMANHO_LOTE_STREAMING == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Buscar dentista por ID, sempre no primário, pois o resultado fica no cache.
      *
      * @param id ID do dentista.
      * @return Optional contendo o DentistaDTO, se encontrado.
      */
+    @Cacheable(value = "dentistas", key = "#id", unless = "#result == null")
+    @Transactional
     public Optional<DentistaDTO> buscarPorId(Long id) {
         return dentistaRepository.findById(id)
                 .map(this::convertToDTO);
@@ -62,14 +193,24 @@ public class DentistaService {
      * @param id           ID do dentista.
      * @param dentistaDTO Dados atualizados.
      * @return Optional contendo o DentistaDTO atualizado, se encontrado.
+     * @throws VersaoDesatualizadaException se a versão informada no DTO não for a atual.
      */
+    @CacheEvict(value = "dentistas", key = "#id")
+    @Transactional
     public Optional<DentistaDTO> atualizarDentista(Long id, @Valid DentistaDTO dentistaDTO) {
         return dentistaRepository.findById(id)
                 .map(dentista -> {
+                    if (dentistaDTO.getVersao() != null && !dentistaDTO.getVersao().equals(dentista.getVersao())) {
+                        throw new VersaoDesatualizadaException("Dentista", id, dentistaDTO.getVersao(), dentista.getVersao());
+                    }
                     dentista.setNome(dentistaDTO.getNome());
                     dentista.setNumeroLicenca(dentistaDTO.getNumeroLicenca());
-                    Dentista atualizado = dentistaRepository.save(dentista);
-                    return convertToDTO(atualizado);
+                    Dentista atualizado = dentistaRepository.saveAndFlush(dentista);
+                    DentistaDTO dto = convertToDTO(atualizado);
+                    if (atualizado.isAtivo()) {
+                        indiceNomes.adicionarAposCommit(dto);
+                    }
+                    return dto;
                 });
     }
 
@@ -78,26 +219,150 @@ public class DentistaService {
      *
      * @param id ID do dentista.
      */
+    @CacheEvict(value = "dentistas", key = "#id")
+    @Transactional
     public void desativarDentista(Long id) {
         Dentista dentista = dentistaRepository.findById(id)
                 .orElseThrow(() -> new DentistaNotFoundException(id));
         dentista.setAtivo(false);  // Marca o dentista como inativo (soft delete)
         dentistaRepository.save(dentista);  // Salva a alteração
+        indiceNomes.removerAposCommit(id);
+    }
+
+    /**
+     * Desativar ou reativar em massa os dentistas que atendem ao filtro.
+     * <p>
+     * Os dentistas a alterar são selecionados em partes de IDs (os informados no filtro ou, sem eles,
+     * percorrendo a tabela pelo ID), e cada parte é alterada por um único UPDATE em sua própria
+     * transação, que também incrementa a versão. Em seguida, as entradas da parte são removidas
+     * do cache {@code dentistas} e o índice de nomes é atualizado.
+     * </p>
+     *
+     * @param filtro Critérios de seleção (combinados).
+     * @param ativo  {@code false} para desativar, {@code true} para reativar.
+     * @return Quantidades de dentistas selecionados e alterados e de UPDATEs executados.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SituacaoEmMassaDTO alterarSituacao(FiltroDentistasDTO filtro, boolean ativo) {
+        List<Long> ids = filtro.getIds() == null ? List.of()
+                : filtro.getIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+        long selecionados = 0;
+        long alterados = 0;
+        int lotes = 0;
+        long cursor = 0L;
+        int posicao = 0;
+        while (ids.isEmpty() || posicao < ids.size()) {
+            List<Long> parte;
+            if (ids.isEmpty()) {
+                parte = dentistaRepository.buscarIdsParaSituacao(ativo, cursor, filtro.getSemProcedimentosDesde(),
+                        Limit.of(tamanhoLoteSituacao));
+                if (parte.isEmpty()) {
+                    break;
+                }
+                cursor = parte.get(parte.size() - 1);
+            } else {
+                List<Long> candidatos = ids.subList(posicao, Math.min(ids.size(), posicao + tamanhoLoteSituacao));
+                posicao += candidatos.size();
+                parte = dentistaRepository.filtrarIdsParaSituacao(candidatos, ativo, filtro.getSemProcedimentosDesde());
+                if (parte.isEmpty()) {
+                    continue;
+                }
+            }
+            Integer alteradosParte = transactionTemplate.execute(status -> dentistaRepository.alterarSituacao(parte, ativo));
+            selecionados += parte.size();
+            alterados += alteradosParte != null ? alteradosParte : 0;
+            lotes++;
+            sincronizarSituacao(parte, ativo);
+        }
+        return new SituacaoEmMassaDTO(selecionados, alterados, lotes);
+    }
+
+    // Remove a parte do cache por ID e leva a nova situação ao índice de nomes
+    private void sincronizarSituacao(List<Long> ids, boolean ativo) {
+        Cache cache = cacheManager.getCache("dentistas");
+        if (cache != null) {
+            ids.forEach(cache::evictIfPresent);  // Imediata: a parte já foi confirmada
+        }
+        if (ativo) {
+            // Relê no primário: a réplica pode ainda não ter recebido o UPDATE da parte
+            List<DentistaDTO> reativados = transactionTemplate.execute(status -> dentistaRepository.findAllById(ids).stream()
+                    .filter(Dentista::isAtivo)
+                    .map(this::convertToDTO)
+                    .toList());
+            reativados.forEach(indiceNomes::adicionar);
+        } else {
+            ids.forEach(indiceNomes::remover);
+        }
     }
 
     /**
      * Deletar fisicamente um dentista por ID (alternativa ao soft delete).
+     * Os procedimentos do dentista são removidos em cascata, geram eventos de remoção e saem dos
+     * agregados do {@link MotorFraude} depois do commit; os contadores de produção do dentista são removidos
+     * e as datas dos procedimentos, registradas para o resumo diário.
      * @deprecated Recomendado utilizar {@link #desativarDentista(Long)} para soft delete.
      *
      * @param id ID do dentista.
      */
     @Deprecated
+    @Transactional
+    @CacheEvict(value = "dentistas", key = "#id")
     public void deletarDentista(Long id) {
-        if (dentistaRepository.existsById(id)) {
-            dentistaRepository.deleteById(id);  // Deleta fisicamente
-        } else {
-            throw new DentistaNotFoundException(id);
+        Dentista dentista = dentistaRepository.findById(id)
+                .orElseThrow(() -> new DentistaNotFoundException(id));
+        for (Procedimento procedimento : dentista.getProcedimentos()) {
+            eventoService.registrarRemocao(EventoService.PROCEDIMENTO, procedimento.getId(), procedimento.getVersao());
+            motorFraude.desfazer(MotorFraude.Evento.de(procedimento));
+        }
+        producaoDentistaService.removerDentista(id);
+        dentista.getProcedimentos().stream()
+                .map(Procedimento::getDataProcedimento)
+                .distinct()
+                .forEach(dia -> resumoDiarioService.registrarRemocao(ResumoDiarioService.PROCEDIMENTO, dia));
+        dentistaRepository.delete(dentista);  // Deleta fisicamente
+        indiceNomes.removerAposCommit(id);
+    }
+
+    /**
+     * Buscar dentistas ativos pelo nome, ignorando acentos e maiúsculas, ordenados por relevância.
+     * <p>
+     * Antes de o índice terminar a carga inicial, a consulta vai ao banco
+     * ({@link DentistaRepository#findByNomeContaining(String)}) e é ordenada pelo nome.
+     * </p>
+     *
+     * @param consulta Nome ou parte do nome.
+     * @param limite   Quantidade máxima de resultados.
+     * @return Lista de DentistaDTO encontrados.
+     */
+    public List<DentistaDTO> buscarPorNome(String consulta, int limite) {
+        int limiteEfetivo = PaginaDTO.limitar(limite);
+        if (indiceNomes.isPronto()) {
+            return indiceNomes.buscar(consulta, limiteEfetivo);
         }
+        return dentistaRepository.findByNomeContaining(consulta).stream()
+                .filter(Dentista::isAtivo)
+                .sorted(Comparator.comparing(Dentista::getNome))
+                .limit(limiteEfetivo)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Carregar os dentistas ativos no índice de nomes, em páginas por ID.
+     */
+    private void carregarIndiceNomes() {
+        long cursor = 0L;
+        List<Dentista> pagina;
+        do {
+            pagina = dentistaRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(TAMANHO_LOTE_STREAMING));
+            for (Dentista dentista : pagina) {
+                if (dentista.isAtivo()) {
+                    indiceNomes.carregar(convertToDTO(dentista));
+                }
+                cursor = dentista.getId();
+            }
+        } while (pagina.size() == TAMANHO_LOTE_STREAMING);
+        indiceNomes.concluirCarga();
     }
 
     /**
@@ -107,7 +372,8 @@ public class DentistaService {
      * @return DentistaDTO.
      */
     private DentistaDTO convertToDTO(Dentista dentista) {
-        return new DentistaDTO(dentista.getId(), dentista.getNome(), dentista.getNumeroLicenca());
+        return new DentistaDTO(dentista.getId(), dentista.getNome(), dentista.getNumeroLicenca(),
+                dentista.getVersao(), dentista.getAtualizadoEm());
     }
 
     /**
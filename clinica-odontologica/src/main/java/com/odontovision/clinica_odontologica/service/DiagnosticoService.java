@@ -1,26 +1,33 @@
 package com.odontovision.clinica_odontologica.service;
 
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
 import com.odontovision.clinica_odontologica.dto.DiagnosticoDTO;
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.exception.DiagnosticoNotFoundException;
 import com.odontovision.clinica_odontologica.exception.PacienteNotFoundException;
+import com.odontovision.clinica_odontologica.exception.VersaoDesatualizadaException;
 import com.odontovision.clinica_odontologica.model.Diagnostico;
 import com.odontovision.clinica_odontologica.model.Paciente;
 import com.odontovision.clinica_odontologica.repository.DiagnosticoRepository;
-import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Transactional(readOnly = true)
 public class DiagnosticoService {
 
     private final DiagnosticoRepository diagnosticoRepository;
-    private final PacienteRepository pacienteRepository;
+    private final ReferenciaResolver referenciaResolver;
 
-    public DiagnosticoService(DiagnosticoRepository diagnosticoRepository, PacienteRepository pacienteRepository) {
+    public DiagnosticoService(DiagnosticoRepository diagnosticoRepository, ReferenciaResolver referenciaResolver) {
         this.diagnosticoRepository = diagnosticoRepository;
-        this.pacienteRepository = pacienteRepository;
+        this.referenciaResolver = referenciaResolver;
     }
 
     /**
@@ -29,9 +36,40 @@ public class DiagnosticoService {
      * @return Lista de DiagnosticoDTO.
      */
     public List<DiagnosticoDTO> listarTodos() {
-        return diagnosticoRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .toList();  // Usando toList() diretamente
+        return diagnosticoRepository.listarTodosComoDTO();
+    }
+
+    /**
+     * Lista uma página de diagnósticos a partir de um cursor (paginação keyset pelo ID).
+     *
+     * @param cursor ID do último item da página anterior, ou {@code null} para a primeira página.
+     * @param limite Quantidade máxima de itens da página.
+     * @return {@link PaginaDTO} com os itens e o próximo cursor.
+     */
+    public PaginaDTO<DiagnosticoDTO> listarPagina(Long cursor, int limite) {
+        int limiteEfetivo = PaginaDTO.limitar(limite);
+        List<DiagnosticoDTO> linhas = diagnosticoRepository.buscarPaginaComoDTO(cursor != null ? cursor : 0L, Limit.of(limiteEfetivo + 1));
+        return PaginaDTO.of(linhas, limiteEfetivo, DiagnosticoDTO::getId);
+    }
+
+    /**
+     * Resume o estado da tabela de diagnósticos; muda a cada inclusão, alteração ou exclusão.
+     *
+     * @return {@link VersaoListaDTO} usado como ETag das listagens.
+     */
+    public VersaoListaDTO versaoLista() {
+        return diagnosticoRepository.buscarVersaoLista();
+    }
+
+    /**
+     * Envia todos os diagnósticos ao consumidor, um a um, à medida que são lidos do banco.
+     *
+     * @param consumidor Consumidor que recebe cada {@link DiagnosticoDTO}.
+     */
+    public void transmitirTodos(Consumer<DiagnosticoDTO> consumidor) {
+        try (Stream<DiagnosticoDTO> linhas = diagnosticoRepository.transmitirTodosComoDTO()) {
+            linhas.forEach(consumidor);
+        }
     }
 
     /**
@@ -40,12 +78,13 @@ public class DiagnosticoService {
      * @param diagnosticoDTO Dados do diagnóstico a ser salvo.
      * @return DiagnosticoDTO salvo.
      */
+    @Transactional
     public DiagnosticoDTO salvarDiagnostico(DiagnosticoDTO diagnosticoDTO) {
         // Usar o método convertToEntity para criar a entidade Diagnostico
         Diagnostico diagnostico = convertToEntity(diagnosticoDTO);
 
         // Salvar o diagnóstico no banco de dados
-        Diagnostico salvo = diagnosticoRepository.save(diagnostico);
+        Diagnostico salvo = diagnosticoRepository.saveAndFlush(diagnostico);
 
         // Retornar o DTO com os dados do diagnóstico salvo
         return convertToDTO(salvo);
@@ -68,10 +107,15 @@ public class DiagnosticoService {
      * @param id              ID do diagnóstico a ser atualizado.
      * @param diagnosticoDTO Dados atualizados do diagnóstico.
      * @return Optional contendo o DiagnosticoDTO atualizado, se encontrado.
+     * @throws VersaoDesatualizadaException se a versão informada no DTO não for a atual.
      */
+    @Transactional
     public Optional<DiagnosticoDTO> atualizarDiagnostico(Long id, DiagnosticoDTO diagnosticoDTO) {
         return diagnosticoRepository.findById(id)
                 .map(diagnostico -> {
+                    if (diagnosticoDTO.getVersao() != null && !diagnosticoDTO.getVersao().equals(diagnostico.getVersao())) {
+                        throw new VersaoDesatualizadaException("Diagnóstico", id, diagnosticoDTO.getVersao(), diagnostico.getVersao());
+                    }
                     diagnostico.setTipoDiagnostico(diagnosticoDTO.getTipoDiagnostico());
                     diagnostico.setDataDiagnostico(diagnosticoDTO.getDataDiagnostico());
                     diagnostico.setDescricao(diagnosticoDTO.getDescricao());
@@ -81,7 +125,7 @@ public class DiagnosticoService {
                         diagnostico.setPaciente(paciente);
                     }
 
-                    Diagnostico atualizado = diagnosticoRepository.save(diagnostico);
+                    Diagnostico atualizado = diagnosticoRepository.saveAndFlush(diagnostico);
                     return convertToDTO(atualizado);
                 });
     }
@@ -91,6 +135,7 @@ public class DiagnosticoService {
      *
      * @param id ID do diagnóstico a ser deletado.
      */
+    @Transactional
     public void deletarDiagnostico(Long id) {
         if (diagnosticoRepository.existsById(id)) {
             diagnosticoRepository.deleteById(id);
@@ -111,7 +156,9 @@ public class DiagnosticoService {
                 diagnostico.getTipoDiagnostico(),
                 diagnostico.getDataDiagnostico(),
                 diagnostico.getDescricao(),
-                diagnostico.getPaciente() != null ? diagnostico.getPaciente().getId() : null
+                diagnostico.getPaciente() != null ? diagnostico.getPaciente().getId() : null,
+                diagnostico.getVersao(),
+                diagnostico.getAtualizadoEm()
         );
     }
 
@@ -122,13 +169,11 @@ public class DiagnosticoService {
      * @return Entidade Diagnostico.
      */
     private Diagnostico convertToEntity(DiagnosticoDTO diagnosticoDTO) {
-        // Buscar o paciente pelo ID fornecido no DTO
-        Paciente paciente = pacienteRepository.findById(diagnosticoDTO.getPacienteId())
-                .orElseThrow(() -> new PacienteNotFoundException(diagnosticoDTO.getPacienteId()));
+        // Referência ao paciente informado no DTO, sem carregá-lo
+        Paciente paciente = buscarPacientePorId(diagnosticoDTO.getPacienteId());
 
         // Criar uma nova entidade Diagnostico e associar os dados
         Diagnostico diagnostico = new Diagnostico();
-        diagnostico.setId(diagnosticoDTO.getId());
         diagnostico.setTipoDiagnostico(diagnosticoDTO.getTipoDiagnostico());
         diagnostico.setDataDiagnostico(diagnosticoDTO.getDataDiagnostico());
         diagnostico.setDescricao(diagnosticoDTO.getDescricao());
@@ -138,14 +183,18 @@ public class DiagnosticoService {
     }
 
     /**
-     * Método auxiliar para buscar o Paciente por ID.
+     * Método auxiliar para obter uma referência ao Paciente por ID.
+     * <p>
+     * Confere a existência do paciente com uma consulta de contagem e devolve uma referência
+     * não inicializada, suficiente para preencher a chave estrangeira.
+     * </p>
      *
      * @param pacienteId ID do paciente.
-     * @return Paciente encontrado.
+     * @return Referência ao paciente.
      * @throws PacienteNotFoundException Se o paciente não for encontrado.
      */
     private Paciente buscarPacientePorId(Long pacienteId) {
-        return pacienteRepository.findById(pacienteId)
-                .orElseThrow(() -> new PacienteNotFoundException(pacienteId));
+        referenciaResolver.verificarExistencia(pacienteId, null, null);
+        return referenciaResolver.paciente(pacienteId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,397 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.EntradaSinistroDTO;
+import com.odontovision.clinica_odontologica.dto.SinistroDTO;
+import com.odontovision.clinica_odontologica.exception.FilaCheiaException;
+import com.odontovision.clinica_odontologica.exception.SinistroNotFoundException;
+import com.odontovision.clinica_odontologica.model.EntradaSinistro;
+import com.odontovision.clinica_odontologica.model.EventoOutbox;
+import com.odontovision.clinica_odontologica.model.Sinistro;
+import com.odontovision.clinica_odontologica.repository.DentistaRepository;
+import com.odontovision.clinica_odontologica.repository.EntradaSinistroRepository;
+import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import com.odontovision.clinica_odontologica.repository.SinistroRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço da entrada assíncrona de sinistros ({@code POST /sinistros/intake}).
+ * <p>
+ * O sinistro recebido é gravado como JSON na fila {@code entrada_sinistro} e a requisição termina
+ * com o rastreio, sem conferir referências nem inserir o sinistro. A fila é limitada em
+ * {@code clinica.sinistros.entrada.capacidade} entradas em aberto: acima disso, novos envios são
+ * recusados ({@link FilaCheiaException}, {@code 503} com {@code Retry-After}) em vez de acumular
+ * trabalho que os trabalhadores não dão conta de processar. O limite é conferido por contagem e
+ * pode ser ultrapassado por alguns envios simultâneos.
+ * </p>
+ * <p>
+ * A cada {@code clinica.sinistros.entrada.intervalo-ms}, {@link #despachar()} completa até
+ * {@code clinica.sinistros.entrada.trabalhadores} trabalhadores no {@link TaskExecutor}, e cada um
+ * processa lotes até a fila esvaziar. Um lote é reservado com um token próprio (o que permite
+ * trabalhadores em várias instâncias), tem as referências de paciente, dentista e procedimento
+ * conferidas com uma consulta por tabela e é gravado em uma única transação, junto com os eventos
+ * de inclusão no outbox ({@link EventoService}) e o resultado de cada entrada. Se o banco recusar
+ * os dados do lote ({@link DataIntegrityViolationException}), as entradas são gravadas uma a uma, e só
+ * a que for recusada é rejeitada.
+ * </p>
+ * <p>
+ * Falhas passageiras (conexão indisponível, espera por trava, deadlock) não rejeitam nenhuma entrada:
+ * o trabalhador para, e as entradas reservadas continuam em processamento. Reservas sem resultado
+ * após {@code clinica.sinistros.entrada.reserva-expira-ms} voltam à fila; a entrada reservada mais de
+ * {@code clinica.sinistros.entrada.tentativas-maximas} vezes é rejeitada.
+ * </p>
+ */
+@Service
+public class EntradaSinistroService {
+
+    /**
+     * Maior lote aceito, para que a verificação de referências caiba em uma cláusula IN do Oracle.
+     */
+    private static final int TAMANHO_MAXIMO_LOTE = 1000;
+
+    /**
+     * Tamanho da coluna {@code entrada_sinistro.erro}.
+     */
+    private static final int TAMANHO_MAXIMO_ERRO = 1000;
+
+    /**
+     * Segundos sugeridos no {@code Retry-After} quando a fila está cheia.
+     */
+    private static final long SEGUNDOS_PARA_NOVA_TENTATIVA = 5;
+
+    private final EntradaSinistroRepository entradaSinistroRepository;
+    private final SinistroRepository sinistroRepository;
+    private final PacienteRepository pacienteRepository;
+    private final DentistaRepository dentistaRepository;
+    private final ProcedimentoRepository procedimentoRepository;
+    private final ReferenciaResolver referenciaResolver;
+    private final SinistroService sinistroService;
+    private final EventoService eventoService;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final long capacidade;
+    private final int tamanhoLote;
+    private final int trabalhadores;
+    private final long reservaExpiraMs;
+    private final int tentativasMaximas;
+    private final int retencaoDias;
+    private final AtomicInteger trabalhadoresAtivos = new AtomicInteger();
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param entradaSinistroRepository Repositório da fila de entrada.
+     * @param sinistroRepository        Repositório de sinistros.
+     * @param pacienteRepository        Repositório de pacientes (conferência de referências).
+     * @param dentistaRepository        Repositório de dentistas (conferência de referências).
+     * @param procedimentoRepository    Repositório de procedimentos (conferência de referências).
+     * @param referenciaResolver        Referências (proxies) usadas nas associações do sinistro.
+     * @param sinistroService           Conversão do sinistro gravado para o evento.
+     * @param eventoService             Outbox de eventos.
+     * @param objectMapper              Serializador dos sinistros na fila.
+     * @param taskExecutor              Executor dos trabalhadores.
+     * @param transactionTemplate       Transação de cada reserva e de cada lote.
+     * @param capacidade                Quantidade máxima de entradas em aberto.
+     * @param tamanhoLote               Entradas reservadas e gravadas por lote.
+     * @param trabalhadores             Trabalhadores simultâneos por instância.
+     * @param reservaExpiraMs           Tempo após o qual uma reserva sem resultado volta à fila.
+     * @param tentativasMaximas         Reservas permitidas por entrada antes de rejeitá-la.
+     * @param retencaoDias              Dias que as entradas processadas permanecem consultáveis.
+     */
+    public EntradaSinistroService(EntradaSinistroRepository entradaSinistroRepository,
+                                  SinistroRepository sinistroRepository,
+                                  PacienteRepository pacienteRepository,
+                                  DentistaRepository dentistaRepository,
+                                  ProcedimentoRepository procedimentoRepository,
+                                  ReferenciaResolver referenciaResolver,
+                                  SinistroService sinistroService,
+                                  EventoService eventoService,
+                                  ObjectMapper objectMapper,
+                                  TaskExecutor taskExecutor,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${clinica.sinistros.entrada.capacidade:10000}") long capacidade,
+                                  @Value("${clinica.sinistros.entrada.tamanho-lote:100}") int tamanhoLote,
+                                  @Value("${clinica.sinistros.entrada.trabalhadores:2}") int trabalhadores,
+                                  @Value("${clinica.sinistros.entrada.reserva-expira-ms:60000}") long reservaExpiraMs,
+                                  @Value("${clinica.sinistros.entrada.tentativas-maximas:3}") int tentativasMaximas,
+                                  @Value("${clinica.sinistros.entrada.retencao-dias:7}") int retencaoDias) {
+        this.entradaSinistroRepository = entradaSinistroRepository;
+        this.sinistroRepository = sinistroRepository;
+        this.pacienteRepository = pacienteRepository;
+        this.dentistaRepository = dentistaRepository;
+        this.procedimentoRepository = procedimentoRepository;
+        this.referenciaResolver = referenciaResolver;
+        this.sinistroService = sinistroService;
+        this.eventoService = eventoService;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.capacidade = capacidade;
+        this.tamanhoLote = Math.max(1, Math.min(tamanhoLote, TAMANHO_MAXIMO_LOTE));
+        this.trabalhadores = Math.max(1, trabalhadores);
+        this.reservaExpiraMs = reservaExpiraMs;
+        this.tentativasMaximas = tentativasMaximas;
+        this.retencaoDias = retencaoDias;
+    }
+
+    /**
+     * Coloca o sinistro na fila de entrada.
+     *
+     * @param sinistroDTO Sinistro já validado ({@code @Valid}); o ID e a versão informados são ignorados.
+     * @return {@link EntradaSinistroDTO} pendente, com o rastreio.
+     * @throws FilaCheiaException Se a fila tiver atingido a capacidade.
+     */
+    @Transactional
+    public EntradaSinistroDTO receber(SinistroDTO sinistroDTO) {
+        if (entradaSinistroRepository.contarEmAberto() >= capacidade) {
+            throw new FilaCheiaException(capacidade, SEGUNDOS_PARA_NOVA_TENTATIVA);
+        }
+        sinistroDTO.setId(null);
+        sinistroDTO.setVersao(null);
+        sinistroDTO.setAtualizadoEm(null);
+
+        EntradaSinistro entrada = new EntradaSinistro();
+        entrada.setRastreio(UUID.randomUUID().toString());
+        try {
+            entrada.setDados(objectMapper.writeValueAsString(sinistroDTO));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o sinistro recebido", e);
+        }
+        entrada.setSituacao(EntradaSinistro.Situacao.PENDENTE);
+        entrada.setTentativas(0);
+        entrada.setRecebidaEm(LocalDateTime.now());
+        return EntradaSinistroDTO.de(entradaSinistroRepository.save(entrada));
+    }
+
+    /**
+     * Busca a situação de uma entrada pelo rastreio.
+     *
+     * @param rastreio Rastreio devolvido por {@link #receber(SinistroDTO)}.
+     * @return {@link EntradaSinistroDTO} com a situação atual.
+     * @throws SinistroNotFoundException Se o rastreio não existir ou a entrada já tiver sido removida.
+     */
+    @Transactional(readOnly = true)
+    public EntradaSinistroDTO buscar(String rastreio) {
+        return entradaSinistroRepository.findByRastreio(rastreio)
+                .map(EntradaSinistroDTO::de)
+                .orElseThrow(() -> new SinistroNotFoundException("Entrada de sinistro não encontrada com o rastreio: " + rastreio));
+    }
+
+    /**
+     * Completa o número configurado de trabalhadores; cada um processa a fila até esvaziá-la.
+     */
+    @Scheduled(fixedDelayString = "${clinica.sinistros.entrada.intervalo-ms:200}")
+    public void despachar() {
+        while (trabalhadoresAtivos.incrementAndGet() <= trabalhadores) {
+            try {
+                taskExecutor.execute(() -> {
+                    try {
+                        processarPendentes();
+                    } finally {
+                        trabalhadoresAtivos.decrementAndGet();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                break;
+            }
+        }
+        trabalhadoresAtivos.decrementAndGet();
+    }
+
+    /**
+     * Processa lotes de {@code clinica.sinistros.entrada.tamanho-lote} entradas até a fila esvaziar.
+     *
+     * @throws org.springframework.dao.DataAccessException Em uma falha passageira do banco; as entradas
+     *                                                     reservadas voltam à fila quando a reserva expirar.
+     */
+    public void processarPendentes() {
+        int reservadas;
+        do {
+            reservadas = processarLote();
+        } while (reservadas == tamanhoLote);
+    }
+
+    /**
+     * Remove as entradas processadas há mais de {@code clinica.sinistros.entrada.retencao-dias} dias.
+     */
+    @Scheduled(cron = "${clinica.sinistros.entrada.limpeza-cron:0 15 4 * * *}")
+    @Transactional
+    public void removerProcessadas() {
+        entradaSinistroRepository.removerProcessadasAntesDe(LocalDateTime.now().minusDays(retencaoDias));
+    }
+
+    /**
+     * Reserva e grava um lote.
+     *
+     * @return Quantidade de entradas candidatas do lote; menor que o tamanho do lote quando a fila esvaziou.
+     */
+    private int processarLote() {
+        String token = UUID.randomUUID().toString();
+        List<Long> candidatas = transactionTemplate.execute(status -> {
+            LocalDateTime agora = LocalDateTime.now();
+            entradaSinistroRepository.liberarReservasExpiradas(agora.minus(reservaExpiraMs, ChronoUnit.MILLIS));
+            List<Long> ids = entradaSinistroRepository.buscarPendentes(Limit.of(tamanhoLote));
+            if (!ids.isEmpty()) {
+                entradaSinistroRepository.reservar(ids, token, agora);
+            }
+            return ids;
+        });
+        if (candidatas == null || candidatas.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> gravar(entradaSinistroRepository.travarReservadas(token)));
+        } catch (DataIntegrityViolationException e) {
+            for (Long id : candidatas) {
+                gravarIsolada(id, token);
+            }
+        }
+        return candidatas.size();
+    }
+
+    /**
+     * Grava uma entrada do lote recusado em transação própria; se o banco também recusar os dados dela,
+     * ela é rejeitada. Outras falhas chegam ao trabalhador sem rejeitar a entrada.
+     */
+    private void gravarIsolada(Long id, String token) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    entradaSinistroRepository.travarReservada(id, token).ifPresent(entrada -> gravar(List.of(entrada))));
+        } catch (DataIntegrityViolationException e) {
+            String erro = "Falha ao gravar o sinistro: " + e.getMostSpecificCause().getMessage();
+            transactionTemplate.executeWithoutResult(status ->
+                    entradaSinistroRepository.travarReservada(id, token)
+                            .ifPresent(entrada -> rejeitar(entrada, erro, LocalDateTime.now())));
+        }
+    }
+
+    /**
+     * Converte, confere e grava as entradas reservadas, registrando o resultado de cada uma.
+     * Executa dentro da transação do lote.
+     */
+    private void gravar(List<EntradaSinistro> entradas) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<LinhaEntrada> linhas = new ArrayList<>(entradas.size());
+        for (EntradaSinistro entrada : entradas) {
+            if (entrada.getTentativas() > tentativasMaximas) {
+                rejeitar(entrada, "Processamento interrompido " + (entrada.getTentativas() - 1) + " vezes.", agora);
+                continue;
+            }
+            try {
+                linhas.add(new LinhaEntrada(entrada, objectMapper.readValue(entrada.getDados(), SinistroDTO.class)));
+            } catch (JsonProcessingException e) {
+                rejeitar(entrada, "JSON inválido: " + e.getOriginalMessage(), agora);
+            }
+        }
+
+        List<LinhaEntrada> validas = verificarReferencias(linhas, agora);
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        List<Sinistro> gravados = sinistroRepository.saveAllAndFlush(validas.stream()
+                .map(linha -> convertToEntity(linha.dto()))
+                .toList());
+        for (int i = 0; i < gravados.size(); i++) {
+            Sinistro gravado = gravados.get(i);
+            eventoService.registrar(EventoService.SINISTRO, gravado.getId(), EventoOutbox.Tipo.CRIADO,
+                    sinistroService.convertToDTO(gravado));
+            EntradaSinistro entrada = validas.get(i).entrada();
+            entrada.setSituacao(EntradaSinistro.Situacao.CONCLUIDO);
+            entrada.setSinistroId(gravado.getId());
+            entrada.setToken(null);
+            entrada.setProcessadaEm(agora);
+        }
+    }
+
+    /**
+     * Confere, com uma consulta por tabela, se os IDs referenciados existem; rejeita as linhas com
+     * referências inexistentes e devolve as demais.
+     */
+    private List<LinhaEntrada> verificarReferencias(List<LinhaEntrada> linhas, LocalDateTime agora) {
+        if (linhas.isEmpty()) {
+            return linhas;
+        }
+        Set<Long> procedimentos = procedimentoRepository.findIdsExistentes(ids(linhas, SinistroDTO::getProcedimentoId));
+        Set<Long> dentistas = dentistaRepository.findIdsExistentes(ids(linhas, SinistroDTO::getDentistaId));
+        Set<Long> pacientes = pacienteRepository.findIdsExistentes(ids(linhas, SinistroDTO::getPacienteId));
+
+        List<LinhaEntrada> validas = new ArrayList<>(linhas.size());
+        for (LinhaEntrada linha : linhas) {
+            List<String> erros = new ArrayList<>();
+            if (!procedimentos.contains(linha.dto().getProcedimentoId())) {
+                erros.add("Procedimento não encontrado com o ID: " + linha.dto().getProcedimentoId());
+            }
+            if (!dentistas.contains(linha.dto().getDentistaId())) {
+                erros.add("Dentista não encontrado com o ID: " + linha.dto().getDentistaId());
+            }
+            if (!pacientes.contains(linha.dto().getPacienteId())) {
+                erros.add("Paciente não encontrado com o ID: " + linha.dto().getPacienteId());
+            }
+            if (erros.isEmpty()) {
+                validas.add(linha);
+            } else {
+                rejeitar(linha.entrada(), String.join("; ", erros), agora);
+            }
+        }
+        return validas;
+    }
+
+    private static Set<Long> ids(List<LinhaEntrada> linhas, Function<SinistroDTO, Long> referencia) {
+        return linhas.stream()
+                .map(linha -> referencia.apply(linha.dto()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Converte o DTO em entidade usando referências (proxies), já que a existência foi conferida antes.
+     */
+    private Sinistro convertToEntity(SinistroDTO sinistroDTO) {
+        Sinistro sinistro = new Sinistro();
+        sinistro.setTipoSinistro(sinistroDTO.getTipoSinistro());
+        sinistro.setDescricao(sinistroDTO.getDescricao());
+        sinistro.setDataSinistro(sinistroDTO.getDataSinistro());
+        sinistro.setRiscoFraude(Boolean.TRUE.equals(sinistroDTO.getRiscoFraude()));
+        sinistro.setProcedimento(referenciaResolver.procedimento(sinistroDTO.getProcedimentoId()));
+        sinistro.setDentista(referenciaResolver.dentista(sinistroDTO.getDentistaId()));
+        sinistro.setPaciente(referenciaResolver.paciente(sinistroDTO.getPacienteId()));
+        return sinistro;
+    }
+
+    private static void rejeitar(EntradaSinistro entrada, String erro, LocalDateTime agora) {
+        entrada.setSituacao(EntradaSinistro.Situacao.REJEITADO);
+        entrada.setErro(erro.length() > TAMANHO_MAXIMO_ERRO ? erro.substring(0, TAMANHO_MAXIMO_ERRO) : erro);
+        entrada.setToken(null);
+        entrada.setProcessadaEm(agora);
+    }
+
+    /**
+     * Entrada reservada e o sinistro lido do JSON.
+     */
+    private record LinhaEntrada(EntradaSinistro entrada, SinistroDTO dto) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.odontovision.clinica_odontologica.service;
+
+/**
+ * Média e variância acumuladas dos custos de um tipo de procedimento.
+ * <p>
+ * Atualizada a cada procedimento pelo algoritmo de Welford, em tempo constante e sem
+ * guardar o histórico. Também aceita a remoção de um valor, usada quando um procedimento
+ * é alterado, excluído ou não chega a ser gravado.
+ * </p>
+ */
+final class EstatisticaCusto {
+
+    private long quantidade;
+    private double media;
+    private double somaQuadradosDesvios;
+
+    /**
+     * Cria a estatística a partir de agregados calculados pelo banco.
+     *
+     * @param quantidade    Quantidade de custos.
+     * @param soma          Soma dos custos.
+     * @param somaQuadrados Soma dos quadrados dos custos.
+     * @return Estatística equivalente à inclusão de cada custo.
+     */
+    static EstatisticaCusto de(long quantidade, double soma, double somaQuadrados) {
+        EstatisticaCusto estatistica = new EstatisticaCusto();
+        if (quantidade > 0) {
+            estatistica.quantidade = quantidade;
+            estatistica.media = soma / quantidade;
+            estatistica.somaQuadradosDesvios = Math.max(0.0, somaQuadrados - quantidade * estatistica.media * estatistica.media);
+        }
+        return estatistica;
+    }
+
+    /**
+     * Quantos desvios-padrão o custo está acima da média.
+     *
+     * @param custo         Custo avaliado.
+     * @param amostraMinima Quantidade mínima de custos para que a média seja considerada.
+     * @return Escore-z do custo, ou 0 se a amostra for pequena ou não houver variação.
+     */
+    synchronized double desvios(double custo, int amostraMinima) {
+        if (quantidade < Math.max(2, amostraMinima)) {
+            return 0.0;
+        }
+        double desvioPadrao = Math.sqrt(somaQuadradosDesvios / (quantidade - 1));
+        return desvioPadrao > 0 ? (custo - media) / desvioPadrao : 0.0;
+    }
+
+    /**
+     * Cópia independente do estado atual, para simular inclusões e remoções ainda não confirmadas.
+     *
+     * @return Nova estatística com a mesma quantidade, média e variância.
+     */
+    synchronized EstatisticaCusto copia() {
+        EstatisticaCusto copia = new EstatisticaCusto();
+        copia.quantidade = quantidade;
+        copia.media = media;
+        copia.somaQuadradosDesvios = somaQuadradosDesvios;
+        return copia;
+    }
+
+    synchronized void adicionar(double custo) {
+        quantidade++;
+        double delta = custo - media;
+        media += delta / quantidade;
+        somaQuadradosDesvios += delta * (custo - media);
+    }
+
+    synchronized void remover(double custo) {
+        if (quantidade <= 1) {
+            quantidade = 0;
+            media = 0.0;
+            somaQuadradosDesvios = 0.0;
+            return;
+        }
+        double mediaAnterior = (quantidade * media - custo) / (quantidade - 1);
+        somaQuadradosDesvios = Math.max(0.0, somaQuadradosDesvios - (custo - media) * (custo - mediaAnterior));
+        media = mediaAnterior;
+        quantidade--;
+    }
+}
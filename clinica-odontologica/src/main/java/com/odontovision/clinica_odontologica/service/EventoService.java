@@ -0,0 +1,295 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.exception.EventosExpiradosException;
+import com.odontovision.clinica_odontologica.model.EventoOutbox;
+import com.odontovision.clinica_odontologica.model.MarcaResumo;
+import com.odontovision.clinica_odontologica.repository.EventoOutboxRepository;
+import com.odontovision.clinica_odontologica.repository.MarcaResumoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serviço do fluxo de eventos de alteração de procedimentos e sinistros (outbox transacional).
+ * <p>
+ * Os serviços de escrita chamam {@link #registrar} dentro da própria transação, de modo que o
+ * evento só existe se a alteração for confirmada. O publicador ({@link #publicarPendentes()})
+ * roda em uma única instância por vez, travando a marca {@code evento_outbox}, e atribui aos
+ * eventos pendentes posições contínuas na ordem do ID. Essa posição é o deslocamento dos
+ * consumidores: quem reconecta com {@code Last-Event-ID} recebe exatamente os eventos seguintes,
+ * sem lacunas nem repetições.
+ * </p>
+ * <p>
+ * A ordem do ID não é a ordem de confirmação: os IDs vêm de uma sequência reservada em blocos
+ * por instância, então dois eventos do mesmo registro gravados em instâncias diferentes podem
+ * ser publicados invertidos. Por isso todo evento leva a {@code versao} do registro, e o
+ * consumidor deve descartar o evento cuja versão não seja maior que a última aplicada ao
+ * mesmo registro. A remoção leva a versão seguinte à última gravada.
+ * </p>
+ * <p>
+ * As assinaturas de {@code /eventos} ficam em memória. Após cada publicação, os eventos recém
+ * publicados são entregues diretamente às assinaturas em dia; as atrasadas (recém-conectadas ou
+ * em outra instância) leem do outbox a partir da própria posição.
+ * </p>
+ */
+@Service
+public class EventoService {
+
+    public static final String PROCEDIMENTO = "procedimento";
+    public static final String SINISTRO = "sinistro";
+
+    private static final String MARCA = "evento_outbox";
+    private static final int TAMANHO_LOTE = 500;
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final MarcaResumoRepository marcaResumoRepository;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutMs;
+    private final int retencaoDias;
+    private final Set<Assinatura> assinaturas = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Evento publicado, no formato enviado aos consumidores.
+     *
+     * @param posicao Posição no fluxo (ID do evento SSE).
+     * @param nome    Agregado e tipo, como {@code procedimento.criado}.
+     * @param dados   Estado do registro em JSON.
+     */
+    record Evento(long posicao, String nome, String dados) {
+
+        static Evento de(EventoOutbox evento) {
+            return new Evento(evento.getPosicao(),
+                    evento.getAgregado() + "." + evento.getTipo().name().toLowerCase(Locale.ROOT),
+                    evento.getDados());
+        }
+    }
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param eventoOutboxRepository Repositório do outbox.
+     * @param marcaResumoRepository  Repositório das marcas d'água (última posição publicada).
+     * @param objectMapper           Serializador dos dados dos eventos.
+     * @param taskExecutor           Executor das entregas às assinaturas.
+     * @param transactionTemplate    Transação de cada lote publicado.
+     * @param timeoutMs              Duração máxima de uma conexão em {@code /eventos}.
+     * @param retencaoDias           Dias que os eventos publicados permanecem no outbox.
+     */
+    public EventoService(EventoOutboxRepository eventoOutboxRepository,
+                         MarcaResumoRepository marcaResumoRepository,
+                         ObjectMapper objectMapper,
+                         TaskExecutor taskExecutor,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${clinica.eventos.timeout-ms:1800000}") long timeoutMs,
+                         @Value("${clinica.eventos.retencao-dias:7}") int retencaoDias) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.marcaResumoRepository = marcaResumoRepository;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.timeoutMs = timeoutMs;
+        this.retencaoDias = retencaoDias;
+    }
+
+    /**
+     * Dados de um evento de remoção.
+     *
+     * @param id     ID do registro removido.
+     * @param versao Versão seguinte à última gravada, para que a remoção seja a mais recente do registro.
+     */
+    record Remocao(Long id, Long versao) {
+    }
+
+    /**
+     * Grava no outbox o evento de uma inclusão ou alteração, na transação corrente.
+     *
+     * @param agregado {@link #PROCEDIMENTO} ou {@link #SINISTRO}.
+     * @param id       ID do registro alterado.
+     * @param tipo     Tipo da alteração.
+     * @param dados    DTO com o estado após a alteração, gravado (com a nova {@code versao}).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String agregado, Long id, EventoOutbox.Tipo tipo, Object dados) {
+        gravar(agregado, id, tipo, dados);
+    }
+
+    /**
+     * Grava no outbox o evento de remoção de um registro, na transação corrente.
+     *
+     * @param agregado {@link #PROCEDIMENTO} ou {@link #SINISTRO}.
+     * @param id       ID do registro removido.
+     * @param versao   Última versão gravada do registro.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarRemocao(String agregado, Long id, Long versao) {
+        gravar(agregado, id, EventoOutbox.Tipo.REMOVIDO, new Remocao(id, versao + 1));
+    }
+
+    private void gravar(String agregado, Long id, EventoOutbox.Tipo tipo, Object dados) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(dados);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o evento de " + agregado + " " + id, e);
+        }
+        eventoOutboxRepository.save(new EventoOutbox(null, agregado, id, tipo, json, LocalDateTime.now(), null));
+    }
+
+    /**
+     * Publica os eventos pendentes, em lotes de {@value #TAMANHO_LOTE}, até esvaziar o outbox.
+     */
+    @Scheduled(fixedDelayString = "${clinica.eventos.intervalo-ms:500}")
+    public void publicarPendentes() {
+        Integer publicados;
+        do {
+            publicados = transactionTemplate.execute(status -> publicarLote());
+        } while (publicados != null && publicados == TAMANHO_LOTE);
+    }
+
+    /**
+     * Remove do outbox os eventos publicados há mais de {@code clinica.eventos.retencao-dias} dias.
+     */
+    @Scheduled(cron = "${clinica.eventos.limpeza-cron:0 0 4 * * *}")
+    @Transactional
+    public void removerExpirados() {
+        eventoOutboxRepository.removerPublicadosAntesDe(LocalDateTime.now().minusDays(retencaoDias));
+    }
+
+    /**
+     * Abre uma assinatura do fluxo de eventos.
+     *
+     * @param ultimaPosicao Posição do último evento recebido ({@code Last-Event-ID}), ou
+     *                      {@code null} para receber apenas os eventos publicados daqui em diante.
+     * @return {@link SseEmitter} que recebe os eventos seguintes à posição, em ordem.
+     * @throws EventosExpiradosException Se eventos seguintes à posição já foram removidos do outbox.
+     */
+    public SseEmitter assinar(Long ultimaPosicao) {
+        long publicada = marcaResumoRepository.findById(MARCA).map(MarcaResumo::getUltimoId).orElse(0L);
+        long inicio = ultimaPosicao != null ? ultimaPosicao : publicada;
+        if (ultimaPosicao != null && ultimaPosicao < publicada) {
+            Long menor = eventoOutboxRepository.buscarMenorPosicao();
+            if (menor == null || ultimaPosicao < menor - 1) {
+                throw new EventosExpiradosException("Os eventos seguintes à posição " + ultimaPosicao
+                        + " não estão mais disponíveis; releia os dados e assine sem Last-Event-ID.");
+            }
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Assinatura assinatura = new Assinatura(emitter, inicio);
+        emitter.onCompletion(() -> assinaturas.remove(assinatura));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(erro -> assinaturas.remove(assinatura));
+        assinaturas.add(assinatura);
+        taskExecutor.execute(() -> assinatura.entregar(List.of()));
+        return emitter;
+    }
+
+    private int publicarLote() {
+        MarcaResumo marca = marcaResumoRepository.travar(MARCA)
+                .orElseGet(() -> marcaResumoRepository.save(new MarcaResumo(MARCA, 0L)));
+        List<EventoOutbox> pendentes = eventoOutboxRepository.buscarPendentes(Limit.of(TAMANHO_LOTE));
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+
+        long posicao = marca.getUltimoId();
+        List<Evento> publicados = new ArrayList<>(pendentes.size());
+        for (EventoOutbox pendente : pendentes) {
+            pendente.setPosicao(++posicao);
+            publicados.add(Evento.de(pendente));
+        }
+        marca.setUltimoId(posicao);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Assinatura assinatura : assinaturas) {
+                    taskExecutor.execute(() -> assinatura.entregar(publicados));
+                }
+            }
+        });
+        return pendentes.size();
+    }
+
+    /**
+     * Conexão de um consumidor e a posição do último evento enviado a ele.
+     * <p>
+     * As entregas são serializadas por um {@link ReentrantLock}, e não por {@code synchronized},
+     * porque leem o outbox com a trava tomada e não devem prender a thread portadora quando o
+     * executor usa threads virtuais.
+     * </p>
+     */
+    private final class Assinatura {
+
+        private final SseEmitter emitter;
+        private final ReentrantLock trava = new ReentrantLock();
+        private long ultimaPosicao;
+
+        Assinatura(SseEmitter emitter, long ultimaPosicao) {
+            this.emitter = emitter;
+            this.ultimaPosicao = ultimaPosicao;
+        }
+
+        /**
+         * Envia os eventos recém-publicados se a assinatura estiver em dia; caso contrário, lê
+         * do outbox tudo o que vem depois da última posição enviada.
+         */
+        void entregar(List<Evento> publicados) {
+            trava.lock();
+            try {
+                if (!publicados.isEmpty() && publicados.get(publicados.size() - 1).posicao() <= ultimaPosicao) {
+                    return;
+                }
+                if (!publicados.isEmpty() && publicados.get(0).posicao() <= ultimaPosicao + 1) {
+                    enviar(publicados);
+                    return;
+                }
+                List<EventoOutbox> lote;
+                do {
+                    lote = eventoOutboxRepository.buscarDepoisDe(ultimaPosicao, Limit.of(TAMANHO_LOTE));
+                    enviar(lote.stream().map(Evento::de).toList());
+                } while (lote.size() == TAMANHO_LOTE);
+            } catch (IOException | IllegalStateException e) {
+                // Consumidor desconectado ou emitter já encerrado
+                assinaturas.remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        private void enviar(List<Evento> eventos) throws IOException {
+            for (Evento evento : eventos) {
+                if (evento.posicao() > ultimaPosicao) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(evento.posicao()))
+                            .name(evento.nome())
+                            .data(evento.dados(), MediaType.APPLICATION_JSON));
+                    ultimaPosicao = evento.posicao();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.odontovision.clinica_odontologica.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de trigramas em memória para busca por nome, no estilo do {@code pg_trgm}.
+ * <p>
+ * Os nomes são normalizados (sem acentos, minúsculos, apenas letras e dígitos) e cada palavra é
+ * decomposta em trigramas com dois espaços à esquerda e um à direita, de modo que {@code "joão"}
+ * gera {@code "  j"}, {@code " jo"}, {@code "joa"}, {@code "oao"} e {@code "ao "}. Na busca, termos
+ * com três ou mais caracteres usam seus trigramas internos e casam em qualquer posição do nome;
+ * termos de um ou dois caracteres usam os trigramas de início de palavra e casam como prefixo,
+ * o que atende a busca digitada letra a letra. Os candidatos da interseção das listas de
+ * trigramas são conferidos contra o nome normalizado antes de entrar no resultado.
+ * </p>
+ * <p>
+ * O índice começa vazio e só passa a responder depois de {@link #concluirCarga()}. Alterações
+ * recebidas durante a carga prevalecem sobre os registros carregados, que são incluídos com
+ * {@link #carregar(Object)} apenas se o ID ainda não foi tocado.
+ * </p>
+ * <p>
+ * Escritas transacionais usam {@link #adicionarAposCommit(Object)} e {@link #removerAposCommit(Long)},
+ * para que um rollback não deixe no índice nomes que não existem no banco.
+ * </p>
+ *
+ * @param <T> Tipo do valor devolvido pela busca.
+ */
+final class IndiceNomes<T> {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private final Function<T, Long> id;
+    private final Function<T, String> nome;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entrada<T>> entradas = new HashMap<>();
+    private final Map<String, Set<Long>> idsPorTrigrama = new HashMap<>();
+    private final Set<Long> removidosDuranteCarga = new HashSet<>();
+    private volatile boolean pronto;
+
+    private record Entrada<T>(String nome, T valor) {
+    }
+
+    private record Candidato<T>(int relevancia, String nome, long id, T valor) {
+    }
+
+    private static final Comparator<Candidato<?>> ORDEM = Comparator.<Candidato<?>>comparingInt(Candidato::relevancia)
+            .thenComparing(Candidato::nome)
+            .thenComparingLong(Candidato::id);
+
+    /**
+     * @param id   Função que extrai o ID do valor.
+     * @param nome Função que extrai o nome indexado do valor.
+     */
+    IndiceNomes(Function<T, Long> id, Function<T, String> nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+
+    /**
+     * Indica se a carga inicial terminou e o índice já pode responder às buscas.
+     */
+    boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Inclui um registro lido na carga inicial, a menos que ele tenha sido incluído, alterado ou
+     * removido depois que a carga começou.
+     */
+    void carregar(T valor) {
+        Long chave = id.apply(valor);
+        lock.writeLock().lock();
+        try {
+            if (!entradas.containsKey(chave) && !removidosDuranteCarga.contains(chave)) {
+                incluir(chave, valor);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void concluirCarga() {
+        lock.writeLock().lock();
+        try {
+            removidosDuranteCarga.clear();
+            pronto = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inclui ou substitui um registro (criação ou atualização).
+     */
+    void adicionar(T valor) {
+        Long chave = id.apply(valor);
+        lock.writeLock().lock();
+        try {
+            excluir(chave);
+            removidosDuranteCarga.remove(chave);
+            incluir(chave, valor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um registro (desativação ou exclusão).
+     */
+    void remover(Long chave) {
+        lock.writeLock().lock();
+        try {
+            excluir(chave);
+            if (!pronto) {
+                removidosDuranteCarga.add(chave);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Como {@link #adicionar(Object)}, mas, dentro de uma transação, só depois do commit.
+     */
+    void adicionarAposCommit(T valor) {
+        aposCommit(() -> adicionar(valor));
+    }
+
+    /**
+     * Como {@link #remover(Long)}, mas, dentro de uma transação, só depois do commit.
+     */
+    void removerAposCommit(Long chave) {
+        aposCommit(() -> remover(chave));
+    }
+
+    /**
+     * Busca os registros cujo nome contém todos os termos da consulta.
+     * <p>
+     * O resultado é ordenado pela relevância (nome que começa pela consulta, depois termos no
+     * início de palavras, depois termos em qualquer posição) e, em seguida, pelo nome.
+     * </p>
+     *
+     * @param consulta Texto digitado, com ou sem acentos.
+     * @param limite   Quantidade máxima de resultados.
+     * @return Registros encontrados, do mais ao menos relevante.
+     */
+    List<T> buscar(String consulta, int limite) {
+        String normalizada = normalizar(consulta);
+        if (normalizada.isEmpty()) {
+            return List.of();
+        }
+        String[] termos = normalizada.split(" ");
+
+        PriorityQueue<Candidato<T>> melhores = new PriorityQueue<>(limite + 1, ORDEM.reversed());
+        lock.readLock().lock();
+        try {
+            for (Long candidato : candidatos(termos)) {
+                Entrada<T> entrada = entradas.get(candidato);
+                int relevancia = relevancia(entrada.nome(), normalizada, termos);
+                if (relevancia >= 0) {
+                    melhores.add(new Candidato<>(relevancia, entrada.nome(), candidato, entrada.valor()));
+                    if (melhores.size() > limite) {
+                        melhores.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Candidato<T>> ordenados = new ArrayList<>(melhores);
+        ordenados.sort(ORDEM);
+        return ordenados.stream().map(Candidato::valor).toList();
+    }
+
+    /**
+     * Remove acentos, converte para minúsculas e reduz qualquer sequência de caracteres que não
+     * seja letra ou dígito a um único espaço.
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    private void incluir(Long chave, T valor) {
+        String normalizado = normalizar(nome.apply(valor));
+        entradas.put(chave, new Entrada<>(normalizado, valor));
+        for (String trigrama : trigramasDoNome(normalizado)) {
+            idsPorTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(chave);
+        }
+    }
+
+    private void excluir(Long chave) {
+        Entrada<T> anterior = entradas.remove(chave);
+        if (anterior == null) {
+            return;
+        }
+        for (String trigrama : trigramasDoNome(anterior.nome())) {
+            Set<Long> ids = idsPorTrigrama.get(trigrama);
+            if (ids != null && ids.remove(chave) && ids.isEmpty()) {
+                idsPorTrigrama.remove(trigrama);
+            }
+        }
+    }
+
+    /**
+     * Interseção das listas de IDs dos trigramas da consulta, percorrendo a menor delas.
+     */
+    private Set<Long> candidatos(String[] termos) {
+        List<Set<Long>> listas = new ArrayList<>();
+        for (String termo : termos) {
+            for (String trigrama : trigramasDaConsulta(termo)) {
+                Set<Long> ids = idsPorTrigrama.get(trigrama);
+                if (ids == null) {
+                    return Set.of();
+                }
+                listas.add(ids);
+            }
+        }
+        listas.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> resultado = new HashSet<>();
+        for (Long candidato : listas.get(0)) {
+            boolean emTodas = true;
+            for (int i = 1; i < listas.size() && emTodas; i++) {
+                emTodas = listas.get(i).contains(candidato);
+            }
+            if (emTodas) {
+                resultado.add(candidato);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Confere o candidato e calcula sua relevância: 0 se o nome começa pela consulta, 1 se todos
+     * os termos começam uma palavra, 2 se algum termo aparece no meio de uma palavra e -1 se o
+     * candidato não atende à consulta.
+     */
+    private static int relevancia(String nomeNormalizado, String consulta, String[] termos) {
+        if (nomeNormalizado.startsWith(consulta)) {
+            return 0;
+        }
+        String palavras = " " + nomeNormalizado;
+        int relevancia = 1;
+        for (String termo : termos) {
+            if (palavras.contains(" " + termo)) {
+                continue;
+            }
+            if (termo.length() < 3 || !nomeNormalizado.contains(termo)) {
+                return -1;
+            }
+            relevancia = 2;
+        }
+        return relevancia;
+    }
+
+    private static Set<String> trigramasDoNome(String nomeNormalizado) {
+        Set<String> trigramas = new LinkedHashSet<>();
+        for (String palavra : nomeNormalizado.split(" ")) {
+            if (!palavra.isEmpty()) {
+                adicionarTrigramas(trigramas, "  " + palavra + " ");
+            }
+        }
+        return trigramas;
+    }
+
+    private static Set<String> trigramasDaConsulta(String termo) {
+        Set<String> trigramas = new LinkedHashSet<>();
+        adicionarTrigramas(trigramas, termo.length() < 3 ? "  " + termo : termo);
+        return trigramas;
+    }
+
+    private static void adicionarTrigramas(Set<String> trigramas, String texto) {
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            trigramas.add(texto.substring(i, i + 3));
+        }
+    }
+}
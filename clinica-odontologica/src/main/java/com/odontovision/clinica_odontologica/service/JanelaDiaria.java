@@ -0,0 +1,65 @@
+package com.odontovision.clinica_odontologica.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Janela deslizante de totais diários para uma chave (paciente ou dentista).
+ * <p>
+ * Guarda um total por dia em um vetor circular de tamanho fixo, indexado pelo dia, de modo
+ * que incluir um valor e somar a janela custam tempo constante. Um dia mais antigo que a
+ * janela do dia mais recente já registrado é descartado.
+ * </p>
+ */
+final class JanelaDiaria {
+
+    private static final long VAZIO = Long.MIN_VALUE;
+
+    private final long[] dias;
+    private final double[] totais;
+
+    JanelaDiaria(int tamanhoDias) {
+        this.dias = new long[tamanhoDias];
+        this.totais = new double[tamanhoDias];
+        Arrays.fill(dias, VAZIO);
+    }
+
+    synchronized void adicionar(LocalDate data, double valor) {
+        long dia = data.toEpochDay();
+        int posicao = Math.floorMod(dia, dias.length);
+        if (dias[posicao] > dia) {
+            return;
+        }
+        if (dias[posicao] < dia) {
+            dias[posicao] = dia;
+            totais[posicao] = 0.0;
+        }
+        totais[posicao] += valor;
+    }
+
+    synchronized void remover(LocalDate data, double valor) {
+        long dia = data.toEpochDay();
+        int posicao = Math.floorMod(dia, dias.length);
+        if (dias[posicao] == dia) {
+            totais[posicao] -= valor;
+        }
+    }
+
+    /**
+     * Soma os totais dos dias da janela que termina na data informada.
+     *
+     * @param data Último dia da janela.
+     * @return Total acumulado na janela.
+     */
+    synchronized double total(LocalDate data) {
+        long fim = data.toEpochDay();
+        long inicio = fim - dias.length;
+        double soma = 0.0;
+        for (int i = 0; i < dias.length; i++) {
+            if (dias[i] > inicio && dias[i] <= fim) {
+                soma += totais[i];
+            }
+        }
+        return soma;
+    }
+}
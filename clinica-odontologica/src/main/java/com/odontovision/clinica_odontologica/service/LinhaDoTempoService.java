@@ -0,0 +1,150 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.dto.ItemLinhaDoTempoDTO;
+import com.odontovision.clinica_odontologica.dto.LinhaDoTempoDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
+import com.odontovision.clinica_odontologica.exception.CursorInvalidoException;
+import com.odontovision.clinica_odontologica.repository.DiagnosticoRepository;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import com.odontovision.clinica_odontologica.repository.SinistroRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Serviço da linha do tempo de um paciente: diagnósticos, procedimentos e sinistros intercalados
+ * da data mais recente para a mais antiga.
+ * <p>
+ * Cada página custa uma consulta por tipo de registro, sempre pelo índice que começa em
+ * {@code paciente_id}, mais a busca do paciente (em cache). Cada consulta traz até
+ * {@code limite + 1} registros a partir do cursor; a página é o início da junção ordenada das três.
+ * </p>
+ * <p>
+ * O cursor é a posição do último item entregue, no formato {@code data:tipo:id} (por exemplo
+ * {@code 2024-05-10:procedimento:123}). Na mesma data, sinistros vêm antes de procedimentos e estes
+ * antes de diagnósticos, e cada tipo em ordem decrescente de ID. Sinistros sem data ficam no fim,
+ * com {@code sem-data} no lugar da data.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class LinhaDoTempoService {
+
+    /**
+     * Tipos de registro, do último ao primeiro a aparecer em uma mesma data.
+     */
+    enum Tipo { DIAGNOSTICO, PROCEDIMENTO, SINISTRO }
+
+    /**
+     * Posição de um item na linha do tempo; itens sem data usam {@link #SEM_DATA}.
+     */
+    record Posicao(LocalDate data, Tipo tipo, long id) {
+
+        String texto() {
+            return (data.equals(SEM_DATA) ? CURSOR_SEM_DATA : data.toString()) + ":" + tipo.name().toLowerCase(Locale.ROOT) + ":" + id;
+        }
+
+        static Posicao ler(String cursor) {
+            String[] partes = cursor.split(":", -1);
+            if (partes.length != 3) {
+                throw new CursorInvalidoException(cursor);
+            }
+            try {
+                LocalDate data = partes[0].equals(CURSOR_SEM_DATA) ? SEM_DATA : LocalDate.parse(partes[0]);
+                return new Posicao(data, Tipo.valueOf(partes[1].toUpperCase(Locale.ROOT)), Long.parseLong(partes[2]));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new CursorInvalidoException(cursor);
+            }
+        }
+
+        static Posicao de(ItemLinhaDoTempoDTO item) {
+            return new Posicao(item.data() != null ? item.data() : SEM_DATA,
+                    Tipo.valueOf(item.tipo().toUpperCase(Locale.ROOT)), item.id());
+        }
+    }
+
+    // Anterior a qualquer data registrada: ordena os sinistros sem data depois de todos os outros
+    private static final LocalDate SEM_DATA = LocalDate.of(1, 1, 1);
+    private static final LocalDate DATA_MAXIMA = LocalDate.of(9999, 12, 31);
+    private static final String CURSOR_SEM_DATA = "sem-data";
+
+    private static final Comparator<Posicao> ORDEM = Comparator.comparing(Posicao::data)
+            .thenComparing(Posicao::tipo)
+            .thenComparingLong(Posicao::id)
+            .reversed();
+
+    private final PacienteService pacienteService;
+    private final DiagnosticoRepository diagnosticoRepository;
+    private final ProcedimentoRepository procedimentoRepository;
+    private final SinistroRepository sinistroRepository;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param pacienteService        Serviço de pacientes (busca por ID em cache).
+     * @param diagnosticoRepository  Repositório de diagnósticos.
+     * @param procedimentoRepository Repositório de procedimentos.
+     * @param sinistroRepository     Repositório de sinistros.
+     */
+    public LinhaDoTempoService(PacienteService pacienteService, DiagnosticoRepository diagnosticoRepository,
+                               ProcedimentoRepository procedimentoRepository, SinistroRepository sinistroRepository) {
+        this.pacienteService = pacienteService;
+        this.diagnosticoRepository = diagnosticoRepository;
+        this.procedimentoRepository = procedimentoRepository;
+        this.sinistroRepository = sinistroRepository;
+    }
+
+    /**
+     * Busca uma página da linha do tempo de um paciente ativo.
+     *
+     * @param pacienteId ID do paciente.
+     * @param cursor     {@code proximoCursor} da página anterior, ou {@code null} para a primeira página.
+     * @param limite     Quantidade máxima de itens da página.
+     * @return {@link Optional} com a página, vazio se o paciente não existir ou estiver inativo.
+     * @throws CursorInvalidoException se o cursor não estiver no formato {@code data:tipo:id}.
+     */
+    public Optional<LinhaDoTempoDTO> buscar(Long pacienteId, String cursor, int limite) {
+        Posicao posicao = cursor == null || cursor.isBlank() ? null : Posicao.ler(cursor);
+        Optional<PacienteDTO> paciente = pacienteService.buscarPorId(pacienteId);
+        if (paciente.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int limiteEfetivo = PaginaDTO.limitar(limite);
+        Limit linhas = Limit.of(limiteEfetivo + 1);
+        LocalDate data = posicao != null ? posicao.data() : DATA_MAXIMA;
+        long idSemData = posicao != null && posicao.data().equals(SEM_DATA) ? posicao.id() : Long.MAX_VALUE;
+
+        List<ItemLinhaDoTempoDTO> itens = new ArrayList<>();
+        diagnosticoRepository.buscarLinhaDoTempoComoDTO(pacienteId, data, idLimite(posicao, Tipo.DIAGNOSTICO), linhas)
+                .forEach(diagnostico -> itens.add(ItemLinhaDoTempoDTO.de(diagnostico)));
+        procedimentoRepository.buscarLinhaDoTempoComoDTO(pacienteId, data, idLimite(posicao, Tipo.PROCEDIMENTO), linhas)
+                .forEach(procedimento -> itens.add(ItemLinhaDoTempoDTO.de(procedimento)));
+        sinistroRepository.buscarLinhaDoTempoComoDTO(pacienteId, data, idLimite(posicao, Tipo.SINISTRO), idSemData, linhas)
+                .forEach(sinistro -> itens.add(ItemLinhaDoTempoDTO.de(sinistro)));
+        itens.sort(Comparator.comparing(Posicao::de, ORDEM));
+
+        if (itens.size() <= limiteEfetivo) {
+            return Optional.of(new LinhaDoTempoDTO(paciente.get(), itens, null));
+        }
+        List<ItemLinhaDoTempoDTO> pagina = List.copyOf(itens.subList(0, limiteEfetivo));
+        return Optional.of(new LinhaDoTempoDTO(paciente.get(), pagina, Posicao.de(pagina.get(limiteEfetivo - 1)).texto()));
+    }
+
+    // Maior ID (exclusivo) de um tipo ainda não entregue na data do cursor
+    private static long idLimite(Posicao posicao, Tipo tipo) {
+        if (posicao == null || tipo.compareTo(posicao.tipo()) < 0) {
+            return Long.MAX_VALUE;
+        }
+        return tipo == posicao.tipo() ? posicao.id() : Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,522 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+/**
+ * Motor de pontuação de fraude dos procedimentos.
+ * <p>
+ * Cada procedimento incluído é avaliado por três regras, calculadas sobre agregados mantidos
+ * em memória e atualizados a cada evento, sem consultar o histórico no banco:
+ * </p>
+ * <ul>
+ *     <li>{@link Regra#CUSTO_ATIPICO}: custo muitos desvios-padrão acima da média do tipo de procedimento;</li>
+ *     <li>{@link Regra#FREQUENCIA_PACIENTE}: muitos procedimentos do mesmo paciente em poucos dias;</li>
+ *     <li>{@link Regra#VELOCIDADE_DENTISTA}: faturamento do dentista acima do teto na janela de dias.</li>
+ * </ul>
+ * <p>
+ * Cada regra disparada contribui com uma intensidade entre 0,5 e 1; a pontuação final é
+ * {@code 1 - Π(1 - intensidade)}, sempre entre 0 e 1. Os agregados são inicializados na
+ * subida da aplicação com uma consulta agrupada por estrutura.
+ * </p>
+ * <p>
+ * As janelas de pacientes e dentistas ficam em caches limitados: uma chave descartada (ou
+ * expirada após {@code clinica.fraude.chaves-recarga-ms}, o que também traz as gravações de
+ * outras instâncias) é reconstruída do banco no próximo uso, pela conexão da transação que a
+ * pede e fora de qualquer trava do cache. Dentro de uma transação, inclusões e remoções ficam
+ * pendentes: valem para as pontuações seguintes da mesma transação e só são aplicadas aos
+ * agregados depois do commit; em um rollback, são descartadas.
+ * </p>
+ * <p>
+ * A janela lida do banco já inclui o que a própria transação gravou; esses procedimentos são
+ * reconhecidos pelo ID e trocados pelo estado confirmado antes de a janela ir ao cache. Se outra
+ * transação aplicar alterações à mesma chave enquanto a janela é lida, ela não vai ao cache (a
+ * leitura pode ou não ter visto essas alterações) e é relida no próximo uso.
+ * </p>
+ */
+@Component
+public class MotorFraude implements SmartInitializingSingleton {
+
+    /**
+     * Regras de fraude registradas em {@link Procedimento#getRegrasFraude()}.
+     */
+    public enum Regra {
+        CUSTO_ATIPICO,
+        FREQUENCIA_PACIENTE,
+        VELOCIDADE_DENTISTA,
+        MARCACAO_MANUAL
+    }
+
+    /**
+     * Dados de um procedimento relevantes para os agregados do motor.
+     *
+     * @param id               ID do procedimento, ou {@code null} se ainda não foi gravado.
+     * @param tipoProcedimento Tipo do procedimento.
+     * @param custo            Custo do procedimento.
+     * @param data             Data do procedimento.
+     * @param pacienteId       ID do paciente.
+     * @param dentistaId       ID do dentista.
+     */
+    public record Evento(Long id, String tipoProcedimento, double custo, LocalDate data, Long pacienteId, Long dentistaId) {
+
+        public static Evento de(Procedimento procedimento) {
+            return new Evento(procedimento.getId(),
+                    procedimento.getTipoProcedimento(),
+                    procedimento.getCusto(),
+                    procedimento.getDataProcedimento(),
+                    procedimento.getPaciente() != null ? procedimento.getPaciente().getId() : null,
+                    procedimento.getDentista() != null ? procedimento.getDentista().getId() : null);
+        }
+    }
+
+    /**
+     * Resultado da pontuação de um procedimento.
+     *
+     * @param score  Pontuação entre 0 e 1.
+     * @param regras Regras disparadas, separadas por vírgula, ou {@code null} se nenhuma.
+     * @param risco  Se a pontuação atinge o limiar.
+     */
+    record Pontuacao(double score, String regras, boolean risco) {
+    }
+
+    /**
+     * Faixas dos contadores de alterações por chave (potência de 2).
+     */
+    private static final int FAIXAS = 1024;
+
+    private final ProcedimentoRepository procedimentoRepository;
+    private final double limiar;
+    private final double desviosCusto;
+    private final int amostraMinimaCusto;
+    private final int janelaPacienteDias;
+    private final int maximoProcedimentosPaciente;
+    private final int janelaDentistaDias;
+    private final double faturamentoMaximoDentista;
+
+    private final Map<String, EstatisticaCusto> custosPorTipo = new ConcurrentHashMap<>();
+    private final Janelas procedimentosPorPaciente;
+    private final Janelas faturamentoPorDentista;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param procedimentoRepository      Repositório de procedimentos, fonte dos agregados.
+     * @param limiar                      Pontuação a partir da qual o procedimento é considerado de risco.
+     * @param desviosCusto                Desvios-padrão acima da média que tornam o custo atípico.
+     * @param amostraMinimaCusto          Procedimentos do tipo necessários para avaliar o custo.
+     * @param janelaPacienteDias          Dias da janela de procedimentos por paciente.
+     * @param maximoProcedimentosPaciente Procedimentos do paciente permitidos na janela.
+     * @param janelaDentistaDias          Dias da janela de faturamento por dentista.
+     * @param faturamentoMaximoDentista   Faturamento do dentista permitido na janela.
+     * @param chavesMaximas               Pacientes (e dentistas) mantidos em cada cache de janelas.
+     * @param chavesRecargaMs             Tempo após o qual uma janela em cache é relida do banco.
+     */
+    public MotorFraude(ProcedimentoRepository procedimentoRepository,
+                       @Value("${clinica.fraude.limiar:0.5}") double limiar,
+                       @Value("${clinica.fraude.custo.desvios:3.0}") double desviosCusto,
+                       @Value("${clinica.fraude.custo.amostra-minima:30}") int amostraMinimaCusto,
+                       @Value("${clinica.fraude.paciente.janela-dias:30}") int janelaPacienteDias,
+                       @Value("${clinica.fraude.paciente.maximo-procedimentos:5}") int maximoProcedimentosPaciente,
+                       @Value("${clinica.fraude.dentista.janela-dias:7}") int janelaDentistaDias,
+                       @Value("${clinica.fraude.dentista.faturamento-maximo:50000}") double faturamentoMaximoDentista,
+                       @Value("${clinica.fraude.chaves-maximas:100000}") long chavesMaximas,
+                       @Value("${clinica.fraude.chaves-recarga-ms:600000}") long chavesRecargaMs) {
+        this.procedimentoRepository = procedimentoRepository;
+        this.limiar = limiar;
+        this.desviosCusto = desviosCusto;
+        this.amostraMinimaCusto = amostraMinimaCusto;
+        this.janelaPacienteDias = janelaPacienteDias;
+        this.maximoProcedimentosPaciente = maximoProcedimentosPaciente;
+        this.janelaDentistaDias = janelaDentistaDias;
+        this.faturamentoMaximoDentista = faturamentoMaximoDentista;
+        Duration validade = Duration.ofMillis(chavesRecargaMs);
+        this.procedimentosPorPaciente = new Janelas(janelaPacienteDias, chavesMaximas, validade, Evento::pacienteId,
+                custo -> 1.0, procedimentoRepository::listarCustosDoPaciente);
+        this.faturamentoPorDentista = new Janelas(janelaDentistaDias, chavesMaximas, validade, Evento::dentistaId,
+                custo -> custo, procedimentoRepository::listarCustosDoDentista);
+    }
+
+    /**
+     * Inicializa os agregados a partir do banco: estatísticas de custo de todo o histórico
+     * e totais diários de pacientes e dentistas apenas dentro das janelas.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Object[] linha : procedimentoRepository.agregarCustosPorTipo()) {
+            custosPorTipo.put((String) linha[0], EstatisticaCusto.de(
+                    ((Number) linha[1]).longValue(), ((Number) linha[2]).doubleValue(), ((Number) linha[3]).doubleValue()));
+        }
+
+        LocalDate hoje = LocalDate.now();
+        for (Object[] linha : procedimentoRepository.contarPorPacienteEDia(hoje.minusDays(janelaPacienteDias - 1))) {
+            procedimentosPorPaciente.iniciar((Long) linha[0], (LocalDate) linha[1], ((Number) linha[2]).doubleValue());
+        }
+        for (Object[] linha : procedimentoRepository.somarCustosPorDentistaEDia(hoje.minusDays(janelaDentistaDias - 1))) {
+            faturamentoPorDentista.iniciar((Long) linha[0], (LocalDate) linha[1], ((Number) linha[2]).doubleValue());
+        }
+    }
+
+    /**
+     * Pontua um procedimento novo (ou alterado), preenchendo score, regras e risco, e o inclui nos agregados.
+     * <p>
+     * A pontuação considera o próprio procedimento nas janelas de paciente e dentista, mas
+     * compara o custo com a média anterior à sua inclusão. Em uma transação, a inclusão só é
+     * aplicada aos agregados depois do commit.
+     * </p>
+     *
+     * @param procedimento Procedimento ainda não gravado.
+     */
+    public void avaliar(Procedimento procedimento) {
+        Evento evento = Evento.de(procedimento);
+        Pendentes pendentes = pendentes();
+        List<Alteracao> alteracoes = pendentes != null ? pendentes.alteracoes : List.of();
+
+        EstatisticaCusto custos = custosPorTipo.computeIfAbsent(evento.tipoProcedimento(), tipo -> new EstatisticaCusto());
+        if (alteracoes.stream().anyMatch(alteracao -> alteracao.evento().tipoProcedimento().equals(evento.tipoProcedimento()))) {
+            custos = custos.copia();
+            for (Alteracao alteracao : alteracoes) {
+                if (alteracao.evento().tipoProcedimento().equals(evento.tipoProcedimento())) {
+                    if (alteracao.sinal() > 0) {
+                        custos.adicionar(alteracao.evento().custo());
+                    } else {
+                        custos.remover(alteracao.evento().custo());
+                    }
+                }
+            }
+        }
+        double desvios = custos.desvios(evento.custo(), amostraMinimaCusto);
+
+        Double procedimentosPaciente = null;
+        if (evento.pacienteId() != null) {
+            double pendente = 0.0;
+            for (Alteracao alteracao : alteracoes) {
+                if (evento.pacienteId().equals(alteracao.evento().pacienteId())
+                        && naJanela(alteracao.evento().data(), evento.data(), janelaPacienteDias)) {
+                    pendente += alteracao.sinal();
+                }
+            }
+            procedimentosPaciente = procedimentosPorPaciente.janela(evento.pacienteId(), alteracoes).total(evento.data()) + pendente + 1;
+        }
+
+        Double faturamentoDentista = null;
+        if (evento.dentistaId() != null) {
+            double pendente = 0.0;
+            for (Alteracao alteracao : alteracoes) {
+                if (evento.dentistaId().equals(alteracao.evento().dentistaId())
+                        && naJanela(alteracao.evento().data(), evento.data(), janelaDentistaDias)) {
+                    pendente += alteracao.sinal() * alteracao.evento().custo();
+                }
+            }
+            faturamentoDentista = faturamentoPorDentista.janela(evento.dentistaId(), alteracoes).total(evento.data()) + pendente + evento.custo();
+        }
+
+        Pontuacao pontuacao = pontuar(desvios, procedimentosPaciente, faturamentoDentista);
+        procedimento.setScoreFraude(pontuacao.score());
+        procedimento.setRegrasFraude(pontuacao.regras());
+        procedimento.setRiscoFraude(pontuacao.risco());
+
+        if (pendentes != null) {
+            pendentes.alteracoes.add(new Alteracao(evento, 1, procedimento));
+        } else {
+            incluir(evento);
+        }
+    }
+
+    /**
+     * Pontua um procedimento já gravado a partir de totais lidos do histórico, sem alterar os agregados.
+     * <p>
+     * Usado na reavaliação em massa ({@link VarreduraFraudeService}): as janelas de paciente e
+     * dentista terminam na data do procedimento, e o custo é comparado com a estatística informada.
+     * </p>
+     *
+     * @param custos                Estatística de custo do tipo do procedimento.
+     * @param custo                 Custo do procedimento.
+     * @param procedimentosPaciente Procedimentos do paciente na janela, ou {@code null} se não houver paciente.
+     * @param faturamentoDentista   Faturamento do dentista na janela, ou {@code null} se não houver dentista.
+     * @return Pontuação, regras disparadas e risco.
+     */
+    Pontuacao reavaliar(EstatisticaCusto custos, double custo, Double procedimentosPaciente, Double faturamentoDentista) {
+        return pontuar(custos.desvios(custo, amostraMinimaCusto), procedimentosPaciente, faturamentoDentista);
+    }
+
+    /**
+     * Retira um procedimento dos agregados (alteração ou exclusão). Em uma transação, a remoção
+     * vale para as pontuações seguintes da mesma transação e só é aplicada depois do commit.
+     *
+     * @param evento Dados do procedimento como foram incluídos.
+     */
+    public void desfazer(Evento evento) {
+        Pendentes pendentes = pendentes();
+        if (pendentes != null) {
+            pendentes.alteracoes.add(new Alteracao(evento, -1, null));
+        } else {
+            retirar(evento);
+        }
+    }
+
+    /**
+     * Pontuação a partir da qual um procedimento é considerado suspeito.
+     *
+     * @return Limiar entre 0 e 1.
+     */
+    public double getLimiar() {
+        return limiar;
+    }
+
+    int getJanelaPacienteDias() {
+        return janelaPacienteDias;
+    }
+
+    int getJanelaDentistaDias() {
+        return janelaDentistaDias;
+    }
+
+    /**
+     * Aplica as regras aos valores já calculados; cada regra disparada reduz o complemento da pontuação.
+     */
+    private Pontuacao pontuar(double desvios, Double procedimentosPaciente, Double faturamentoDentista) {
+        List<Regra> regras = new ArrayList<>(3);
+        double complemento = 1.0;
+
+        double intensidade = intensidade(desvios, desviosCusto);
+        if (intensidade > 0) {
+            regras.add(Regra.CUSTO_ATIPICO);
+            complemento *= 1 - intensidade;
+        }
+        if (procedimentosPaciente != null) {
+            intensidade = intensidade(procedimentosPaciente, maximoProcedimentosPaciente);
+            if (intensidade > 0) {
+                regras.add(Regra.FREQUENCIA_PACIENTE);
+                complemento *= 1 - intensidade;
+            }
+        }
+        if (faturamentoDentista != null) {
+            intensidade = intensidade(faturamentoDentista, faturamentoMaximoDentista);
+            if (intensidade > 0) {
+                regras.add(Regra.VELOCIDADE_DENTISTA);
+                complemento *= 1 - intensidade;
+            }
+        }
+
+        double score = 1 - complemento;
+        return new Pontuacao(score, regras.isEmpty() ? null : String.join(",", regras.stream().map(Regra::name).toList()),
+                score >= limiar);
+    }
+
+    /**
+     * Alterações pendentes da transação corrente, registradas na primeira chamada; {@code null} fora de transação.
+     */
+    private Pendentes pendentes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pendentes pendentes = (Pendentes) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            pendentes = new Pendentes();
+            TransactionSynchronizationManager.bindResource(this, pendentes);
+            TransactionSynchronizationManager.registerSynchronization(pendentes);
+        }
+        return pendentes;
+    }
+
+    private void incluir(Evento evento) {
+        custosPorTipo.computeIfAbsent(evento.tipoProcedimento(), tipo -> new EstatisticaCusto()).adicionar(evento.custo());
+        procedimentosPorPaciente.aplicar(evento, 1);
+        faturamentoPorDentista.aplicar(evento, 1);
+    }
+
+    private void retirar(Evento evento) {
+        EstatisticaCusto custos = custosPorTipo.get(evento.tipoProcedimento());
+        if (custos != null) {
+            custos.remover(evento.custo());
+        }
+        procedimentosPorPaciente.aplicar(evento, -1);
+        faturamentoPorDentista.aplicar(evento, -1);
+    }
+
+    /**
+     * Validade contada da carga da janela: alterações e leituras não a renovam, para que a janela seja relida periodicamente.
+     */
+    private static Expiry<Long, JanelaDiaria> validadeDesdeACarga(Duration validade) {
+        long nanos = validade.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Long id, JanelaDiaria janela, long agora) {
+                return nanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Long id, JanelaDiaria janela, long agora, long restante) {
+                return restante;
+            }
+
+            @Override
+            public long expireAfterRead(Long id, JanelaDiaria janela, long agora, long restante) {
+                return restante;
+            }
+        };
+    }
+
+    /**
+     * Se o dia está na janela de {@code dias} dias que termina em {@code fim}, como em {@link JanelaDiaria#total(LocalDate)}.
+     */
+    private static boolean naJanela(LocalDate dia, LocalDate fim, int dias) {
+        return !dia.isAfter(fim) && dia.isAfter(fim.minusDays(dias));
+    }
+
+    /**
+     * Inclusão ({@code +1}) ou remoção ({@code -1}) de um procedimento ainda não confirmada; na
+     * inclusão, guarda o procedimento para obter o ID atribuído quando ele for gravado.
+     */
+    private record Alteracao(Evento evento, int sinal, Procedimento procedimento) {
+
+        Long procedimentoId() {
+            return procedimento != null ? procedimento.getId() : evento.id();
+        }
+    }
+
+    /**
+     * Janelas de uma das chaves (paciente ou dentista) em cache, com a reconstrução a partir do banco.
+     * <p>
+     * Cada alteração aplicada a uma chave incrementa o contador da sua faixa, dentro do
+     * {@code compute} da chave; a janela reconstruída só vai ao cache, também em um {@code compute},
+     * se o contador não mudou desde antes da leitura.
+     * </p>
+     */
+    private static final class Janelas {
+
+        private final int dias;
+        private final Cache<Long, JanelaDiaria> cache;
+        private final AtomicLongArray alteracoes = new AtomicLongArray(FAIXAS);
+        private final Function<Evento, Long> chave;
+        private final DoubleUnaryOperator valor;
+        private final BiFunction<Long, LocalDate, List<Object[]>> consulta;
+
+        Janelas(int dias, long chavesMaximas, Duration validade, Function<Evento, Long> chave,
+                DoubleUnaryOperator valor, BiFunction<Long, LocalDate, List<Object[]>> consulta) {
+            this.dias = dias;
+            this.cache = Caffeine.newBuilder().maximumSize(chavesMaximas).expireAfter(validadeDesdeACarga(validade)).build();
+            this.chave = chave;
+            this.valor = valor;
+            this.consulta = consulta;
+        }
+
+        /**
+         * Janela da chave com os procedimentos confirmados, reconstruída do banco se não estiver em cache.
+         */
+        JanelaDiaria janela(Long id, List<Alteracao> pendentes) {
+            JanelaDiaria janela = cache.getIfPresent(id);
+            if (janela != null) {
+                return janela;
+            }
+            long antes = alteracoes.get(faixa(id));
+            LocalDate inicio = LocalDate.now().minusDays(dias - 1);
+            List<Object[]> linhas = consulta.apply(id, inicio);
+
+            // Procedimentos da própria transação entram pelo estado confirmado (o da primeira remoção), ou não entram
+            JanelaDiaria carregada = new JanelaDiaria(dias);
+            Set<Long> daTransacao = new HashSet<>();
+            for (Alteracao alteracao : pendentes) {
+                Long procedimentoId = alteracao.procedimentoId();
+                if (procedimentoId != null && daTransacao.add(procedimentoId) && alteracao.sinal() < 0
+                        && id.equals(chave.apply(alteracao.evento())) && !alteracao.evento().data().isBefore(inicio)) {
+                    carregada.adicionar(alteracao.evento().data(), valor.applyAsDouble(alteracao.evento().custo()));
+                }
+            }
+            for (Object[] linha : linhas) {
+                if (!daTransacao.contains((Long) linha[0])) {
+                    carregada.adicionar((LocalDate) linha[1], valor.applyAsDouble(((Number) linha[2]).doubleValue()));
+                }
+            }
+
+            JanelaDiaria publicada = cache.asMap().compute(id, (chaveId, atual) ->
+                    atual != null ? atual : alteracoes.get(faixa(chaveId)) == antes ? carregada : null);
+            return publicada != null ? publicada : carregada;
+        }
+
+        /**
+         * Soma um total diário lido na inicialização.
+         */
+        void iniciar(Long id, LocalDate data, double total) {
+            cache.get(id, chaveId -> new JanelaDiaria(dias)).adicionar(data, total);
+        }
+
+        /**
+         * Aplica uma alteração confirmada; uma janela ausente não é criada, pois ao ser reconstruída já a terá.
+         */
+        void aplicar(Evento evento, int sinal) {
+            Long id = chave.apply(evento);
+            if (id == null) {
+                return;
+            }
+            double valorEvento = valor.applyAsDouble(evento.custo());
+            cache.asMap().compute(id, (chaveId, janela) -> {
+                alteracoes.incrementAndGet(faixa(chaveId));
+                if (janela != null) {
+                    if (sinal > 0) {
+                        janela.adicionar(evento.data(), valorEvento);
+                    } else {
+                        janela.remover(evento.data(), valorEvento);
+                    }
+                }
+                return janela;
+            });
+        }
+
+        private static int faixa(Long id) {
+            return Long.hashCode(id) & (FAIXAS - 1);
+        }
+    }
+
+    /**
+     * Alterações de uma transação, aplicadas aos agregados, na ordem em que ocorreram, só depois do commit.
+     */
+    private final class Pendentes implements TransactionSynchronization {
+
+        private final List<Alteracao> alteracoes = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            for (Alteracao alteracao : alteracoes) {
+                if (alteracao.sinal() > 0) {
+                    incluir(alteracao.evento());
+                } else {
+                    retirar(alteracao.evento());
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(MotorFraude.this);
+        }
+    }
+
+    /**
+     * Intensidade de uma regra: 0 até o limite e, acima dele, de 0,5 crescendo até 1 no dobro do limite.
+     */
+    private static double intensidade(double valor, double limite) {
+        return valor > limite ? Math.min(1.0, valor / (2 * limite)) : 0.0;
+    }
+}
@@ -1,28 +1,114 @@
 package com.odontovision.clinica_odontologica.service;
 
+import com.odontovision.clinica_odontologica.dto.FiltroPacientesDTO;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
 import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.SituacaoEmMassaDTO;
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
+import com.odontovision.clinica_odontologica.exception.PacienteNotFoundException;
+import com.odontovision.clinica_odontologica.exception.VersaoDesatualizadaException;
 import com.odontovision.clinica_odontologica.model.Paciente;
 import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Serviço responsável pela lógica de negócios relacionada a {@link Paciente}.
+ * <p>
+ * As consultas por ID ficam no cache {@code pacientes}; atualizações e desativações
+ * removem apenas a entrada do paciente alterado.
+ * </p>
+ * <p>
+ * A busca por nome é atendida por um {@link IndiceNomes} em memória dos pacientes ativos,
+ * carregado em segundo plano na inicialização e mantido, depois do commit, a cada criação,
+ * atualização e desativação. Enquanto a carga não termina, a busca recorre ao banco.
+ * </p>
+ * <p>
+ * Desativações e reativações em massa ({@link #alterarSituacao(FiltroPacientesDTO, boolean)}) usam
+ * um UPDATE por parte de IDs e mantêm o cache e o índice de nomes da mesma forma.
+ * </p>
+ * <p>
+ * As leituras rodam em transações somente leitura, nas quais o Hibernate não faz flush nem guarda
+ * cópias das entidades carregadas para a verificação de alterações; cada escrita é uma única
+ * transação. As alterações em massa ficam fora de transação, pois cada parte abre a sua.
+ * </p>
+ * <p>
+ * Com a réplica de leitura habilitada, as transações somente leitura vão à réplica. As leituras que
+ * alimentam o cache ({@link #buscarPorId(Long)}) ou que precisam enxergar uma escrita recém-confirmada
+ * (a releitura dos reativados em massa) usam transação de leitura e escrita, atendida pelo primário:
+ * lidas da réplica atrasada, guardariam no cache a versão anterior do registro.
+ * </p>
  */
 @Service
-public class PacienteService {
+@Transactional(readOnly = true)
+public class PacienteService implements SmartInitializingSingleton {
+
+    private static final int TAMANHO_LOTE_STREAMING = 500;
+
+    /**
+     * Maior parte de uma alteração em massa, para que os IDs caibam em uma cláusula IN do Oracle.
+     */
+    private static final int TAMANHO_MAXIMO_LOTE_SITUACAO = 1000;
 
     private final PacienteRepository pacienteRepository;
+    private final EntityManager entityManager;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ResumoDiarioService resumoDiarioService;
+    private final int tamanhoLoteSituacao;
+    private final IndiceNomes<PacienteDTO> indiceNomes = new IndiceNomes<>(PacienteDTO::getId, PacienteDTO::getNome);
 
     /**
      * Construtor com injeção de dependência.
      *
-     * @param pacienteRepository Repositório de pacientes.
+     * @param pacienteRepository  Repositório de pacientes.
+     * @param entityManager       Gerenciador de entidades, usado para limpar o contexto durante o streaming.
+     * @param taskExecutor        Executor da carga inicial do índice de nomes.
+     * @param transactionTemplate Transação de cada parte das alterações em massa.
+     * @param cacheManager        Gerenciador do cache {@code pacientes}, limpo nas alterações em massa.
+     * @param resumoDiarioService Resumos diários, avisados das trocas de plano.
+     * @param tamanhoLoteSituacao Quantidade de IDs por UPDATE nas alterações em massa.
      */
-    public PacienteService(PacienteRepository pacienteRepository) {
+    public PacienteService(PacienteRepository pacienteRepository, EntityManager entityManager, TaskExecutor taskExecutor,
+                           TransactionTemplate transactionTemplate, CacheManager cacheManager,
+                           ResumoDiarioService resumoDiarioService,
+                           @Value("${clinica.situacao.tamanho-lote:1000}") int tamanhoLoteSituacao) {
         this.pacienteRepository = pacienteRepository;
+        this.entityManager = entityManager;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.resumoDiarioService = resumoDiarioService;
+        this.tamanhoLoteSituacao = Math.max(1, Math.min(tamanhoLoteSituacao, TAMANHO_MAXIMO_LOTE_SITUACAO));
+    }
+
+    /**
+     * Dispara a carga do índice de nomes sem atrasar a subida da aplicação.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void afterSingletonsInstantiated() {
+        taskExecutor.execute(this::carregarIndiceNomes);
     }
 
     /**
@@ -31,11 +117,14 @@ public class PacienteService {
      * @param pacienteDTO Dados do paciente a ser salvo.
      * @return {@link PacienteDTO} do paciente salvo.
      */
+    @Transactional
     public PacienteDTO salvarPaciente(PacienteDTO pacienteDTO) {
         Paciente paciente = convertToEntity(pacienteDTO);
         paciente.setAtivo(true);  // Garante que o paciente seja ativo por padrão
-        Paciente salvo = pacienteRepository.save(paciente);
-        return convertToDTO(salvo);
+        Paciente salvo = pacienteRepository.saveAndFlush(paciente);
+        PacienteDTO dto = convertToDTO(salvo);
+        indiceNomes.adicionarAposCommit(dto);
+        return dto;
     }
 
     /**
@@ -50,11 +139,59 @@ public class PacienteService {
     }
 
     /**
-     * Busca um paciente pelo ID.
+     * Lista uma página de pacientes ativos a partir de um cursor (paginação keyset pelo ID).
+     *
+     * @param cursor ID do último item da página anterior, ou {@code null} para a primeira página.
+     * @param limite Quantidade máxima de itens da página.
+     * @return {@link PaginaDTO} com os itens e o próximo cursor.
+     */
+    public PaginaDTO<PacienteDTO> listarPagina(Long cursor, int limite) {
+        int limiteEfetivo = PaginaDTO.limitar(limite);
+        List<PacienteDTO> linhas = pacienteRepository.findByAtivoTrueAndIdGreaterThanOrderByIdAsc(cursor != null ? cursor : 0L, Limit.of(limiteEfetivo + 1))
+                .stream()
+                .map(this::convertToDTO)
+                .toList();
+        return PaginaDTO.of(linhas, limiteEfetivo, PacienteDTO::getId);
+    }
+
+    /**
+     * Resume o estado da tabela de pacientes; muda a cada inclusão, alteração ou exclusão.
+     *
+     * @return {@link VersaoListaDTO} usado como ETag das listagens.
+     */
+    public VersaoListaDTO versaoLista() {
+        return pacienteRepository.buscarVersaoLista();
+    }
+
+    /**
+     * Envia todos os pacientes ativos ao consumidor, um a um, à medida que são lidos do banco.
+     * <p>
+     * O contexto de persistência é limpo periodicamente para que o uso de memória
+     * não cresça com o tamanho da tabela.
+     * </p>
+     *
+     * @param consumidor Consumidor que recebe cada {@link PacienteDTO}.
+     */
+    public void transmitirTodos(Consumer<PacienteDTO> consumidor) {
+        try (Stream<Paciente> pacientes = pacienteRepository.streamByAtivoTrueOrderByIdAsc()) {
+            Iterator<Paciente> iterator = pacientes.iterator();
+            for (int lidos = 1; iterator.hasNext(); lidos++) {
+                consumidor.accept(convertToDTO(iterator.next()));
+                if (lidos % TAMANHO_LOTE_STREAMING == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca um paciente pelo ID, sempre no primário, pois o resultado fica no cache.
      *
      * @param id ID do paciente.
      * @return {@link Optional} contendo o {@link PacienteDTO}, se encontrado.
      */
+    @Cacheable(value = "pacientes", key = "#id", unless = "#result == null")
+    @Transactional
     public Optional<PacienteDTO> buscarPorId(Long id) {
         return pacienteRepository.findById(id)
                 .filter(Paciente::getAtivo)  // Verifica se o paciente está ativo
@@ -63,20 +200,36 @@ public class PacienteService {
 
     /**
      * Atualiza um paciente existente.
+     * <p>
+     * Na troca de plano, as datas dos sinistros do paciente são registradas para o resumo diário
+     * de sinistros, agrupado por plano.
+     * </p>
      *
      * @param id          ID do paciente a ser atualizado.
      * @param pacienteDTO Dados atualizados do paciente.
      * @return {@link Optional} contendo o {@link PacienteDTO} atualizado, se encontrado.
+     * @throws VersaoDesatualizadaException se a versão informada no DTO não for a atual.
      */
+    @CacheEvict(value = "pacientes", key = "#id")
+    @Transactional
     public Optional<PacienteDTO> atualizarPaciente(Long id, PacienteDTO pacienteDTO) {
         return pacienteRepository.findById(id)
                 .filter(Paciente::getAtivo)  // Verifica se o paciente está ativo
                 .map(paciente -> {
+                    if (pacienteDTO.getVersao() != null && !pacienteDTO.getVersao().equals(paciente.getVersao())) {
+                        throw new VersaoDesatualizadaException("Paciente", id, pacienteDTO.getVersao(), paciente.getVersao());
+                    }
+                    boolean trocaDePlano = !Objects.equals(paciente.getPlanoOdontologico(), pacienteDTO.getPlanoOdontologico());
                     paciente.setNome(pacienteDTO.getNome());
                     paciente.setIdade(pacienteDTO.getIdade());
                     paciente.setPlanoOdontologico(pacienteDTO.getPlanoOdontologico());
-                    Paciente atualizado = pacienteRepository.save(paciente);
-                    return convertToDTO(atualizado);
+                    Paciente atualizado = pacienteRepository.saveAndFlush(paciente);
+                    if (trocaDePlano) {
+                        resumoDiarioService.registrarTrocaDePlano(id);
+                    }
+                    PacienteDTO dto = convertToDTO(atualizado);
+                    indiceNomes.adicionarAposCommit(dto);
+                    return dto;
                 });
     }
 
@@ -84,13 +237,127 @@ public class PacienteService {
      * Desativa um paciente (soft delete).
      *
      * @param id ID do paciente a ser desativado.
+     * @throws PacienteNotFoundException se o paciente não existir ou já estiver inativo.
      */
+    @CacheEvict(value = "pacientes", key = "#id")
+    @Transactional
     public void desativarPaciente(Long id) {
-        pacienteRepository.findById(id)
-                .ifPresent(paciente -> {
-                    paciente.setAtivo(false);  // Soft delete: desativa o paciente
-                    pacienteRepository.save(paciente);
-                });
+        Paciente paciente = pacienteRepository.findById(id)
+                .filter(Paciente::getAtivo)
+                .orElseThrow(() -> new PacienteNotFoundException(id));
+        paciente.setAtivo(false);  // Soft delete: desativa o paciente
+        pacienteRepository.save(paciente);
+        indiceNomes.removerAposCommit(id);
+    }
+
+    /**
+     * Desativa ou reativa em massa os pacientes que atendem ao filtro.
+     * <p>
+     * Os pacientes a alterar são selecionados em partes de IDs (os informados no filtro ou, sem eles,
+     * percorrendo a tabela pelo ID), e cada parte é alterada por um único UPDATE em sua própria
+     * transação, que também incrementa a versão. Em seguida, as entradas da parte são removidas
+     * do cache {@code pacientes} e o índice de nomes é atualizado.
+     * </p>
+     *
+     * @param filtro Critérios de seleção (combinados).
+     * @param ativo  {@code false} para desativar, {@code true} para reativar.
+     * @return Quantidades de pacientes selecionados e alterados e de UPDATEs executados.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SituacaoEmMassaDTO alterarSituacao(FiltroPacientesDTO filtro, boolean ativo) {
+        List<Long> ids = filtro.getIds() == null ? List.of()
+                : filtro.getIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+        long selecionados = 0;
+        long alterados = 0;
+        int lotes = 0;
+        long cursor = 0L;
+        int posicao = 0;
+        while (ids.isEmpty() || posicao < ids.size()) {
+            List<Long> parte;
+            if (ids.isEmpty()) {
+                parte = pacienteRepository.buscarIdsParaSituacao(ativo, cursor, filtro.getPlanoOdontologico(),
+                        filtro.getIdadeMinima(), filtro.getIdadeMaxima(), Limit.of(tamanhoLoteSituacao));
+                if (parte.isEmpty()) {
+                    break;
+                }
+                cursor = parte.get(parte.size() - 1);
+            } else {
+                List<Long> candidatos = ids.subList(posicao, Math.min(ids.size(), posicao + tamanhoLoteSituacao));
+                posicao += candidatos.size();
+                parte = pacienteRepository.filtrarIdsParaSituacao(candidatos, ativo, filtro.getPlanoOdontologico(),
+                        filtro.getIdadeMinima(), filtro.getIdadeMaxima());
+                if (parte.isEmpty()) {
+                    continue;
+                }
+            }
+            Integer alteradosParte = transactionTemplate.execute(status -> pacienteRepository.alterarSituacao(parte, ativo));
+            selecionados += parte.size();
+            alterados += alteradosParte != null ? alteradosParte : 0;
+            lotes++;
+            sincronizarSituacao(parte, ativo);
+        }
+        return new SituacaoEmMassaDTO(selecionados, alterados, lotes);
+    }
+
+    // Remove a parte do cache por ID e leva a nova situação ao índice de nomes
+    private void sincronizarSituacao(List<Long> ids, boolean ativo) {
+        Cache cache = cacheManager.getCache("pacientes");
+        if (cache != null) {
+            ids.forEach(cache::evictIfPresent);  // Imediata: a parte já foi confirmada
+        }
+        if (ativo) {
+            // Relê no primário: a réplica pode ainda não ter recebido o UPDATE da parte
+            List<PacienteDTO> reativados = transactionTemplate.execute(status -> pacienteRepository.findAllById(ids).stream()
+                    .filter(Paciente::getAtivo)
+                    .map(this::convertToDTO)
+                    .toList());
+            reativados.forEach(indiceNomes::adicionar);
+        } else {
+            ids.forEach(indiceNomes::remover);
+        }
+    }
+
+    /**
+     * Busca pacientes ativos pelo nome, ignorando acentos e maiúsculas.
+     * <p>
+     * Cada termo da consulta com três ou mais letras pode aparecer em qualquer posição do nome;
+     * termos mais curtos valem como início de palavra. O resultado vem ordenado por relevância.
+     * Antes de o índice terminar a carga inicial, a consulta vai ao banco
+     * ({@link PacienteRepository#findByNomeContaining(String)}) e é ordenada pelo nome.
+     * </p>
+     *
+     * @param consulta Nome ou parte do nome.
+     * @param limite   Quantidade máxima de resultados.
+     * @return Lista de {@link PacienteDTO} encontrados.
+     */
+    public List<PacienteDTO> buscarPorNome(String consulta, int limite) {
+        int limiteEfetivo = PaginaDTO.limitar(limite);
+        if (indiceNomes.isPronto()) {
+            return indiceNomes.buscar(consulta, limiteEfetivo);
+        }
+        return pacienteRepository.findByNomeContaining(consulta).stream()
+                .filter(Paciente::getAtivo)
+                .sorted(Comparator.comparing(Paciente::getNome))
+                .limit(limiteEfetivo)
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    /**
+     * Carrega os pacientes ativos no índice de nomes em páginas por ID, cada uma em sua
+     * própria consulta, para não manter uma transação aberta durante toda a carga.
+     */
+    private void carregarIndiceNomes() {
+        long cursor = 0L;
+        List<Paciente> pagina;
+        do {
+            pagina = pacienteRepository.findByAtivoTrueAndIdGreaterThanOrderByIdAsc(cursor, Limit.of(TAMANHO_LOTE_STREAMING));
+            for (Paciente paciente : pagina) {
+                indiceNomes.carregar(convertToDTO(paciente));
+                cursor = paciente.getId();
+            }
+        } while (pagina.size() == TAMANHO_LOTE_STREAMING);
+        indiceNomes.concluirCarga();
     }
 
     /**
@@ -101,7 +368,6 @@ public class PacienteService {
      */
     private Paciente convertToEntity(PacienteDTO pacienteDTO) {
         Paciente paciente = new Paciente();
-        paciente.setId(pacienteDTO.getId());
         paciente.setNome(pacienteDTO.getNome());
         paciente.setCpf(pacienteDTO.getCpf());
         paciente.setIdade(pacienteDTO.getIdade());
@@ -124,6 +390,8 @@ public class PacienteService {
         pacienteDTO.setIdade(paciente.getIdade());
         pacienteDTO.setPlanoOdontologico(paciente.getPlanoOdontologico());
         pacienteDTO.setAtivo(paciente.getAtivo());
+        pacienteDTO.setVersao(paciente.getVersao());
+        pacienteDTO.setAtualizadoEm(paciente.getAtualizadoEm());
         return pacienteDTO;
     }
 }
\ No newline at end of file
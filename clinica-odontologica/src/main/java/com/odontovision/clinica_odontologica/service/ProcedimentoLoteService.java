@@ -0,0 +1,247 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.RelatorioLoteDTO;
+import com.odontovision.clinica_odontologica.dto.ResultadoLinhaDTO;
+import com.odontovision.clinica_odontologica.exception.LoteInvalidoException;
+import com.odontovision.clinica_odontologica.model.EventoOutbox;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.repository.DentistaRepository;
+import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço responsável pela importação em massa de {@link Procedimento}.
+ * <p>
+ * As linhas são lidas do corpo da requisição (array JSON ou NDJSON) sem carregar o arquivo
+ * inteiro em memória e gravadas em lotes: cada lote valida suas linhas, confere as referências
+ * de paciente e dentista com uma consulta por tabela e é inserido em uma única transação,
+ * aproveitando o lote JDBC do Hibernate, junto com os eventos de inclusão no outbox e a
+ * produção diária dos dentistas ({@link ProducaoDentistaService}).
+ * </p>
+ */
+@Service
+public class ProcedimentoLoteService {
+
+    /**
+     * Maior lote aceito, para que a verificação de referências caiba em uma cláusula IN do Oracle.
+     */
+    private static final int TAMANHO_MAXIMO_LOTE = 1000;
+
+    private final ProcedimentoRepository procedimentoRepository;
+    private final PacienteRepository pacienteRepository;
+    private final DentistaRepository dentistaRepository;
+    private final ReferenciaResolver referenciaResolver;
+    private final MotorFraude motorFraude;
+    private final ProcedimentoService procedimentoService;
+    private final EventoService eventoService;
+    private final ProducaoDentistaService producaoDentistaService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int tamanhoLote;
+
+    public ProcedimentoLoteService(ProcedimentoRepository procedimentoRepository,
+                                   PacienteRepository pacienteRepository,
+                                   DentistaRepository dentistaRepository,
+                                   ReferenciaResolver referenciaResolver,
+                                   MotorFraude motorFraude,
+                                   ProcedimentoService procedimentoService,
+                                   EventoService eventoService,
+                                   ProducaoDentistaService producaoDentistaService,
+                                   ObjectMapper objectMapper,
+                                   Validator validator,
+                                   TransactionTemplate transactionTemplate,
+                                   EntityManager entityManager,
+                                   @Value("${clinica.procedimentos.lote.tamanho:500}") int tamanhoLote) {
+        this.procedimentoRepository = procedimentoRepository;
+        this.pacienteRepository = pacienteRepository;
+        this.dentistaRepository = dentistaRepository;
+        this.referenciaResolver = referenciaResolver;
+        this.motorFraude = motorFraude;
+        this.procedimentoService = procedimentoService;
+        this.eventoService = eventoService;
+        this.producaoDentistaService = producaoDentistaService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.tamanhoLote = Math.max(1, Math.min(tamanhoLote, TAMANHO_MAXIMO_LOTE));
+    }
+
+    /**
+     * Importa os procedimentos contidos no corpo informado.
+     * <p>
+     * Linhas com JSON mal formado para o tipo esperado, dados inválidos ou referências
+     * inexistentes são rejeitadas individualmente; as demais linhas do lote são gravadas.
+     * </p>
+     *
+     * @param corpo Conteúdo em array JSON ou NDJSON.
+     * @return Relatório com o resultado de cada linha.
+     * @throws LoteInvalidoException Se o conteúdo não puder mais ser lido (erro de sintaxe).
+     */
+    public RelatorioLoteDTO importar(InputStream corpo) {
+        RelatorioLoteDTO relatorio = new RelatorioLoteDTO();
+        List<LinhaLote> lote = new ArrayList<>(tamanhoLote);
+        int numero = 0;
+
+        try (MappingIterator<ProcedimentoDTO> linhas = objectMapper.readerFor(ProcedimentoDTO.class).readValues(corpo)) {
+            while (linhas.hasNextValue()) {
+                numero++;
+                try {
+                    lote.add(new LinhaLote(numero, linhas.nextValue(), new ArrayList<>()));
+                } catch (JsonMappingException e) {
+                    lote.add(new LinhaLote(numero, null, new ArrayList<>(List.of("JSON inválido: " + e.getOriginalMessage()))));
+                }
+                if (lote.size() == tamanhoLote) {
+                    processarLote(lote, relatorio);
+                    lote.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new LoteInvalidoException("Conteúdo do lote ilegível após a linha " + numero + ": " + e.getMessage(), e);
+        }
+
+        if (!lote.isEmpty()) {
+            processarLote(lote, relatorio);
+        }
+        return relatorio;
+    }
+
+    /**
+     * Valida, confere referências e grava as linhas de um lote, registrando o resultado de cada uma.
+     */
+    private void processarLote(List<LinhaLote> lote, RelatorioLoteDTO relatorio) {
+        for (LinhaLote linha : lote) {
+            if (linha.dto() != null) {
+                for (ConstraintViolation<ProcedimentoDTO> violacao : validator.validate(linha.dto())) {
+                    linha.erros().add(violacao.getMessage());
+                }
+            }
+        }
+
+        verificarReferencias(lote);
+
+        List<LinhaLote> validas = lote.stream()
+                .filter(linha -> linha.erros().isEmpty())
+                .toList();
+        List<Long> ids = gravar(validas);
+
+        int gravada = 0;
+        for (LinhaLote linha : lote) {
+            if (!linha.erros().isEmpty()) {
+                relatorio.adicionar(ResultadoLinhaDTO.rejeitada(linha.numero(), linha.erros()));
+            } else {
+                relatorio.adicionar(ResultadoLinhaDTO.importada(linha.numero(), ids.get(gravada++)));
+            }
+        }
+    }
+
+    /**
+     * Confere, com uma consulta para pacientes e outra para dentistas, se os IDs referenciados
+     * pelas linhas ainda válidas existem.
+     */
+    private void verificarReferencias(List<LinhaLote> lote) {
+        List<ProcedimentoDTO> candidatas = lote.stream()
+                .filter(linha -> linha.erros().isEmpty())
+                .map(LinhaLote::dto)
+                .toList();
+        if (candidatas.isEmpty()) {
+            return;
+        }
+
+        Set<Long> pacientes = pacienteRepository.findIdsExistentes(candidatas.stream()
+                .map(ProcedimentoDTO::getPacienteId).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Set<Long> dentistas = dentistaRepository.findIdsExistentes(candidatas.stream()
+                .map(ProcedimentoDTO::getDentistaId).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        for (LinhaLote linha : lote) {
+            if (!linha.erros().isEmpty()) {
+                continue;
+            }
+            if (!pacientes.contains(linha.dto().getPacienteId())) {
+                linha.erros().add("Paciente não encontrado com o ID: " + linha.dto().getPacienteId());
+            }
+            if (!dentistas.contains(linha.dto().getDentistaId())) {
+                linha.erros().add("Dentista não encontrado com o ID: " + linha.dto().getDentistaId());
+            }
+        }
+    }
+
+    /**
+     * Pontua e insere as linhas válidas em uma única transação e devolve os IDs gerados, na mesma ordem.
+     * <p>
+     * Se o banco recusar o lote, todas as linhas dele são marcadas como rejeitadas; como o
+     * {@link MotorFraude} só aplica as inclusões depois do commit, os agregados não mudam.
+     * </p>
+     */
+    private List<Long> gravar(List<LinhaLote> validas) {
+        if (validas.isEmpty()) {
+            return List.of();
+        }
+        List<Procedimento> procedimentos = validas.stream()
+                .map(linha -> convertToEntity(linha.dto()))
+                .toList();
+        try {
+            List<Procedimento> salvos = transactionTemplate.execute(status -> {
+                procedimentos.forEach(motorFraude::avaliar);
+                // Grava o lote antes dos eventos para que levem a versão e a data de atualização
+                List<Procedimento> gravados = procedimentoRepository.saveAllAndFlush(procedimentos);
+                for (Procedimento gravado : gravados) {
+                    eventoService.registrar(EventoService.PROCEDIMENTO, gravado.getId(), EventoOutbox.Tipo.CRIADO,
+                            procedimentoService.convertToDTO(gravado));
+                }
+                producaoDentistaService.incluirTodos(gravados.stream().map(MotorFraude.Evento::de).toList());
+                procedimentoRepository.flush();
+                return gravados;
+            });
+            return salvos.stream().map(Procedimento::getId).toList();
+        } catch (DataAccessException | TransactionException e) {
+            String erro = "Falha ao gravar o lote: " + e.getMostSpecificCause().getMessage();
+            validas.forEach(linha -> linha.erros().add(erro));
+            return List.of();
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Converte o DTO em entidade usando referências (proxies) para paciente e dentista,
+     * já que a existência de ambos foi conferida antes.
+     */
+    private Procedimento convertToEntity(ProcedimentoDTO procedimentoDTO) {
+        Procedimento procedimento = new Procedimento();
+        procedimento.setTipoProcedimento(procedimentoDTO.getTipoProcedimento());
+        procedimento.setDataProcedimento(procedimentoDTO.getDataProcedimento());
+        procedimento.setCusto(procedimentoDTO.getCusto());
+        procedimento.setPaciente(referenciaResolver.paciente(procedimentoDTO.getPacienteId()));
+        procedimento.setDentista(referenciaResolver.dentista(procedimentoDTO.getDentistaId()));
+        return procedimento;
+    }
+
+    /**
+     * Linha lida do corpo da requisição, com os erros acumulados durante o processamento.
+     */
+    private record LinhaLote(int numero, ProcedimentoDTO dto, List<String> erros) {
+    }
+}
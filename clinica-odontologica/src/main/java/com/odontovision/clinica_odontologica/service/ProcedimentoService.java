@@ -1,49 +1,108 @@
 package com.odontovision.clinica_odontologica.service;
 
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
 import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.exception.ProcedimentoNotFoundException;
-import com.odontovision.clinica_odontologica.exception.PacienteNotFoundException;
-import com.odontovision.clinica_odontologica.exception.DentistaNotFoundException;
+import com.odontovision.clinica_odontologica.exception.VersaoDesatualizadaException;
+import com.odontovision.clinica_odontologica.model.EventoOutbox;
 import com.odontovision.clinica_odontologica.model.Procedimento;
-import com.odontovision.clinica_odontologica.model.Paciente;
-import com.odontovision.clinica_odontologica.model.Dentista;
 import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
-import com.odontovision.clinica_odontologica.repository.PacienteRepository;
-import com.odontovision.clinica_odontologica.repository.DentistaRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Serviço responsável pela lógica de negócios relacionada a {@link Procedimento}.
+ * <p>
+ * A pontuação de fraude é calculada pelo {@link MotorFraude} na inclusão e na alteração;
+ * o risco informado pelo cliente não é mais considerado. Os agregados do motor só mudam
+ * depois do commit, então uma escrita desfeita não precisa ser compensada.
+ * </p>
+ * <p>
+ * Inclusões, alterações e exclusões gravam o evento correspondente no outbox
+ * ({@link EventoService}) e atualizam a produção diária do dentista ({@link ProducaoDentistaService})
+ * na mesma transação; alterações de data e exclusões também registram a data anterior para os
+ * resumos diários ({@link ResumoDiarioService}).
+ * </p>
  */
 @Service
+@Transactional(readOnly = true)
 public class ProcedimentoService {
 
     private final ProcedimentoRepository procedimentoRepository;
-    private final PacienteRepository pacienteRepository;
-    private final DentistaRepository dentistaRepository;
+    private final ReferenciaResolver referenciaResolver;
+    private final MotorFraude motorFraude;
+    private final EventoService eventoService;
+    private final ProducaoDentistaService producaoDentistaService;
+    private final ResumoDiarioService resumoDiarioService;
 
     public ProcedimentoService(ProcedimentoRepository procedimentoRepository,
-                               PacienteRepository pacienteRepository,
-                               DentistaRepository dentistaRepository) {
+                               ReferenciaResolver referenciaResolver,
+                               MotorFraude motorFraude,
+                               EventoService eventoService,
+                               ProducaoDentistaService producaoDentistaService,
+                               ResumoDiarioService resumoDiarioService) {
         this.procedimentoRepository = procedimentoRepository;
-        this.pacienteRepository = pacienteRepository;
-        this.dentistaRepository = dentistaRepository;
+        this.referenciaResolver = referenciaResolver;
+        this.motorFraude = motorFraude;
+        this.eventoService = eventoService;
+        this.producaoDentistaService = producaoDentistaService;
+        this.resumoDiarioService = resumoDiarioService;
     }
 
+    @Transactional
     public ProcedimentoDTO salvarProcedimento(ProcedimentoDTO procedimentoDTO) {
         Procedimento procedimento = convertToEntity(procedimentoDTO);
-        Procedimento salvo = procedimentoRepository.save(procedimento);
-        return convertToDTO(salvo);
+        motorFraude.avaliar(procedimento);
+        Procedimento salvo = procedimentoRepository.saveAndFlush(procedimento);
+        ProcedimentoDTO resultado = convertToDTO(salvo);
+        eventoService.registrar(EventoService.PROCEDIMENTO, salvo.getId(), EventoOutbox.Tipo.CRIADO, resultado);
+        producaoDentistaService.incluir(MotorFraude.Evento.de(salvo));
+        procedimentoRepository.flush();
+        return resultado;
     }
 
     public List<ProcedimentoDTO> listarTodos() {
-        return procedimentoRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return procedimentoRepository.listarTodosComoDTO();
+    }
+
+    /**
+     * Lista uma página de procedimentos a partir de um cursor (paginação keyset pelo ID).
+     *
+     * @param cursor ID do último item da página anterior, ou {@code null} para a primeira página.
+     * @param limite Quantidade máxima de itens da página.
+     * @return {@link PaginaDTO} com os itens e o próximo cursor.
+     */
+    public PaginaDTO<ProcedimentoDTO> listarPagina(Long cursor, int limite) {
+        int limiteEfetivo = PaginaDTO.limitar(limite);
+        List<ProcedimentoDTO> linhas = procedimentoRepository.buscarPaginaComoDTO(cursor != null ? cursor : 0L, Limit.of(limiteEfetivo + 1));
+        return PaginaDTO.of(linhas, limiteEfetivo, ProcedimentoDTO::getId);
+    }
+
+    /**
+     * Resume o estado da tabela de procedimentos; muda a cada inclusão, alteração ou exclusão.
+     *
+     * @return {@link VersaoListaDTO} usado como ETag das listagens.
+     */
+    public VersaoListaDTO versaoLista() {
+        return procedimentoRepository.buscarVersaoLista();
+    }
+
+    /**
+     * Envia todos os procedimentos ao consumidor, um a um, à medida que são lidos do banco.
+     *
+     * @param consumidor Consumidor que recebe cada {@link ProcedimentoDTO}.
+     */
+    public void transmitirTodos(Consumer<ProcedimentoDTO> consumidor) {
+        try (Stream<ProcedimentoDTO> linhas = procedimentoRepository.transmitirTodosComoDTO()) {
+            linhas.forEach(consumidor);
+        }
     }
 
     public Optional<ProcedimentoDTO> buscarPorId(Long id) {
@@ -51,46 +110,73 @@ public class ProcedimentoService {
                 .map(this::convertToDTO);
     }
 
+    @Transactional
     public Optional<ProcedimentoDTO> atualizarProcedimento(Long id, ProcedimentoDTO procedimentoDTO) {
         return procedimentoRepository.findById(id)
                 .map(procedimento -> {
+                    if (procedimentoDTO.getVersao() != null && !procedimentoDTO.getVersao().equals(procedimento.getVersao())) {
+                        throw new VersaoDesatualizadaException("Procedimento", id, procedimentoDTO.getVersao(), procedimento.getVersao());
+                    }
+                    MotorFraude.Evento anterior = MotorFraude.Evento.de(procedimento);
                     atualizarProcedimentoComDTO(procedimento, procedimentoDTO);
-                    Procedimento atualizado = procedimentoRepository.save(procedimento);
-                    return convertToDTO(atualizado);
+
+                    // Substitui o evento anterior nos agregados e pontua os novos dados
+                    motorFraude.desfazer(anterior);
+                    motorFraude.avaliar(procedimento);
+                    Procedimento atualizado = procedimentoRepository.saveAndFlush(procedimento);
+                    ProcedimentoDTO resultado = convertToDTO(atualizado);
+                    eventoService.registrar(EventoService.PROCEDIMENTO, id, EventoOutbox.Tipo.ATUALIZADO, resultado);
+                    producaoDentistaService.substituir(anterior, MotorFraude.Evento.de(atualizado));
+                    resumoDiarioService.registrarAlteracao(ResumoDiarioService.PROCEDIMENTO, anterior.data(), atualizado.getDataProcedimento());
+                    procedimentoRepository.flush();
+                    return resultado;
                 });
     }
 
+    @Transactional
     public void deletarProcedimento(Long id) {
-        if (procedimentoRepository.existsById(id)) {
-            procedimentoRepository.deleteById(id);
-        } else {
-            throw new ProcedimentoNotFoundException(id);
-        }
+        Procedimento procedimento = procedimentoRepository.findById(id)
+                .orElseThrow(() -> new ProcedimentoNotFoundException(id));
+        MotorFraude.Evento removido = MotorFraude.Evento.de(procedimento);
+        procedimentoRepository.delete(procedimento);
+        eventoService.registrarRemocao(EventoService.PROCEDIMENTO, id, procedimento.getVersao());
+        producaoDentistaService.remover(removido);
+        resumoDiarioService.registrarRemocao(ResumoDiarioService.PROCEDIMENTO, removido.data());
+        procedimentoRepository.flush();
+        motorFraude.desfazer(removido);
     }
 
     public boolean existeProcedimento(Long id) {
         return procedimentoRepository.existsById(id);
     }
 
+    /**
+     * Lista os procedimentos cuja pontuação de fraude atinge o limiar do {@link MotorFraude}.
+     *
+     * @return Lista de {@link ProcedimentoDTO} da maior para a menor pontuação.
+     */
     public List<ProcedimentoDTO> listarFraudes() {
-        return procedimentoRepository.listarFraudes().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return procedimentoRepository.listarFraudesComoDTO(motorFraude.getLimiar());
     }
 
-    private ProcedimentoDTO convertToDTO(Procedimento procedimento) {
+    // Conversões visíveis no pacote para os benchmarks em src/jmh/java
+    ProcedimentoDTO convertToDTO(Procedimento procedimento) {
         ProcedimentoDTO dto = new ProcedimentoDTO();
         dto.setId(procedimento.getId());
         dto.setTipoProcedimento(procedimento.getTipoProcedimento());
         dto.setDataProcedimento(procedimento.getDataProcedimento());
         dto.setCusto(procedimento.getCusto());
         dto.setRiscoFraude(procedimento.isRiscoFraude());
+        dto.setScoreFraude(procedimento.getScoreFraude());
+        dto.setRegrasFraude(procedimento.getRegrasFraude());
         dto.setPacienteId(procedimento.getPaciente() != null ? procedimento.getPaciente().getId() : null);
         dto.setDentistaId(procedimento.getDentista() != null ? procedimento.getDentista().getId() : null);
+        dto.setVersao(procedimento.getVersao());
+        dto.setAtualizadoEm(procedimento.getAtualizadoEm());
         return dto;
     }
 
-    private Procedimento convertToEntity(ProcedimentoDTO procedimentoDTO) {
+    Procedimento convertToEntity(ProcedimentoDTO procedimentoDTO) {
         Procedimento procedimento = new Procedimento();
         atualizarProcedimentoComDTO(procedimento, procedimentoDTO);
         return procedimento;
@@ -101,18 +187,13 @@ public class ProcedimentoService {
         procedimento.setTipoProcedimento(procedimentoDTO.getTipoProcedimento());
         procedimento.setDataProcedimento(procedimentoDTO.getDataProcedimento());
         procedimento.setCusto(procedimentoDTO.getCusto());
-        procedimento.setRiscoFraude(procedimentoDTO.getRiscoFraude());
 
+        referenciaResolver.verificarExistencia(procedimentoDTO.getPacienteId(), procedimentoDTO.getDentistaId(), null);
         if (procedimentoDTO.getPacienteId() != null) {
-            Paciente paciente = pacienteRepository.findById(procedimentoDTO.getPacienteId())
-                    .orElseThrow(() -> new PacienteNotFoundException(procedimentoDTO.getPacienteId()));
-            procedimento.setPaciente(paciente);
+            procedimento.setPaciente(referenciaResolver.paciente(procedimentoDTO.getPacienteId()));
         }
-
         if (procedimentoDTO.getDentistaId() != null) {
-            Dentista dentista = dentistaRepository.findById(procedimentoDTO.getDentistaId())
-                    .orElseThrow(() -> new DentistaNotFoundException(procedimentoDTO.getDentistaId()));
-            procedimento.setDentista(dentista);
+            procedimento.setDentista(referenciaResolver.dentista(procedimentoDTO.getDentistaId()));
         }
     }
 }
@@ -0,0 +1,176 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.dto.ProducaoDiaDTO;
+import com.odontovision.clinica_odontologica.dto.ProducaoPeriodoDTO;
+import com.odontovision.clinica_odontologica.exception.PeriodoInvalidoException;
+import com.odontovision.clinica_odontologica.model.ProducaoDentistaDia;
+import com.odontovision.clinica_odontologica.repository.ProducaoDentistaDiaRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Serviço dos contadores de produção diária por dentista ({@link ProducaoDentistaDia}).
+ * <p>
+ * Os contadores são atualizados por {@link ProcedimentoService}, {@link ProcedimentoLoteService} e
+ * {@link DentistaService} dentro da transação que grava o procedimento (as alterações exigem uma
+ * transação em andamento), de modo que a consulta de produção reflete exatamente os procedimentos
+ * confirmados e custa uma leitura pela chave primária, proporcional aos dias do período, sem
+ * percorrer a tabela {@code procedimento}.
+ * </p>
+ * <p>
+ * Cada variação é somada por um único {@code MERGE} (aceito pelo Oracle e pelo H2), que trava a linha
+ * do dentista e dia até o fim da transação: gravações concorrentes de uma linha existente são
+ * aplicadas uma após a outra. Já a primeira gravação do dia não encontra linha para travar, e duas
+ * transações podem seguir ambas pelo {@code WHEN NOT MATCHED}; a segunda a inserir falha com violação
+ * da chave primária (ORA-00001 no Oracle, 23505 no H2) assim que a primeira confirma, e o comando é
+ * repetido uma vez, agora encontrando a linha confirmada. O {@code MERGE} roda pelo {@link JdbcTemplate},
+ * na mesma conexão da transação, porque uma falha em consulta do repositório JPA marcaria a transação
+ * inteira para desfazer, levando junto a gravação do procedimento; pelo JDBC, o banco desfaz apenas o
+ * comando que falhou.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProducaoDentistaService {
+
+    private static final String SOMAR = "MERGE INTO producao_dentista_dia p USING dual ON (p.dentista_id = ? AND p.dia = ?) "
+            + "WHEN MATCHED THEN UPDATE SET quantidade = p.quantidade + ?, custo_total = p.custo_total + ? "
+            + "WHEN NOT MATCHED THEN INSERT (dentista_id, dia, quantidade, custo_total) VALUES (?, ?, ?, ?)";
+
+    private final ProducaoDentistaDiaRepository producaoDentistaDiaRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param producaoDentistaDiaRepository Repositório dos contadores de produção.
+     * @param jdbcTemplate                  Acesso JDBC usado no {@code MERGE} dos contadores.
+     */
+    public ProducaoDentistaService(ProducaoDentistaDiaRepository producaoDentistaDiaRepository, JdbcTemplate jdbcTemplate) {
+        this.producaoDentistaDiaRepository = producaoDentistaDiaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Produção de um dentista no período, somada a partir dos contadores diários.
+     *
+     * @param dentistaId ID do dentista.
+     * @param inicio     Data inicial (opcional; padrão como nos relatórios, 12 meses).
+     * @param fim        Data final (opcional; padrão hoje).
+     * @return {@link ProducaoPeriodoDTO} com os totais e os dias com procedimentos.
+     * @throws PeriodoInvalidoException se a data inicial for posterior à final.
+     */
+    public ProducaoPeriodoDTO buscar(Long dentistaId, LocalDate inicio, LocalDate fim) {
+        LocalDate ate = RelatorioService.fim(fim);
+        LocalDate de = RelatorioService.inicio(inicio, ate);
+        List<ProducaoDiaDTO> dias = producaoDentistaDiaRepository.listarPeriodo(dentistaId, de, ate);
+        long procedimentos = 0;
+        double faturamento = 0;
+        for (ProducaoDiaDTO dia : dias) {
+            procedimentos += dia.procedimentos();
+            faturamento += dia.faturamento();
+        }
+        return new ProducaoPeriodoDTO(dentistaId, de, ate, procedimentos, faturamento, dias);
+    }
+
+    /**
+     * Soma um procedimento incluído.
+     *
+     * @param procedimento Dados do procedimento gravado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void incluir(MotorFraude.Evento procedimento) {
+        somar(procedimento, 1);
+    }
+
+    /**
+     * Soma os procedimentos de um lote, com um comando por dentista e dia.
+     *
+     * @param procedimentos Dados dos procedimentos gravados.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void incluirTodos(Collection<MotorFraude.Evento> procedimentos) {
+        // Agrupa em ordem de chave para que lotes concorrentes travem as linhas na mesma ordem
+        Map<ProducaoDentistaDia.Chave, Soma> porDia = new TreeMap<>(
+                Comparator.comparing(ProducaoDentistaDia.Chave::getDentistaId).thenComparing(ProducaoDentistaDia.Chave::getDia));
+        for (MotorFraude.Evento procedimento : procedimentos) {
+            if (procedimento.dentistaId() != null && procedimento.data() != null) {
+                porDia.merge(new ProducaoDentistaDia.Chave(procedimento.dentistaId(), procedimento.data()),
+                        new Soma(1, procedimento.custo()), Soma::mais);
+            }
+        }
+        porDia.forEach((chave, soma) ->
+                somar(chave.getDentistaId(), chave.getDia(), soma.quantidade(), soma.custo()));
+    }
+
+    /**
+     * Substitui, nos contadores, os dados anteriores de um procedimento alterado pelos atuais.
+     *
+     * @param anterior Dados do procedimento antes da alteração.
+     * @param atual    Dados do procedimento gravado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void substituir(MotorFraude.Evento anterior, MotorFraude.Evento atual) {
+        boolean mesmoDia = Objects.equals(anterior.dentistaId(), atual.dentistaId())
+                && Objects.equals(anterior.data(), atual.data());
+        if (!mesmoDia) {
+            somar(anterior, -1);
+            somar(atual, 1);
+        } else if (anterior.custo() != atual.custo() && atual.dentistaId() != null && atual.data() != null) {
+            somar(atual.dentistaId(), atual.data(), 0, atual.custo() - anterior.custo());
+        }
+    }
+
+    /**
+     * Subtrai um procedimento excluído.
+     *
+     * @param procedimento Dados do procedimento excluído.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remover(MotorFraude.Evento procedimento) {
+        somar(procedimento, -1);
+    }
+
+    /**
+     * Remove os contadores de um dentista excluído junto com seus procedimentos.
+     *
+     * @param dentistaId ID do dentista.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removerDentista(Long dentistaId) {
+        producaoDentistaDiaRepository.removerDentista(dentistaId);
+    }
+
+    private void somar(MotorFraude.Evento procedimento, int sinal) {
+        if (procedimento.dentistaId() != null && procedimento.data() != null) {
+            somar(procedimento.dentistaId(), procedimento.data(), sinal, sinal * procedimento.custo());
+        }
+    }
+
+    private void somar(Long dentistaId, LocalDate dia, long quantidade, double custo) {
+        try {
+            jdbcTemplate.update(SOMAR, dentistaId, dia, quantidade, custo, dentistaId, dia, quantidade, custo);
+        } catch (DuplicateKeyException e) {
+            // Outra transação inseriu a linha do dia primeiro; agora o MERGE a encontra e a atualiza
+            jdbcTemplate.update(SOMAR, dentistaId, dia, quantidade, custo, dentistaId, dia, quantidade, custo);
+        }
+    }
+
+    private record Soma(long quantidade, double custo) {
+
+        Soma mais(Soma outra) {
+            return new Soma(quantidade + outra.quantidade, custo + outra.custo);
+        }
+    }
+}
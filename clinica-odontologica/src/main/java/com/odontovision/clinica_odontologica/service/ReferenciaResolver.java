@@ -0,0 +1,124 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.exception.DentistaNotFoundException;
+import com.odontovision.clinica_odontologica.exception.PacienteNotFoundException;
+import com.odontovision.clinica_odontologica.exception.ProcedimentoNotFoundException;
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.repository.DentistaRepository;
+import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolve as referências de paciente, dentista e procedimento informadas por ID nos DTOs.
+ * <p>
+ * Em vez de carregar cada entidade com {@code findById} apenas para preencher uma chave
+ * estrangeira, a existência de todas as referências é conferida em uma única consulta e as
+ * associações são preenchidas com referências ({@code getReferenceById}), que não acessam o banco.
+ * </p>
+ * <p>
+ * Pacientes e dentistas presentes no cache de segundo nível já são considerados existentes e
+ * ficam fora da consulta; se todas as referências estiverem no cache, nenhum SQL é executado.
+ * </p>
+ */
+@Component
+public class ReferenciaResolver {
+
+    /**
+     * Conta, em um único comando, quantas linhas existem para cada ID informado.
+     * IDs nulos resultam em contagem zero e não são conferidos.
+     */
+    private static final String CONSULTA_EXISTENCIA = """
+            SELECT (SELECT COUNT(p) FROM Paciente p WHERE p.id = :pacienteId),
+                   (SELECT COUNT(d) FROM Dentista d WHERE d.id = :dentistaId),
+                   (SELECT COUNT(pr) FROM Procedimento pr WHERE pr.id = :procedimentoId)
+            """;
+
+    private final EntityManager entityManager;
+    private final PacienteRepository pacienteRepository;
+    private final DentistaRepository dentistaRepository;
+    private final ProcedimentoRepository procedimentoRepository;
+
+    public ReferenciaResolver(EntityManager entityManager,
+                              PacienteRepository pacienteRepository,
+                              DentistaRepository dentistaRepository,
+                              ProcedimentoRepository procedimentoRepository) {
+        this.entityManager = entityManager;
+        this.pacienteRepository = pacienteRepository;
+        this.dentistaRepository = dentistaRepository;
+        this.procedimentoRepository = procedimentoRepository;
+    }
+
+    /**
+     * Confere, em uma única consulta, se as referências informadas existem.
+     *
+     * @param pacienteId     ID do paciente, ou {@code null} se não houver.
+     * @param dentistaId     ID do dentista, ou {@code null} se não houver.
+     * @param procedimentoId ID do procedimento, ou {@code null} se não houver.
+     * @throws ProcedimentoNotFoundException Se o procedimento não existir.
+     * @throws DentistaNotFoundException     Se o dentista não existir.
+     * @throws PacienteNotFoundException     Se o paciente não existir.
+     */
+    public void verificarExistencia(Long pacienteId, Long dentistaId, Long procedimentoId) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        if (pacienteId != null && cache.contains(Paciente.class, pacienteId)) {
+            pacienteId = null;
+        }
+        if (dentistaId != null && cache.contains(Dentista.class, dentistaId)) {
+            dentistaId = null;
+        }
+        if (pacienteId == null && dentistaId == null && procedimentoId == null) {
+            return;
+        }
+
+        Object[] contagens = entityManager.createQuery(CONSULTA_EXISTENCIA, Object[].class)
+                .setParameter("pacienteId", pacienteId)
+                .setParameter("dentistaId", dentistaId)
+                .setParameter("procedimentoId", procedimentoId)
+                .getSingleResult();
+
+        if (procedimentoId != null && ((Number) contagens[2]).longValue() == 0) {
+            throw new ProcedimentoNotFoundException(procedimentoId);
+        }
+        if (dentistaId != null && ((Number) contagens[1]).longValue() == 0) {
+            throw new DentistaNotFoundException(dentistaId);
+        }
+        if (pacienteId != null && ((Number) contagens[0]).longValue() == 0) {
+            throw new PacienteNotFoundException(pacienteId);
+        }
+    }
+
+    /**
+     * Retorna uma referência ao paciente, sem consultá-lo no banco.
+     *
+     * @param id ID do paciente, já conferido por {@link #verificarExistencia}.
+     * @return Referência ao paciente, ou {@code null} se o ID for nulo.
+     */
+    public Paciente paciente(Long id) {
+        return id != null ? pacienteRepository.getReferenceById(id) : null;
+    }
+
+    /**
+     * Retorna uma referência ao dentista, sem consultá-lo no banco.
+     *
+     * @param id ID do dentista, já conferido por {@link #verificarExistencia}.
+     * @return Referência ao dentista, ou {@code null} se o ID for nulo.
+     */
+    public Dentista dentista(Long id) {
+        return id != null ? dentistaRepository.getReferenceById(id) : null;
+    }
+
+    /**
+     * Retorna uma referência ao procedimento, sem consultá-lo no banco.
+     *
+     * @param id ID do procedimento, já conferido por {@link #verificarExistencia}.
+     * @return Referência ao procedimento, ou {@code null} se o ID for nulo.
+     */
+    public Procedimento procedimento(Long id) {
+        return id != null ? procedimentoRepository.getReferenceById(id) : null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.dto.CustoTipoMesDTO;
+import com.odontovision.clinica_odontologica.dto.FraudePlanoDTO;
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
+import com.odontovision.clinica_odontologica.dto.ProducaoDentistaDTO;
+import com.odontovision.clinica_odontologica.dto.SinistrosPacienteDTO;
+import com.odontovision.clinica_odontologica.dto.SinistrosPlanoDTO;
+import com.odontovision.clinica_odontologica.exception.PeriodoInvalidoException;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import com.odontovision.clinica_odontologica.repository.ResumoProcedimentoDiaRepository;
+import com.odontovision.clinica_odontologica.repository.ResumoSinistroDiaRepository;
+import com.odontovision.clinica_odontologica.repository.SinistroRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Serviço dos relatórios gerenciais.
+ * <p>
+ * Todas as agregações são feitas pelo banco com {@code GROUP BY} e devolvidas como projeções,
+ * sem carregar entidades. Quando o período não é informado, vale o dos últimos 12 meses,
+ * do primeiro dia do mês mais antigo até hoje.
+ * </p>
+ * <p>
+ * A produção por dentista e os sinistros por plano são somados a partir dos resumos diários
+ * mantidos por {@link ResumoDiarioService}, e refletem os registros incorporados até a última
+ * atualização. Os demais relatórios leem as tabelas de origem: percentis de custo não podem
+ * ser compostos a partir de totais diários.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class RelatorioService {
+
+    private static final int MESES_PADRAO = 12;
+
+    private final ProcedimentoRepository procedimentoRepository;
+    private final SinistroRepository sinistroRepository;
+    private final ResumoProcedimentoDiaRepository resumoProcedimentoDiaRepository;
+    private final ResumoSinistroDiaRepository resumoSinistroDiaRepository;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param procedimentoRepository          Repositório de procedimentos.
+     * @param sinistroRepository              Repositório de sinistros.
+     * @param resumoProcedimentoDiaRepository Repositório do resumo diário de procedimentos.
+     * @param resumoSinistroDiaRepository     Repositório do resumo diário de sinistros.
+     */
+    public RelatorioService(ProcedimentoRepository procedimentoRepository, SinistroRepository sinistroRepository,
+                            ResumoProcedimentoDiaRepository resumoProcedimentoDiaRepository,
+                            ResumoSinistroDiaRepository resumoSinistroDiaRepository) {
+        this.procedimentoRepository = procedimentoRepository;
+        this.sinistroRepository = sinistroRepository;
+        this.resumoProcedimentoDiaRepository = resumoProcedimentoDiaRepository;
+        this.resumoSinistroDiaRepository = resumoSinistroDiaRepository;
+    }
+
+    /**
+     * Custos por tipo de procedimento e mês: quantidade, total, média, mediana e percentil 90.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @return Lista de {@link CustoTipoMesDTO}.
+     */
+    public List<CustoTipoMesDTO> custosPorTipoEMes(LocalDate inicio, LocalDate fim) {
+        LocalDate ate = fim(fim);
+        return procedimentoRepository.relatorioCustosPorTipoEMes(inicio(inicio, ate), ate);
+    }
+
+    /**
+     * Quantidade de procedimentos e faturamento por dentista, a partir do resumo diário.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @return Lista de {@link ProducaoDentistaDTO}.
+     */
+    public List<ProducaoDentistaDTO> producaoPorDentista(LocalDate inicio, LocalDate fim) {
+        LocalDate ate = fim(fim);
+        return resumoProcedimentoDiaRepository.relatorioProducaoPorDentista(inicio(inicio, ate), ate);
+    }
+
+    /**
+     * Pacientes com mais sinistros no período.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @param limite Quantidade máxima de pacientes.
+     * @return Lista de {@link SinistrosPacienteDTO}.
+     */
+    public List<SinistrosPacienteDTO> sinistrosPorPaciente(LocalDate inicio, LocalDate fim, int limite) {
+        LocalDate ate = fim(fim);
+        return sinistroRepository.relatorioSinistrosPorPaciente(inicio(inicio, ate), ate, Limit.of(PaginaDTO.limitar(limite)));
+    }
+
+    /**
+     * Taxa de procedimentos suspeitos de fraude por plano odontológico.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @return Lista de {@link FraudePlanoDTO}.
+     */
+    public List<FraudePlanoDTO> fraudePorPlano(LocalDate inicio, LocalDate fim) {
+        LocalDate ate = fim(fim);
+        return procedimentoRepository.relatorioFraudePorPlano(inicio(inicio, ate), ate);
+    }
+
+    /**
+     * Sinistros por plano odontológico e tipo de sinistro, a partir do resumo diário.
+     *
+     * @param inicio Data inicial (opcional).
+     * @param fim    Data final (opcional).
+     * @return Lista de {@link SinistrosPlanoDTO}.
+     */
+    public List<SinistrosPlanoDTO> sinistrosPorPlano(LocalDate inicio, LocalDate fim) {
+        LocalDate ate = fim(fim);
+        return resumoSinistroDiaRepository.relatorioSinistrosPorPlano(inicio(inicio, ate), ate);
+    }
+
+    // Período padrão dos relatórios, também usado por ProducaoDentistaService
+    static LocalDate fim(LocalDate fim) {
+        return fim != null ? fim : LocalDate.now();
+    }
+
+    static LocalDate inicio(LocalDate inicio, LocalDate fim) {
+        LocalDate de = inicio != null ? inicio : fim.minusMonths(MESES_PADRAO - 1).withDayOfMonth(1);
+        if (de.isAfter(fim)) {
+            throw new PeriodoInvalidoException("A data inicial " + de + " é posterior à data final " + fim + ".");
+        }
+        return de;
+    }
+}
@@ -0,0 +1,225 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.model.MarcaResumo;
+import com.odontovision.clinica_odontologica.repository.MarcaResumoRepository;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import com.odontovision.clinica_odontologica.repository.ResumoProcedimentoDiaRepository;
+import com.odontovision.clinica_odontologica.repository.ResumoSinistroDiaRepository;
+import com.odontovision.clinica_odontologica.repository.SinistroRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Serviço que mantém os resumos diários de procedimentos e sinistros usados pelos relatórios.
+ * <p>
+ * A atualização é incremental: cada tabela de origem tem uma marca d'água com o instante da
+ * execução anterior, e a cada execução são recalculados os dias dos registros incluídos ou
+ * alterados ({@code atualizado_em}) depois da marca menos {@code clinica.resumo.sobreposicao-ms},
+ * mais os últimos {@code clinica.resumo.dias-reprocessados} dias. O maior ID não serve de marca,
+ * porque IDs reservados em blocos por instância são confirmados fora de ordem; a sobreposição
+ * cobre o intervalo entre a gravação de {@code atualizado_em} e o commit, e a diferença de relógio
+ * entre instâncias.
+ * </p>
+ * <p>
+ * O que não deixa linha com {@code atualizado_em} no dia afetado é registrado em
+ * {@code resumo_dia_pendente} pelos serviços de escrita, na mesma transação da alteração: a data
+ * anterior de um procedimento ou sinistro que mudou de data, a data de um registro excluído e as
+ * datas dos sinistros de um paciente que trocou de plano. A atualização recalcula também esses dias
+ * e exclui os registros lidos antes de recalcular, de modo que um registro confirmado depois da
+ * leitura fica para a execução seguinte. A reconstrução completa agendada em
+ * {@code clinica.resumo.reconstrucao-cron} continua corrigindo qualquer divergência restante.
+ * </p>
+ * <p>
+ * Cada dia é recalculado por inteiro no banco ({@code DELETE} seguido de {@code INSERT ... SELECT}),
+ * em blocos de até {@value #DIAS_POR_COMANDO} dias por comando (limite de itens do {@code IN} no Oracle).
+ * </p>
+ */
+@Service
+public class ResumoDiarioService {
+
+    public static final String PROCEDIMENTO = "procedimento";
+    public static final String SINISTRO = "sinistro";
+
+    private static final int DIAS_POR_COMANDO = 1000;
+
+    private static final String REGISTRAR_DIA = "INSERT INTO resumo_dia_pendente (tabela, dia) VALUES (?, ?)";
+    private static final String REGISTRAR_SINISTROS_DO_PACIENTE = "INSERT INTO resumo_dia_pendente (tabela, dia) "
+            + "SELECT DISTINCT '" + SINISTRO + "', data_sinistro FROM sinistro WHERE paciente_id = ? AND data_sinistro IS NOT NULL";
+    private static final String LISTAR_DIAS_PENDENTES = "SELECT DISTINCT dia FROM resumo_dia_pendente WHERE tabela = ?";
+    private static final String REMOVER_DIA_PENDENTE = "DELETE FROM resumo_dia_pendente WHERE tabela = ? AND dia = ?";
+    private static final String REMOVER_DIAS_PENDENTES = "DELETE FROM resumo_dia_pendente WHERE tabela = ?";
+
+    private final MarcaResumoRepository marcaResumoRepository;
+    private final ProcedimentoRepository procedimentoRepository;
+    private final SinistroRepository sinistroRepository;
+    private final ResumoProcedimentoDiaRepository resumoProcedimentoDiaRepository;
+    private final ResumoSinistroDiaRepository resumoSinistroDiaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int diasReprocessados;
+    private final long sobreposicaoMs;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param marcaResumoRepository           Repositório das marcas d'água.
+     * @param procedimentoRepository          Repositório de procedimentos.
+     * @param sinistroRepository              Repositório de sinistros.
+     * @param resumoProcedimentoDiaRepository Repositório do resumo diário de procedimentos.
+     * @param resumoSinistroDiaRepository     Repositório do resumo diário de sinistros.
+     * @param jdbcTemplate                    Acesso JDBC aos dias pendentes ({@code resumo_dia_pendente}).
+     * @param diasReprocessados               Quantidade de dias mais recentes recalculados em toda atualização.
+     * @param sobreposicaoMs                  Quanto antes da marca as alterações voltam a ser consideradas.
+     */
+    public ResumoDiarioService(MarcaResumoRepository marcaResumoRepository,
+                               ProcedimentoRepository procedimentoRepository,
+                               SinistroRepository sinistroRepository,
+                               ResumoProcedimentoDiaRepository resumoProcedimentoDiaRepository,
+                               ResumoSinistroDiaRepository resumoSinistroDiaRepository,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${clinica.resumo.dias-reprocessados:3}") int diasReprocessados,
+                               @Value("${clinica.resumo.sobreposicao-ms:300000}") long sobreposicaoMs) {
+        this.marcaResumoRepository = marcaResumoRepository;
+        this.procedimentoRepository = procedimentoRepository;
+        this.sinistroRepository = sinistroRepository;
+        this.resumoProcedimentoDiaRepository = resumoProcedimentoDiaRepository;
+        this.resumoSinistroDiaRepository = resumoSinistroDiaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.diasReprocessados = diasReprocessados;
+        this.sobreposicaoMs = sobreposicaoMs;
+    }
+
+    /**
+     * Incorpora aos resumos os registros incluídos ou alterados desde a última execução.
+     * <p>
+     * Na primeira execução (sem marca d'água), os resumos são montados por completo.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${clinica.resumo.intervalo-ms:60000}", initialDelayString = "${clinica.resumo.intervalo-ms:60000}")
+    @Transactional
+    public void atualizar() {
+        atualizar(PROCEDIMENTO, procedimentoRepository::listarDiasAlteradosDesde,
+                this::recalcularProcedimentos, this::reconstruirProcedimentos);
+        atualizar(SINISTRO, sinistroRepository::listarDiasAlteradosDesde,
+                this::recalcularSinistros, this::reconstruirSinistros);
+    }
+
+    /**
+     * Remonta os resumos por completo a partir das tabelas de origem.
+     */
+    @Scheduled(cron = "${clinica.resumo.reconstrucao-cron:0 30 3 * * *}")
+    @Transactional
+    public void reconstruir() {
+        reconstruir(PROCEDIMENTO, this::reconstruirProcedimentos);
+        reconstruir(SINISTRO, this::reconstruirSinistros);
+    }
+
+    /**
+     * Registra a data anterior de um registro alterado, se a data mudou, para a próxima atualização.
+     *
+     * @param tabela   {@link #PROCEDIMENTO} ou {@link #SINISTRO}.
+     * @param anterior Data do registro antes da alteração.
+     * @param atual    Data do registro gravado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAlteracao(String tabela, LocalDate anterior, LocalDate atual) {
+        if (!Objects.equals(anterior, atual)) {
+            registrarRemocao(tabela, anterior);
+        }
+    }
+
+    /**
+     * Registra a data de um registro excluído para a próxima atualização.
+     *
+     * @param tabela {@link #PROCEDIMENTO} ou {@link #SINISTRO}.
+     * @param dia    Data do registro excluído (ignorada se nula).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarRemocao(String tabela, LocalDate dia) {
+        if (dia != null) {
+            jdbcTemplate.update(REGISTRAR_DIA, tabela, dia);
+        }
+    }
+
+    /**
+     * Registra as datas dos sinistros de um paciente que trocou de plano, já que o plano faz parte
+     * da chave do resumo de sinistros.
+     *
+     * @param pacienteId ID do paciente.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTrocaDePlano(Long pacienteId) {
+        jdbcTemplate.update(REGISTRAR_SINISTROS_DO_PACIENTE, pacienteId);
+    }
+
+    private void atualizar(String tabela, Function<LocalDateTime, List<LocalDate>> diasAlteradosDesde,
+                           Consumer<List<LocalDate>> recalcular, Runnable reconstruir) {
+        MarcaResumo marca = marcaResumoRepository.travar(tabela).orElse(null);
+        if (marca == null || marca.getUltimaAlteracao() == null) {
+            reconstruir(tabela, reconstruir);
+            return;
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<LocalDate> pendentes = jdbcTemplate.queryForList(LISTAR_DIAS_PENDENTES, LocalDate.class, tabela);
+        jdbcTemplate.batchUpdate(REMOVER_DIA_PENDENTE, pendentes, DIAS_POR_COMANDO, (comando, dia) -> {
+            comando.setString(1, tabela);
+            comando.setObject(2, dia);
+        });
+        SortedSet<LocalDate> dias = new TreeSet<>(pendentes);
+        dias.addAll(diasAlteradosDesde.apply(marca.getUltimaAlteracao().minus(Duration.ofMillis(sobreposicaoMs))));
+        LocalDate hoje = agora.toLocalDate();
+        for (int i = 0; i < diasReprocessados; i++) {
+            dias.add(hoje.minusDays(i));
+        }
+
+        List<LocalDate> ordenados = new ArrayList<>(dias);
+        for (int i = 0; i < ordenados.size(); i += DIAS_POR_COMANDO) {
+            recalcular.accept(ordenados.subList(i, Math.min(i + DIAS_POR_COMANDO, ordenados.size())));
+        }
+        marca.setUltimaAlteracao(agora);
+    }
+
+    private void reconstruir(String tabela, Runnable reconstruir) {
+        MarcaResumo marca = marcaResumoRepository.travar(tabela).orElseGet(() -> new MarcaResumo(tabela, 0L));
+        LocalDateTime agora = LocalDateTime.now();
+        jdbcTemplate.update(REMOVER_DIAS_PENDENTES, tabela);
+        reconstruir.run();
+        marca.setUltimaAlteracao(agora);
+        marcaResumoRepository.save(marca);
+    }
+
+    private void recalcularProcedimentos(List<LocalDate> dias) {
+        resumoProcedimentoDiaRepository.removerDias(dias);
+        resumoProcedimentoDiaRepository.recalcularDias(dias);
+    }
+
+    private void reconstruirProcedimentos() {
+        resumoProcedimentoDiaRepository.removerTudo();
+        resumoProcedimentoDiaRepository.recalcularTudo();
+    }
+
+    private void recalcularSinistros(List<LocalDate> dias) {
+        resumoSinistroDiaRepository.removerDias(dias);
+        resumoSinistroDiaRepository.recalcularDias(dias);
+    }
+
+    private void reconstruirSinistros() {
+        resumoSinistroDiaRepository.removerTudo();
+        resumoSinistroDiaRepository.recalcularTudo();
+    }
+}
@@ -1,55 +1,93 @@
 package com.odontovision.clinica_odontologica.service;
 
+import com.odontovision.clinica_odontologica.dto.PaginaDTO;
 import com.odontovision.clinica_odontologica.dto.SinistroDTO;
+import com.odontovision.clinica_odontologica.dto.VersaoListaDTO;
 import com.odontovision.clinica_odontologica.exception.SinistroNotFoundException;
-import com.odontovision.clinica_odontologica.exception.ProcedimentoNotFoundException;
-import com.odontovision.clinica_odontologica.exception.DentistaNotFoundException;
-import com.odontovision.clinica_odontologica.exception.PacienteNotFoundException;
+import com.odontovision.clinica_odontologica.exception.VersaoDesatualizadaException;
+import com.odontovision.clinica_odontologica.model.EventoOutbox;
 import com.odontovision.clinica_odontologica.model.Sinistro;
-import com.odontovision.clinica_odontologica.model.Procedimento;
-import com.odontovision.clinica_odontologica.model.Dentista;
-import com.odontovision.clinica_odontologica.model.Paciente;
 import com.odontovision.clinica_odontologica.repository.SinistroRepository;
-import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
-import com.odontovision.clinica_odontologica.repository.DentistaRepository;
-import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Serviço responsável pela lógica de negócios relacionada a {@link Sinistro}.
+ * <p>
+ * Inclusões, alterações e exclusões gravam o evento correspondente no outbox
+ * ({@link EventoService}) na mesma transação; alterações de data e exclusões também registram a
+ * data anterior para os resumos diários ({@link ResumoDiarioService}).
+ * </p>
  */
 @Service
+@Transactional(readOnly = true)
 public class SinistroService {
 
     private final SinistroRepository sinistroRepository;
-    private final ProcedimentoRepository procedimentoRepository;
-    private final DentistaRepository dentistaRepository;
-    private final PacienteRepository pacienteRepository;
+    private final ReferenciaResolver referenciaResolver;
+    private final EventoService eventoService;
+    private final ResumoDiarioService resumoDiarioService;
 
     public SinistroService(SinistroRepository sinistroRepository,
-                           ProcedimentoRepository procedimentoRepository,
-                           DentistaRepository dentistaRepository,
-                           PacienteRepository pacienteRepository) {
+                           ReferenciaResolver referenciaResolver,
+                           EventoService eventoService,
+                           ResumoDiarioService resumoDiarioService) {
         this.sinistroRepository = sinistroRepository;
-        this.procedimentoRepository = procedimentoRepository;
-        this.dentistaRepository = dentistaRepository;
-        this.pacienteRepository = pacienteRepository;
+        this.referenciaResolver = referenciaResolver;
+        this.eventoService = eventoService;
+        this.resumoDiarioService = resumoDiarioService;
     }
 
     public List<SinistroDTO> listarTodos() {
-        return sinistroRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return sinistroRepository.listarTodosComoDTO();
     }
 
+    /**
+     * Lista uma página de sinistros a partir de um cursor (paginação keyset pelo ID).
+     *
+     * @param cursor ID do último item da página anterior, ou {@code null} para a primeira página.
+     * @param limite Quantidade máxima de itens da página.
+     * @return {@link PaginaDTO} com os itens e o próximo cursor.
+     */
+    public PaginaDTO<SinistroDTO> listarPagina(Long cursor, int limite) {
+        int limiteEfetivo = PaginaDTO.limitar(limite);
+        List<SinistroDTO> linhas = sinistroRepository.buscarPaginaComoDTO(cursor != null ? cursor : 0L, Limit.of(limiteEfetivo + 1));
+        return PaginaDTO.of(linhas, limiteEfetivo, SinistroDTO::getId);
+    }
+
+    /**
+     * Resume o estado da tabela de sinistros; muda a cada inclusão, alteração ou exclusão.
+     *
+     * @return {@link VersaoListaDTO} usado como ETag das listagens.
+     */
+    public VersaoListaDTO versaoLista() {
+        return sinistroRepository.buscarVersaoLista();
+    }
+
+    /**
+     * Envia todos os sinistros ao consumidor, um a um, à medida que são lidos do banco.
+     *
+     * @param consumidor Consumidor que recebe cada {@link SinistroDTO}.
+     */
+    public void transmitirTodos(Consumer<SinistroDTO> consumidor) {
+        try (Stream<SinistroDTO> linhas = sinistroRepository.transmitirTodosComoDTO()) {
+            linhas.forEach(consumidor);
+        }
+    }
+
+    @Transactional
     public SinistroDTO salvarSinistro(SinistroDTO sinistroDTO) {
         Sinistro sinistro = convertToEntity(sinistroDTO);
-        Sinistro salvo = sinistroRepository.save(sinistro);
-        return convertToDTO(salvo);
+        Sinistro salvo = sinistroRepository.saveAndFlush(sinistro);
+        SinistroDTO resultado = convertToDTO(salvo);
+        eventoService.registrar(EventoService.SINISTRO, salvo.getId(), EventoOutbox.Tipo.CRIADO, resultado);
+        return resultado;
     }
 
     public Optional<SinistroDTO> buscarPorId(Long id) {
@@ -57,32 +95,38 @@ public class SinistroService {
                 .map(this::convertToDTO);
     }
 
+    @Transactional
     public Optional<SinistroDTO> atualizarSinistro(Long id, SinistroDTO sinistroDTO) {
         return sinistroRepository.findById(id)
                 .map(sinistro -> {
+                    if (sinistroDTO.getVersao() != null && !sinistroDTO.getVersao().equals(sinistro.getVersao())) {
+                        throw new VersaoDesatualizadaException("Sinistro", id, sinistroDTO.getVersao(), sinistro.getVersao());
+                    }
+                    resumoDiarioService.registrarAlteracao(ResumoDiarioService.SINISTRO, sinistro.getDataSinistro(), sinistroDTO.getDataSinistro());
                     sinistro.setDataSinistro(sinistroDTO.getDataSinistro());
                     sinistro.setRiscoFraude(sinistroDTO.getRiscoFraude());
                     sinistro.setTipoSinistro(sinistroDTO.getTipoSinistro());
                     sinistro.setDescricao(sinistroDTO.getDescricao());
+                    preencherReferencias(sinistro, sinistroDTO);
 
-                    sinistro.setProcedimento(buscarProcedimento(sinistroDTO.getProcedimentoId()));
-                    sinistro.setDentista(buscarDentista(sinistroDTO.getDentistaId()));
-                    sinistro.setPaciente(buscarPaciente(sinistroDTO.getPacienteId()));
-
-                    Sinistro atualizado = sinistroRepository.save(sinistro);
-                    return convertToDTO(atualizado);
+                    Sinistro atualizado = sinistroRepository.saveAndFlush(sinistro);
+                    SinistroDTO resultado = convertToDTO(atualizado);
+                    eventoService.registrar(EventoService.SINISTRO, id, EventoOutbox.Tipo.ATUALIZADO, resultado);
+                    return resultado;
                 });
     }
 
+    @Transactional
     public void deletarSinistro(Long id) {
-        if (sinistroRepository.existsById(id)) {
-            sinistroRepository.deleteById(id);
-        } else {
-            throw new SinistroNotFoundException(id);
-        }
+        Sinistro sinistro = sinistroRepository.findById(id)
+                .orElseThrow(() -> new SinistroNotFoundException(id));
+        sinistroRepository.delete(sinistro);
+        eventoService.registrarRemocao(EventoService.SINISTRO, id, sinistro.getVersao());
+        resumoDiarioService.registrarRemocao(ResumoDiarioService.SINISTRO, sinistro.getDataSinistro());
     }
 
-    private SinistroDTO convertToDTO(Sinistro sinistro) {
+    // Visível no pacote, assim como convertToEntity, para o benchmark de conversão
+    SinistroDTO convertToDTO(Sinistro sinistro) {
         SinistroDTO dto = new SinistroDTO();
         dto.setId(sinistro.getId());
         dto.setTipoSinistro(sinistro.getTipoSinistro());
@@ -92,36 +136,27 @@ public class SinistroService {
         dto.setDentistaId(sinistro.getDentista() != null ? sinistro.getDentista().getId() : null);
         dto.setPacienteId(sinistro.getPaciente() != null ? sinistro.getPaciente().getId() : null);
         dto.setRiscoFraude(sinistro.isRiscoFraude());
+        dto.setVersao(sinistro.getVersao());
+        dto.setAtualizadoEm(sinistro.getAtualizadoEm());
         return dto;
     }
 
-    private Sinistro convertToEntity(SinistroDTO sinistroDTO) {
+    Sinistro convertToEntity(SinistroDTO sinistroDTO) {
         Sinistro sinistro = new Sinistro();
-        sinistro.setId(sinistroDTO.getId());
         sinistro.setTipoSinistro(sinistroDTO.getTipoSinistro());
         sinistro.setDescricao(sinistroDTO.getDescricao());
         sinistro.setDataSinistro(sinistroDTO.getDataSinistro());
         sinistro.setRiscoFraude(sinistroDTO.getRiscoFraude());
-
-        sinistro.setProcedimento(buscarProcedimento(sinistroDTO.getProcedimentoId()));
-        sinistro.setDentista(buscarDentista(sinistroDTO.getDentistaId()));
-        sinistro.setPaciente(buscarPaciente(sinistroDTO.getPacienteId()));
-
+        preencherReferencias(sinistro, sinistroDTO);
         return sinistro;
     }
 
-    private Procedimento buscarProcedimento(Long id) {
-        return id != null ? procedimentoRepository.findById(id)
-                .orElseThrow(() -> new ProcedimentoNotFoundException(id)) : null;
-    }
-
-    private Dentista buscarDentista(Long id) {
-        return id != null ? dentistaRepository.findById(id)
-                .orElseThrow(() -> new DentistaNotFoundException(id)) : null;
-    }
-
-    private Paciente buscarPaciente(Long id) {
-        return id != null ? pacienteRepository.findById(id)
-                .orElseThrow(() -> new PacienteNotFoundException(id)) : null;
+    // Confere as três referências em uma única consulta e as associa sem carregá-las
+    private void preencherReferencias(Sinistro sinistro, SinistroDTO sinistroDTO) {
+        referenciaResolver.verificarExistencia(sinistroDTO.getPacienteId(), sinistroDTO.getDentistaId(),
+                sinistroDTO.getProcedimentoId());
+        sinistro.setProcedimento(referenciaResolver.procedimento(sinistroDTO.getProcedimentoId()));
+        sinistro.setDentista(referenciaResolver.dentista(sinistroDTO.getDentistaId()));
+        sinistro.setPaciente(referenciaResolver.paciente(sinistroDTO.getPacienteId()));
     }
 }
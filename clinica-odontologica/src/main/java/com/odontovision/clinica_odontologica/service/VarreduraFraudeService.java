@@ -0,0 +1,460 @@
+package com.odontovision.clinica_odontologica.service;
+
+import com.odontovision.clinica_odontologica.dto.ReavaliacaoFraudeDTO;
+import com.odontovision.clinica_odontologica.dto.VarreduraFraudeDTO;
+import com.odontovision.clinica_odontologica.model.EventoOutbox;
+import com.odontovision.clinica_odontologica.model.MarcaResumo;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.model.Sinistro;
+import com.odontovision.clinica_odontologica.model.VarreduraFraude;
+import com.odontovision.clinica_odontologica.model.VarreduraFraudeParticao;
+import com.odontovision.clinica_odontologica.repository.MarcaResumoRepository;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import com.odontovision.clinica_odontologica.repository.SinistroRepository;
+import com.odontovision.clinica_odontologica.repository.VarreduraFraudeParticaoRepository;
+import com.odontovision.clinica_odontologica.repository.VarreduraFraudeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serviço da reavaliação em massa da pontuação de fraude dos procedimentos, usada quando as
+ * regras ou os limites do {@link MotorFraude} mudam.
+ * <p>
+ * A tabela de procedimentos é dividida em {@code clinica.fraude.varredura.particoes} faixas de ID,
+ * processadas em paralelo em um {@link ForkJoinPool} de {@code clinica.fraude.varredura.paralelismo}
+ * threads (cada uma ocupa uma conexão do pool enquanto grava um lote). Cada partição lê lotes de
+ * {@code clinica.fraude.varredura.tamanho-lote} procedimentos por ordem de ID, já com os totais
+ * das janelas de paciente e dentista que terminam na data de cada um, e compara o custo com a
+ * estatística de todo o histórico do tipo. Só os procedimentos cuja pontuação, regras ou risco
+ * mudaram são gravados, em lote JDBC, com nova versão e evento {@code procedimento.atualizado} no
+ * outbox; os sinistros desses procedimentos que passaram a ter risco são marcados com risco
+ * (a marcação de um sinistro nunca é retirada pela varredura). Procedimentos com
+ * {@link MotorFraude.Regra#MARCACAO_MANUAL} não são alterados.
+ * </p>
+ * <p>
+ * O ponto de retomada de cada partição é gravado na mesma transação das alterações do lote, de
+ * modo que uma varredura interrompida continua do último lote confirmado quando for iniciada de
+ * novo. Uma varredura só é retomada por outra execução quando a anterior terminou ou parou de
+ * gravar lotes há mais de {@code clinica.fraude.varredura.batimento-expira-ms}. Ao final, os
+ * resumos diários são reconstruídos, já que contam os procedimentos suspeitos.
+ * </p>
+ */
+@Service
+public class VarreduraFraudeService {
+
+    /**
+     * Maior lote aceito, para que a busca de sinistros caiba em uma cláusula IN do Oracle.
+     */
+    private static final int TAMANHO_MAXIMO_LOTE = 1000;
+
+    /**
+     * Marca travada ao iniciar ou retomar uma varredura, para que duas instâncias não o façam ao mesmo tempo.
+     */
+    private static final String MARCA = "varredura_fraude";
+
+    /**
+     * Tentativas de um lote que colide com alterações concorrentes dos mesmos procedimentos.
+     */
+    private static final int TENTATIVAS_LOTE = 3;
+
+    private final VarreduraFraudeRepository varreduraFraudeRepository;
+    private final VarreduraFraudeParticaoRepository varreduraFraudeParticaoRepository;
+    private final MarcaResumoRepository marcaResumoRepository;
+    private final ProcedimentoRepository procedimentoRepository;
+    private final SinistroRepository sinistroRepository;
+    private final MotorFraude motorFraude;
+    private final ProcedimentoService procedimentoService;
+    private final SinistroService sinistroService;
+    private final EventoService eventoService;
+    private final ResumoDiarioService resumoDiarioService;
+    private final TaskExecutor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int particoes;
+    private final int paralelismo;
+    private final int tamanhoLote;
+    private final long batimentoExpiraMs;
+    private final AtomicReference<Execucao> execucao = new AtomicReference<>();
+
+    /**
+     * Execução de uma varredura nesta instância.
+     */
+    private static final class Execucao {
+
+        private final Long varreduraId;
+        private final String token = UUID.randomUUID().toString();
+        private final long inicio = System.nanoTime();
+        private final LongAdder processados = new LongAdder();
+
+        private Execucao(Long varreduraId) {
+            this.varreduraId = varreduraId;
+        }
+
+        private double vazao() {
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            return segundos > 0 ? processados.sum() / segundos : 0.0;
+        }
+    }
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param varreduraFraudeRepository         Repositório das varreduras.
+     * @param varreduraFraudeParticaoRepository Repositório das partições (pontos de retomada).
+     * @param marcaResumoRepository             Repositório das marcas, usado como trava de início.
+     * @param procedimentoRepository            Repositório de procedimentos.
+     * @param sinistroRepository                Repositório de sinistros.
+     * @param motorFraude                       Regras de pontuação.
+     * @param procedimentoService               Conversão dos procedimentos alterados para os eventos.
+     * @param sinistroService                   Conversão dos sinistros alterados para os eventos.
+     * @param eventoService                     Outbox de eventos.
+     * @param resumoDiarioService               Reconstrução dos resumos ao final.
+     * @param taskExecutor                      Executor que coordena a varredura.
+     * @param transactionTemplate               Transação de cada lote.
+     * @param particoes                         Quantidade de faixas de ID de uma nova varredura.
+     * @param paralelismo                       Partições processadas ao mesmo tempo.
+     * @param tamanhoLote                       Procedimentos lidos e gravados por transação.
+     * @param batimentoExpiraMs                 Tempo sem lotes gravados após o qual a varredura pode ser retomada.
+     */
+    public VarreduraFraudeService(VarreduraFraudeRepository varreduraFraudeRepository,
+                                  VarreduraFraudeParticaoRepository varreduraFraudeParticaoRepository,
+                                  MarcaResumoRepository marcaResumoRepository,
+                                  ProcedimentoRepository procedimentoRepository,
+                                  SinistroRepository sinistroRepository,
+                                  MotorFraude motorFraude,
+                                  ProcedimentoService procedimentoService,
+                                  SinistroService sinistroService,
+                                  EventoService eventoService,
+                                  ResumoDiarioService resumoDiarioService,
+                                  TaskExecutor taskExecutor,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${clinica.fraude.varredura.particoes:16}") int particoes,
+                                  @Value("${clinica.fraude.varredura.paralelismo:4}") int paralelismo,
+                                  @Value("${clinica.fraude.varredura.tamanho-lote:500}") int tamanhoLote,
+                                  @Value("${clinica.fraude.varredura.batimento-expira-ms:60000}") long batimentoExpiraMs) {
+        this.varreduraFraudeRepository = varreduraFraudeRepository;
+        this.varreduraFraudeParticaoRepository = varreduraFraudeParticaoRepository;
+        this.marcaResumoRepository = marcaResumoRepository;
+        this.procedimentoRepository = procedimentoRepository;
+        this.sinistroRepository = sinistroRepository;
+        this.motorFraude = motorFraude;
+        this.procedimentoService = procedimentoService;
+        this.sinistroService = sinistroService;
+        this.eventoService = eventoService;
+        this.resumoDiarioService = resumoDiarioService;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.particoes = Math.max(1, particoes);
+        this.paralelismo = Math.max(1, paralelismo);
+        this.tamanhoLote = Math.max(1, Math.min(tamanhoLote, TAMANHO_MAXIMO_LOTE));
+        this.batimentoExpiraMs = batimentoExpiraMs;
+    }
+
+    /**
+     * Inicia uma varredura ou retoma a interrompida, em segundo plano.
+     * <p>
+     * Se uma varredura já estiver em execução (nesta ou em outra instância), nada é iniciado.
+     * </p>
+     *
+     * @return Progresso da varredura iniciada, retomada ou em execução.
+     */
+    public VarreduraFraudeDTO iniciar() {
+        Execucao atual = execucao.get();
+        if (atual == null) {
+            Execucao nova = transactionTemplate.execute(status -> preparar());
+            if (nova != null && execucao.compareAndSet(null, nova)) {
+                taskExecutor.execute(() -> executar(nova));
+            } else if (nova != null) {
+                liberar(nova);
+            }
+        }
+        return buscarAtual().orElseThrow();
+    }
+
+    /**
+     * Progresso da varredura mais recente.
+     *
+     * @return {@link Optional} com o progresso, vazio se nenhuma varredura foi iniciada.
+     */
+    @Transactional(readOnly = true)
+    public Optional<VarreduraFraudeDTO> buscarAtual() {
+        return varreduraFraudeRepository.findFirstByOrderByIdDesc().map(varredura -> {
+            List<VarreduraFraudeParticao> faixas = varreduraFraudeParticaoRepository.findByVarreduraIdOrderByNumero(varredura.getId());
+            long processados = faixas.stream().mapToLong(VarreduraFraudeParticao::getProcessados).sum();
+            long alterados = faixas.stream().mapToLong(VarreduraFraudeParticao::getAlterados).sum();
+            double percentual = varredura.getSituacao() == VarreduraFraude.Situacao.CONCLUIDA ? 100.0
+                    : varredura.getTotal() > 0 ? Math.min(100.0, 100.0 * processados / varredura.getTotal()) : 0.0;
+
+            Execucao atual = execucao.get();
+            Double vazao = null;
+            if (atual != null && atual.varreduraId.equals(varredura.getId())) {
+                vazao = atual.vazao();
+            } else if (varredura.getConcluidaEm() != null) {
+                double segundos = Duration.between(varredura.getIniciadaEm(), varredura.getConcluidaEm()).toMillis() / 1000.0;
+                vazao = segundos > 0 ? processados / segundos : null;
+            }
+
+            return new VarreduraFraudeDTO(varredura.getId(), varredura.getSituacao(), ativa(varredura, faixas),
+                    varredura.getTotal(), processados, alterados, percentual, vazao,
+                    varredura.getIniciadaEm(), varredura.getConcluidaEm(),
+                    faixas.stream().map(faixa -> new VarreduraFraudeDTO.Particao(faixa.getNumero(), faixa.getIdInicial(),
+                            faixa.getIdFinal(), faixa.getUltimoId(), faixa.getProcessados(), faixa.getAlterados(),
+                            faixa.isConcluida())).toList());
+        });
+    }
+
+    /**
+     * Retoma a varredura interrompida ou cria uma nova, registrando a execução desta instância.
+     *
+     * @return Execução a iniciar, ou {@code null} se outra execução estiver ativa.
+     */
+    private Execucao preparar() {
+        marcaResumoRepository.travar(MARCA).orElseGet(() -> marcaResumoRepository.save(new MarcaResumo(MARCA, 0L)));
+        LocalDateTime agora = LocalDateTime.now();
+
+        VarreduraFraude varredura = varreduraFraudeRepository.findFirstByOrderByIdDesc()
+                .filter(ultima -> ultima.getSituacao() == VarreduraFraude.Situacao.EM_ANDAMENTO)
+                .orElse(null);
+        if (varredura != null) {
+            List<VarreduraFraudeParticao> faixas = varreduraFraudeParticaoRepository.findByVarreduraIdOrderByNumero(varredura.getId());
+            if (ativa(varredura, faixas)) {
+                return null;
+            }
+            faixas.forEach(faixa -> faixa.setAtualizadaEm(agora));
+        } else {
+            varredura = criar(agora);
+        }
+
+        Execucao nova = new Execucao(varredura.getId());
+        varredura.setExecutor(nova.token);
+        return nova;
+    }
+
+    private VarreduraFraude criar(LocalDateTime agora) {
+        VarreduraFraude varredura = new VarreduraFraude();
+        varredura.setSituacao(VarreduraFraude.Situacao.EM_ANDAMENTO);
+        varredura.setTotal(procedimentoRepository.count());
+        varredura.setIniciadaEm(agora);
+        varredura = varreduraFraudeRepository.save(varredura);
+
+        Long menor = procedimentoRepository.buscarMenorId();
+        Long maior = procedimentoRepository.buscarMaiorId();
+        if (menor != null) {
+            long largura = Math.max(1, (maior - menor + particoes) / particoes);
+            int numero = 0;
+            for (long inicio = menor; inicio <= maior; inicio += largura) {
+                long fim = Math.min(maior, inicio + largura - 1);
+                varreduraFraudeParticaoRepository.save(new VarreduraFraudeParticao(varredura.getId(), ++numero, inicio, fim,
+                        inicio - 1, 0L, 0L, agora));
+            }
+        }
+        return varredura;
+    }
+
+    /**
+     * Processa as partições pendentes no pool e, se todas terminarem, conclui a varredura.
+     */
+    private void executar(Execucao atual) {
+        ForkJoinPool pool = new ForkJoinPool(paralelismo, VarreduraFraudeService::novaThread, null, false);
+        boolean concluida = false;
+        try {
+            Map<String, EstatisticaCusto> custos = estatisticasCusto();
+            List<ForkJoinTask<?>> tarefas = new ArrayList<>();
+            for (VarreduraFraudeParticao faixa : varreduraFraudeParticaoRepository.findByVarreduraIdOrderByNumero(atual.varreduraId)) {
+                if (!faixa.isConcluida()) {
+                    tarefas.add(pool.submit(() -> processarParticao(faixa, custos, atual)));
+                }
+            }
+            // Espera todas as partições, mesmo depois de uma falha, para não liberar a varredura com lotes em andamento
+            boolean falhou = false;
+            for (ForkJoinTask<?> tarefa : tarefas) {
+                try {
+                    tarefa.join();
+                } catch (RuntimeException e) {
+                    falhou = true;
+                }
+            }
+            concluida = !falhou;
+        } finally {
+            pool.shutdown();
+            if (concluida) {
+                concluir(atual);
+            } else {
+                liberar(atual);
+            }
+            execucao.compareAndSet(atual, null);
+        }
+    }
+
+    private void processarParticao(VarreduraFraudeParticao faixa, Map<String, EstatisticaCusto> custos, Execucao atual) {
+        VarreduraFraudeParticao.Chave chave = new VarreduraFraudeParticao.Chave(faixa.getVarreduraId(), faixa.getNumero());
+        long ultimoId = faixa.getUltimoId();
+        while (ultimoId < faixa.getIdFinal()) {
+            Lote lote = null;
+            for (int tentativa = 1; lote == null; tentativa++) {
+                try {
+                    lote = transactionTemplate.execute(status -> processarLote(chave, custos));
+                } catch (OptimisticLockingFailureException e) {
+                    if (tentativa == TENTATIVAS_LOTE) {
+                        throw e;
+                    }
+                }
+            }
+            atual.processados.add(lote.lidos());
+            ultimoId = lote.ultimoId();
+        }
+    }
+
+    /**
+     * Reavalia o próximo lote da partição e grava as alterações junto com o novo ponto de retomada.
+     */
+    private Lote processarLote(VarreduraFraudeParticao.Chave chave, Map<String, EstatisticaCusto> custos) {
+        VarreduraFraudeParticao faixa = varreduraFraudeParticaoRepository.findById(chave).orElseThrow();
+        List<ReavaliacaoFraudeDTO> linhas = procedimentoRepository.buscarParaReavaliacao(faixa.getUltimoId(), faixa.getIdFinal(),
+                motorFraude.getJanelaPacienteDias(), motorFraude.getJanelaDentistaDias(), Limit.of(tamanhoLote));
+
+        Map<Long, ReavaliacaoFraudeDTO> lidas = new HashMap<>();
+        Map<Long, MotorFraude.Pontuacao> alteradas = new LinkedHashMap<>();
+        for (ReavaliacaoFraudeDTO linha : linhas) {
+            if (linha.regrasFraude() != null && linha.regrasFraude().contains(MotorFraude.Regra.MARCACAO_MANUAL.name())) {
+                continue;
+            }
+            MotorFraude.Pontuacao pontuacao = motorFraude.reavaliar(
+                    custos.getOrDefault(linha.tipoProcedimento(), new EstatisticaCusto()),
+                    linha.custo() != null ? linha.custo() : 0.0,
+                    linha.pacienteId() != null ? linha.procedimentosPaciente().doubleValue() : null,
+                    linha.dentistaId() != null ? Objects.requireNonNullElse(linha.faturamentoDentista(), 0.0) : null);
+            if (mudou(linha, pontuacao)) {
+                lidas.put(linha.id(), linha);
+                alteradas.put(linha.id(), pontuacao);
+            }
+        }
+        int gravadas = alteradas.isEmpty() ? 0 : gravar(lidas, alteradas);
+
+        faixa.setUltimoId(linhas.size() < tamanhoLote ? faixa.getIdFinal() : linhas.get(linhas.size() - 1).id());
+        faixa.setProcessados(faixa.getProcessados() + linhas.size());
+        faixa.setAlterados(faixa.getAlterados() + gravadas);
+        faixa.setAtualizadaEm(LocalDateTime.now());
+        return new Lote(linhas.size(), faixa.getUltimoId());
+    }
+
+    /**
+     * Grava as novas pontuações e os eventos; procedimentos alterados por outra transação depois
+     * da leitura são ignorados, pois já foram pontuados na própria alteração.
+     *
+     * @return Quantidade de procedimentos gravados.
+     */
+    private int gravar(Map<Long, ReavaliacaoFraudeDTO> lidas, Map<Long, MotorFraude.Pontuacao> alteradas) {
+        List<Procedimento> gravados = new ArrayList<>(alteradas.size());
+        List<Long> novosRiscos = new ArrayList<>();
+        for (Procedimento procedimento : procedimentoRepository.findAllById(alteradas.keySet())) {
+            if (!procedimento.getVersao().equals(lidas.get(procedimento.getId()).versao())) {
+                continue;
+            }
+            MotorFraude.Pontuacao pontuacao = alteradas.get(procedimento.getId());
+            if (pontuacao.risco() && !procedimento.isRiscoFraude()) {
+                novosRiscos.add(procedimento.getId());
+            }
+            procedimento.setScoreFraude(pontuacao.score());
+            procedimento.setRegrasFraude(pontuacao.regras());
+            procedimento.setRiscoFraude(pontuacao.risco());
+            gravados.add(procedimento);
+        }
+        // Grava antes dos eventos para que levem a nova versão e a data de atualização
+        procedimentoRepository.flush();
+        for (Procedimento procedimento : gravados) {
+            eventoService.registrar(EventoService.PROCEDIMENTO, procedimento.getId(), EventoOutbox.Tipo.ATUALIZADO,
+                    procedimentoService.convertToDTO(procedimento));
+        }
+
+        if (!novosRiscos.isEmpty()) {
+            List<Sinistro> sinistros = sinistroRepository.buscarSemRiscoPorProcedimentos(novosRiscos);
+            sinistros.forEach(sinistro -> sinistro.setRiscoFraude(true));
+            sinistroRepository.flush();
+            for (Sinistro sinistro : sinistros) {
+                eventoService.registrar(EventoService.SINISTRO, sinistro.getId(), EventoOutbox.Tipo.ATUALIZADO,
+                        sinistroService.convertToDTO(sinistro));
+            }
+        }
+        return gravados.size();
+    }
+
+    private void concluir(Execucao atual) {
+        transactionTemplate.executeWithoutResult(status -> varreduraFraudeRepository.findById(atual.varreduraId)
+                .ifPresent(varredura -> {
+                    varredura.setSituacao(VarreduraFraude.Situacao.CONCLUIDA);
+                    varredura.setConcluidaEm(LocalDateTime.now());
+                    varredura.setExecutor(null);
+                }));
+        resumoDiarioService.reconstruir();
+    }
+
+    private void liberar(Execucao atual) {
+        transactionTemplate.executeWithoutResult(status -> varreduraFraudeRepository.findById(atual.varreduraId)
+                .filter(varredura -> atual.token.equals(varredura.getExecutor()))
+                .ifPresent(varredura -> varredura.setExecutor(null)));
+    }
+
+    /**
+     * Uma varredura está ativa se tem executor e alguma partição gravou um lote dentro do prazo do batimento.
+     */
+    private boolean ativa(VarreduraFraude varredura, List<VarreduraFraudeParticao> faixas) {
+        if (varredura.getExecutor() == null) {
+            return false;
+        }
+        LocalDateTime limite = LocalDateTime.now().minusNanos(batimentoExpiraMs * 1_000_000);
+        return faixas.stream().anyMatch(faixa -> faixa.getAtualizadaEm().isAfter(limite));
+    }
+
+    private Map<String, EstatisticaCusto> estatisticasCusto() {
+        Map<String, EstatisticaCusto> custos = new HashMap<>();
+        for (Object[] linha : procedimentoRepository.agregarCustosPorTipo()) {
+            custos.put((String) linha[0], EstatisticaCusto.de(
+                    ((Number) linha[1]).longValue(), ((Number) linha[2]).doubleValue(), ((Number) linha[3]).doubleValue()));
+        }
+        return custos;
+    }
+
+    private static boolean mudou(ReavaliacaoFraudeDTO linha, MotorFraude.Pontuacao pontuacao) {
+        return linha.riscoFraude() != pontuacao.risco()
+                || !Objects.equals(linha.regrasFraude(), pontuacao.regras())
+                || linha.scoreFraude() == null
+                || Math.abs(linha.scoreFraude() - pontuacao.score()) > 1e-9;
+    }
+
+    /**
+     * Threads nomeadas e com o class loader da aplicação, que o padrão do {@link ForkJoinPool} não garante.
+     */
+    private static ForkJoinWorkerThread novaThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("varredura-fraude-" + thread.getPoolIndex());
+        thread.setContextClassLoader(VarreduraFraudeService.class.getClassLoader());
+        return thread;
+    }
+
+    /**
+     * Resultado de um lote: procedimentos lidos e novo ponto de retomada da partição.
+     */
+    private record Lote(int lidos, long ultimoId) {
+    }
+}
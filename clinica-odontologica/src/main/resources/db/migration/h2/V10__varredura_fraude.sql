@@ -0,0 +1,26 @@
+-- Reavaliação em massa da pontuação de fraude. Mesmo conteúdo de db/migration/oracle/V10__varredura_fraude.sql.
+
+create sequence varredura_fraude_seq start with 1 increment by 50;
+
+create table varredura_fraude (
+    id           bigint       not null,
+    situacao     varchar(20)  not null,
+    total        bigint       not null,
+    executor     varchar(36),
+    iniciada_em  timestamp(6) not null,
+    concluida_em timestamp(6),
+    constraint pk_varredura_fraude primary key (id)
+);
+
+create table varredura_fraude_particao (
+    varredura_id  bigint       not null,
+    numero        integer      not null,
+    id_inicial    bigint       not null,
+    id_final      bigint       not null,
+    ultimo_id     bigint       not null,
+    processados   bigint       not null,
+    alterados     bigint       not null,
+    atualizada_em timestamp(6) not null,
+    constraint pk_varredura_fraude_particao primary key (varredura_id, numero),
+    constraint fk_varredura_fraude_particao foreign key (varredura_id) references varredura_fraude (id)
+);
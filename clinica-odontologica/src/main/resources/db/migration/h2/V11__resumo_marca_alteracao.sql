@@ -0,0 +1,5 @@
+-- Marca d'água dos resumos diários pelo instante da última alteração (atualizado_em, já indexado
+-- no V5), em vez do maior ID: IDs de sequência reservados em blocos são confirmados fora de ordem.
+-- Linhas existentes ficam sem instante e provocam uma reconstrução completa na primeira atualização.
+
+alter table resumo_marca add column ultima_alteracao timestamp(6);
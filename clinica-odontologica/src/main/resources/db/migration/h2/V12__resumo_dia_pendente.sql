@@ -0,0 +1,8 @@
+-- Dias a recalcular nos resumos diários. Mesmo conteúdo de db/migration/oracle/V12__resumo_dia_pendente.sql.
+
+create table resumo_dia_pendente (
+    tabela varchar(30) not null,
+    dia    date        not null
+);
+
+create index idx_resumo_dia_pendente on resumo_dia_pendente (tabela, dia);
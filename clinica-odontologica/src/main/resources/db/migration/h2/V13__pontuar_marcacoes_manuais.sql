@@ -0,0 +1,10 @@
+-- Pontuação máxima para as marcações manuais anteriores à pontuação. Mesmo conteúdo de
+-- db/migration/oracle/V13__pontuar_marcacoes_manuais.sql.
+
+update procedimento
+   set score_fraude = 1.0,
+       regras_fraude = 'MARCACAO_MANUAL',
+       versao = versao + 1,
+       atualizado_em = localtimestamp
+ where score_fraude is null
+   and risco_fraude = true;
@@ -0,0 +1,73 @@
+-- Esquema equivalente ao gerado pelo Hibernate (ddl-auto=update) até a adoção do Flyway,
+-- com os tipos do H2. Mantido em paralelo a db/migration/oracle.
+
+create sequence dentista_seq start with 1 increment by 50;
+create sequence diagnostico_seq start with 1 increment by 50;
+create sequence paciente_seq start with 1 increment by 50;
+create sequence procedimento_seq start with 1 increment by 50;
+create sequence sinistro_seq start with 1 increment by 50;
+
+create table dentista (
+    id             bigint       not null,
+    nome           varchar(100) not null,
+    numero_licenca varchar(255) not null,
+    ativo          boolean      not null,
+    constraint pk_dentista primary key (id),
+    constraint uk_dentista_numero_licenca unique (numero_licenca)
+);
+
+create table paciente (
+    id                 bigint       not null,
+    nome               varchar(100) not null,
+    cpf                varchar(255) not null,
+    idade              integer      not null,
+    ativo              boolean,
+    plano_odontologico varchar(255),
+    constraint pk_paciente primary key (id),
+    constraint uk_paciente_cpf unique (cpf)
+);
+
+create table diagnostico (
+    id               bigint       not null,
+    tipo_diagnostico varchar(255) not null,
+    data_diagnostico date         not null,
+    descricao        varchar(255) not null,
+    paciente_id      bigint       not null,
+    constraint pk_diagnostico primary key (id),
+    constraint fk_diagnostico_paciente foreign key (paciente_id) references paciente (id)
+);
+
+create table procedimento (
+    id                bigint           not null,
+    tipo_procedimento varchar(255)     not null,
+    data_procedimento date             not null,
+    custo             double precision not null,
+    paciente_id       bigint           not null,
+    dentista_id       bigint           not null,
+    sinistro_id       bigint,
+    risco_fraude      boolean          not null,
+    score_fraude      double precision,
+    regras_fraude     varchar(255),
+    constraint pk_procedimento primary key (id),
+    constraint fk_procedimento_paciente foreign key (paciente_id) references paciente (id),
+    constraint fk_procedimento_dentista foreign key (dentista_id) references dentista (id)
+);
+
+create table sinistro (
+    id              bigint       not null,
+    tipo_sinistro   varchar(255),
+    descricao       varchar(255),
+    data_sinistro   date,
+    procedimento_id bigint,
+    dentista_id     bigint,
+    paciente_id     bigint,
+    risco_fraude    boolean      not null,
+    constraint pk_sinistro primary key (id),
+    constraint fk_sinistro_procedimento foreign key (procedimento_id) references procedimento (id),
+    constraint fk_sinistro_dentista foreign key (dentista_id) references dentista (id),
+    constraint fk_sinistro_paciente foreign key (paciente_id) references paciente (id)
+);
+
+alter table procedimento add constraint fk_procedimento_sinistro foreign key (sinistro_id) references sinistro (id);
+
+create index idx_procedimento_score_fraude on procedimento (score_fraude);
@@ -0,0 +1,26 @@
+-- Resumos diários para os relatórios. Mesmo conteúdo de db/migration/oracle/V3__resumos_diarios.sql.
+
+create table resumo_procedimento_dia (
+    dia               date             not null,
+    dentista_id       bigint           not null,
+    tipo_procedimento varchar(255)     not null,
+    quantidade        bigint           not null,
+    custo_total       double precision not null,
+    suspeitos         bigint           not null,
+    constraint pk_resumo_procedimento_dia primary key (dia, dentista_id, tipo_procedimento)
+);
+
+create table resumo_sinistro_dia (
+    dia                date         not null,
+    plano_odontologico varchar(255) not null,
+    tipo_sinistro      varchar(255) not null,
+    quantidade         bigint       not null,
+    com_risco          bigint       not null,
+    constraint pk_resumo_sinistro_dia primary key (dia, plano_odontologico, tipo_sinistro)
+);
+
+create table resumo_marca (
+    tabela    varchar(30) not null,
+    ultimo_id bigint      not null,
+    constraint pk_resumo_marca primary key (tabela)
+);
@@ -0,0 +1,19 @@
+-- Outbox de eventos de procedimentos e sinistros, gravado na mesma transação da alteração.
+-- A posição é atribuída pelo publicador (EventoService) na ordem de confirmação e é o
+-- deslocamento usado pelos consumidores de /eventos (Last-Event-ID).
+
+create sequence evento_outbox_seq start with 1 increment by 50;
+
+create table evento_outbox (
+    id          bigint       not null,
+    agregado    varchar(30)  not null,
+    agregado_id bigint       not null,
+    tipo        varchar(20)  not null,
+    dados       clob         not null,
+    criado_em   timestamp(6) not null,
+    posicao     bigint,
+    constraint pk_evento_outbox primary key (id)
+);
+
+-- Atende tanto os pendentes (posicao nula, por id) quanto a leitura a partir de uma posição.
+create index idx_evento_outbox_posicao on evento_outbox (posicao, id);
@@ -0,0 +1,5 @@
+-- Linha do tempo do paciente (GET /pacientes/{id}/linha-do-tempo): procedimentos de um paciente
+-- percorridos por data e ID decrescentes. Diagnósticos e sinistros já têm (paciente_id, data).
+-- No Oracle o índice só por paciente_id é removido; no H2 ele sustenta a chave estrangeira e fica.
+
+create index idx_procedimento_paciente_data on procedimento (paciente_id, data_procedimento, id);
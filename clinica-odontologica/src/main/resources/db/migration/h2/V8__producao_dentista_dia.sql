@@ -0,0 +1,14 @@
+-- Produção diária de cada dentista. Mesmo conteúdo de db/migration/oracle/V8__producao_dentista_dia.sql.
+
+create table producao_dentista_dia (
+    dentista_id bigint           not null,
+    dia         date             not null,
+    quantidade  bigint           not null,
+    custo_total double precision not null,
+    constraint pk_producao_dentista_dia primary key (dentista_id, dia)
+);
+
+insert into producao_dentista_dia (dentista_id, dia, quantidade, custo_total)
+select dentista_id, data_procedimento, count(*), sum(custo)
+  from procedimento
+ group by dentista_id, data_procedimento;
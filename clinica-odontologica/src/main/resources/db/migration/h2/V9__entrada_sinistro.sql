@@ -0,0 +1,22 @@
+-- Fila de entrada assíncrona de sinistros. Mesmo conteúdo de db/migration/oracle/V9__entrada_sinistro.sql.
+
+create sequence entrada_sinistro_seq start with 1 increment by 50;
+
+create table entrada_sinistro (
+    id            bigint        not null,
+    rastreio      varchar(36)   not null,
+    dados         clob          not null,
+    situacao      varchar(20)   not null,
+    token         varchar(36),
+    reservada_em  timestamp(6),
+    tentativas    integer       not null,
+    sinistro_id   bigint,
+    erro          varchar(1000),
+    recebida_em   timestamp(6)  not null,
+    processada_em timestamp(6),
+    constraint pk_entrada_sinistro primary key (id),
+    constraint uk_entrada_sinistro_rastreio unique (rastreio)
+);
+
+create index idx_entrada_sinistro_situacao on entrada_sinistro (situacao, id);
+create index idx_entrada_sinistro_token on entrada_sinistro (token);
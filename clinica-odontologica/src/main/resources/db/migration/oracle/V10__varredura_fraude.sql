@@ -0,0 +1,30 @@
+-- Reavaliação em massa da pontuação de fraude (POST /admin/fraude/varredura). A tabela de
+-- procedimentos é dividida em faixas de ID (partições), processadas em paralelo por
+-- VarreduraFraudeService; cada partição grava em ultimo_id o maior ID já reavaliado, na mesma
+-- transação das alterações, e é retomada desse ponto se a varredura for interrompida. executor
+-- identifica a execução em andamento; o atualizada_em mais recente das partições é o batimento dela.
+
+create sequence varredura_fraude_seq start with 1 increment by 50;
+
+create table varredura_fraude (
+    id           number(19,0)      not null,
+    situacao     varchar2(20 char) not null,
+    total        number(19,0)      not null,
+    executor     varchar2(36 char),
+    iniciada_em  timestamp(6)      not null,
+    concluida_em timestamp(6),
+    constraint pk_varredura_fraude primary key (id)
+);
+
+create table varredura_fraude_particao (
+    varredura_id  number(19,0) not null,
+    numero        number(10,0) not null,
+    id_inicial    number(19,0) not null,
+    id_final      number(19,0) not null,
+    ultimo_id     number(19,0) not null,
+    processados   number(19,0) not null,
+    alterados     number(19,0) not null,
+    atualizada_em timestamp(6) not null,
+    constraint pk_varredura_fraude_particao primary key (varredura_id, numero),
+    constraint fk_varredura_fraude_particao foreign key (varredura_id) references varredura_fraude (id)
+);
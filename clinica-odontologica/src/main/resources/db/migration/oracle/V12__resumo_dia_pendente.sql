@@ -0,0 +1,12 @@
+-- Dias a recalcular nos resumos diários que a marca d'água por atualizado_em não encontra: a data
+-- anterior de um procedimento ou sinistro que mudou de data, a data de um registro excluído e as
+-- datas dos sinistros de um paciente que trocou de plano. Gravados por ResumoDiarioService na mesma
+-- transação da alteração e consumidos (excluídos) na atualização seguinte. Sem chave única, para que
+-- transações concorrentes não disputem a mesma linha; a atualização lê os dias distintos.
+
+create table resumo_dia_pendente (
+    tabela varchar2(30 char) not null,
+    dia    date              not null
+);
+
+create index idx_resumo_dia_pendente on resumo_dia_pendente (tabela, dia);
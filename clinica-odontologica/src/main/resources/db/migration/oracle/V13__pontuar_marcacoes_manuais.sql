@@ -0,0 +1,11 @@
+-- Pontuação máxima para os procedimentos marcados manualmente como suspeitos antes da existência
+-- da pontuação, para que continuem entre os suspeitos. Feito uma única vez aqui, em vez de a cada
+-- subida de cada instância (MotorFraude): procedimentos novos já são gravados com pontuação.
+
+update procedimento
+   set score_fraude = 1.0,
+       regras_fraude = 'MARCACAO_MANUAL',
+       versao = versao + 1,
+       atualizado_em = localtimestamp
+ where score_fraude is null
+   and risco_fraude = 1;
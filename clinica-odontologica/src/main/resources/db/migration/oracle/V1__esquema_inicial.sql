@@ -0,0 +1,74 @@
+-- Esquema equivalente ao gerado pelo Hibernate (ddl-auto=update) até a adoção do Flyway.
+-- Bancos já existentes são marcados nesta versão (spring.flyway.baseline-on-migrate) e
+-- recebem apenas as migrações seguintes.
+
+create sequence dentista_seq start with 1 increment by 50;
+create sequence diagnostico_seq start with 1 increment by 50;
+create sequence paciente_seq start with 1 increment by 50;
+create sequence procedimento_seq start with 1 increment by 50;
+create sequence sinistro_seq start with 1 increment by 50;
+
+create table dentista (
+    id             number(19,0)       not null,
+    nome           varchar2(100 char) not null,
+    numero_licenca varchar2(255 char) not null,
+    ativo          number(1,0)        not null,
+    constraint pk_dentista primary key (id),
+    constraint uk_dentista_numero_licenca unique (numero_licenca)
+);
+
+create table paciente (
+    id                 number(19,0)       not null,
+    nome               varchar2(100 char) not null,
+    cpf                varchar2(255 char) not null,
+    idade              number(10,0)       not null,
+    ativo              number(1,0),
+    plano_odontologico varchar2(255 char),
+    constraint pk_paciente primary key (id),
+    constraint uk_paciente_cpf unique (cpf)
+);
+
+create table diagnostico (
+    id               number(19,0)       not null,
+    tipo_diagnostico varchar2(255 char) not null,
+    data_diagnostico date               not null,
+    descricao        varchar2(255 char) not null,
+    paciente_id      number(19,0)       not null,
+    constraint pk_diagnostico primary key (id),
+    constraint fk_diagnostico_paciente foreign key (paciente_id) references paciente (id)
+);
+
+create table procedimento (
+    id                number(19,0)       not null,
+    tipo_procedimento varchar2(255 char) not null,
+    data_procedimento date               not null,
+    custo             float(53)          not null,
+    paciente_id       number(19,0)       not null,
+    dentista_id       number(19,0)       not null,
+    sinistro_id       number(19,0),
+    risco_fraude      number(1,0)        not null,
+    score_fraude      float(53),
+    regras_fraude     varchar2(255 char),
+    constraint pk_procedimento primary key (id),
+    constraint fk_procedimento_paciente foreign key (paciente_id) references paciente (id),
+    constraint fk_procedimento_dentista foreign key (dentista_id) references dentista (id)
+);
+
+create table sinistro (
+    id              number(19,0)       not null,
+    tipo_sinistro   varchar2(255 char),
+    descricao       varchar2(255 char),
+    data_sinistro   date,
+    procedimento_id number(19,0),
+    dentista_id     number(19,0),
+    paciente_id     number(19,0),
+    risco_fraude    number(1,0)        not null,
+    constraint pk_sinistro primary key (id),
+    constraint fk_sinistro_procedimento foreign key (procedimento_id) references procedimento (id),
+    constraint fk_sinistro_dentista foreign key (dentista_id) references dentista (id),
+    constraint fk_sinistro_paciente foreign key (paciente_id) references paciente (id)
+);
+
+alter table procedimento add constraint fk_procedimento_sinistro foreign key (sinistro_id) references sinistro (id);
+
+create index idx_procedimento_score_fraude on procedimento (score_fraude);
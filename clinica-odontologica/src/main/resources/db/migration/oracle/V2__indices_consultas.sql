@@ -0,0 +1,40 @@
+-- Índices para as consultas dos repositórios e para as chaves estrangeiras.
+-- No Oracle, uma chave estrangeira sem índice também bloqueia a tabela filha inteira
+-- quando a linha pai é removida ou tem a chave alterada.
+
+-- procedimento
+-- findProcedimentosBeforeDate, contarPorPacienteEDia e somarCustosPorDentistaEDia
+-- (as duas últimas lidas apenas do índice)
+create index idx_procedimento_data on procedimento (data_procedimento, paciente_id, dentista_id, custo);
+-- findByTipoProcedimento e agregarCustosPorTipo (lida apenas do índice)
+create index idx_procedimento_tipo_custo on procedimento (tipo_procedimento, custo);
+-- listarFraudesComoDTO (limiar de score_fraude) usa idx_procedimento_score_fraude, do V1
+-- findByCustoGreaterThan
+create index idx_procedimento_custo on procedimento (custo);
+create index idx_procedimento_paciente on procedimento (paciente_id);
+create index idx_procedimento_dentista on procedimento (dentista_id);
+create index idx_procedimento_sinistro on procedimento (sinistro_id);
+
+-- diagnostico
+-- findDiagnosticosAfterDate e findDiagnosticosBetweenDates
+create index idx_diagnostico_data on diagnostico (data_diagnostico);
+-- findByPacienteId (e chave estrangeira)
+create index idx_diagnostico_paciente_data on diagnostico (paciente_id, data_diagnostico);
+
+-- sinistro
+-- findSinistrosBeforeDate
+create index idx_sinistro_data on sinistro (data_sinistro);
+-- listarSinistrosComFraude
+create index idx_sinistro_risco_fraude on sinistro (risco_fraude);
+-- findByPacienteId, findByDentistaId (e chaves estrangeiras)
+create index idx_sinistro_paciente on sinistro (paciente_id, data_sinistro);
+create index idx_sinistro_dentista on sinistro (dentista_id, data_sinistro);
+create index idx_sinistro_procedimento on sinistro (procedimento_id);
+
+-- paciente
+-- findByPlanoOdontologico
+create index idx_paciente_plano on paciente (plano_odontologico);
+-- findPacientesOlderThan
+create index idx_paciente_idade on paciente (idade);
+-- findByAtivoTrueAndIdGreaterThanOrderByIdAsc (paginação keyset dos ativos)
+create index idx_paciente_ativo_id on paciente (ativo, id);
@@ -0,0 +1,28 @@
+-- Resumos diários para os relatórios, mantidos por ResumoDiarioService a partir da marca
+-- (maior ID já processado) de cada tabela de origem.
+
+create table resumo_procedimento_dia (
+    dia               date               not null,
+    dentista_id       number(19,0)       not null,
+    tipo_procedimento varchar2(255 char) not null,
+    quantidade        number(19,0)       not null,
+    custo_total       float(53)          not null,
+    suspeitos         number(19,0)       not null,
+    constraint pk_resumo_procedimento_dia primary key (dia, dentista_id, tipo_procedimento)
+);
+
+-- Plano e tipo ausentes são gravados como '-', pois fazem parte da chave.
+create table resumo_sinistro_dia (
+    dia                date               not null,
+    plano_odontologico varchar2(255 char) not null,
+    tipo_sinistro      varchar2(255 char) not null,
+    quantidade         number(19,0)       not null,
+    com_risco          number(19,0)       not null,
+    constraint pk_resumo_sinistro_dia primary key (dia, plano_odontologico, tipo_sinistro)
+);
+
+create table resumo_marca (
+    tabela    varchar2(30 char) not null,
+    ultimo_id number(19,0)      not null,
+    constraint pk_resumo_marca primary key (tabela)
+);
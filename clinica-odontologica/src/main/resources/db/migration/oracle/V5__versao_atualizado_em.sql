@@ -0,0 +1,33 @@
+-- Versão (@Version) e instante da última alteração (@UpdateTimestamp) em todas as entidades,
+-- usados nos ETag/Last-Modified da API. As linhas existentes começam na versão 0.
+-- O índice em atualizado_em responde ao MAX usado no ETag das listagens sem ler a tabela.
+
+alter table dentista add (
+    versao        number(19,0) default 0 not null,
+    atualizado_em timestamp(6) default localtimestamp not null
+);
+create index idx_dentista_atualizado_em on dentista (atualizado_em);
+
+alter table paciente add (
+    versao        number(19,0) default 0 not null,
+    atualizado_em timestamp(6) default localtimestamp not null
+);
+create index idx_paciente_atualizado_em on paciente (atualizado_em);
+
+alter table diagnostico add (
+    versao        number(19,0) default 0 not null,
+    atualizado_em timestamp(6) default localtimestamp not null
+);
+create index idx_diagnostico_atualizado_em on diagnostico (atualizado_em);
+
+alter table procedimento add (
+    versao        number(19,0) default 0 not null,
+    atualizado_em timestamp(6) default localtimestamp not null
+);
+create index idx_procedimento_atualizado_em on procedimento (atualizado_em);
+
+alter table sinistro add (
+    versao        number(19,0) default 0 not null,
+    atualizado_em timestamp(6) default localtimestamp not null
+);
+create index idx_sinistro_atualizado_em on sinistro (atualizado_em);
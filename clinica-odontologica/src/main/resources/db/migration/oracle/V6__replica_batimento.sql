@@ -0,0 +1,11 @@
+-- Batimento gravado periodicamente no primário pelo MonitorReplica e lido na réplica de leitura:
+-- a diferença entre o instante atual e o último batimento replicado é o atraso da réplica.
+-- Uma única linha, com o instante em milissegundos desde a época (relógio da aplicação).
+
+create table replica_batimento (
+    id               number(1,0)  not null,
+    registrado_em_ms number(19,0) not null,
+    constraint pk_replica_batimento primary key (id)
+);
+
+insert into replica_batimento (id, registrado_em_ms) values (1, 0);
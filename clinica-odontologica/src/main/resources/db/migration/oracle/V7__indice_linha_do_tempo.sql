@@ -0,0 +1,6 @@
+-- Linha do tempo do paciente (GET /pacientes/{id}/linha-do-tempo): procedimentos de um paciente
+-- percorridos por data e ID decrescentes. Diagnósticos e sinistros já têm (paciente_id, data).
+-- O índice só por paciente_id passa a ser prefixo deste e é removido.
+
+drop index idx_procedimento_paciente;
+create index idx_procedimento_paciente_data on procedimento (paciente_id, data_procedimento, id);
@@ -0,0 +1,17 @@
+-- Produção diária de cada dentista (GET /dentistas/{id}/producao): quantidade e soma dos custos
+-- dos procedimentos por dia. Mantida por ProducaoDentistaService, na mesma transação de cada
+-- inclusão, alteração e exclusão de procedimento; a chave começa pelo dentista para que o
+-- período de um dentista seja lido pelo índice da chave primária.
+
+create table producao_dentista_dia (
+    dentista_id number(19,0) not null,
+    dia         date         not null,
+    quantidade  number(19,0) not null,
+    custo_total float(53)    not null,
+    constraint pk_producao_dentista_dia primary key (dentista_id, dia)
+);
+
+insert into producao_dentista_dia (dentista_id, dia, quantidade, custo_total)
+select dentista_id, data_procedimento, count(*), sum(custo)
+  from procedimento
+ group by dentista_id, data_procedimento;
@@ -0,0 +1,25 @@
+-- Fila de entrada assíncrona de sinistros (POST /sinistros/intake): cada linha guarda o sinistro
+-- recebido em JSON até um trabalhador de EntradaSinistroService reservá-la (token e instante da
+-- reserva), gravar o sinistro e registrar o resultado, consultado pelo rastreio.
+
+create sequence entrada_sinistro_seq start with 1 increment by 50;
+
+create table entrada_sinistro (
+    id            number(19,0)       not null,
+    rastreio      varchar2(36 char)  not null,
+    dados         clob               not null,
+    situacao      varchar2(20 char)  not null,
+    token         varchar2(36 char),
+    reservada_em  timestamp(6),
+    tentativas    number(10,0)       not null,
+    sinistro_id   number(19,0),
+    erro          varchar2(1000 char),
+    recebida_em   timestamp(6)       not null,
+    processada_em timestamp(6),
+    constraint pk_entrada_sinistro primary key (id),
+    constraint uk_entrada_sinistro_rastreio unique (rastreio)
+);
+
+-- Pendentes por ordem de chegada, reservas expiradas e contagem da fila em aberto.
+create index idx_entrada_sinistro_situacao on entrada_sinistro (situacao, id);
+create index idx_entrada_sinistro_token on entrada_sinistro (token);
@@ -0,0 +1,161 @@
+package com.odontovision.clinica_odontologica;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica o bloqueio otimista das atualizações: {@code If-Match} desatualizado responde 412 e
+ * gravações concorrentes sobre a mesma versão respondem 409 em vez de sobrescrever umas às outras.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "clinica.agendamento.habilitado=false")
+class BloqueioOtimistaTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    private Long pacienteId;
+    private Long dentistaId;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+        PacienteDTO paciente = new PacienteDTO();
+        paciente.setNome("Paciente Otimista " + n);
+        paciente.setCpf("920.000.000-" + String.format("%02d", n));
+        paciente.setIdade(50);
+        paciente.setPlanoOdontologico("Plano Ouro");
+        pacienteId = pacienteService.salvarPaciente(paciente).getId();
+
+        DentistaDTO dentista = new DentistaDTO();
+        dentista.setNome("Dentista Otimista " + n);
+        dentista.setNumeroLicenca(String.format("CRO7%04d", n));
+        dentistaId = dentistaService.salvarDentista(dentista).getId();
+    }
+
+    @Test
+    void ifMatchDesatualizadoRespondePreconditionFailed() throws Exception {
+        ProcedimentoDTO procedimento = procedimentoService.salvarProcedimento(procedimento(100.0));
+        String etagLido = "\"" + procedimento.getId() + "-0\"";
+
+        HttpResponse<String> primeira = put(procedimento.getId(), procedimento(120.0), etagLido);
+        assertThat(primeira.statusCode()).isEqualTo(200);
+        assertThat(primeira.headers().firstValue("ETag")).contains("\"" + procedimento.getId() + "-1\"");
+
+        HttpResponse<String> obsoleta = put(procedimento.getId(), procedimento(130.0), etagLido);
+        assertThat(obsoleta.statusCode()).isEqualTo(412);
+        assertThat(put(procedimento.getId(), procedimento(130.0), "\"999999-1\"").statusCode()).isEqualTo(412);
+        assertThat(procedimentoService.buscarPorId(procedimento.getId()).orElseThrow().getCusto()).isEqualTo(120.0);
+
+        assertThat(put(procedimento.getId(), procedimento(140.0), null).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void gravacoesConcorrentesNaoSobrescrevemUmasAsOutras() throws Exception {
+        ProcedimentoDTO procedimento = procedimentoService.salvarProcedimento(procedimento(100.0));
+        int escritores = 8;
+        CountDownLatch largada = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> respostas = new ArrayList<>();
+        for (int i = 0; i < escritores; i++) {
+            double custo = 200.0 + i;
+            respostas.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    largada.await();
+                    return put(procedimento.getId(), procedimento(custo), null).statusCode();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        largada.countDown();
+
+        List<Integer> status = respostas.stream().map(CompletableFuture::join).toList();
+        assertThat(status).allMatch(codigo -> codigo == 200 || codigo == 409);
+        long aceitas = status.stream().filter(codigo -> codigo == 200).count();
+        assertThat(aceitas).isPositive();
+        // Cada atualização aceita incrementou a versão exatamente uma vez
+        assertThat(procedimentoService.buscarPorId(procedimento.getId()).orElseThrow().getVersao()).isEqualTo(aceitas);
+    }
+
+    @Test
+    void copiaObsoletaDoRegistroNaoEhGravada() {
+        Paciente primeira = pacienteRepository.findById(pacienteId).orElseThrow();
+        Paciente segunda = pacienteRepository.findById(pacienteId).orElseThrow();
+
+        primeira.setIdade(51);
+        pacienteRepository.save(primeira);
+
+        segunda.setIdade(52);
+        assertThatThrownBy(() -> pacienteRepository.save(segunda))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(pacienteRepository.findById(pacienteId).orElseThrow().getIdade()).isEqualTo(51);
+    }
+
+    private HttpResponse<String> put(Long id, ProcedimentoDTO corpo, String ifMatch) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/procedimentos/" + id))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(corpo)));
+        if (ifMatch != null) {
+            requisicao.header("If-Match", ifMatch);
+        }
+        return cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private ProcedimentoDTO procedimento(double custo) {
+        ProcedimentoDTO procedimento = new ProcedimentoDTO();
+        procedimento.setTipoProcedimento("Canal");
+        procedimento.setDataProcedimento(LocalDate.of(2024, 7, 15));
+        procedimento.setCusto(custo);
+        procedimento.setPacienteId(pacienteId);
+        procedimento.setDentistaId(dentistaId);
+        return procedimento;
+    }
+}
@@ -0,0 +1,163 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ResumoDiarioService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica a busca de pacientes por nome no índice em memória e o recurso ao banco antes da carga.
+ * <p>
+ * O repositório é simulado e a carga do índice roda na própria thread do teste.
+ * </p>
+ */
+class BuscaPorNomeTest {
+
+    private PacienteRepository pacienteRepository;
+    private List<Runnable> tarefas;
+    private PacienteService pacienteService;
+
+    @BeforeEach
+    void setUp() {
+        pacienteRepository = mock(PacienteRepository.class);
+        tarefas = new ArrayList<>();
+        pacienteService = new PacienteService(pacienteRepository, mock(EntityManager.class), tarefas::add,
+                mock(TransactionTemplate.class), mock(CacheManager.class), mock(ResumoDiarioService.class), 1000);
+
+        List<Paciente> ativos = List.of(
+                paciente(1L, "João da Silva"),
+                paciente(2L, "Maria Conceição Souza"),
+                paciente(3L, "Joana Araújo"),
+                paciente(4L, "Ana Beatriz Silveira"),
+                paciente(5L, "Sebastião Jorge"));
+        when(pacienteRepository.findByAtivoTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(ativos, List.of());
+    }
+
+    @Test
+    void ignoraAcentosEMaiusculas() {
+        carregarIndice();
+
+        assertThat(nomes("JOAO")).containsExactly("João da Silva");
+        assertThat(nomes("conceicao")).containsExactly("Maria Conceição Souza");
+    }
+
+    @Test
+    void termosCurtosCasamComoInicioDePalavraEOrdenamPorRelevancia() {
+        carregarIndice();
+
+        assertThat(nomes("jo")).containsExactly("Joana Araújo", "João da Silva", "Sebastião Jorge");
+        assertThat(nomes("ilv")).containsExactly("Ana Beatriz Silveira", "João da Silva");
+        assertThat(nomes("silva jo")).containsExactly("João da Silva");
+        assertThat(pacienteService.buscarPorNome("jo", 2)).hasSize(2);
+    }
+
+    @Test
+    void criacaoAtualizacaoEDesativacaoAtualizamOIndice() {
+        carregarIndice();
+        when(pacienteRepository.saveAndFlush(any(Paciente.class))).thenAnswer(invocacao -> {
+            Paciente salvo = invocacao.getArgument(0);
+            if (salvo.getId() == null) {
+                salvo.setId(6L);
+            }
+            return salvo;
+        });
+
+        pacienteService.salvarPaciente(new PacienteDTO(null, "Otávio Mesquita", "123.456.789-00", 40, "Plano Ouro", true, null, null));
+        assertThat(nomes("otav")).containsExactly("Otávio Mesquita");
+
+        Paciente joao = paciente(1L, "João da Silva");
+        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(joao));
+        pacienteService.atualizarPaciente(1L, new PacienteDTO(1L, "João Pedro Silva", "111.111.111-11", 30, "Plano Prata", true, null, null));
+        assertThat(nomes("pedro")).containsExactly("João Pedro Silva");
+        assertThat(nomes("da silva")).isEmpty();
+
+        pacienteService.desativarPaciente(1L);
+        assertThat(nomes("joao")).isEmpty();
+    }
+
+    @Test
+    void escritaSoChegaAoIndiceDepoisDoCommit() {
+        carregarIndice();
+        when(pacienteRepository.saveAndFlush(any(Paciente.class))).thenAnswer(invocacao -> {
+            Paciente salvo = invocacao.getArgument(0);
+            salvo.setId(7L);
+            return salvo;
+        });
+
+        List<TransactionSynchronization> desfeita = emTransacao(() -> pacienteService.salvarPaciente(
+                new PacienteDTO(null, "Otávio Mesquita", "123.456.789-00", 40, "Plano Ouro", true, null, null)));
+        assertThat(nomes("otav")).isEmpty();
+        desfeita.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(nomes("otav")).isEmpty();
+
+        List<TransactionSynchronization> confirmada = emTransacao(() -> pacienteService.salvarPaciente(
+                new PacienteDTO(null, "Otávio Mesquita", "123.456.789-00", 40, "Plano Ouro", true, null, null)));
+        assertThat(nomes("otav")).isEmpty();
+        confirmada.forEach(TransactionSynchronization::afterCommit);
+        assertThat(nomes("otav")).containsExactly("Otávio Mesquita");
+    }
+
+    @Test
+    void antesDaCargaRecorreAoBanco() {
+        when(pacienteRepository.findByNomeContaining("Silva")).thenReturn(List.of(paciente(1L, "João da Silva")));
+
+        assertThat(nomes("Silva")).containsExactly("João da Silva");
+
+        carregarIndice();
+        nomes("Silva");
+        verify(pacienteRepository).findByNomeContaining("Silva");
+    }
+
+    /**
+     * Executa a ação com a sincronização de transação ativa e devolve as sincronizações registradas.
+     */
+    private static List<TransactionSynchronization> emTransacao(Runnable acao) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            acao.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void carregarIndice() {
+        pacienteService.afterSingletonsInstantiated();
+        tarefas.forEach(Runnable::run);
+    }
+
+    private List<String> nomes(String consulta) {
+        return pacienteService.buscarPorNome(consulta, 20).stream().map(PacienteDTO::getNome).toList();
+    }
+
+    private static Paciente paciente(Long id, String nome) {
+        Paciente paciente = new Paciente();
+        paciente.setId(id);
+        paciente.setNome(nome);
+        paciente.setCpf(String.format("%03d.000.000-00", id));
+        paciente.setIdade(30);
+        paciente.setAtivo(true);
+        return paciente;
+    }
+}
@@ -0,0 +1,195 @@
+package com.odontovision.clinica_odontologica;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.SinistroDTO;
+import com.odontovision.clinica_odontologica.repository.SinistroRepository;
+import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.EntradaSinistroService;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import com.odontovision.clinica_odontologica.service.SinistroService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Verifica a entrada assíncrona de sinistros: {@code POST /sinistros/intake} responde {@code 202}
+ * com o rastreio sem gravar o sinistro, o processamento em lote grava os válidos e rejeita os de
+ * referências inexistentes, uma falha passageira do banco não rejeita o sinistro, e a fila cheia
+ * responde {@code 503} com {@code Retry-After}.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"clinica.agendamento.habilitado=false", "clinica.sinistros.entrada.capacidade=3"})
+class EntradaSinistroTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    @Autowired
+    private SinistroService sinistroService;
+
+    @Autowired
+    private EntradaSinistroService entradaSinistroService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private SinistroRepository sinistroRepository;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    private Long pacienteId;
+    private Long dentistaId;
+    private Long procedimentoId;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+        PacienteDTO paciente = new PacienteDTO();
+        paciente.setNome("Paciente Entrada " + n);
+        paciente.setCpf(String.format("970.000.%03d-00", n));
+        paciente.setIdade(35);
+        pacienteId = pacienteService.salvarPaciente(paciente).getId();
+
+        DentistaDTO dentista = new DentistaDTO();
+        dentista.setNome("Dentista Entrada " + n);
+        dentista.setNumeroLicenca(String.format("CRO3%04d", n));
+        dentistaId = dentistaService.salvarDentista(dentista).getId();
+
+        ProcedimentoDTO procedimento = new ProcedimentoDTO();
+        procedimento.setTipoProcedimento("Extração");
+        procedimento.setDataProcedimento(LocalDate.of(2024, 6, 1));
+        procedimento.setCusto(300.0);
+        procedimento.setPacienteId(pacienteId);
+        procedimento.setDentistaId(dentistaId);
+        procedimentoId = procedimentoService.salvarProcedimento(procedimento).getId();
+    }
+
+    @Test
+    void sinistrosRecebidosSaoGravadosOuRejeitadosEmLote() throws Exception {
+        HttpResponse<String> aceito = post(sinistro(procedimentoId));
+        HttpResponse<String> invalido = post(sinistro(999999999L));
+        assertThat(aceito.statusCode()).isEqualTo(202);
+        assertThat(invalido.statusCode()).isEqualTo(202);
+        String rastreio = objectMapper.readTree(aceito.body()).path("rastreio").asText();
+        String rastreioInvalido = objectMapper.readTree(invalido.body()).path("rastreio").asText();
+        assertThat(aceito.headers().firstValue("Location")).hasValue("/sinistros/intake/" + rastreio);
+        assertThat(situacao(rastreio).path("situacao").asText()).isEqualTo("PENDENTE");
+
+        entradaSinistroService.processarPendentes();
+
+        JsonNode concluido = situacao(rastreio);
+        assertThat(concluido.path("situacao").asText()).isEqualTo("CONCLUIDO");
+        assertThat(sinistroService.buscarPorId(concluido.path("sinistroId").asLong()))
+                .hasValueSatisfying(sinistro -> assertThat(sinistro.getProcedimentoId()).isEqualTo(procedimentoId));
+        JsonNode rejeitado = situacao(rastreioInvalido);
+        assertThat(rejeitado.path("situacao").asText()).isEqualTo("REJEITADO");
+        assertThat(rejeitado.path("erro").asText()).contains("Procedimento não encontrado com o ID: 999999999");
+        assertThat(rejeitado.has("sinistroId")).isFalse();
+
+        assertThat(get("/sinistros/intake/inexistente").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void falhaPassageiraMantemAEntradaParaNovaTentativa() throws Exception {
+        String rastreio = objectMapper.readTree(post(sinistro(procedimentoId)).body()).path("rastreio").asText();
+        doThrow(new CannotAcquireLockException("Tempo de espera pela trava esgotado"))
+                .when(sinistroRepository).saveAllAndFlush(anyList());
+
+        assertThatThrownBy(entradaSinistroService::processarPendentes).isInstanceOf(CannotAcquireLockException.class);
+        assertThat(situacao(rastreio).path("situacao").asText()).isEqualTo("PROCESSANDO");
+
+        // Com o banco de volta e a reserva expirada, a entrada é processada normalmente
+        reset(sinistroRepository);
+        jdbcTemplate.update("UPDATE entrada_sinistro SET reservada_em = ? WHERE rastreio = ?",
+                LocalDateTime.now().minusHours(1), rastreio);
+        entradaSinistroService.processarPendentes();
+        JsonNode concluido = situacao(rastreio);
+        assertThat(concluido.path("situacao").asText()).isEqualTo("CONCLUIDO");
+        assertThat(concluido.path("sinistroId").asLong()).isPositive();
+    }
+
+    @Test
+    void filaCheiaRespondeServicoIndisponivel() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(post(sinistro(procedimentoId)).statusCode()).isEqualTo(202);
+        }
+        HttpResponse<String> recusado = post(sinistro(procedimentoId));
+        assertThat(recusado.statusCode()).isEqualTo(503);
+        assertThat(recusado.headers().firstValue("Retry-After")).isPresent();
+
+        entradaSinistroService.processarPendentes();
+        assertThat(post(sinistro(procedimentoId)).statusCode()).isEqualTo(202);
+        entradaSinistroService.processarPendentes();
+    }
+
+    private HttpResponse<String> post(SinistroDTO sinistro) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/sinistros/intake"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(sinistro)))
+                .build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode situacao(String rastreio) throws Exception {
+        HttpResponse<String> resposta = get("/sinistros/intake/" + rastreio);
+        assertThat(resposta.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(resposta.body());
+    }
+
+    private HttpResponse<String> get(String caminho) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho)).GET().build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private SinistroDTO sinistro(Long procedimento) {
+        SinistroDTO sinistro = new SinistroDTO();
+        sinistro.setTipoSinistro("Uso Indevido");
+        sinistro.setDescricao("Recebido pela entrada assíncrona");
+        sinistro.setDataSinistro(LocalDate.of(2024, 6, 2));
+        sinistro.setProcedimentoId(procedimento);
+        sinistro.setDentistaId(dentistaId);
+        sinistro.setPacienteId(pacienteId);
+        return sinistro;
+    }
+}
@@ -0,0 +1,216 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.SinistroDTO;
+import com.odontovision.clinica_odontologica.repository.EventoOutboxRepository;
+import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.EventoService;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import com.odontovision.clinica_odontologica.service.SinistroService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica o outbox de eventos e o fluxo {@code /eventos}: gravação na transação da alteração,
+ * posições contínuas na ordem de publicação, retomada por {@code Last-Event-ID} e entrega ao vivo.
+ * <p>
+ * As tarefas agendadas ficam desligadas; a publicação é disparada pelo próprio teste.
+ * </p>
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "clinica.agendamento.habilitado=false")
+class EventosTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private EventoService eventoService;
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    @Autowired
+    private SinistroService sinistroService;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    private Long pacienteId;
+    private Long dentistaId;
+
+    /**
+     * Evento lido do fluxo SSE.
+     */
+    private record Recebido(long id, String nome, String dados) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+        PacienteDTO paciente = new PacienteDTO();
+        paciente.setNome("Paciente Evento " + n);
+        paciente.setCpf("900.000.000-" + String.format("%02d", n));
+        paciente.setIdade(40);
+        paciente.setPlanoOdontologico("Plano Ouro");
+        pacienteId = pacienteService.salvarPaciente(paciente).getId();
+
+        DentistaDTO dentista = new DentistaDTO();
+        dentista.setNome("Dentista Evento " + n);
+        dentista.setNumeroLicenca(String.format("CRO9%04d", n));
+        dentistaId = dentistaService.salvarDentista(dentista).getId();
+
+        eventoService.publicarPendentes();
+    }
+
+    @Test
+    void alteracoesPublicadasEmOrdemERetomadasPeloUltimoEvento() throws Exception {
+        long antes = ultimaPosicao();
+
+        ProcedimentoDTO procedimento = procedimentoService.salvarProcedimento(procedimento(150.0));
+        procedimento.setCusto(175.0);
+        procedimentoService.atualizarProcedimento(procedimento.getId(), procedimento);
+        SinistroDTO sinistro = sinistroService.salvarSinistro(sinistro(procedimento.getId()));
+        sinistroService.deletarSinistro(sinistro.getId());
+        eventoService.publicarPendentes();
+
+        List<Recebido> todos = receber(antes, 4);
+        assertThat(todos).extracting(Recebido::id).containsExactly(antes + 1, antes + 2, antes + 3, antes + 4);
+        assertThat(todos).extracting(Recebido::nome).containsExactly(
+                "procedimento.criado", "procedimento.atualizado", "sinistro.criado", "sinistro.removido");
+        assertThat(todos.get(1).dados()).contains("\"custo\":175.0", "\"versao\":" + (procedimento.getVersao() + 1));
+        assertThat(todos.get(3).dados()).isEqualTo("{\"id\":" + sinistro.getId() + ",\"versao\":" + (sinistro.getVersao() + 1) + "}");
+
+        assertThat(receber(antes + 2, 2)).extracting(Recebido::nome)
+                .containsExactly("sinistro.criado", "sinistro.removido");
+    }
+
+    @Test
+    void assinaturaSemPosicaoRecebeApenasNovosEventos() throws Exception {
+        procedimentoService.salvarProcedimento(procedimento(90.0));
+        eventoService.publicarPendentes();
+        long antes = ultimaPosicao();
+
+        CompletableFuture<List<Recebido>> recebidos = CompletableFuture.supplyAsync(() -> ler(null, 1));
+        // Aguarda a assinatura ser registrada antes de publicar
+        Thread.sleep(500);
+        ProcedimentoDTO novo = procedimentoService.salvarProcedimento(procedimento(95.0));
+        eventoService.publicarPendentes();
+
+        assertThat(recebidos.get(10, TimeUnit.SECONDS)).singleElement().satisfies(evento -> {
+            assertThat(evento.id()).isEqualTo(antes + 1);
+            assertThat(evento.dados()).contains("\"id\":" + novo.getId());
+        });
+    }
+
+    @Test
+    void alteracaoDesfeitaNaoGeraEvento() {
+        long pendentesAntes = eventoOutboxRepository.buscarPendentes(Limit.of(1_000)).size();
+        ProcedimentoDTO invalido = procedimento(100.0);
+        invalido.setPacienteId(-1L);
+
+        assertThatThrownBy(() -> procedimentoService.salvarProcedimento(invalido)).isInstanceOf(RuntimeException.class);
+        assertThat(eventoOutboxRepository.buscarPendentes(Limit.of(1_000))).hasSize((int) pendentesAntes);
+    }
+
+    private long ultimaPosicao() {
+        List<Long> posicoes = eventoOutboxRepository.findAll().stream()
+                .map(evento -> evento.getPosicao() != null ? evento.getPosicao() : 0L)
+                .toList();
+        return posicoes.stream().mapToLong(Long::longValue).max().orElse(0L);
+    }
+
+    private List<Recebido> receber(Long ultimoEvento, int quantidade) throws Exception {
+        return CompletableFuture.supplyAsync(() -> ler(ultimoEvento, quantidade)).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Abre {@code /eventos} e lê até receber a quantidade de eventos pedida.
+     */
+    private List<Recebido> ler(Long ultimoEvento, int quantidade) {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/eventos"))
+                .header("Accept", "text/event-stream");
+        if (ultimoEvento != null) {
+            requisicao.header("Last-Event-ID", Long.toString(ultimoEvento));
+        }
+        List<Recebido> recebidos = new ArrayList<>();
+        try {
+            HttpResponse<Stream<String>> resposta = cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofLines());
+            assertThat(resposta.statusCode()).isEqualTo(200);
+            try (Stream<String> linhas = resposta.body()) {
+                Iterator<String> iterador = linhas.iterator();
+                long id = 0;
+                String nome = null;
+                while (recebidos.size() < quantidade && iterador.hasNext()) {
+                    String linha = iterador.next();
+                    if (linha.startsWith("id:")) {
+                        id = Long.parseLong(linha.substring(3));
+                    } else if (linha.startsWith("event:")) {
+                        nome = linha.substring(6);
+                    } else if (linha.startsWith("data:")) {
+                        recebidos.add(new Recebido(id, nome, linha.substring(5)));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return recebidos;
+    }
+
+    private ProcedimentoDTO procedimento(double custo) {
+        ProcedimentoDTO procedimento = new ProcedimentoDTO();
+        procedimento.setTipoProcedimento("Limpeza");
+        procedimento.setDataProcedimento(LocalDate.of(2024, 5, 10));
+        procedimento.setCusto(custo);
+        procedimento.setPacienteId(pacienteId);
+        procedimento.setDentistaId(dentistaId);
+        return procedimento;
+    }
+
+    private SinistroDTO sinistro(Long procedimentoId) {
+        SinistroDTO sinistro = new SinistroDTO();
+        sinistro.setTipoSinistro("Reembolso");
+        sinistro.setDataSinistro(LocalDate.of(2024, 5, 11));
+        sinistro.setRiscoFraude(false);
+        sinistro.setProcedimentoId(procedimentoId);
+        sinistro.setPacienteId(pacienteId);
+        sinistro.setDentistaId(dentistaId);
+        return sinistro;
+    }
+}
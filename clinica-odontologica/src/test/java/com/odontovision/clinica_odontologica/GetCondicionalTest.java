@@ -0,0 +1,140 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica o GET condicional: 304 enquanto {@code If-None-Match}/{@code If-Modified-Since} conferem
+ * e novo ETag a cada alteração do registro ou, nas listagens, a cada inclusão e exclusão.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "clinica.agendamento.habilitado=false")
+class GetCondicionalTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    private PacienteDTO paciente;
+    private Long dentistaId;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+        PacienteDTO novo = new PacienteDTO();
+        novo.setNome("Paciente Condicional " + n);
+        novo.setCpf("910.000.000-" + String.format("%02d", n));
+        novo.setIdade(35);
+        novo.setPlanoOdontologico("Plano Prata");
+        paciente = pacienteService.salvarPaciente(novo);
+
+        DentistaDTO dentista = new DentistaDTO();
+        dentista.setNome("Dentista Condicional " + n);
+        dentista.setNumeroLicenca(String.format("CRO8%04d", n));
+        dentistaId = dentistaService.salvarDentista(dentista).getId();
+    }
+
+    @Test
+    void registroRespondeNaoModificadoAteSerAlterado() throws Exception {
+        String caminho = "/pacientes/" + paciente.getId();
+        HttpResponse<String> primeira = get(caminho, null, null);
+        assertThat(primeira.statusCode()).isEqualTo(200);
+        String etag = primeira.headers().firstValue("ETag").orElseThrow();
+        String ultimaAlteracao = primeira.headers().firstValue("Last-Modified").orElseThrow();
+        assertThat(etag).isEqualTo("\"" + paciente.getId() + "-0\"");
+
+        HttpResponse<String> porEtag = get(caminho, "If-None-Match", etag);
+        assertThat(porEtag.statusCode()).isEqualTo(304);
+        assertThat(porEtag.body()).isEmpty();
+        assertThat(get(caminho, "If-Modified-Since", ultimaAlteracao).statusCode()).isEqualTo(304);
+
+        paciente.setIdade(36);
+        pacienteService.atualizarPaciente(paciente.getId(), paciente);
+
+        HttpResponse<String> alterada = get(caminho, "If-None-Match", etag);
+        assertThat(alterada.statusCode()).isEqualTo(200);
+        assertThat(alterada.headers().firstValue("ETag")).contains("\"" + paciente.getId() + "-1\"");
+        assertThat(alterada.body()).contains("\"idade\":36");
+    }
+
+    @Test
+    void listagemMudaDeEtagComInclusaoEExclusao() throws Exception {
+        HttpResponse<String> primeira = get("/procedimentos", null, null);
+        assertThat(primeira.statusCode()).isEqualTo(200);
+        String etag = primeira.headers().firstValue("ETag").orElseThrow();
+        assertThat(get("/procedimentos", "If-None-Match", etag).statusCode()).isEqualTo(304);
+
+        ProcedimentoDTO procedimento = procedimentoService.salvarProcedimento(procedimento());
+        HttpResponse<String> aposInclusao = get("/procedimentos", "If-None-Match", etag);
+        assertThat(aposInclusao.statusCode()).isEqualTo(200);
+        String etagInclusao = aposInclusao.headers().firstValue("ETag").orElseThrow();
+        assertThat(etagInclusao).isNotEqualTo(etag);
+        assertThat(get("/procedimentos?limit=5", "If-None-Match", etagInclusao).statusCode()).isEqualTo(304);
+
+        procedimentoService.deletarProcedimento(procedimento.getId());
+        HttpResponse<String> aposExclusao = get("/procedimentos", "If-None-Match", etagInclusao);
+        assertThat(aposExclusao.statusCode()).isEqualTo(200);
+        assertThat(aposExclusao.headers().firstValue("ETag")).isPresent().get().isNotEqualTo(etagInclusao);
+        assertThat(aposExclusao.headers().firstValue("Last-Modified")).isEmpty();
+    }
+
+    @Test
+    void cursorSemLimiteDevolvePaginaComEtagDaListagem() throws Exception {
+        String etag = get("/pacientes", null, null).headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> pagina = get("/pacientes?cursor=0", null, null);
+        assertThat(pagina.statusCode()).isEqualTo(200);
+        assertThat(pagina.body()).startsWith("{\"itens\":");
+        assertThat(get("/pacientes?cursor=0", "If-None-Match", etag).statusCode()).isEqualTo(304);
+    }
+
+    private HttpResponse<String> get(String caminho, String cabecalho, String valor) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho)).GET();
+        if (cabecalho != null) {
+            requisicao.header(cabecalho, valor);
+        }
+        return cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private ProcedimentoDTO procedimento() {
+        ProcedimentoDTO procedimento = new ProcedimentoDTO();
+        procedimento.setTipoProcedimento("Restauração");
+        procedimento.setDataProcedimento(LocalDate.of(2024, 6, 3));
+        procedimento.setCusto(220.0);
+        procedimento.setPacienteId(paciente.getId());
+        procedimento.setDentistaId(dentistaId);
+        return procedimento;
+    }
+}
@@ -0,0 +1,115 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Diagnostico;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.model.Sinistro;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que {@code toString}, {@code hashCode} e {@code equals} das entidades com associações
+ * não executam SQL, não inicializam coleções nem proxies e terminam mesmo com referências
+ * circulares (procedimento e sinistro apontam um para o outro).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class IdentidadeEntidadesTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void registrarEEspalharEntidadesCarregadasNaoExecutaSql() {
+        Paciente novoPaciente = paciente();
+        Dentista novoDentista = dentista("CRO30001");
+        Dentista outroDentista = dentista("CRO30002");
+        Procedimento novoProcedimento = procedimento(novoPaciente, novoDentista);
+        procedimento(novoPaciente, novoDentista);
+        Sinistro novoSinistro = new Sinistro();
+        novoSinistro.setTipoSinistro("Uso Indevido");
+        novoSinistro.setDataSinistro(LocalDate.of(2024, 2, 2));
+        novoSinistro.setProcedimento(novoProcedimento);
+        novoSinistro.setDentista(novoDentista);
+        novoSinistro.setPaciente(novoPaciente);
+        testEntityManager.persist(novoSinistro);
+        novoProcedimento.setSinistro(novoSinistro);
+        Diagnostico novoDiagnostico = new Diagnostico();
+        novoDiagnostico.setTipoDiagnostico("Gengivite");
+        novoDiagnostico.setDataDiagnostico(LocalDate.of(2024, 2, 1));
+        novoDiagnostico.setDescricao("Inflamação gengival leve");
+        novoDiagnostico.setPaciente(novoPaciente);
+        testEntityManager.persist(novoDiagnostico);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Paciente paciente = testEntityManager.find(Paciente.class, novoPaciente.getId());
+        Procedimento procedimento = testEntityManager.find(Procedimento.class, novoProcedimento.getId());
+        Sinistro sinistro = testEntityManager.find(Sinistro.class, novoSinistro.getId());
+        Diagnostico diagnostico = testEntityManager.find(Diagnostico.class, novoDiagnostico.getId());
+        Dentista referencia = testEntityManager.getEntityManager().getReference(Dentista.class, outroDentista.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String texto = List.of(paciente, procedimento, sinistro, diagnostico).toString();
+        Set<Object> entidades = new HashSet<>(List.of(paciente, procedimento, sinistro, diagnostico, procedimento.getDentista()));
+        Dentista semContexto = new Dentista();
+        semContexto.setId(outroDentista.getId());
+
+        assertThat(texto).contains("Paciente(", "Procedimento(", "Sinistro(", "Diagnostico(");
+        assertThat(entidades).hasSize(5).contains(paciente, procedimento.getPaciente(), sinistro.getProcedimento());
+        assertThat(semContexto.equals(referencia)).isTrue();
+        assertThat(procedimento.getDentista().equals(referencia)).isFalse();
+        assertThat(new Paciente()).isNotEqualTo(new Paciente());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(Hibernate.isInitialized(paciente.getProcedimentos())).isFalse();
+        assertThat(Hibernate.isInitialized(paciente.getDiagnosticos())).isFalse();
+        assertThat(Hibernate.isInitialized(referencia)).isFalse();
+    }
+
+    private Paciente paciente() {
+        Paciente paciente = new Paciente();
+        paciente.setNome("Paciente Identidade");
+        paciente.setCpf("300.000.000-01");
+        paciente.setIdade(29);
+        testEntityManager.persist(paciente);
+        return paciente;
+    }
+
+    private Dentista dentista(String licenca) {
+        Dentista dentista = new Dentista();
+        dentista.setNome("Dentista " + licenca);
+        dentista.setNumeroLicenca(licenca);
+        testEntityManager.persist(dentista);
+        return dentista;
+    }
+
+    private Procedimento procedimento(Paciente paciente, Dentista dentista) {
+        Procedimento procedimento = new Procedimento();
+        procedimento.setTipoProcedimento("Limpeza");
+        procedimento.setDataProcedimento(LocalDate.of(2024, 2, 1));
+        procedimento.setCusto(120.0);
+        procedimento.setPaciente(paciente);
+        procedimento.setDentista(dentista);
+        testEntityManager.persist(procedimento);
+        return procedimento;
+    }
+}
@@ -0,0 +1,176 @@
+package com.odontovision.clinica_odontologica;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.DiagnosticoDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.SinistroDTO;
+import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.DiagnosticoService;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import com.odontovision.clinica_odontologica.service.SinistroService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica a linha do tempo do paciente: diagnósticos, procedimentos e sinistros intercalados
+ * da data mais recente para a mais antiga, com empates na mesma data e sinistros sem data no fim,
+ * percorridos página a página pelo cursor sem lacunas nem repetições.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "clinica.agendamento.habilitado=false")
+class LinhaDoTempoTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+    private static final LocalDate RECENTE = LocalDate.of(2024, 3, 10);
+    private static final LocalDate ANTIGA = LocalDate.of(2024, 3, 5);
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private DiagnosticoService diagnosticoService;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    @Autowired
+    private SinistroService sinistroService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    private Long pacienteId;
+    private Long dentistaId;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+        PacienteDTO paciente = new PacienteDTO();
+        paciente.setNome("Paciente Linha do Tempo " + n);
+        paciente.setCpf(String.format("950.000.%03d-00", n));
+        paciente.setIdade(52);
+        paciente.setPlanoOdontologico("Plano Ouro");
+        pacienteId = pacienteService.salvarPaciente(paciente).getId();
+
+        DentistaDTO dentista = new DentistaDTO();
+        dentista.setNome("Dentista Linha do Tempo " + n);
+        dentista.setNumeroLicenca(String.format("CRO5%04d", n));
+        dentistaId = dentistaService.salvarDentista(dentista).getId();
+    }
+
+    @Test
+    void paginasPercorremOsTresTiposNaOrdemSemLacunasNemRepeticoes() throws Exception {
+        long diagnosticoRecente = diagnostico(RECENTE);
+        long diagnosticoAntigo = diagnostico(ANTIGA);
+        long procedimentoRecente = procedimento(RECENTE);
+        long procedimentoRecenteMesmaData = procedimento(RECENTE);
+        long procedimentoAntigo = procedimento(ANTIGA);
+        long sinistroRecente = sinistro(RECENTE, procedimentoRecente);
+        long sinistroSemData = sinistro(null, procedimentoAntigo);
+
+        List<String> esperado = List.of(
+                "sinistro:" + sinistroRecente,
+                "procedimento:" + procedimentoRecenteMesmaData,
+                "procedimento:" + procedimentoRecente,
+                "diagnostico:" + diagnosticoRecente,
+                "procedimento:" + procedimentoAntigo,
+                "diagnostico:" + diagnosticoAntigo,
+                "sinistro:" + sinistroSemData);
+
+        List<String> percorrido = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            String caminho = "/pacientes/" + pacienteId + "/linha-do-tempo?limit=2"
+                    + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+            HttpResponse<String> resposta = get(caminho);
+            assertThat(resposta.statusCode()).isEqualTo(200);
+            JsonNode pagina = objectMapper.readTree(resposta.body());
+            assertThat(pagina.path("paciente").path("id").asLong()).isEqualTo(pacienteId);
+            assertThat(pagina.path("itens").size()).isLessThanOrEqualTo(2);
+            pagina.path("itens").forEach(item -> percorrido.add(item.path("tipo").asText() + ":" + item.path("id").asLong()));
+            cursor = pagina.path("proximoCursor").isTextual() ? pagina.path("proximoCursor").asText() : null;
+            paginas++;
+        } while (cursor != null && paginas < 10);
+
+        assertThat(percorrido).containsExactlyElementsOf(esperado);
+        assertThat(paginas).isEqualTo(4);
+
+        JsonNode completa = objectMapper.readTree(get("/pacientes/" + pacienteId + "/linha-do-tempo").body());
+        assertThat(completa.path("itens").size()).isEqualTo(esperado.size());
+        assertThat(completa.path("itens").get(0).path("sinistro").path("dataSinistro").asText()).isEqualTo(RECENTE.toString());
+        assertThat(completa.path("itens").get(6).has("data")).isFalse();
+    }
+
+    @Test
+    void pacienteInexistenteECursorInvalido() throws Exception {
+        assertThat(get("/pacientes/999999999/linha-do-tempo").statusCode()).isEqualTo(404);
+        assertThat(get("/pacientes/" + pacienteId + "/linha-do-tempo?cursor=2024-03-10:consulta:1").statusCode()).isEqualTo(400);
+        assertThat(get("/pacientes/" + pacienteId + "/linha-do-tempo?cursor=abc").statusCode()).isEqualTo(400);
+    }
+
+    private HttpResponse<String> get(String caminho) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho)).GET().build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long diagnostico(LocalDate data) {
+        DiagnosticoDTO diagnostico = new DiagnosticoDTO();
+        diagnostico.setTipoDiagnostico("Cárie");
+        diagnostico.setDataDiagnostico(data);
+        diagnostico.setDescricao("Cárie no molar inferior");
+        diagnostico.setPacienteId(pacienteId);
+        return diagnosticoService.salvarDiagnostico(diagnostico).getId();
+    }
+
+    private long procedimento(LocalDate data) {
+        ProcedimentoDTO procedimento = new ProcedimentoDTO();
+        procedimento.setTipoProcedimento("Restauração");
+        procedimento.setDataProcedimento(data);
+        procedimento.setCusto(180.0);
+        procedimento.setPacienteId(pacienteId);
+        procedimento.setDentistaId(dentistaId);
+        return procedimentoService.salvarProcedimento(procedimento).getId();
+    }
+
+    private long sinistro(LocalDate data, long procedimentoId) {
+        SinistroDTO sinistro = new SinistroDTO();
+        sinistro.setTipoSinistro("Uso Indevido");
+        sinistro.setDataSinistro(data);
+        sinistro.setProcedimentoId(procedimentoId);
+        sinistro.setDentistaId(dentistaId);
+        sinistro.setPacienteId(pacienteId);
+        sinistro.setRiscoFraude(false);
+        return sinistroService.salvarSinistro(sinistro).getId();
+    }
+}
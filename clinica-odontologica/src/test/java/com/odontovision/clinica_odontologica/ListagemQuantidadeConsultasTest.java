@@ -0,0 +1,136 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.model.Sinistro;
+import com.odontovision.clinica_odontologica.service.EventoService;
+import com.odontovision.clinica_odontologica.service.MotorFraude;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import com.odontovision.clinica_odontologica.service.ProducaoDentistaService;
+import com.odontovision.clinica_odontologica.service.ReferenciaResolver;
+import com.odontovision.clinica_odontologica.service.ResumoDiarioService;
+import com.odontovision.clinica_odontologica.service.SinistroService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica, pelas estatísticas do Hibernate, que as listagens de procedimentos e sinistros
+ * executam um número fixo de comandos SQL, independentemente da quantidade de linhas.
+ * <p>
+ * Cada procedimento e sinistro é associado a um paciente e a um dentista distintos, de modo
+ * que qualquer carregamento das associações por linha (N+1) aumentaria a contagem.
+ * </p>
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ProcedimentoService.class, SinistroService.class, ReferenciaResolver.class, MotorFraude.class, ProducaoDentistaService.class})
+class ListagemQuantidadeConsultasTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    @Autowired
+    private SinistroService sinistroService;
+
+    // As listagens não gravam eventos nem dias pendentes dos resumos
+    @MockBean
+    private EventoService eventoService;
+
+    @MockBean
+    private ResumoDiarioService resumoDiarioService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 40})
+    void listarTodosProcedimentosExecutaUmaConsulta(int quantidade) {
+        popular(quantidade);
+
+        statistics.clear();
+        assertThat(procedimentoService.listarTodos()).hasSize(quantidade);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 40})
+    void listarFraudesExecutaUmaConsulta(int quantidade) {
+        popular(quantidade);
+
+        statistics.clear();
+        assertThat(procedimentoService.listarFraudes()).hasSize(quantidade);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 40})
+    void listarTodosSinistrosExecutaUmaConsulta(int quantidade) {
+        popular(quantidade);
+
+        statistics.clear();
+        assertThat(sinistroService.listarTodos()).hasSize(quantidade);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Persiste {@code quantidade} procedimentos com pontuação de fraude acima do limiar e um sinistro para cada um,
+     * e limpa o contexto de persistência para que nada seja servido a partir dele.
+     */
+    private void popular(int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setNome("Paciente " + i);
+            paciente.setCpf(String.format("%03d.000.000-00", i));
+            paciente.setIdade(30);
+            testEntityManager.persist(paciente);
+
+            Dentista dentista = new Dentista();
+            dentista.setNome("Dentista " + i);
+            dentista.setNumeroLicenca(String.format("CRO%05d", i));
+            testEntityManager.persist(dentista);
+
+            Procedimento procedimento = new Procedimento();
+            procedimento.setTipoProcedimento("Limpeza");
+            procedimento.setDataProcedimento(LocalDate.of(2024, 1, 1));
+            procedimento.setCusto(150.0);
+            procedimento.setRiscoFraude(true);
+            procedimento.setScoreFraude(0.9);
+            procedimento.setPaciente(paciente);
+            procedimento.setDentista(dentista);
+            testEntityManager.persist(procedimento);
+
+            Sinistro sinistro = new Sinistro();
+            sinistro.setTipoSinistro("Suspeita de Fraude");
+            sinistro.setDataSinistro(LocalDate.of(2024, 1, 2));
+            sinistro.setProcedimento(procedimento);
+            sinistro.setDentista(dentista);
+            sinistro.setPaciente(paciente);
+            testEntityManager.persist(sinistro);
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+}
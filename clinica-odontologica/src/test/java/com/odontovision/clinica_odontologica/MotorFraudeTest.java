@@ -0,0 +1,226 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.repository.ProcedimentoRepository;
+import com.odontovision.clinica_odontologica.service.MotorFraude;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica as regras do {@link MotorFraude} com agregados montados apenas pelos eventos do teste.
+ * <p>
+ * Limites usados: custo a 3 desvios com amostra mínima de 10, no máximo 5 procedimentos por
+ * paciente em 30 dias e faturamento máximo de 10.000 por dentista em 7 dias.
+ * </p>
+ */
+class MotorFraudeTest {
+
+    private static final LocalDate DATA = LocalDate.of(2024, 3, 10);
+
+    private ProcedimentoRepository procedimentoRepository;
+    private MotorFraude motor;
+
+    @BeforeEach
+    void setUp() {
+        procedimentoRepository = mock(ProcedimentoRepository.class);
+        motor = new MotorFraude(procedimentoRepository, 0.5, 3.0, 10, 30, 5, 7, 10_000, 1_000, 600_000);
+    }
+
+    @Test
+    void procedimentoComumNaoDisparaRegras() {
+        Procedimento procedimento = procedimento("Limpeza", 150.0, DATA, 1L, 1L);
+        motor.avaliar(procedimento);
+
+        assertThat(procedimento.getScoreFraude()).isZero();
+        assertThat(procedimento.getRegrasFraude()).isNull();
+        assertThat(procedimento.isRiscoFraude()).isFalse();
+    }
+
+    @Test
+    void custoMuitoAcimaDaMediaDoTipoDisparaCustoAtipico() {
+        for (int i = 0; i < 20; i++) {
+            motor.avaliar(procedimento("Canal", 900.0 + (i % 5) * 25, DATA.minusDays(60), 100L + i, 100L + i));
+        }
+
+        Procedimento procedimento = procedimento("Canal", 5_000.0, DATA, 1L, 1L);
+        motor.avaliar(procedimento);
+
+        assertThat(procedimento.getRegrasFraude()).isEqualTo("CUSTO_ATIPICO");
+        assertThat(procedimento.getScoreFraude()).isGreaterThanOrEqualTo(0.5);
+        assertThat(procedimento.isRiscoFraude()).isTrue();
+    }
+
+    @Test
+    void muitosProcedimentosDoPacienteNaJanelaDisparamFrequencia() {
+        for (int i = 0; i < 5; i++) {
+            Procedimento procedimento = procedimento("Limpeza", 150.0, DATA.minusDays(i), 1L, 10L + i);
+            motor.avaliar(procedimento);
+            assertThat(procedimento.getRegrasFraude()).isNull();
+        }
+
+        Procedimento sexto = procedimento("Limpeza", 150.0, DATA, 1L, 20L);
+        motor.avaliar(sexto);
+        assertThat(sexto.getRegrasFraude()).isEqualTo("FREQUENCIA_PACIENTE");
+
+        // Fora da janela de 30 dias, os procedimentos antigos deixam de contar
+        Procedimento depois = procedimento("Limpeza", 150.0, DATA.plusDays(40), 1L, 21L);
+        motor.avaliar(depois);
+        assertThat(depois.getRegrasFraude()).isNull();
+    }
+
+    @Test
+    void faturamentoDoDentistaAcimaDoTetoDisparaVelocidade() {
+        motor.avaliar(procedimento("Implante", 6_000.0, DATA.minusDays(3), 1L, 7L));
+
+        Procedimento procedimento = procedimento("Implante", 6_000.0, DATA, 2L, 7L);
+        motor.avaliar(procedimento);
+
+        assertThat(procedimento.getRegrasFraude()).isEqualTo("VELOCIDADE_DENTISTA");
+        assertThat(procedimento.getScoreFraude()).isEqualTo(0.6);
+    }
+
+    @Test
+    void desfazerRetiraOProcedimentoDosAgregados() {
+        for (int i = 0; i < 5; i++) {
+            motor.avaliar(procedimento("Limpeza", 150.0, DATA, 1L, 10L + i));
+        }
+        Procedimento sexto = procedimento("Limpeza", 150.0, DATA, 1L, 20L);
+        motor.avaliar(sexto);
+        assertThat(sexto.getRegrasFraude()).isEqualTo("FREQUENCIA_PACIENTE");
+
+        motor.desfazer(MotorFraude.Evento.de(sexto));
+        motor.desfazer(MotorFraude.Evento.de(procedimento("Limpeza", 150.0, DATA, 1L, 10L)));
+
+        Procedimento novo = procedimento("Limpeza", 150.0, DATA, 1L, 21L);
+        motor.avaliar(novo);
+        assertThat(novo.getRegrasFraude()).isNull();
+    }
+
+    @Test
+    void janelaAusenteEReconstruidaDoBanco() {
+        // Paciente fora dos agregados (descartado do cache, por exemplo) com cinco procedimentos gravados no dia
+        LocalDate hoje = LocalDate.now();
+        when(procedimentoRepository.listarCustosDoPaciente(eq(1L), any())).thenReturn(List.of(
+                new Object[]{41L, hoje, 150.0}, new Object[]{42L, hoje, 150.0}, new Object[]{43L, hoje, 150.0},
+                new Object[]{44L, hoje, 150.0}, new Object[]{45L, hoje, 150.0}));
+
+        Procedimento sexto = procedimento("Limpeza", 150.0, LocalDate.now(), 1L, 20L);
+        motor.avaliar(sexto);
+
+        assertThat(sexto.getRegrasFraude()).isEqualTo("FREQUENCIA_PACIENTE");
+    }
+
+    @Test
+    void janelaReconstruidaNaTransacaoTrocaOsProcedimentosDelaPeloEstadoConfirmado() {
+        // A transação já gravou a troca do procedimento 45 do paciente 2 para o paciente 1; a leitura a enxerga
+        LocalDate hoje = LocalDate.now();
+        when(procedimentoRepository.listarCustosDoPaciente(eq(1L), any())).thenReturn(List.of(
+                new Object[]{41L, hoje, 150.0}, new Object[]{42L, hoje, 150.0}, new Object[]{43L, hoje, 150.0},
+                new Object[]{44L, hoje, 150.0}, new Object[]{45L, hoje, 150.0}));
+        Procedimento alterado = procedimento("Limpeza", 150.0, hoje, 1L, 20L);
+        alterado.setId(45L);
+
+        List<TransactionSynchronization> sincronizacoes = emTransacao(() -> {
+            motor.desfazer(new MotorFraude.Evento(45L, "Limpeza", 150.0, hoje, 2L, 20L));
+            motor.avaliar(alterado);
+        });
+        assertThat(alterado.getRegrasFraude()).isNull();
+        sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+        sincronizacoes.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Na janela: os quatro confirmados antes e o 45, incluído no commit
+        Procedimento sexto = procedimento("Limpeza", 150.0, hoje, 1L, 21L);
+        motor.avaliar(sexto);
+        assertThat(sexto.getRegrasFraude()).isEqualTo("FREQUENCIA_PACIENTE");
+        assertThat(sexto.getScoreFraude()).isEqualTo(0.6);
+        verify(procedimentoRepository, times(1)).listarCustosDoPaciente(eq(1L), any());
+    }
+
+    @Test
+    void janelaLidaDuranteAlteracaoDeOutraTransacaoNaoVaiAoCache() {
+        LocalDate hoje = LocalDate.now();
+        // Enquanto a janela é lida, outra transação confirma a remoção de um procedimento do paciente
+        when(procedimentoRepository.listarCustosDoPaciente(eq(1L), any())).thenAnswer(leitura -> {
+            motor.desfazer(new MotorFraude.Evento(40L, "Limpeza", 150.0, hoje, 1L, 20L));
+            return List.<Object[]>of(new Object[]{41L, hoje, 150.0});
+        });
+
+        motor.avaliar(procedimento("Limpeza", 150.0, hoje, 1L, 20L));
+        motor.avaliar(procedimento("Limpeza", 150.0, hoje, 1L, 20L));
+
+        verify(procedimentoRepository, times(2)).listarCustosDoPaciente(eq(1L), any());
+    }
+
+    @Test
+    void alteracoesDeUmaTransacaoSoValemDepoisDoCommit() {
+        for (int i = 0; i < 4; i++) {
+            motor.avaliar(procedimento("Limpeza", 150.0, DATA, 1L, 10L + i));
+        }
+
+        // Desfeita: a inclusão vale dentro da transação, mas não chega aos agregados
+        List<TransactionSynchronization> sincronizacoes = emTransacao(() -> {
+            motor.avaliar(procedimento("Limpeza", 150.0, DATA, 1L, 14L));
+            Procedimento sexto = procedimento("Limpeza", 150.0, DATA, 1L, 15L);
+            motor.avaliar(sexto);
+            assertThat(sexto.getRegrasFraude()).isEqualTo("FREQUENCIA_PACIENTE");
+        });
+        sincronizacoes.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        Procedimento quinto = procedimento("Limpeza", 150.0, DATA, 1L, 16L);
+        motor.avaliar(quinto);
+        assertThat(quinto.getRegrasFraude()).isNull();
+
+        // Confirmada: a remoção passa a valer para as pontuações seguintes
+        sincronizacoes = emTransacao(() -> motor.desfazer(MotorFraude.Evento.de(quinto)));
+        sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+        sincronizacoes.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        motor.avaliar(procedimento("Limpeza", 150.0, DATA, 1L, 17L));
+        Procedimento sexto = procedimento("Limpeza", 150.0, DATA, 1L, 18L);
+        motor.avaliar(sexto);
+        assertThat(sexto.getRegrasFraude()).isEqualTo("FREQUENCIA_PACIENTE");
+    }
+
+    /**
+     * Executa a ação com a sincronização de transação ativa e devolve as sincronizações registradas.
+     */
+    private static List<TransactionSynchronization> emTransacao(Runnable acao) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            acao.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Procedimento procedimento(String tipo, double custo, LocalDate data, Long pacienteId, Long dentistaId) {
+        Paciente paciente = new Paciente();
+        paciente.setId(pacienteId);
+        Dentista dentista = new Dentista();
+        dentista.setId(dentistaId);
+
+        Procedimento procedimento = new Procedimento();
+        procedimento.setTipoProcedimento(tipo);
+        procedimento.setCusto(custo);
+        procedimento.setDataProcedimento(data);
+        procedimento.setPaciente(paciente);
+        procedimento.setDentista(dentista);
+        return procedimento;
+    }
+}
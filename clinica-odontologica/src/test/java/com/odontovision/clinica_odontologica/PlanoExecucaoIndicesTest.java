@@ -0,0 +1,59 @@
+package com.odontovision.clinica_odontologica;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica, pelo plano de execução do H2 ({@code EXPLAIN}), que as consultas dos repositórios usam
+ * os índices criados pelas migrações em {@code db/migration}.
+ * <p>
+ * Cada caso traz o SQL equivalente à consulta do repositório e o índice esperado no plano. Nenhuma
+ * consulta pode percorrer a tabela inteira ({@code tableScan}). Nas buscas por chave estrangeira, o
+ * índice esperado fica em branco: o H2 cria sozinho um índice para cada chave estrangeira e o
+ * prefere, enquanto no Oracle são os índices da migração que atendem essas consultas.
+ * </p>
+ */
+@DataJpaTest
+class PlanoExecucaoIndicesTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            ProcedimentoRepository.findProcedimentosBeforeDate | select * from procedimento where data_procedimento < date '2024-01-01' | IDX_PROCEDIMENTO_DATA
+            ProcedimentoRepository.contarPorPacienteEDia | select paciente_id, data_procedimento, count(*) from procedimento where data_procedimento >= date '2024-01-01' group by paciente_id, data_procedimento | IDX_PROCEDIMENTO_DATA
+            ProcedimentoRepository.somarCustosPorDentistaEDia | select dentista_id, data_procedimento, sum(custo) from procedimento where data_procedimento >= date '2024-01-01' group by dentista_id, data_procedimento | IDX_PROCEDIMENTO_DATA
+            ProcedimentoRepository.listarDiasAlteradosDesde | select distinct data_procedimento from procedimento where atualizado_em > timestamp '2024-01-01 00:00:00' | IDX_PROCEDIMENTO_ATUALIZADO_EM
+            ProcedimentoRepository.findByTipoProcedimento | select * from procedimento where tipo_procedimento = 'Canal' | IDX_PROCEDIMENTO_TIPO_CUSTO
+            ProcedimentoRepository.listarFraudesComoDTO | select * from procedimento where score_fraude >= 0.5 order by score_fraude desc, id | IDX_PROCEDIMENTO_SCORE_FRAUDE
+            ProcedimentoRepository.findByCustoGreaterThan | select * from procedimento where custo > 1000 | IDX_PROCEDIMENTO_CUSTO
+            ProcedimentoRepository.buscarLinhaDoTempoComoDTO | select * from procedimento where paciente_id = 1 and (data_procedimento < date '2024-01-01' or (data_procedimento = date '2024-01-01' and id < 100)) order by data_procedimento desc, id desc fetch first 51 rows only |
+            DiagnosticoRepository.findDiagnosticosAfterDate | select * from diagnostico where data_diagnostico > date '2024-01-01' | IDX_DIAGNOSTICO_DATA
+            DiagnosticoRepository.findDiagnosticosBetweenDates | select * from diagnostico where data_diagnostico between date '2024-01-01' and date '2024-06-30' | IDX_DIAGNOSTICO_DATA
+            DiagnosticoRepository.findByPacienteId | select * from diagnostico where paciente_id = 1 |
+            DiagnosticoRepository.buscarLinhaDoTempoComoDTO | select * from diagnostico where paciente_id = 1 and (data_diagnostico < date '2024-01-01' or (data_diagnostico = date '2024-01-01' and id < 100)) order by data_diagnostico desc, id desc fetch first 51 rows only |
+            SinistroRepository.findSinistrosBeforeDate | select * from sinistro where data_sinistro < date '2024-01-01' | IDX_SINISTRO_DATA
+            SinistroRepository.listarDiasAlteradosDesde | select distinct data_sinistro from sinistro where atualizado_em > timestamp '2024-01-01 00:00:00' and data_sinistro is not null | IDX_SINISTRO_ATUALIZADO_EM
+            SinistroRepository.listarSinistrosComFraude | select * from sinistro where risco_fraude = true | IDX_SINISTRO_RISCO_FRAUDE
+            SinistroRepository.findByPacienteId | select * from sinistro where paciente_id = 1 |
+            SinistroRepository.findByDentistaId | select * from sinistro where dentista_id = 1 |
+            SinistroRepository.buscarLinhaDoTempoComoDTO | select * from sinistro where paciente_id = 1 and (data_sinistro < date '2024-01-01' or (data_sinistro = date '2024-01-01' and id < 100) or (data_sinistro is null and id < 100)) order by data_sinistro desc nulls last, id desc fetch first 51 rows only |
+            PacienteRepository.findByPlanoOdontologico | select * from paciente where plano_odontologico = 'Plano Ouro' | IDX_PACIENTE_PLANO
+            PacienteRepository.findPacientesOlderThan | select * from paciente where idade > 60 | IDX_PACIENTE_IDADE
+            PacienteRepository.findByAtivoTrueAndIdGreaterThanOrderByIdAsc | select * from paciente where ativo = true and id > 100 order by id fetch first 50 rows only | IDX_PACIENTE_ATIVO_ID
+            """)
+    void consultaUsaIndice(String consulta, String sql, String indice) {
+        String plano = (String) entityManager.createNativeQuery("explain " + sql).getSingleResult();
+
+        assertThat(plano).as("plano de %s", consulta).doesNotContain("tableScan");
+        if (indice != null) {
+            assertThat(plano).as("plano de %s", consulta).containsIgnoringCase(indice);
+        }
+    }
+}
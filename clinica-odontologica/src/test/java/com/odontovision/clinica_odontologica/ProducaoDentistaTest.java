@@ -0,0 +1,198 @@
+package com.odontovision.clinica_odontologica;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.MotorFraude;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoLoteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import com.odontovision.clinica_odontologica.service.ProducaoDentistaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Verifica os contadores de produção diária por dentista: inclusões (uma a uma e em lote),
+ * alterações de custo, de dia e de dentista e exclusões se refletem em
+ * {@code GET /dentistas/{id}/producao}, que coincide com a agregação da tabela de procedimentos.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "clinica.agendamento.habilitado=false")
+class ProducaoDentistaTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+    private static final LocalDate PRIMEIRO_DIA = LocalDate.of(2024, 4, 1);
+    private static final LocalDate SEGUNDO_DIA = LocalDate.of(2024, 4, 2);
+    private static final LocalDate TERCEIRO_DIA = LocalDate.of(2024, 4, 3);
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    @Autowired
+    private ProcedimentoLoteService procedimentoLoteService;
+
+    @Autowired
+    private ProducaoDentistaService producaoDentistaService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    private Long pacienteId;
+    private Long dentistaId;
+    private Long outroDentistaId;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCIA.incrementAndGet();
+        PacienteDTO paciente = new PacienteDTO();
+        paciente.setNome("Paciente Producao " + n);
+        paciente.setCpf(String.format("960.000.%03d-00", n));
+        paciente.setIdade(41);
+        paciente.setPlanoOdontologico("Plano Prata");
+        pacienteId = pacienteService.salvarPaciente(paciente).getId();
+        dentistaId = dentista(n * 2);
+        outroDentistaId = dentista(n * 2 + 1);
+    }
+
+    @Test
+    void contadoresAcompanhamInclusoesAlteracoesEExclusoes() throws Exception {
+        ProcedimentoDTO removido = procedimentoService.salvarProcedimento(procedimento(dentistaId, PRIMEIRO_DIA, 100.0));
+        ProcedimentoDTO reajustado = procedimentoService.salvarProcedimento(procedimento(dentistaId, PRIMEIRO_DIA, 50.0));
+        ProcedimentoDTO transferido = procedimentoService.salvarProcedimento(procedimento(dentistaId, SEGUNDO_DIA, 200.0));
+        String lote = String.join("\n",
+                objectMapper.writeValueAsString(procedimento(dentistaId, SEGUNDO_DIA, 30.0)),
+                objectMapper.writeValueAsString(procedimento(dentistaId, SEGUNDO_DIA, 30.0)));
+        assertThat(procedimentoLoteService.importar(new ByteArrayInputStream(lote.getBytes(StandardCharsets.UTF_8))).getImportadas())
+                .isEqualTo(2);
+
+        reajustado.setCusto(80.0);
+        procedimentoService.atualizarProcedimento(reajustado.getId(), reajustado);
+        transferido.setDentistaId(outroDentistaId);
+        transferido.setDataProcedimento(TERCEIRO_DIA);
+        procedimentoService.atualizarProcedimento(transferido.getId(), transferido);
+        procedimentoService.deletarProcedimento(removido.getId());
+
+        JsonNode producao = producao(dentistaId, "?de=" + PRIMEIRO_DIA + "&ate=" + TERCEIRO_DIA);
+        assertThat(producao.path("procedimentos").asLong()).isEqualTo(3);
+        assertThat(producao.path("faturamento").asDouble()).isCloseTo(140.0, within(1e-9));
+        assertThat(producao.path("dias")).hasSize(2);
+        assertThat(producao.path("dias").get(0).path("dia").asText()).isEqualTo(PRIMEIRO_DIA.toString());
+        assertThat(producao.path("dias").get(0).path("procedimentos").asLong()).isEqualTo(1);
+        assertThat(producao.path("dias").get(0).path("faturamento").asDouble()).isCloseTo(80.0, within(1e-9));
+        assertThat(producao.path("dias").get(1).path("procedimentos").asLong()).isEqualTo(2);
+
+        JsonNode outro = producao(outroDentistaId, "?de=" + PRIMEIRO_DIA + "&ate=" + TERCEIRO_DIA);
+        assertThat(outro.path("procedimentos").asLong()).isEqualTo(1);
+        assertThat(outro.path("dias").get(0).path("dia").asText()).isEqualTo(TERCEIRO_DIA.toString());
+
+        for (Long id : new Long[]{dentistaId, outroDentistaId}) {
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM producao_dentista_dia c WHERE c.dentista_id = ? AND c.quantidade <> "
+                            + "(SELECT COUNT(*) FROM procedimento p WHERE p.dentista_id = c.dentista_id AND p.data_procedimento = c.dia)",
+                    Long.class, id)).isZero();
+        }
+    }
+
+    @Test
+    void primeirasGravacoesConcorrentesDoDiaSaoSomadas() throws Exception {
+        MotorFraude.Evento procedimento = new MotorFraude.Evento(null, "Limpeza", 40.0, TERCEIRO_DIA, pacienteId, dentistaId);
+        CountDownLatch inserida = new CountDownLatch(1);
+
+        // A primeira transação cria a linha do dia e demora a confirmar; a segunda também não a encontra
+        CompletableFuture<Void> primeira = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            producaoDentistaService.incluir(procedimento);
+            inserida.countDown();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(inserida.await(10, TimeUnit.SECONDS)).isTrue();
+        transactionTemplate.executeWithoutResult(status -> producaoDentistaService.incluir(procedimento));
+        primeira.get(10, TimeUnit.SECONDS);
+
+        Map<String, Object> contadores = jdbcTemplate.queryForMap(
+                "SELECT quantidade, custo_total FROM producao_dentista_dia WHERE dentista_id = ? AND dia = ?", dentistaId, TERCEIRO_DIA);
+        assertThat(((Number) contadores.get("QUANTIDADE")).longValue()).isEqualTo(2);
+        assertThat(((Number) contadores.get("CUSTO_TOTAL")).doubleValue()).isCloseTo(80.0, within(1e-9));
+    }
+
+    @Test
+    void dentistaInexistenteEPeriodoInvalido() throws Exception {
+        assertThat(get("/dentistas/999999999/producao").statusCode()).isEqualTo(404);
+        assertThat(get("/dentistas/" + dentistaId + "/producao?de=2024-05-02&ate=2024-05-01").statusCode()).isEqualTo(400);
+        assertThat(producao(dentistaId, "").path("procedimentos").asLong()).isZero();
+    }
+
+    private JsonNode producao(Long id, String parametros) throws Exception {
+        HttpResponse<String> resposta = get("/dentistas/" + id + "/producao" + parametros);
+        assertThat(resposta.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(resposta.body());
+    }
+
+    private HttpResponse<String> get(String caminho) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho)).GET().build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Long dentista(int n) {
+        DentistaDTO dentista = new DentistaDTO();
+        dentista.setNome("Dentista Producao " + n);
+        dentista.setNumeroLicenca(String.format("CRO4%04d", n));
+        return dentistaService.salvarDentista(dentista).getId();
+    }
+
+    private ProcedimentoDTO procedimento(Long dentista, LocalDate data, double custo) {
+        ProcedimentoDTO procedimento = new ProcedimentoDTO();
+        procedimento.setTipoProcedimento("Limpeza");
+        procedimento.setDataProcedimento(data);
+        procedimento.setCusto(custo);
+        procedimento.setPacienteId(pacienteId);
+        procedimento.setDentistaId(dentista);
+        return procedimento;
+    }
+}
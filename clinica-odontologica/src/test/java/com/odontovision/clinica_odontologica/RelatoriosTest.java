@@ -0,0 +1,158 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.dto.CustoTipoMesDTO;
+import com.odontovision.clinica_odontologica.dto.FraudePlanoDTO;
+import com.odontovision.clinica_odontologica.dto.ProducaoDentistaDTO;
+import com.odontovision.clinica_odontologica.dto.SinistrosPacienteDTO;
+import com.odontovision.clinica_odontologica.dto.SinistrosPlanoDTO;
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.model.Sinistro;
+import com.odontovision.clinica_odontologica.service.RelatorioService;
+import com.odontovision.clinica_odontologica.service.ResumoDiarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Verifica os valores dos relatórios agregados pelo banco sobre uma massa pequena e conhecida.
+ * <p>
+ * Dois pacientes (planos Ouro e Prata), dois dentistas e procedimentos em janeiro e fevereiro
+ * de 2024; um procedimento de dezembro de 2023 fica fora do período consultado. Os resumos
+ * diários são montados antes de cada teste.
+ * </p>
+ */
+@DataJpaTest
+@Import({RelatorioService.class, ResumoDiarioService.class})
+class RelatoriosTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FIM = LocalDate.of(2024, 2, 29);
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @BeforeEach
+    void setUp() {
+        Paciente ana = paciente("Ana", "111.111.111-11", "Plano Ouro");
+        Paciente bruno = paciente("Bruno", "222.222.222-22", "Plano Prata");
+        Dentista carla = dentista("Carla", "CRO00001");
+        Dentista davi = dentista("Davi", "CRO00002");
+
+        procedimento("Canal", LocalDate.of(2024, 1, 5), 100.0, ana, carla, false);
+        procedimento("Canal", LocalDate.of(2024, 1, 10), 200.0, ana, carla, false);
+        procedimento("Canal", LocalDate.of(2024, 1, 20), 300.0, bruno, carla, true);
+        procedimento("Canal", LocalDate.of(2024, 1, 25), 400.0, bruno, davi, false);
+        procedimento("Limpeza", LocalDate.of(2024, 2, 3), 80.0, ana, davi, false);
+        procedimento("Limpeza", LocalDate.of(2023, 12, 30), 9_999.0, ana, davi, true);
+
+        sinistro(LocalDate.of(2024, 1, 6), bruno, true);
+        sinistro(LocalDate.of(2024, 1, 7), bruno, false);
+        sinistro(LocalDate.of(2024, 2, 7), ana, false);
+
+        testEntityManager.flush();
+        resumoDiarioService.atualizar();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void custosPorTipoEMesComPercentis() {
+        assertThat(relatorioService.custosPorTipoEMes(INICIO, FIM)).satisfiesExactly(
+                canal -> {
+                    assertThat(canal).extracting(CustoTipoMesDTO::tipoProcedimento, CustoTipoMesDTO::ano, CustoTipoMesDTO::mes, CustoTipoMesDTO::quantidade)
+                            .containsExactly("Canal", 2024, 1, 4L);
+                    assertThat(canal.custoTotal()).isEqualTo(1_000.0);
+                    assertThat(canal.custoMedio()).isEqualTo(250.0);
+                    assertThat(canal.custoP50()).isCloseTo(250.0, within(1e-9));
+                    assertThat(canal.custoP90()).isCloseTo(370.0, within(1e-9));
+                },
+                limpeza -> assertThat(limpeza).extracting(CustoTipoMesDTO::tipoProcedimento, CustoTipoMesDTO::mes, CustoTipoMesDTO::custoTotal)
+                        .containsExactly("Limpeza", 2, 80.0));
+    }
+
+    @Test
+    void producaoPorDentista() {
+        assertThat(relatorioService.producaoPorDentista(INICIO, FIM))
+                .extracting(ProducaoDentistaDTO::nome, ProducaoDentistaDTO::procedimentos, ProducaoDentistaDTO::faturamento)
+                .containsExactly(
+                        tuple("Carla", 3L, 600.0),
+                        tuple("Davi", 2L, 480.0));
+    }
+
+    @Test
+    void sinistrosPorPacienteLimitados() {
+        assertThat(relatorioService.sinistrosPorPaciente(INICIO, FIM, 1))
+                .extracting(SinistrosPacienteDTO::nome, SinistrosPacienteDTO::sinistros, SinistrosPacienteDTO::sinistrosComRisco)
+                .containsExactly(tuple("Bruno", 2L, 1L));
+    }
+
+    @Test
+    void taxaDeFraudePorPlano() {
+        assertThat(relatorioService.fraudePorPlano(INICIO, FIM))
+                .extracting(FraudePlanoDTO::planoOdontologico, FraudePlanoDTO::procedimentos, FraudePlanoDTO::suspeitos, FraudePlanoDTO::taxaFraude)
+                .containsExactly(
+                        tuple("Plano Ouro", 3L, 0L, 0.0),
+                        tuple("Plano Prata", 2L, 1L, 0.5));
+    }
+
+    @Test
+    void sinistrosPorPlano() {
+        assertThat(relatorioService.sinistrosPorPlano(INICIO, FIM))
+                .extracting(SinistrosPlanoDTO::planoOdontologico, SinistrosPlanoDTO::tipoSinistro, SinistrosPlanoDTO::sinistros, SinistrosPlanoDTO::comRisco)
+                .containsExactly(
+                        tuple("Plano Ouro", "Reembolso", 1L, 0L),
+                        tuple("Plano Prata", "Reembolso", 2L, 1L));
+    }
+
+    private Paciente paciente(String nome, String cpf, String plano) {
+        Paciente paciente = new Paciente();
+        paciente.setNome(nome);
+        paciente.setCpf(cpf);
+        paciente.setIdade(30);
+        paciente.setPlanoOdontologico(plano);
+        return testEntityManager.persist(paciente);
+    }
+
+    private Dentista dentista(String nome, String cro) {
+        Dentista dentista = new Dentista();
+        dentista.setNome(nome);
+        dentista.setNumeroLicenca(cro);
+        return testEntityManager.persist(dentista);
+    }
+
+    private void procedimento(String tipo, LocalDate data, double custo, Paciente paciente, Dentista dentista, boolean risco) {
+        Procedimento procedimento = new Procedimento();
+        procedimento.setTipoProcedimento(tipo);
+        procedimento.setDataProcedimento(data);
+        procedimento.setCusto(custo);
+        procedimento.setPaciente(paciente);
+        procedimento.setDentista(dentista);
+        procedimento.setRiscoFraude(risco);
+        testEntityManager.persist(procedimento);
+    }
+
+    private void sinistro(LocalDate data, Paciente paciente, boolean risco) {
+        Sinistro sinistro = new Sinistro();
+        sinistro.setTipoSinistro("Reembolso");
+        sinistro.setDataSinistro(data);
+        sinistro.setPaciente(paciente);
+        sinistro.setRiscoFraude(risco);
+        testEntityManager.persist(sinistro);
+    }
+}
@@ -0,0 +1,137 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.config.MonitorReplica;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica o roteamento para a réplica de leitura com dois bancos H2: transações somente leitura
+ * vão à réplica enquanto o batimento replicado estiver em dia, voltam ao primário quando ele
+ * atrasa, e as escritas nunca saem do primário. A busca por ID, que alimenta o cache, também fica
+ * no primário.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "clinica.agendamento.habilitado=false",
+        "clinica.replica.habilitada=true",
+        "clinica.replica.datasource.jdbc-url=jdbc:h2:mem:odontovision_replica_teste;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "clinica.replica.datasource.username=sa",
+        "clinica.replica.migrar-esquema=true",
+        "clinica.replica.atraso-maximo-ms=5000"})
+class ReplicaLeituraTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private MonitorReplica monitorReplica;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("dataSourcePrimario")
+    private DataSource dataSourcePrimario;
+
+    @Autowired
+    @Qualifier("dataSourceReplica")
+    private DataSource dataSourceReplica;
+
+    @Test
+    void replicaEmDiaAtendeAsLeiturasEEscritasVaoAoPrimario() {
+        long somenteNaReplica = pacienteNaReplica();
+        batimentoNaReplica(System.currentTimeMillis());
+        monitorReplica.verificar();
+        assertThat(monitorReplica.isDisponivel()).isTrue();
+
+        assertThat(pacienteService.listarTodos()).extracting(PacienteDTO::getId).contains(somenteNaReplica);
+        assertThat(pacienteService.buscarPorId(somenteNaReplica)).isEmpty();
+
+        PacienteDTO gravado = pacienteService.salvarPaciente(paciente());
+        assertThat(contar(dataSourcePrimario, gravado.getCpf())).isOne();
+        assertThat(contar(dataSourceReplica, gravado.getCpf())).isZero();
+    }
+
+    @Test
+    void replicaAtrasadaDevolveAsLeiturasAoPrimario() {
+        long somenteNaReplica = pacienteNaReplica();
+        PacienteDTO noPrimario = pacienteService.salvarPaciente(paciente());
+        batimentoNaReplica(System.currentTimeMillis() - 60_000);
+        monitorReplica.verificar();
+        assertThat(monitorReplica.isDisponivel()).isFalse();
+        assertThat(monitorReplica.getAtrasoMs()).isGreaterThanOrEqualTo(60_000);
+
+        assertThat(pacienteService.listarTodos()).extracting(PacienteDTO::getId)
+                .contains(noPrimario.getId())
+                .doesNotContain(somenteNaReplica);
+        assertThat(pacienteService.buscarPorId(somenteNaReplica)).isEmpty();
+    }
+
+    @Test
+    void leituraEmCacheDepoisDeUmaEscritaTrazANovaVersao() {
+        PacienteDTO gravado = pacienteService.salvarPaciente(paciente());
+        // A réplica fica com a versão gravada e não recebe a alteração seguinte, como se estivesse atrasada
+        new JdbcTemplate(dataSourceReplica).update(
+                "INSERT INTO paciente (id, nome, cpf, idade, ativo, plano_odontologico, versao) VALUES (?, ?, ?, ?, TRUE, ?, ?)",
+                gravado.getId(), gravado.getNome(), gravado.getCpf(), gravado.getIdade(), gravado.getPlanoOdontologico(), gravado.getVersao());
+        batimentoNaReplica(System.currentTimeMillis());
+        monitorReplica.verificar();
+        assertThat(monitorReplica.isDisponivel()).isTrue();
+        assertThat(pacienteService.buscarPorId(gravado.getId())).get()
+                .extracting(PacienteDTO::getVersao).isEqualTo(gravado.getVersao());
+
+        gravado.setNome(gravado.getNome() + " Alterado");
+        PacienteDTO alterado = pacienteService.atualizarPaciente(gravado.getId(), gravado).orElseThrow();
+
+        assertThat(alterado.getVersao()).isGreaterThan(gravado.getVersao());
+        // Sem o cache de segundo nível (expirado, ou alterado por outra instância), a leitura vai ao banco
+        entityManagerFactory.getCache().evict(Paciente.class, gravado.getId());
+        assertThat(pacienteService.buscarPorId(gravado.getId())).get()
+                .satisfies(p -> {
+                    assertThat(p.getVersao()).isEqualTo(alterado.getVersao());
+                    assertThat(p.getNome()).isEqualTo(alterado.getNome());
+                });
+    }
+
+    private long pacienteNaReplica() {
+        int n = SEQUENCIA.incrementAndGet();
+        long id = 9_400_000L + n;
+        new JdbcTemplate(dataSourceReplica).update(
+                "INSERT INTO paciente (id, nome, cpf, idade, ativo, plano_odontologico) VALUES (?, ?, ?, ?, TRUE, ?)",
+                id, "Paciente Replica " + n, String.format("940.000.000-%02d", n), 40, "Plano Ouro");
+        return id;
+    }
+
+    private void batimentoNaReplica(long registradoEmMs) {
+        new JdbcTemplate(dataSourceReplica).update("UPDATE replica_batimento SET registrado_em_ms = ? WHERE id = 1", registradoEmMs);
+    }
+
+    private static long contar(DataSource dataSource, String cpf) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM paciente WHERE cpf = ?", Long.class, cpf);
+    }
+
+    private static PacienteDTO paciente() {
+        int n = SEQUENCIA.incrementAndGet();
+        PacienteDTO paciente = new PacienteDTO();
+        paciente.setNome("Paciente Primario " + n);
+        paciente.setCpf(String.format("940.000.001-%02d", n));
+        paciente.setIdade(45);
+        paciente.setPlanoOdontologico("Plano Prata");
+        return paciente;
+    }
+}
@@ -0,0 +1,217 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.model.Dentista;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.model.Procedimento;
+import com.odontovision.clinica_odontologica.model.ResumoProcedimentoDia;
+import com.odontovision.clinica_odontologica.model.ResumoSinistroDia;
+import com.odontovision.clinica_odontologica.model.Sinistro;
+import com.odontovision.clinica_odontologica.service.ResumoDiarioService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confere os resumos diários contra as mesmas agregações feitas diretamente sobre
+ * {@code procedimento} e {@code sinistro}, na montagem inicial, na atualização incremental
+ * e na reconstrução completa.
+ */
+@DataJpaTest
+@Import(ResumoDiarioService.class)
+class ResumoDiarioTest {
+
+    private static final String PROCEDIMENTOS_POR_DIA = "SELECT p.dataProcedimento, p.dentista.id, p.tipoProcedimento, COUNT(p), SUM(p.custo), "
+            + "SUM(CASE WHEN p.riscoFraude = true THEN 1L ELSE 0L END) FROM Procedimento p "
+            + "GROUP BY p.dataProcedimento, p.dentista.id, p.tipoProcedimento";
+
+    private static final String SINISTROS_POR_DIA = "SELECT s.dataSinistro, COALESCE(pa.planoOdontologico, '-'), COALESCE(s.tipoSinistro, '-'), COUNT(s), "
+            + "SUM(CASE WHEN s.riscoFraude = true THEN 1L ELSE 0L END) FROM Sinistro s LEFT JOIN s.paciente pa "
+            + "WHERE s.dataSinistro IS NOT NULL GROUP BY s.dataSinistro, COALESCE(pa.planoOdontologico, '-'), COALESCE(s.tipoSinistro, '-')";
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    private Paciente ana;
+    private Paciente bruno;
+    private Dentista carla;
+    private Dentista davi;
+
+    @BeforeEach
+    void setUp() {
+        ana = paciente("Ana", "111.111.111-11", "Plano Ouro");
+        bruno = paciente("Bruno", "222.222.222-22", null);
+        carla = dentista("Carla", "CRO00001");
+        davi = dentista("Davi", "CRO00002");
+
+        procedimento("Canal", LocalDate.of(2024, 3, 1), 300.0, ana, carla, false);
+        procedimento("Canal", LocalDate.of(2024, 3, 1), 450.0, bruno, carla, true);
+        procedimento("Limpeza", LocalDate.of(2024, 3, 1), 80.0, ana, davi, false);
+        procedimento("Limpeza", LocalDate.of(2024, 3, 2), 90.0, bruno, davi, false);
+
+        sinistro("Reembolso", LocalDate.of(2024, 3, 1), ana, true);
+        sinistro("Reembolso", LocalDate.of(2024, 3, 1), bruno, false);
+        sinistro(null, LocalDate.of(2024, 3, 2), bruno, false);
+        sinistro("Glosa", null, ana, false);
+    }
+
+    @Test
+    void montagemInicialIgualAsTabelasDeOrigem() {
+        atualizar();
+
+        assertThat(procedimentosResumidos()).hasSize(3);
+        conferir();
+    }
+
+    @Test
+    void atualizacaoIncorporaRegistrosNovosInclusiveEmDiasAntigos() {
+        atualizar();
+
+        procedimento("Canal", LocalDate.of(2024, 3, 1), 500.0, bruno, carla, true);
+        procedimento("Extração", LocalDate.of(2024, 2, 10), 120.0, ana, davi, false);
+        sinistro("Reembolso", LocalDate.of(2024, 2, 10), ana, false);
+        atualizar();
+
+        assertThat(procedimentosResumidos()).hasSize(4);
+        conferir();
+    }
+
+    @Test
+    void atualizacaoIncorporaIdBaixoConfirmadoDepoisDaMarca() {
+        atualizar();
+
+        // Inclusão de outra instância, com ID de um bloco de sequência antigo, datada fora dos dias reprocessados
+        procedimento("Extração", LocalDate.of(2024, 1, 15), 200.0, ana, carla, false);
+        sinistro("Glosa", LocalDate.of(2024, 1, 15), bruno, true);
+        testEntityManager.flush();
+        EntityManager entityManager = testEntityManager.getEntityManager();
+        entityManager.createNativeQuery("UPDATE procedimento SET id = (SELECT MIN(id) - 1 FROM procedimento) "
+                + "WHERE data_procedimento = DATE '2024-01-15'").executeUpdate();
+        entityManager.createNativeQuery("UPDATE sinistro SET id = (SELECT MIN(id) - 1 FROM sinistro) "
+                + "WHERE data_sinistro = DATE '2024-01-15'").executeUpdate();
+        testEntityManager.clear();
+        atualizar();
+
+        conferir();
+    }
+
+    @Test
+    void atualizacaoRecalculaDiasRegistradosPelasEscritas() {
+        atualizar();
+        // Registros anteriores à marca, fora da sobreposição
+        EntityManager entityManager = testEntityManager.getEntityManager();
+        entityManager.createNativeQuery("UPDATE procedimento SET atualizado_em = TIMESTAMP '2024-03-03 00:00:00'").executeUpdate();
+        entityManager.createNativeQuery("UPDATE sinistro SET atualizado_em = TIMESTAMP '2024-03-03 00:00:00'").executeUpdate();
+        testEntityManager.clear();
+
+        // Procedimento que mudou de data, sinistro excluído e paciente que trocou de plano, registrados
+        // como fazem ProcedimentoService, SinistroService e PacienteService
+        Procedimento movido = testEntityManager.getEntityManager()
+                .createQuery("SELECT p FROM Procedimento p WHERE p.custo = 80.0", Procedimento.class)
+                .getSingleResult();
+        resumoDiarioService.registrarAlteracao(ResumoDiarioService.PROCEDIMENTO, movido.getDataProcedimento(), LocalDate.of(2024, 2, 20));
+        movido.setDataProcedimento(LocalDate.of(2024, 2, 20));
+        Sinistro excluido = testEntityManager.getEntityManager()
+                .createQuery("SELECT s FROM Sinistro s WHERE s.tipoSinistro IS NULL", Sinistro.class)
+                .getSingleResult();
+        resumoDiarioService.registrarRemocao(ResumoDiarioService.SINISTRO, excluido.getDataSinistro());
+        testEntityManager.remove(excluido);
+        testEntityManager.find(Paciente.class, ana.getId()).setPlanoOdontologico("Plano Prata");
+        testEntityManager.flush();
+        resumoDiarioService.registrarTrocaDePlano(ana.getId());
+        atualizar();
+
+        conferir();
+        Number pendentes = (Number) testEntityManager.getEntityManager()
+                .createNativeQuery("SELECT COUNT(*) FROM resumo_dia_pendente")
+                .getSingleResult();
+        assertThat(pendentes.longValue()).isZero();
+    }
+
+    @Test
+    void reconstrucaoIncorporaAlteracoesDeRegistrosAntigos() {
+        atualizar();
+
+        Procedimento alterado = testEntityManager.getEntityManager()
+                .createQuery("SELECT p FROM Procedimento p WHERE p.custo = 80.0", Procedimento.class)
+                .getSingleResult();
+        alterado.setCusto(95.0);
+        alterado.setRiscoFraude(true);
+        testEntityManager.find(Paciente.class, bruno.getId()).setPlanoOdontologico("Plano Prata");
+        testEntityManager.flush();
+
+        resumoDiarioService.reconstruir();
+        testEntityManager.clear();
+
+        conferir();
+    }
+
+    private void atualizar() {
+        testEntityManager.flush();
+        resumoDiarioService.atualizar();
+        testEntityManager.clear();
+    }
+
+    private void conferir() {
+        List<Object[]> procedimentos = testEntityManager.getEntityManager().createQuery(PROCEDIMENTOS_POR_DIA, Object[].class).getResultList();
+        assertThat(procedimentosResumidos())
+                .extracting(r -> List.<Object>of(r.getDia(), r.getDentistaId(), r.getTipoProcedimento(), r.getQuantidade(), r.getCustoTotal(), r.getSuspeitos()))
+                .containsExactlyInAnyOrderElementsOf(procedimentos.stream().map(List::of).toList());
+
+        List<Object[]> sinistros = testEntityManager.getEntityManager().createQuery(SINISTROS_POR_DIA, Object[].class).getResultList();
+        assertThat(testEntityManager.getEntityManager().createQuery("SELECT r FROM ResumoSinistroDia r", ResumoSinistroDia.class).getResultList())
+                .extracting(r -> List.<Object>of(r.getDia(), r.getPlanoOdontologico(), r.getTipoSinistro(), r.getQuantidade(), r.getComRisco()))
+                .containsExactlyInAnyOrderElementsOf(sinistros.stream().map(List::of).toList());
+    }
+
+    private List<ResumoProcedimentoDia> procedimentosResumidos() {
+        return testEntityManager.getEntityManager().createQuery("SELECT r FROM ResumoProcedimentoDia r", ResumoProcedimentoDia.class).getResultList();
+    }
+
+    private Paciente paciente(String nome, String cpf, String plano) {
+        Paciente paciente = new Paciente();
+        paciente.setNome(nome);
+        paciente.setCpf(cpf);
+        paciente.setIdade(30);
+        paciente.setPlanoOdontologico(plano);
+        return testEntityManager.persist(paciente);
+    }
+
+    private Dentista dentista(String nome, String cro) {
+        Dentista dentista = new Dentista();
+        dentista.setNome(nome);
+        dentista.setNumeroLicenca(cro);
+        return testEntityManager.persist(dentista);
+    }
+
+    private void procedimento(String tipo, LocalDate data, double custo, Paciente paciente, Dentista dentista, boolean risco) {
+        Procedimento procedimento = new Procedimento();
+        procedimento.setTipoProcedimento(tipo);
+        procedimento.setDataProcedimento(data);
+        procedimento.setCusto(custo);
+        procedimento.setPaciente(testEntityManager.find(Paciente.class, paciente.getId()));
+        procedimento.setDentista(testEntityManager.find(Dentista.class, dentista.getId()));
+        procedimento.setRiscoFraude(risco);
+        testEntityManager.persist(procedimento);
+    }
+
+    private void sinistro(String tipo, LocalDate data, Paciente paciente, boolean risco) {
+        Sinistro sinistro = new Sinistro();
+        sinistro.setTipoSinistro(tipo);
+        sinistro.setDataSinistro(data);
+        sinistro.setPaciente(testEntityManager.find(Paciente.class, paciente.getId()));
+        sinistro.setRiscoFraude(risco);
+        testEntityManager.persist(sinistro);
+    }
+}
@@ -0,0 +1,154 @@
+package com.odontovision.clinica_odontologica;
+
+import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.FiltroDentistasDTO;
+import com.odontovision.clinica_odontologica.dto.FiltroPacientesDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.SituacaoEmMassaDTO;
+import com.odontovision.clinica_odontologica.model.Paciente;
+import com.odontovision.clinica_odontologica.repository.DentistaRepository;
+import com.odontovision.clinica_odontologica.repository.PacienteRepository;
+import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica a desativação e a reativação em massa: seleção pelos critérios combinados, UPDATEs em partes
+ * de {@code clinica.situacao.tamanho-lote} IDs, contagens devolvidas e remoção das entradas do cache.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"clinica.agendamento.habilitado=false", "clinica.situacao.tamanho-lote=2"})
+class SituacaoEmMassaTest {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private DentistaRepository dentistaRepository;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    @Test
+    void desativaPacientesDoPlanoEmPartes() {
+        String plano = "Plano Parceiro " + SEQUENCIA.incrementAndGet();
+        List<Long> doPlano = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            doPlano.add(paciente(plano, 30 + i));
+        }
+        Long deOutroPlano = paciente("Plano Ouro", 30);
+        // Carrega o cache por ID antes da alteração em massa
+        doPlano.forEach(id -> assertThat(pacienteService.buscarPorId(id).orElseThrow().getAtivo()).isTrue());
+
+        SituacaoEmMassaDTO resultado = pacienteService.alterarSituacao(new FiltroPacientesDTO(null, plano, null, null), false);
+
+        assertThat(resultado).isEqualTo(new SituacaoEmMassaDTO(5, 5, 3));
+        for (Long id : doPlano) {
+            // Sem a remoção do cache, o paciente ainda seria devolvido como ativo
+            assertThat(pacienteService.buscarPorId(id)).isEmpty();
+            Paciente paciente = pacienteRepository.findById(id).orElseThrow();
+            assertThat(paciente.getAtivo()).isFalse();
+            assertThat(paciente.getVersao()).isEqualTo(1L);
+        }
+        assertThat(pacienteService.buscarPorId(deOutroPlano)).isPresent();
+        assertThat(pacienteService.alterarSituacao(new FiltroPacientesDTO(null, plano, null, null), false))
+                .isEqualTo(new SituacaoEmMassaDTO(0, 0, 0));
+    }
+
+    @Test
+    void reativaSomenteOsIdsQueAtendemAoFiltro() {
+        String plano = "Plano Parceiro " + SEQUENCIA.incrementAndGet();
+        Long jovem = paciente(plano, 20);
+        Long idoso = paciente(plano, 70);
+        Long deOutroPlano = paciente("Plano Prata", 70);
+        pacienteService.alterarSituacao(new FiltroPacientesDTO(List.of(jovem, idoso, deOutroPlano), null, null, null), false);
+
+        SituacaoEmMassaDTO resultado = pacienteService.alterarSituacao(
+                new FiltroPacientesDTO(List.of(jovem, idoso, deOutroPlano, idoso), plano, 60, null), true);
+
+        assertThat(resultado).isEqualTo(new SituacaoEmMassaDTO(1, 1, 1));
+        assertThat(pacienteService.buscarPorId(idoso)).isPresent();
+        assertThat(pacienteService.buscarPorId(jovem)).isEmpty();
+        assertThat(pacienteService.buscarPorId(deOutroPlano)).isEmpty();
+    }
+
+    @Test
+    void desativaDentistasSemProcedimentosRecentes() {
+        int n = SEQUENCIA.incrementAndGet();
+        Long pacienteId = paciente("Plano Ouro", 40);
+        Long comProcedimento = dentista("Dentista Em Massa A" + n, String.format("CRO6%04d", n * 2));
+        Long semProcedimento = dentista("Dentista Em Massa B" + n, String.format("CRO6%04d", n * 2 + 1));
+        ProcedimentoDTO procedimento = new ProcedimentoDTO();
+        procedimento.setTipoProcedimento("Limpeza");
+        procedimento.setDataProcedimento(LocalDate.of(2024, 5, 10));
+        procedimento.setCusto(150.0);
+        procedimento.setPacienteId(pacienteId);
+        procedimento.setDentistaId(comProcedimento);
+        procedimentoService.salvarProcedimento(procedimento);
+
+        SituacaoEmMassaDTO resultado = dentistaService.alterarSituacao(
+                new FiltroDentistasDTO(List.of(comProcedimento, semProcedimento), LocalDate.of(2024, 1, 1)), false);
+
+        assertThat(resultado).isEqualTo(new SituacaoEmMassaDTO(1, 1, 1));
+        assertThat(dentistaRepository.findById(comProcedimento).orElseThrow().isAtivo()).isTrue();
+        assertThat(dentistaRepository.findById(semProcedimento).orElseThrow().isAtivo()).isFalse();
+    }
+
+    @Test
+    void filtroSemCriterioEhRejeitado() throws Exception {
+        HttpResponse<String> resposta = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/pacientes/desativacoes"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"ids\":[]}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(resposta.statusCode()).isEqualTo(400);
+    }
+
+    private Long paciente(String plano, int idade) {
+        int n = SEQUENCIA.incrementAndGet();
+        PacienteDTO paciente = new PacienteDTO();
+        paciente.setNome("Paciente Em Massa " + n);
+        paciente.setCpf(String.format("930.000.%03d-00", n));
+        paciente.setIdade(idade);
+        paciente.setPlanoOdontologico(plano);
+        return pacienteService.salvarPaciente(paciente).getId();
+    }
+
+    private Long dentista(String nome, String licenca) {
+        DentistaDTO dentista = new DentistaDTO();
+        dentista.setNome(nome);
+        dentista.setNumeroLicenca(licenca);
+        return dentistaService.salvarDentista(dentista).getId();
+    }
+}
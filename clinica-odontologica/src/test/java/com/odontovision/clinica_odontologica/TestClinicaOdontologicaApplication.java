@@ -0,0 +1,14 @@
+package com.odontovision.clinica_odontologica;
+
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Inicia a aplicação com o classpath de testes (driver H2 e perfis de src/test/resources), para
+ * executá-la localmente sem o Oracle: {@code mvn spring-boot:test-run -Dspring-boot.run.profiles=test}.
+ */
+public class TestClinicaOdontologicaApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.from(ClinicaOdontologicaApplication::main).run(args);
+    }
+}
@@ -0,0 +1,185 @@
+package com.odontovision.clinica_odontologica;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontovision.clinica_odontologica.dto.DentistaDTO;
+import com.odontovision.clinica_odontologica.dto.PacienteDTO;
+import com.odontovision.clinica_odontologica.dto.ProcedimentoDTO;
+import com.odontovision.clinica_odontologica.dto.SinistroDTO;
+import com.odontovision.clinica_odontologica.service.DentistaService;
+import com.odontovision.clinica_odontologica.service.PacienteService;
+import com.odontovision.clinica_odontologica.service.ProcedimentoService;
+import com.odontovision.clinica_odontologica.service.SinistroService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Verifica a varredura de fraude: procedimentos com pontuação desatualizada são reavaliados
+ * (com nova versão e evento no outbox), o sinistro do procedimento que passou a ter risco é
+ * marcado, a marcação manual é preservada e uma varredura interrompida é retomada do ponto de
+ * retomada gravado, sem reprocessar o que já foi confirmado.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"clinica.agendamento.habilitado=false", "clinica.fraude.varredura.tamanho-lote=3"})
+class VarreduraFraudeTest {
+
+    private static final LocalDate DIA = LocalDate.of(2023, 3, 10);
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private DentistaService dentistaService;
+
+    @Autowired
+    private ProcedimentoService procedimentoService;
+
+    @Autowired
+    private SinistroService sinistroService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @Test
+    void reavaliaProcedimentosEDepoisRetomaVarreduraInterrompida() throws Exception {
+        PacienteDTO paciente = new PacienteDTO();
+        paciente.setNome("Paciente Varredura");
+        paciente.setCpf("980.000.001-00");
+        paciente.setIdade(52);
+        Long pacienteId = pacienteService.salvarPaciente(paciente).getId();
+        DentistaDTO dentista = new DentistaDTO();
+        dentista.setNome("Dentista Varredura");
+        dentista.setNumeroLicenca("CRO20001");
+        Long dentistaId = dentistaService.salvarDentista(dentista).getId();
+
+        // Oito procedimentos do paciente no mesmo dia: com a janela terminando no dia, todos passam do limite de 5
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ProcedimentoDTO procedimento = new ProcedimentoDTO();
+            procedimento.setTipoProcedimento("Varredura");
+            procedimento.setDataProcedimento(DIA);
+            procedimento.setCusto(100.0);
+            procedimento.setPacienteId(pacienteId);
+            procedimento.setDentistaId(dentistaId);
+            ids.add(procedimentoService.salvarProcedimento(procedimento).getId());
+        }
+        Long manual = ids.get(7);
+        SinistroDTO sinistro = new SinistroDTO();
+        sinistro.setTipoSinistro("Uso Indevido");
+        sinistro.setDataSinistro(DIA);
+        sinistro.setProcedimentoId(ids.get(0));
+        sinistro.setDentistaId(dentistaId);
+        sinistro.setPacienteId(pacienteId);
+        sinistro.setRiscoFraude(false);
+        Long sinistroId = sinistroService.salvarSinistro(sinistro).getId();
+
+        desatualizar(pacienteId, manual);
+        long versaoAnterior = versao(ids.get(0));
+
+        JsonNode concluida = executar();
+        assertThat(concluida.path("situacao").asText()).isEqualTo("CONCLUIDA");
+        assertThat(concluida.path("percentual").asDouble()).isEqualTo(100.0);
+        assertThat(concluida.path("alterados").asLong()).isGreaterThanOrEqualTo(7);
+        assertThat(concluida.path("particoes")).allSatisfy(particao -> assertThat(particao.path("concluida").asBoolean()).isTrue());
+
+        for (Long id : ids.subList(0, 7)) {
+            assertReavaliado(id);
+        }
+        assertThat(pontuacao(manual)).containsEntry("REGRAS_FRAUDE", "MARCACAO_MANUAL");
+        assertThat(versao(ids.get(0))).isEqualTo(versaoAnterior + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM evento_outbox WHERE agregado = 'procedimento' "
+                + "AND agregado_id = ? AND tipo = 'ATUALIZADO'", Long.class, ids.get(0))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT risco_fraude FROM sinistro WHERE id = ?", Boolean.class, sinistroId)).isTrue();
+
+        // Interrompida depois de confirmar o primeiro procedimento: a retomada reavalia só os seguintes
+        desatualizar(pacienteId, manual);
+        jdbcTemplate.update("UPDATE varredura_fraude SET situacao = 'EM_ANDAMENTO', concluida_em = NULL, executor = 'interrompida' "
+                + "WHERE id = ?", concluida.path("id").asLong());
+        jdbcTemplate.update("UPDATE varredura_fraude_particao SET atualizada_em = ?, ultimo_id = CASE "
+                        + "WHEN id_final <= ? THEN id_final WHEN id_inicial > ? THEN id_inicial - 1 ELSE ? END WHERE varredura_id = ?",
+                DIA.atStartOfDay(), ids.get(0), ids.get(0), ids.get(0), concluida.path("id").asLong());
+
+        JsonNode retomada = executar();
+        assertThat(retomada.path("id").asLong()).isEqualTo(concluida.path("id").asLong());
+        assertThat(retomada.path("situacao").asText()).isEqualTo("CONCLUIDA");
+        assertThat(pontuacao(ids.get(0))).containsEntry("RISCO_FRAUDE", false);
+        for (Long id : ids.subList(1, 7)) {
+            assertReavaliado(id);
+        }
+    }
+
+    /**
+     * Simula pontuações calculadas com regras antigas, deixando um procedimento com marcação manual.
+     */
+    private void desatualizar(Long pacienteId, Long manual) {
+        jdbcTemplate.update("UPDATE procedimento SET score_fraude = 0, regras_fraude = NULL, risco_fraude = ? WHERE paciente_id = ?",
+                false, pacienteId);
+        jdbcTemplate.update("UPDATE procedimento SET score_fraude = 1, regras_fraude = 'MARCACAO_MANUAL', risco_fraude = ? WHERE id = ?",
+                true, manual);
+    }
+
+    private void assertReavaliado(Long id) {
+        Map<String, Object> pontuacao = pontuacao(id);
+        assertThat(((Number) pontuacao.get("SCORE_FRAUDE")).doubleValue()).isCloseTo(0.8, within(1e-9));
+        assertThat(pontuacao).containsEntry("REGRAS_FRAUDE", "FREQUENCIA_PACIENTE").containsEntry("RISCO_FRAUDE", true);
+    }
+
+    private Map<String, Object> pontuacao(Long id) {
+        return jdbcTemplate.queryForMap("SELECT score_fraude, regras_fraude, risco_fraude FROM procedimento WHERE id = ?", id);
+    }
+
+    private long versao(Long id) {
+        return jdbcTemplate.queryForObject("SELECT versao FROM procedimento WHERE id = ?", Long.class, id);
+    }
+
+    /**
+     * Inicia (ou retoma) a varredura e espera a conclusão.
+     */
+    private JsonNode executar() throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/admin/fraude/varredura"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        assertThat(cliente.send(requisicao, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(202);
+
+        JsonNode progresso;
+        long limite = System.currentTimeMillis() + 30_000;
+        do {
+            Thread.sleep(50);
+            HttpResponse<String> resposta = get();
+            assertThat(resposta.statusCode()).isEqualTo(200);
+            progresso = objectMapper.readTree(resposta.body());
+        } while ((progresso.path("emExecucao").asBoolean() || !"CONCLUIDA".equals(progresso.path("situacao").asText()))
+                && System.currentTimeMillis() < limite);
+        return progresso;
+    }
+
+    private HttpResponse<String> get() throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/admin/fraude/varredura")).GET().build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,336 @@
+package com.odontovision.clinica_odontologica.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Suíte de carga da API REST contra o perfil {@code test} (H2 em memória, modo Oracle).
+ * <p>
+ * Sobe a aplicação em uma porta aleatória, popula pacientes, dentistas, procedimentos,
+ * diagnósticos e sinistros pela própria API e executa uma carga mista de leitura e escrita
+ * sobre os cinco controladores com {@code carga.usuarios} usuários virtuais. Ao final, grava em
+ * {@code target/carga-relatorio-<modo>.txt} o p50, o p99 e as requisições por segundo de cada operação.
+ * </p>
+ * <p>
+ * Fica fora do {@code mvn test} comum; execute com {@code mvn -Pcarga test}. Volumes e duração
+ * podem ser ajustados com {@code -Dcarga.pacientes}, {@code -Dcarga.dentistas},
+ * {@code -Dcarga.procedimentos}, {@code -Dcarga.usuarios}, {@code -Dcarga.aquecimento} e
+ * {@code -Dcarga.duracao} (em segundos). Com {@code -Dcarga.latencia-banco-ms}, cada comando JDBC
+ * aguarda esse tempo ({@link LatenciaBancoConfiguracao}), aproximando o H2 de um banco remoto.
+ * </p>
+ * <p>
+ * Esta classe mede o modo padrão, com threads de plataforma; {@link CargaApiVirtualTest} repete a
+ * mesma carga com o perfil {@code virtual}.
+ * </p>
+ */
+@Tag("carga")
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(LatenciaBancoConfiguracao.class)
+class CargaApiTest {
+
+    private static final int PACIENTES = Integer.getInteger("carga.pacientes", 2_000);
+    private static final int DENTISTAS = Integer.getInteger("carga.dentistas", 100);
+    private static final int PROCEDIMENTOS = Integer.getInteger("carga.procedimentos", 20_000);
+    private static final int USUARIOS = Integer.getInteger("carga.usuarios", 32);
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(Integer.getInteger("carga.aquecimento", 5));
+    private static final Duration DURACAO = Duration.ofSeconds(Integer.getInteger("carga.duracao", 30));
+    private static final int TAMANHO_LOTE = 500;
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicLong sequenciaCpf = new AtomicLong(PACIENTES);
+
+    @Test
+    void cargaMistaNosCincoControladores() throws Exception {
+        Massa massa = popular();
+        List<Operacao> operacoes = operacoes(massa);
+
+        executar(operacoes, AQUECIMENTO);
+        Medicoes medicoes = executar(operacoes, DURACAO);
+
+        String relatorio = String.format("Carga (%s): %d usuários, %d s, %d pacientes, %d dentistas, %d procedimentos, latência do banco %d ms%n%s",
+                modo(), USUARIOS, DURACAO.toSeconds(), PACIENTES, DENTISTAS, PROCEDIMENTOS, Long.getLong("carga.latencia-banco-ms", 0),
+                medicoes.relatorio(DURACAO.toMillis() / 1000.0));
+        Files.writeString(Path.of("target", "carga-relatorio-" + modo() + ".txt"), relatorio);
+
+        assertThat(medicoes.totalRequisicoes()).isPositive();
+        assertThat(medicoes.totalErros()).isLessThan(Math.max(1, medicoes.totalRequisicoes() / 100));
+    }
+
+    /**
+     * Nome do modo de execução, usado no cabeçalho e no nome do arquivo do relatório.
+     */
+    String modo() {
+        return "plataforma";
+    }
+
+    /**
+     * IDs criados na população, sorteados pelas operações.
+     */
+    private record Massa(List<Long> pacientes, List<Long> dentistas, List<Long> procedimentos,
+                         List<Long> diagnosticos, List<Long> sinistros) {
+
+        static Long sortear(List<Long> ids) {
+            return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+    }
+
+    /**
+     * Operação da carga mista: nome no relatório, peso no sorteio e requisição a enviar.
+     */
+    private record Operacao(String nome, int peso, Function<ThreadLocalRandom, HttpRequest> requisicao) {
+    }
+
+    private List<Operacao> operacoes(Massa massa) {
+        return List.of(
+                new Operacao("GET /pacientes/{id}", 18, aleatorio -> get("/pacientes/" + Massa.sortear(massa.pacientes()))),
+                new Operacao("GET /pacientes?limit", 4, aleatorio -> get("/pacientes?limit=50&cursor=" + Massa.sortear(massa.pacientes()))),
+                new Operacao("POST /pacientes", 2, aleatorio -> post("/pacientes", paciente(sequenciaCpf.incrementAndGet()))),
+                new Operacao("PUT /pacientes/{id}", 4, aleatorio -> put("/pacientes/" + Massa.sortear(massa.pacientes()), paciente(aleatorio.nextLong(PACIENTES)))),
+                new Operacao("GET /pacientes/busca", 6, aleatorio -> get("/pacientes/busca?q=pac%20" + aleatorio.nextInt(1, 100))),
+                new Operacao("GET /dentistas/{id}", 10, aleatorio -> get("/dentistas/" + Massa.sortear(massa.dentistas()))),
+                new Operacao("GET /dentistas?limit", 3, aleatorio -> get("/dentistas?limit=50")),
+                new Operacao("GET /dentistas/busca", 2, aleatorio -> get("/dentistas/busca?q=dent%20" + aleatorio.nextInt(1, 10))),
+                new Operacao("GET /procedimentos/{id}", 12, aleatorio -> get("/procedimentos/" + Massa.sortear(massa.procedimentos()))),
+                new Operacao("GET /procedimentos?limit", 8, aleatorio -> get("/procedimentos?limit=50&cursor=" + Massa.sortear(massa.procedimentos()))),
+                new Operacao("GET /procedimentos/suspeitas-fraude", 1, aleatorio -> get("/procedimentos/suspeitas-fraude")),
+                new Operacao("POST /procedimentos", 10, aleatorio -> post("/procedimentos", procedimento(massa, aleatorio))),
+                new Operacao("GET /diagnosticos/{id}", 8, aleatorio -> get("/diagnosticos/" + Massa.sortear(massa.diagnosticos()))),
+                new Operacao("POST /diagnosticos", 6, aleatorio -> post("/diagnosticos", diagnostico(massa, aleatorio))),
+                new Operacao("GET /sinistros/{id}", 6, aleatorio -> get("/sinistros/" + Massa.sortear(massa.sinistros()))),
+                new Operacao("GET /sinistros?limit", 4, aleatorio -> get("/sinistros?limit=50&cursor=" + Massa.sortear(massa.sinistros()))),
+                new Operacao("POST /sinistros", 4, aleatorio -> post("/sinistros", sinistro(massa, aleatorio))));
+    }
+
+    /**
+     * Executa a carga mista durante o tempo informado, com um fluxo por usuário virtual.
+     */
+    private Medicoes executar(List<Operacao> operacoes, Duration duracao) throws Exception {
+        int pesoTotal = operacoes.stream().mapToInt(Operacao::peso).sum();
+        long fim = System.nanoTime() + duracao.toNanos();
+
+        ExecutorService usuarios = Executors.newFixedThreadPool(USUARIOS);
+        try {
+            List<Future<Medicoes>> resultados = new ArrayList<>();
+            for (int i = 0; i < USUARIOS; i++) {
+                resultados.add(usuarios.submit(() -> {
+                    Medicoes medicoes = new Medicoes();
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fim) {
+                        Operacao operacao = sortear(operacoes, pesoTotal, aleatorio);
+                        HttpRequest requisicao = operacao.requisicao().apply(aleatorio);
+                        long inicio = System.nanoTime();
+                        boolean sucesso;
+                        try {
+                            int status = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            sucesso = status >= 200 && status < 300;
+                        } catch (IOException e) {
+                            sucesso = false;
+                        }
+                        medicoes.registrar(operacao.nome(), System.nanoTime() - inicio, sucesso);
+                    }
+                    return medicoes;
+                }));
+            }
+
+            List<Medicoes> porUsuario = new ArrayList<>();
+            for (Future<Medicoes> resultado : resultados) {
+                porUsuario.add(resultado.get());
+            }
+            return Medicoes.combinar(porUsuario);
+        } finally {
+            usuarios.shutdownNow();
+        }
+    }
+
+    private static Operacao sortear(List<Operacao> operacoes, int pesoTotal, ThreadLocalRandom aleatorio) {
+        int sorteio = aleatorio.nextInt(pesoTotal);
+        for (Operacao operacao : operacoes) {
+            sorteio -= operacao.peso();
+            if (sorteio < 0) {
+                return operacao;
+            }
+        }
+        return operacoes.get(operacoes.size() - 1);
+    }
+
+    // ---- População ---------------------------------------------------------------------------
+
+    /**
+     * Popula o banco pela API: pacientes e dentistas um a um, procedimentos pela importação
+     * em lote e um diagnóstico a cada cinco procedimentos e um sinistro a cada vinte.
+     */
+    private Massa popular() throws Exception {
+        List<Long> pacientes = criarEmParalelo(PACIENTES, i -> post("/pacientes", paciente(i)));
+        List<Long> dentistas = criarEmParalelo(DENTISTAS, i -> post("/dentistas", Map.of(
+                "nome", "Dentista " + i,
+                "numeroLicenca", String.format("CRO%05d", i))));
+
+        Massa parcial = new Massa(pacientes, dentistas, List.of(), List.of(), List.of());
+        List<Long> procedimentos = new ArrayList<>(PROCEDIMENTOS);
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        for (int inicio = 0; inicio < PROCEDIMENTOS; inicio += TAMANHO_LOTE) {
+            StringBuilder ndjson = new StringBuilder();
+            for (int i = inicio; i < Math.min(PROCEDIMENTOS, inicio + TAMANHO_LOTE); i++) {
+                ndjson.append(objectMapper.writeValueAsString(procedimento(parcial, aleatorio))).append('\n');
+            }
+            HttpResponse<String> resposta = enviar(HttpRequest.newBuilder(uri("/procedimentos/lote"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                    .build());
+            for (JsonNode linha : objectMapper.readTree(resposta.body()).get("linhas")) {
+                procedimentos.add(linha.get("id").asLong());
+            }
+        }
+
+        Massa comProcedimentos = new Massa(pacientes, dentistas, procedimentos, List.of(), List.of());
+        List<Long> diagnosticos = criarEmParalelo(PROCEDIMENTOS / 5,
+                i -> post("/diagnosticos", diagnostico(comProcedimentos, ThreadLocalRandom.current())));
+        List<Long> sinistros = criarEmParalelo(PROCEDIMENTOS / 20,
+                i -> post("/sinistros", sinistro(comProcedimentos, ThreadLocalRandom.current())));
+
+        return new Massa(pacientes, dentistas, procedimentos, diagnosticos, sinistros);
+    }
+
+    /**
+     * Envia {@code quantidade} requisições de criação em paralelo e devolve os IDs criados.
+     */
+    private List<Long> criarEmParalelo(int quantidade, Function<Long, HttpRequest> requisicao) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(USUARIOS);
+        try {
+            List<Future<Long>> ids = new ArrayList<>(quantidade);
+            for (long i = 0; i < quantidade; i++) {
+                long indice = i;
+                ids.add(executor.submit(() -> objectMapper.readTree(enviar(requisicao.apply(indice)).body()).get("id").asLong()));
+            }
+            List<Long> criados = new ArrayList<>(quantidade);
+            for (Future<Long> id : ids) {
+                criados.add(id.get());
+            }
+            return Collections.unmodifiableList(criados);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private HttpResponse<String> enviar(HttpRequest requisicao) throws IOException, InterruptedException {
+        HttpResponse<String> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        assertThat(resposta.statusCode())
+                .as("%s %s -> %s", requisicao.method(), requisicao.uri(), resposta.body())
+                .isBetween(200, 299);
+        return resposta;
+    }
+
+    // ---- Corpos ------------------------------------------------------------------------------
+
+    private static Map<String, Object> paciente(long indice) {
+        Map<String, Object> paciente = new LinkedHashMap<>();
+        paciente.put("nome", "Paciente " + indice);
+        paciente.put("cpf", String.format("%03d.%03d.%03d-%02d", indice / 1_000_000 % 1000, indice / 1000 % 1000, indice % 1000, indice % 100));
+        paciente.put("idade", 18 + indice % 70);
+        paciente.put("planoOdontologico", indice % 3 == 0 ? "Plano Ouro" : "Plano Básico");
+        return paciente;
+    }
+
+    private static Map<String, Object> procedimento(Massa massa, ThreadLocalRandom aleatorio) {
+        Map<String, Object> procedimento = new LinkedHashMap<>();
+        procedimento.put("tipoProcedimento", List.of("Limpeza", "Restauração", "Extração", "Canal", "Implante").get(aleatorio.nextInt(5)));
+        procedimento.put("dataProcedimento", LocalDate.now().minusDays(aleatorio.nextInt(365)).toString());
+        procedimento.put("custo", 80.0 + aleatorio.nextInt(3_000));
+        procedimento.put("pacienteId", Massa.sortear(massa.pacientes()));
+        procedimento.put("dentistaId", Massa.sortear(massa.dentistas()));
+        return procedimento;
+    }
+
+    private static Map<String, Object> diagnostico(Massa massa, ThreadLocalRandom aleatorio) {
+        return Map.of(
+                "tipoDiagnostico", List.of("Cárie", "Gengivite", "Periodontite", "Bruxismo").get(aleatorio.nextInt(4)),
+                "dataDiagnostico", LocalDate.now().minusDays(aleatorio.nextInt(365)).toString(),
+                "descricao", "Diagnóstico registrado pela suíte de carga.",
+                "pacienteId", Massa.sortear(massa.pacientes()));
+    }
+
+    private static Map<String, Object> sinistro(Massa massa, ThreadLocalRandom aleatorio) {
+        return Map.of(
+                "tipoSinistro", "Suspeita de Fraude",
+                "descricao", "Sinistro registrado pela suíte de carga.",
+                "dataSinistro", LocalDate.now().minusDays(aleatorio.nextInt(365)).toString(),
+                "procedimentoId", Massa.sortear(massa.procedimentos()),
+                "dentistaId", Massa.sortear(massa.dentistas()),
+                "pacienteId", Massa.sortear(massa.pacientes()),
+                "riscoFraude", aleatorio.nextInt(10) == 0);
+    }
+
+    // ---- HTTP --------------------------------------------------------------------------------
+
+    private URI uri(String caminho) {
+        return URI.create("http://localhost:" + porta + caminho);
+    }
+
+    private HttpRequest get(String caminho) {
+        return HttpRequest.newBuilder(uri(caminho)).header("Accept", "application/json").GET().build();
+    }
+
+    private HttpRequest post(String caminho, Object corpo) {
+        return HttpRequest.newBuilder(uri(caminho))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(corpo)))
+                .build();
+    }
+
+    private HttpRequest put(String caminho, Object corpo) {
+        return HttpRequest.newBuilder(uri(caminho))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json(corpo)))
+                .build();
+    }
+
+    private String json(Object corpo) {
+        try {
+            return objectMapper.writeValueAsString(corpo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
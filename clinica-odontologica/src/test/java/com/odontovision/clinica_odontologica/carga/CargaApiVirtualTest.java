@@ -0,0 +1,23 @@
+package com.odontovision.clinica_odontologica.carga;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * A mesma carga de {@link CargaApiTest} com o perfil {@code virtual}: requisições HTTP e tarefas
+ * assíncronas em threads virtuais.
+ * <p>
+ * Só roda em Java 21 ou superior; execute com {@code mvn -Pjava21,carga test} e compare
+ * {@code target/carga-relatorio-plataforma.txt} com {@code target/carga-relatorio-virtual.txt}.
+ * </p>
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@ActiveProfiles("virtual")
+class CargaApiVirtualTest extends CargaApiTest {
+
+    @Override
+    String modo() {
+        return "virtual";
+    }
+}
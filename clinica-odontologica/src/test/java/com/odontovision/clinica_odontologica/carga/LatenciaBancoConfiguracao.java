@@ -0,0 +1,99 @@
+package com.odontovision.clinica_odontologica.carga;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Simula a latência de rede de um banco remoto na suíte de carga.
+ * <p>
+ * Com {@code -Dcarga.latencia-banco-ms} maior que zero, cada execução de comando JDBC aguarda
+ * esse tempo com a conexão em uso, como aconteceria com o Oracle remoto. Sem isso, o H2 em
+ * memória responde em microssegundos e a comparação entre threads de plataforma e virtuais
+ * não reflete o tempo bloqueado em JDBC.
+ * </p>
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class LatenciaBancoConfiguracao {
+
+    @Bean
+    static BeanPostProcessor latenciaBanco(@Value("${carga.latencia-banco-ms:0}") long latenciaMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (latenciaMs > 0 && bean instanceof DataSource dataSource) {
+                    return new DataSourceComLatencia(dataSource, latenciaMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * {@link DataSource} cujas conexões atrasam cada execução de comando.
+     */
+    static final class DataSourceComLatencia extends DelegatingDataSource {
+
+        private final long latenciaMs;
+
+        DataSourceComLatencia(DataSource alvo, long latenciaMs) {
+            super(alvo);
+            this.latenciaMs = latenciaMs;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return envolver(Connection.class, super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return envolver(Connection.class, super.getConnection(username, password));
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T envolver(Class<T> tipo, T alvo) {
+            return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, argumentos) -> {
+                if (metodo.getName().startsWith("execute")) {
+                    Thread.sleep(latenciaMs);
+                }
+                Object resultado = invocar(metodo, alvo, argumentos);
+                if (resultado instanceof Statement statement && tipo == Connection.class) {
+                    return envolver(interfaceDe(statement), statement);
+                }
+                return resultado;
+            });
+        }
+
+        private static Class<Statement> interfaceDe(Statement statement) {
+            for (Class<?> tipo : new Class<?>[]{CallableStatement.class, PreparedStatement.class}) {
+                if (tipo.isInstance(statement)) {
+                    @SuppressWarnings("unchecked")
+                    Class<Statement> resultado = (Class<Statement>) tipo;
+                    return resultado;
+                }
+            }
+            return Statement.class;
+        }
+
+        private static Object invocar(Method metodo, Object alvo, Object[] argumentos) throws Throwable {
+            try {
+                return metodo.invoke(alvo, argumentos);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.odontovision.clinica_odontologica.carga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latências registradas por um usuário virtual, agrupadas por operação.
+ * <p>
+ * Cada usuário tem a sua instância, sem sincronização; ao final da medição as instâncias
+ * são combinadas com {@link #combinar(List)} para gerar o relatório.
+ * </p>
+ */
+final class Medicoes {
+
+    private final Map<String, Serie> series = new TreeMap<>();
+
+    void registrar(String operacao, long nanos, boolean sucesso) {
+        series.computeIfAbsent(operacao, chave -> new Serie()).registrar(nanos, sucesso);
+    }
+
+    static Medicoes combinar(List<Medicoes> medicoes) {
+        Medicoes total = new Medicoes();
+        for (Medicoes medicao : medicoes) {
+            medicao.series.forEach((operacao, serie) ->
+                    total.series.computeIfAbsent(operacao, chave -> new Serie()).adicionar(serie));
+        }
+        return total;
+    }
+
+    long totalRequisicoes() {
+        return series.values().stream().mapToLong(serie -> serie.quantidade).sum();
+    }
+
+    long totalErros() {
+        return series.values().stream().mapToLong(serie -> serie.erros).sum();
+    }
+
+    /**
+     * Monta o relatório com quantidade, erros, p50 e p99 por operação e a vazão total.
+     *
+     * @param segundos Duração da medição, para o cálculo de requisições por segundo.
+     * @return Relatório em texto tabulado.
+     */
+    String relatorio(double segundos) {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format(Locale.ROOT, "%-36s %9s %7s %10s %10s %10s%n", "operacao", "req", "erros", "p50 (ms)", "p99 (ms)", "req/s"));
+        Serie geral = new Serie();
+        series.forEach((operacao, serie) -> {
+            texto.append(linha(operacao, serie, segundos));
+            geral.adicionar(serie);
+        });
+        texto.append(linha("TOTAL", geral, segundos));
+        return texto.toString();
+    }
+
+    private static String linha(String operacao, Serie serie, double segundos) {
+        long[] ordenadas = serie.ordenadas();
+        return String.format(Locale.ROOT, "%-36s %9d %7d %10.2f %10.2f %10.1f%n",
+                operacao, serie.quantidade, serie.erros,
+                percentil(ordenadas, 0.50) / 1e6, percentil(ordenadas, 0.99) / 1e6,
+                serie.quantidade / segundos);
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicao = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, posicao)];
+    }
+
+    private static final class Serie {
+
+        private final List<long[]> blocos = new ArrayList<>();
+        private long[] atual = new long[1024];
+        private int usadosAtual;
+        private long quantidade;
+        private long erros;
+
+        void registrar(long nanos, boolean sucesso) {
+            if (usadosAtual == atual.length) {
+                blocos.add(atual);
+                atual = new long[atual.length * 2];
+                usadosAtual = 0;
+            }
+            atual[usadosAtual++] = nanos;
+            quantidade++;
+            if (!sucesso) {
+                erros++;
+            }
+        }
+
+        void adicionar(Serie outra) {
+            for (long nanos : outra.ordenadas()) {
+                registrar(nanos, true);
+            }
+            erros += outra.erros;
+        }
+
+        long[] ordenadas() {
+            long[] todas = new long[(int) quantidade];
+            int posicao = 0;
+            for (long[] bloco : blocos) {
+                System.arraycopy(bloco, 0, todas, posicao, bloco.length);
+                posicao += bloco.length;
+            }
+            System.arraycopy(atual, 0, todas, posicao, usadosAtual);
+            Arrays.sort(todas);
+            return todas;
+        }
+    }
+}